@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.cli;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.StringPreparation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The options of the {@link VerifierGenerator} command line.
+ */
+final class Options {
+
+  static final String USAGE = "Usage: scram-cli [options] [input file]\n"
+      + "\n"
+      + "Reads 'username<TAB>password' lines from the input file, or the standard input,\n"
+      + "and writes 'username<TAB>verifier' lines with the verifiers in the format of\n"
+      + "PostgreSQL. A verifier file holds one verifier per user, so the verifiers of each\n"
+      + "mechanism are written to a file of their own.\n"
+      + "\n"
+      + "Options:\n"
+      + "  -m, --mechanism NAME     SCRAM mechanism, may be repeated (default SCRAM-SHA-256)\n"
+      + "  -i, --iterations N       iteration count (default 4096)\n"
+      + "  -s, --salt-length N      salt length in bytes (default 16)\n"
+      + "  -p, --preparation NAME   password preparation: postgresql, saslprep or none\n"
+      + "                           (default postgresql)\n"
+      + "  -t, --threads N          worker threads (default the number of processors)\n"
+      + "  -o, --output FILE        output file, %m is replaced by the mechanism name and is\n"
+      + "                           required by several mechanisms (default the standard\n"
+      + "                           output)\n"
+      + "  -r, --progress SECONDS   progress report interval, 0 to disable (default 5)\n"
+      + "  -h, --help               show this help\n";
+
+  /**
+   * The placeholder of the mechanism name in the output file name.
+   */
+  static final String MECHANISM_PLACEHOLDER = "%m";
+
+  List<ScramMechanism> mechanisms = Collections.singletonList(ScramMechanism.SCRAM_SHA_256);
+  int iterationCount = 4096;
+  int saltLength = 16;
+  StringPreparation stringPreparation = StringPreparation.POSTGRESQL_PREPARATION;
+  int threads = Runtime.getRuntime().availableProcessors();
+  @Nullable
+  Path input;
+  @Nullable
+  String output;
+  int progressSeconds = 5;
+  boolean help;
+
+  private Options() {
+  }
+
+  /**
+   * Parses the arguments of the command line.
+   *
+   * @param args the arguments
+   * @return the options
+   * @throws IllegalArgumentException if an argument is unknown or invalid
+   */
+  static @NotNull Options parse(@NotNull String... args) {
+    final Options options = new Options();
+    final List<ScramMechanism> mechanisms = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      final String arg = args[i];
+      switch (arg) {
+        case "-m":
+        case "--mechanism":
+          final String name = value(args, ++i, arg);
+          final ScramMechanism mechanism = ScramMechanism.byName(name);
+          if (mechanism == null) {
+            throw new IllegalArgumentException("Unsupported mechanism: " + name);
+          }
+          if (!mechanisms.contains(mechanism)) {
+            mechanisms.add(mechanism);
+          }
+          break;
+        case "-i":
+        case "--iterations":
+          options.iterationCount = positive(args, ++i, arg);
+          break;
+        case "-s":
+        case "--salt-length":
+          options.saltLength = positive(args, ++i, arg);
+          break;
+        case "-p":
+        case "--preparation":
+          options.stringPreparation = preparation(value(args, ++i, arg));
+          break;
+        case "-t":
+        case "--threads":
+          options.threads = positive(args, ++i, arg);
+          break;
+        case "-o":
+        case "--output":
+          options.output = value(args, ++i, arg);
+          break;
+        case "-r":
+        case "--progress":
+          options.progressSeconds = integer(args, ++i, arg);
+          if (options.progressSeconds < 0) {
+            throw new IllegalArgumentException("Invalid value of " + arg);
+          }
+          break;
+        case "-h":
+        case "--help":
+          options.help = true;
+          break;
+        default:
+          if (arg.startsWith("-") && !"-".equals(arg)) {
+            throw new IllegalArgumentException("Unknown option: " + arg);
+          }
+          if (options.input != null || i != args.length - 1) {
+            throw new IllegalArgumentException("Only one input file is allowed");
+          }
+          options.input = "-".equals(arg) ? null : Paths.get(arg);
+      }
+    }
+    if (!mechanisms.isEmpty()) {
+      options.mechanisms = Collections.unmodifiableList(mechanisms);
+    }
+    if (options.mechanisms.size() > 1
+        && (options.output == null || !options.output.contains(MECHANISM_PLACEHOLDER))) {
+      // The lines of the mechanisms of a user would replace each other in a verifier file
+      throw new IllegalArgumentException("Several mechanisms need an output file name with "
+          + MECHANISM_PLACEHOLDER + ", a verifier file holds one verifier per user");
+    }
+    return options;
+  }
+
+  /**
+   * Returns the output file of the verifiers of a mechanism.
+   *
+   * @param mechanism the mechanism
+   * @return the output file, or null for the standard output
+   */
+  @Nullable
+  Path output(@NotNull ScramMechanism mechanism) {
+    return output != null
+        ? Paths.get(output.replace(MECHANISM_PLACEHOLDER, mechanism.getName()))
+        : null;
+  }
+
+  private static String value(String[] args, int index, String option) {
+    if (index >= args.length) {
+      throw new IllegalArgumentException("Missing value of " + option);
+    }
+    return args[index];
+  }
+
+  private static int integer(String[] args, int index, String option) {
+    try {
+      return Integer.parseInt(value(args, index, option));
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Invalid value of " + option, ex);
+    }
+  }
+
+  private static int positive(String[] args, int index, String option) {
+    final int value = integer(args, index, option);
+    if (value <= 0) {
+      throw new IllegalArgumentException("Invalid value of " + option);
+    }
+    return value;
+  }
+
+  private static StringPreparation preparation(String name) {
+    switch (name.toLowerCase(Locale.ROOT)) {
+      case "postgresql":
+        return StringPreparation.POSTGRESQL_PREPARATION;
+      case "saslprep":
+        return StringPreparation.SASL_PREPARATION;
+      case "none":
+        return StringPreparation.NO_PREPARATION;
+      default:
+        throw new IllegalArgumentException("Unknown preparation: " + name);
+    }
+  }
+
+}
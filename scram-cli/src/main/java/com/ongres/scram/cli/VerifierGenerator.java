@@ -0,0 +1,515 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.cli;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ongres.scram.common.ScramFunctions;
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.ScramVerifier;
+import com.ongres.scram.common.StringPreparation;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Command line tool that generates the verifiers of credentials in bulk, for password rotations or
+ * raising the iteration counts.
+ *
+ * <p>The credentials are read as {@code username<TAB>password} lines, from a file or the standard
+ * input, and written as {@code username<TAB>verifier} lines, with the verifiers in the format of
+ * PostgreSQL ({@link ScramVerifier#toVerifierString()}), and the usernames escaped as in the text
+ * format of {@code COPY}. The output is in the order of the input. A verifier file holds one
+ * verifier per user, as {@code MappedCredentialStore} serves the last line of a user, so the
+ * verifiers of each mechanism are written to a file of their own, named after the output file
+ * with {@code %m} replaced by the mechanism name.
+ *
+ * <p>The input is read in chunks of a few users, whose salted passwords are computed with
+ * {@link ScramFunctions#saltedPasswords(ScramMechanism, StringPreparation, char[][], byte[][],
+ * int)} by a pool of a thread per processor. The chunks being computed are bounded by a queue of
+ * twice the number of threads, which the reader waits for when it is full, so the memory used
+ * doesn't depend on the size of the input. The throughput, and the progress and ETA of an input
+ * file, are reported to the standard error.
+ *
+ * <pre>{@code
+ * java -jar scram-cli.jar --mechanism SCRAM-SHA-256 --iterations 8192 -o verifiers.tsv users.tsv
+ * java -jar scram-cli.jar -m SCRAM-SHA-1 -m SCRAM-SHA-256 -o verifiers-%m.tsv users.tsv
+ * }</pre>
+ *
+ * @since 3.5
+ */
+public final class VerifierGenerator {
+
+  /**
+   * The users of a chunk, enough for all the SIMD lanes of the batch computation.
+   */
+  static final int CHUNK_SIZE = 16;
+
+  private static final ThreadLocal<SecureRandom> RANDOM =
+      ThreadLocal.withInitial(SecureRandom::new);
+
+  private final Options options;
+  private final PrintStream log;
+  private final AtomicLong users = new AtomicLong();
+  private final AtomicLong skipped = new AtomicLong();
+  private final AtomicLong bytesRead = new AtomicLong();
+  private long inputSize = -1;
+  private long startNanos;
+
+  VerifierGenerator(@NotNull Options options, @NotNull PrintStream log) {
+    this.options = options;
+    this.log = log;
+  }
+
+  /**
+   * Runs the command line.
+   *
+   * @param args the arguments of the command line, see {@code --help}
+   */
+  public static void main(String[] args) {
+    System.exit(run(System.in, System.out, System.err, args));
+  }
+
+  /**
+   * Runs the command line with the given streams.
+   *
+   * @return the exit status, 0 on success, 1 on a failure and 2 on invalid arguments
+   */
+  static int run(@NotNull InputStream in, @NotNull PrintStream out, @NotNull PrintStream err,
+      @NotNull String... args) {
+    final Options options;
+    try {
+      options = Options.parse(args);
+    } catch (IllegalArgumentException ex) {
+      err.println(ex.getMessage());
+      err.print(Options.USAGE);
+      return 2;
+    }
+    if (options.help) {
+      out.print(Options.USAGE);
+      return 0;
+    }
+    final VerifierGenerator generator = new VerifierGenerator(options, err);
+    try (InputStream input = options.input != null ? Files.newInputStream(options.input) : in;
+        Outputs outputs = new Outputs(options, out)) {
+      if (options.input != null) {
+        generator.inputSize = Files.size(options.input);
+      }
+      generator.generate(input, outputs.writers);
+      return 0;
+    } catch (IOException | RuntimeException ex) {
+      err.println("Error: " + ex.getMessage());
+      return 1;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      err.println("Interrupted");
+      return 1;
+    }
+  }
+
+  /**
+   * Reads the credentials and writes their verifiers, with a thread that writes the chunks in the
+   * order they are submitted.
+   *
+   * @param input the credentials
+   * @param outputs the output of the verifiers of each mechanism, in the order of the options
+   */
+  void generate(@NotNull InputStream input, @NotNull Writer @NotNull [] outputs)
+      throws IOException, InterruptedException {
+    final BlockingQueue<Future<Chunk>> queue = new ArrayBlockingQueue<>(2 * options.threads);
+    final ExecutorService workers =
+        Executors.newFixedThreadPool(options.threads, daemon("scram-cli-worker"));
+    final ScheduledExecutorService progress =
+        Executors.newSingleThreadScheduledExecutor(daemon("scram-cli-progress"));
+    final CompletableFuture<Void> writer = new CompletableFuture<>();
+    final Thread writerThread = daemon("scram-cli-writer").newThread(() -> {
+      try {
+        write(queue, outputs);
+        writer.complete(null);
+      } catch (ExecutionException ex) {
+        writer.completeExceptionally(ex.getCause());
+      } catch (Throwable ex) {
+        writer.completeExceptionally(ex);
+      }
+    });
+    startNanos = System.nanoTime();
+    if (options.progressSeconds > 0) {
+      progress.scheduleAtFixedRate(this::report, options.progressSeconds,
+          options.progressSeconds, TimeUnit.SECONDS);
+    }
+    writerThread.start();
+    try (Reader reader = new BufferedReader(new InputStreamReader(counting(input), UTF_8))) {
+      read(reader, queue, workers, writer);
+    } finally {
+      // The end of the input
+      enqueue(CompletableFuture.completedFuture(null), queue, writer);
+      try {
+        writer.get();
+      } catch (ExecutionException ex) {
+        final Throwable cause = ex.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+        throw cause instanceof RuntimeException ? (RuntimeException) cause
+            : new IllegalStateException(cause);
+      } finally {
+        workers.shutdownNow();
+        progress.shutdownNow();
+      }
+    }
+    for (Writer output : outputs) {
+      output.flush();
+    }
+    final double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+    log.println(String.format(Locale.ROOT,
+        "Generated %,d verifiers of %,d users in %.1f s (%,.0f users/s), %,d lines skipped",
+        users.get() * options.mechanisms.size(), users.get(), seconds, users.get() / seconds,
+        skipped.get()));
+  }
+
+  private void read(Reader reader, BlockingQueue<Future<Chunk>> queue, ExecutorService workers,
+      CompletableFuture<Void> writer) throws IOException, InterruptedException {
+    final LineReader lines = new LineReader(reader);
+    Chunk chunk = new Chunk(1);
+    while (lines.next()) {
+      final int tab = lines.indexOf('\t');
+      if (tab <= 0 || tab == lines.length - 1) {
+        // The line is not printed, it may hold a password
+        log.println("Skipped line " + lines.number + ": expected 'username<TAB>password'");
+        skipped.incrementAndGet();
+        lines.wipe();
+        continue;
+      }
+      chunk.add(lines.substring(0, tab), lines.chars(tab + 1), lines.number);
+      lines.wipe();
+      if (chunk.size == CHUNK_SIZE) {
+        if (!enqueue(workers.submit(chunk), queue, writer)) {
+          return;
+        }
+        chunk = new Chunk(lines.number + 1);
+      }
+    }
+    if (chunk.size > 0) {
+      enqueue(workers.submit(chunk), queue, writer);
+    }
+  }
+
+  /**
+   * Waits for a free slot in the queue, unless the writer failed.
+   *
+   * @return false if the writer failed
+   */
+  private static boolean enqueue(Future<Chunk> future, BlockingQueue<Future<Chunk>> queue,
+      CompletableFuture<Void> writer) throws InterruptedException {
+    while (!queue.offer(future, 100, TimeUnit.MILLISECONDS)) {
+      if (writer.isDone()) {
+        future.cancel(true);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void write(BlockingQueue<Future<Chunk>> queue, Writer[] outputs)
+      throws IOException, InterruptedException, ExecutionException {
+    while (true) {
+      final Chunk chunk = queue.take().get();
+      if (chunk == null) {
+        return;
+      }
+      for (int m = 0; m < outputs.length; m++) {
+        outputs[m].write(chunk.output[m]);
+      }
+      users.addAndGet(chunk.size);
+    }
+  }
+
+  private void report() {
+    final long done = users.get();
+    final double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+    final StringBuilder report = new StringBuilder(128).append(String.format(Locale.ROOT,
+        "%,d users, %,.0f users/s, %,.0f verifiers/s", done, done / seconds,
+        done * options.mechanisms.size() / seconds));
+    final long read = bytesRead.get();
+    if (inputSize > 0 && read > 0) {
+      final double fraction = Math.min(1.0, (double) read / inputSize);
+      final long eta = (long) (seconds * (1 - fraction) / fraction);
+      report.append(String.format(Locale.ROOT, ", %.1f%%, ETA %d:%02d:%02d", fraction * 100,
+          eta / 3600, eta / 60 % 60, eta % 60));
+    }
+    log.println(report);
+  }
+
+  /**
+   * Appends a username escaped as in the text format of {@code COPY}.
+   */
+  static StringBuilder appendEscaped(StringBuilder builder, String username) {
+    for (int i = 0; i < username.length(); i++) {
+      final char c = username.charAt(i);
+      switch (c) {
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\t':
+          builder.append("\\t");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\r':
+          builder.append("\\r");
+          break;
+        default:
+          builder.append(c);
+      }
+    }
+    return builder;
+  }
+
+  /**
+   * The credentials of a few users, whose verifiers are computed by a worker.
+   */
+  private final class Chunk implements Callable<Chunk> {
+    private final String[] usernames = new String[CHUNK_SIZE];
+    private final char[][] passwords = new char[CHUNK_SIZE][];
+    private final long firstLine;
+    private long lastLine;
+    private int size;
+    private String[] output;
+
+    Chunk(long firstLine) {
+      this.firstLine = firstLine;
+    }
+
+    void add(String username, char[] password, long line) {
+      usernames[size] = username;
+      passwords[size] = password;
+      lastLine = line;
+      size++;
+    }
+
+    @Override
+    public Chunk call() {
+      final char[][] chunkPasswords = Arrays.copyOf(passwords, size);
+      final int mechanisms = options.mechanisms.size();
+      final String[] verifiers = new String[size];
+      this.output = new String[mechanisms];
+      try {
+        for (int m = 0; m < mechanisms; m++) {
+          final ScramMechanism mechanism = options.mechanisms.get(m);
+          final byte[][] salts = new byte[size][];
+          for (int i = 0; i < size; i++) {
+            salts[i] = ScramFunctions.salt(options.saltLength, RANDOM.get());
+          }
+          final byte[][] saltedPasswords = ScramFunctions.saltedPasswords(mechanism,
+              options.stringPreparation, chunkPasswords, salts, options.iterationCount);
+          for (int i = 0; i < size; i++) {
+            final byte[] clientKey = ScramFunctions.clientKey(mechanism, saltedPasswords[i]);
+            verifiers[i] = ScramVerifier.of(mechanism, salts[i],
+                options.iterationCount, ScramFunctions.storedKey(mechanism, clientKey),
+                ScramFunctions.serverKey(mechanism, saltedPasswords[i])).toVerifierString();
+            Arrays.fill(clientKey, (byte) 0);
+            Arrays.fill(saltedPasswords[i], (byte) 0);
+          }
+          output[m] = lines(verifiers);
+        }
+      } catch (IllegalArgumentException ex) {
+        // The cause is not kept, it may hold a part of the password
+        throw new IllegalArgumentException(
+            "Invalid password of a user of the lines " + firstLine + " to " + lastLine);
+      } finally {
+        for (char[] password : chunkPasswords) {
+          Arrays.fill(password, '\0');
+        }
+      }
+      return this;
+    }
+
+    private String lines(String[] verifiers) {
+      final StringBuilder lines = new StringBuilder(size * 192);
+      for (int i = 0; i < size; i++) {
+        appendEscaped(lines, usernames[i]).append('\t').append(verifiers[i]).append('\n');
+      }
+      return lines.toString();
+    }
+  }
+
+  /**
+   * The output of the verifiers of each mechanism, the standard output unless there is an output
+   * file.
+   */
+  private static final class Outputs implements Closeable {
+    final Writer[] writers;
+
+    Outputs(Options options, PrintStream out) throws IOException {
+      writers = new Writer[options.mechanisms.size()];
+      try {
+        for (int m = 0; m < writers.length; m++) {
+          final Path output = options.output(options.mechanisms.get(m));
+          writers[m] = output != null
+              ? Files.newBufferedWriter(output, UTF_8)
+              : new BufferedWriter(new OutputStreamWriter(nonClosing(out), UTF_8));
+        }
+      } catch (IOException ex) {
+        close();
+        throw ex;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      IOException failure = null;
+      for (Writer writer : writers) {
+        if (writer != null) {
+          try {
+            writer.close();
+          } catch (IOException ex) {
+            if (failure == null) {
+              failure = ex;
+            } else {
+              failure.addSuppressed(ex);
+            }
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  /**
+   * Reads the lines into a char array that is wiped, instead of a String, as they hold passwords.
+   */
+  private static final class LineReader {
+    private final Reader reader;
+    private char[] line = new char[256];
+    int length;
+    long number;
+
+    LineReader(Reader reader) {
+      this.reader = reader;
+    }
+
+    boolean next() throws IOException {
+      length = 0;
+      int c;
+      while ((c = reader.read()) != -1 && c != '\n') {
+        if (length == line.length) {
+          final char[] grown = Arrays.copyOf(line, length * 2);
+          Arrays.fill(line, '\0');
+          line = grown;
+        }
+        line[length++] = (char) c;
+      }
+      if (c == -1 && length == 0) {
+        return false;
+      }
+      if (length > 0 && line[length - 1] == '\r') {
+        length--;
+      }
+      number++;
+      return true;
+    }
+
+    int indexOf(char c) {
+      for (int i = 0; i < length; i++) {
+        if (line[i] == c) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    String substring(int from, int to) {
+      return new String(line, from, to - from);
+    }
+
+    char[] chars(int from) {
+      return Arrays.copyOfRange(line, from, length);
+    }
+
+    void wipe() {
+      Arrays.fill(line, 0, Math.min(line.length, length + 1), '\0');
+    }
+  }
+
+  private InputStream counting(InputStream input) {
+    return new FilterInputStream(input) {
+      @Override
+      public int read() throws IOException {
+        final int b = super.read();
+        if (b != -1) {
+          bytesRead.incrementAndGet();
+        }
+        return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        final int n = super.read(b, off, len);
+        if (n > 0) {
+          bytesRead.addAndGet(n);
+        }
+        return n;
+      }
+    };
+  }
+
+  private static OutputStream nonClosing(OutputStream out) {
+    return new FilterOutputStream(out) {
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+      }
+
+      @Override
+      public void close() throws IOException {
+        flush();
+      }
+    };
+  }
+
+  private static ThreadFactory daemon(String name) {
+    final AtomicInteger count = new AtomicInteger();
+    return runnable -> {
+      final Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+}
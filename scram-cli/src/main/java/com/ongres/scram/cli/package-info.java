@@ -0,0 +1,11 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+/**
+ * Command line tools of Salted Challenge Response Authentication Mechanism (SCRAM), to provision
+ * the verifiers of the credentials in bulk.
+ */
+
+package com.ongres.scram.cli;
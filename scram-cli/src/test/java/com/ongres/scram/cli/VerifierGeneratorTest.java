@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.cli;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import com.ongres.scram.client.ScramClient;
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.ScramVerifier;
+import com.ongres.scram.common.StringPreparation;
+import com.ongres.scram.common.exception.ScramException;
+import com.ongres.scram.common.exception.ScramParseException;
+import com.ongres.scram.server.MappedCredentialStore;
+import com.ongres.scram.server.ScramServer;
+import com.ongres.scram.server.ScramServerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class VerifierGeneratorTest {
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+  private int run(String input, String... args) {
+    return VerifierGenerator.run(new ByteArrayInputStream(input.getBytes(UTF_8)),
+        new PrintStream(out, true), new PrintStream(err, true), args);
+  }
+
+  private List<String> output() {
+    return Arrays.asList(new String(out.toByteArray(), UTF_8).split("\n"));
+  }
+
+  private static void assertVerifier(ScramMechanism mechanism, String password, String line,
+      String username) throws ScramParseException {
+    String[] fields = line.split("\t");
+    assertEquals(username, fields[0]);
+    ScramVerifier verifier = ScramVerifier.parseFrom(fields[1]);
+    assertTrue(verifier.isValidFor(mechanism));
+    ScramVerifier expected = ScramVerifier.fromPassword(mechanism,
+        StringPreparation.POSTGRESQL_PREPARATION, password.toCharArray(), verifier.getSalt(),
+        verifier.getIterationCount());
+    assertEquals(expected.toVerifierString(), verifier.toVerifierString());
+  }
+
+  @Test
+  void generatesInOrder() throws ScramParseException {
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      input.append("user").append(i).append("\tpassword").append(i).append('\n');
+    }
+    assertEquals(0, run(input.toString(), "-i", "16", "-t", "3", "-r", "0"));
+
+    List<String> lines = output();
+    assertEquals(100, lines.size());
+    for (int i = 0; i < 100; i++) {
+      assertVerifier(ScramMechanism.SCRAM_SHA_256, "password" + i, lines.get(i), "user" + i);
+      assertTrue(lines.get(i).contains("$16:"));
+    }
+    assertTrue(new String(err.toByteArray(), UTF_8)
+        .contains("Generated 100 verifiers of 100 users"));
+  }
+
+  @Test
+  void severalMechanisms(@TempDir Path dir) throws Exception {
+    assertEquals(0, run("user\tpencil\r\nother\\name\ttab\tin password",
+        "--mechanism", "SCRAM-SHA-1", "--mechanism", "SCRAM-SHA-256", "--iterations", "8",
+        "--salt-length", "24", "--progress", "0", "-o", dir.resolve("%m.tsv").toString()));
+
+    // A file for each mechanism
+    List<String> sha1 = Files.readAllLines(dir.resolve("SCRAM-SHA-1.tsv"), UTF_8);
+    List<String> sha256 = Files.readAllLines(dir.resolve("SCRAM-SHA-256.tsv"), UTF_8);
+    assertEquals(2, sha1.size());
+    assertEquals(2, sha256.size());
+    assertVerifier(ScramMechanism.SCRAM_SHA_1, "pencil", sha1.get(0), "user");
+    assertVerifier(ScramMechanism.SCRAM_SHA_1, "tab\tin password", sha1.get(1), "other\\\\name");
+    assertVerifier(ScramMechanism.SCRAM_SHA_256, "pencil", sha256.get(0), "user");
+    assertVerifier(ScramMechanism.SCRAM_SHA_256, "tab\tin password", sha256.get(1),
+        "other\\\\name");
+    assertEquals(24, ScramVerifier.parseFrom(sha256.get(0).split("\t")[1]).getSalt().length);
+    // Random salts
+    assertNotEquals(sha1.get(0).split("\t")[1].split("\\$")[1],
+        sha256.get(0).split("\t")[1].split("\\$")[1]);
+    assertTrue(new String(err.toByteArray(), UTF_8)
+        .contains("Generated 4 verifiers of 2 users"));
+  }
+
+  @Test
+  void severalMechanismsNeedOutputFiles() {
+    // Their lines would replace each other in a verifier file
+    assertEquals(2, run("user\tpencil\n", "-m", "SCRAM-SHA-1", "-m", "SCRAM-SHA-256"));
+    assertEquals(2, run("user\tpencil\n", "-m", "SCRAM-SHA-1", "-m", "SCRAM-SHA-256",
+        "-o", "verifiers.tsv"));
+    assertEquals(0, out.size());
+    assertTrue(new String(err.toByteArray(), UTF_8)
+        .contains("Several mechanisms need an output file name with %m"));
+  }
+
+  @Test
+  void authenticatesWithGeneratedVerifiers(@TempDir Path dir) throws Exception {
+    assertEquals(0, run("user\tpencil\nother\\name\tpen\n", "-m", "SCRAM-SHA-1",
+        "-m", "SCRAM-SHA-256", "-i", "16", "-r", "0", "-o", dir.resolve("%m.tsv").toString()));
+
+    for (ScramMechanism mechanism : Arrays.asList(ScramMechanism.SCRAM_SHA_1,
+        ScramMechanism.SCRAM_SHA_256)) {
+      MappedCredentialStore store =
+          MappedCredentialStore.open(dir.resolve(mechanism.getName() + ".tsv"));
+      assertEquals(2, store.size());
+      ScramServerFactory factory = ScramServer.builder()
+          .scramMechanism(mechanism)
+          .credentialStore(store)
+          .buildFactory();
+      assertTrue(authenticate(factory, "user", "pencil"), mechanism.getName());
+      assertTrue(authenticate(factory, "other\\name", "pen"), mechanism.getName());
+      assertFalse(authenticate(factory, "user", "pen"), mechanism.getName());
+    }
+  }
+
+  private static boolean authenticate(ScramServerFactory factory, String username,
+      String password) throws ScramException {
+    ScramClient client = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList(factory.getScramMechanism().getName()))
+        .username(username)
+        .password(password.toCharArray())
+        .stringPreparation(StringPreparation.POSTGRESQL_PREPARATION)
+        .build();
+    ScramServer server = factory.newServer();
+    client.serverFirstMessage(
+        server.clientFirstMessage(client.clientFirstMessage().toString()).toString());
+    server.clientFinalMessage(client.clientFinalMessage().toString());
+    return server.isAuthenticated();
+  }
+
+  @Test
+  void skipsInvalidLines() {
+    assertEquals(0, run("no password\n\nuser\t\n\tpassword\nuser\tpencil\n", "-i", "8", "-r", "0"));
+    assertEquals(1, output().size());
+    String log = new String(err.toByteArray(), UTF_8);
+    assertTrue(log.contains("Skipped line 1"));
+    assertTrue(log.contains("Skipped line 4"));
+    assertTrue(log.contains("4 lines skipped"));
+  }
+
+  @Test
+  void fileInputAndOutput(@TempDir Path dir) throws Exception {
+    Path input = dir.resolve("users.tsv");
+    Path output = dir.resolve("verifiers.tsv");
+    Files.write(input, "user\tpencil\n".getBytes(UTF_8));
+    assertEquals(0, run("", "-i", "8", "-o", output.toString(), input.toString()));
+    List<String> lines = Files.readAllLines(output, UTF_8);
+    assertEquals(1, lines.size());
+    assertVerifier(ScramMechanism.SCRAM_SHA_256, "pencil", lines.get(0), "user");
+    assertEquals(0, out.size());
+
+    assertEquals(1, run("", dir.resolve("missing").toString()));
+  }
+
+  @Test
+  void invalidPassword() {
+    assertEquals(1, run("user\tpass\u0007word\n", "-i", "8", "-p", "saslprep", "-r", "0"));
+    String log = new String(err.toByteArray(), UTF_8);
+    assertTrue(log.contains("Invalid password of a user of the lines 1 to 1"));
+    assertFalse(log.contains("pass\u0007word"));
+  }
+
+  @Test
+  void options() {
+    assertEquals(0, run("", "--help"));
+    assertTrue(new String(out.toByteArray(), UTF_8).startsWith("Usage:"));
+    assertEquals(2, run("", "--mechanism", "SCRAM-MD5"));
+    assertEquals(2, run("", "--iterations", "0"));
+    assertEquals(2, run("", "--threads"));
+    assertEquals(2, run("", "--unknown"));
+    assertEquals(2, run("", "a.tsv", "b.tsv"));
+
+    Options options = Options.parse("-m", "SCRAM-SHA-512", "-p", "none", "-t", "2", "-");
+    assertEquals(Arrays.asList(ScramMechanism.SCRAM_SHA_512), options.mechanisms);
+    assertEquals(StringPreparation.NO_PREPARATION, options.stringPreparation);
+    assertEquals(2, options.threads);
+    assertNull(options.input);
+    assertThrows(IllegalArgumentException.class, () -> Options.parse("-p", "other"));
+  }
+
+  @Test
+  void escapesUsernames() {
+    assertArrayEquals("a\\\\b\\tc\\nd\\re".toCharArray(),
+        VerifierGenerator.appendEscaped(new StringBuilder(), "a\\b\tc\nd\re").toString()
+            .toCharArray());
+  }
+
+}
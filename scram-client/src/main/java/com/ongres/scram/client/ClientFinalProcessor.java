@@ -5,18 +5,22 @@
 
 package com.ongres.scram.client;
 
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
 import static com.ongres.scram.common.util.Preconditions.checkNotEmpty;
 import static com.ongres.scram.common.util.Preconditions.checkNotNull;
 
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.function.BiConsumer;
 
+import com.ongres.scram.common.AuthMessage;
 import com.ongres.scram.common.ClientFinalMessage;
 import com.ongres.scram.common.ClientFirstMessage;
 import com.ongres.scram.common.ScramFunctions;
 import com.ongres.scram.common.ScramMechanism;
 import com.ongres.scram.common.ServerFinalMessage;
 import com.ongres.scram.common.ServerFirstMessage;
-import com.ongres.scram.common.StringPreparation;
 import com.ongres.scram.common.exception.ScramInvalidServerSignatureException;
 import com.ongres.scram.common.exception.ScramParseException;
 import com.ongres.scram.common.exception.ScramServerErrorException;
@@ -39,7 +43,9 @@ final class ClientFinalProcessor {
   private final ClientFirstMessage clientFirstMessage;
 
   private final ServerFirstMessage serverFirstMessage;
-  private String authMessage;
+  private AuthMessage authMessage;
+  private byte[] serverSignature;
+  private BiConsumer<byte[], byte[]> verifiedKeysListener;
 
   /**
    * Primary constructor utilizing pre-computed cryptographic keys.
@@ -90,43 +96,24 @@ final class ClientFinalProcessor {
   }
 
   /**
-   * Constructs a processor from raw credentials, performing PBKDF2 salt derivation.
+   * Generates and caches the AuthMessage required for signing logic if not already present.
    *
-   * @param scramMechanism The SCRAM mechanism.
-   * @param stringPreparation The SASLprep normalization configuration rules.
-   * @param password The cleartext password array.
-   * @param salt The salt bytes received from the server.
-   * @param clientFirstMessage The client-first-message contextual state.
-   * @param serverFirstMessage The server-first-message contextual state.
+   * @param cbindData The channel binding payload data bytes.
    */
-  ClientFinalProcessor(ScramMechanism scramMechanism, StringPreparation stringPreparation,
-      char[] password, byte[] salt, ClientFirstMessage clientFirstMessage,
-      ServerFirstMessage serverFirstMessage) {
-    this.scramMechanism = scramMechanism;
-    this.clientFirstMessage = clientFirstMessage;
-    this.serverFirstMessage = serverFirstMessage;
-
-    byte[] saltedPassword = ScramFunctions.saltedPassword(
-        scramMechanism, stringPreparation, password, salt, serverFirstMessage.getIterationCount());
-    try {
-      this.clientKey = ScramFunctions.clientKey(scramMechanism, saltedPassword);
-      this.serverKey = ScramFunctions.serverKey(scramMechanism, saltedPassword);
-      this.storedKey = ScramFunctions.storedKey(scramMechanism, this.clientKey);
-    } finally {
-      // Wipe saltedPassword immediately
-      Arrays.fill(saltedPassword, (byte) 0);
+  private void generateAndCacheAuthMessage(byte[] cbindData) {
+    if (null == this.authMessage) {
+      this.authMessage = AuthMessage.of(clientFirstMessage, serverFirstMessage, cbindData);
     }
   }
 
   /**
-   * Generates and caches the authMessage metadata string required for signing logic if not already present.
+   * Sets the action that receives the ClientKey and ServerKey once the server's signature is
+   * verified, before they are wiped. The arrays must not be retained by the listener.
    *
-   * @param cbindData The channel binding payload data bytes.
+   * @param listener the action receiving the ClientKey and the ServerKey
    */
-  private void generateAndCacheAuthMessage(byte[] cbindData) {
-    if (null == this.authMessage) {
-      this.authMessage = ScramFunctions.authMessage(clientFirstMessage, serverFirstMessage, cbindData);
-    }
+  void onVerifiedKeys(@NotNull BiConsumer<byte[], byte[]> listener) {
+    this.verifiedKeysListener = listener;
   }
 
   /**
@@ -140,13 +127,15 @@ final class ClientFinalProcessor {
   ClientFinalMessage clientFinalMessage(byte @Nullable [] cbindData) {
     generateAndCacheAuthMessage(cbindData);
 
+    // Both signatures in one pass, the server signature is kept to verify the server-final-message
+    final byte[][] signatures =
+        ScramFunctions.signatures(scramMechanism, storedKey, serverKey, authMessage);
+    this.serverSignature = signatures[1];
     return new ClientFinalMessage(
         clientFirstMessage.getGs2Header(),
         cbindData,
         serverFirstMessage.getNonce(),
-        ScramFunctions.clientProof(
-            clientKey,
-            ScramFunctions.clientSignature(scramMechanism, storedKey, authMessage)));
+        ScramFunctions.clientProof(clientKey, signatures[0]));
   }
 
   /**
@@ -164,21 +153,72 @@ final class ClientFinalProcessor {
       throws ScramParseException, ScramServerErrorException, ScramInvalidServerSignatureException {
     checkNotEmpty(serverFinalMessage, "serverFinalMessage");
 
+    final ServerFinalMessage message;
+    try {
+      message = ServerFinalMessage.parseFrom(serverFinalMessage);
+    } catch (ScramParseException | RuntimeException ex) {
+      wipe();
+      throw ex;
+    }
+    return receiveServerFinalMessage(message);
+  }
+
+  /**
+   * Receive and process the server-final-message, from the bytes received. The server's signature
+   * is explicitly verified.
+   *
+   * @param serverFinalMessage The buffer with the received server-final-message.
+   * @return The parsed and validated ServerFinalMessage instance representation.
+   * @throws ScramParseException If the bytes are not a valid server-final-message.
+   * @throws ScramServerErrorException If the server-final-message contains an error attribute message.
+   * @throws ScramInvalidServerSignatureException If the verified computed signature fails validation matches.
+   * @throws IllegalArgumentException If the buffer is null or has no remaining bytes.
+   */
+  @NotNull
+  ServerFinalMessage receiveServerFinalMessage(@NotNull ByteBuffer serverFinalMessage)
+      throws ScramParseException, ScramServerErrorException, ScramInvalidServerSignatureException {
+    checkNotNull(serverFinalMessage, "serverFinalMessage");
+    checkArgument(serverFinalMessage.hasRemaining(), "serverFinalMessage");
+
+    final ServerFinalMessage message;
+    try {
+      message = ServerFinalMessage.parseFrom(serverFinalMessage);
+    } catch (ScramParseException | RuntimeException ex) {
+      wipe();
+      throw ex;
+    }
+    return receiveServerFinalMessage(message);
+  }
+
+  private ServerFinalMessage receiveServerFinalMessage(ServerFinalMessage message)
+      throws ScramServerErrorException, ScramInvalidServerSignatureException {
     try {
-      ServerFinalMessage message = ServerFinalMessage.parseFrom(serverFinalMessage);
       if (message.isError()) {
         throw new ScramServerErrorException(message.getServerError());
       }
-      if (!ScramFunctions.verifyServerSignature(
-          scramMechanism, serverKey, authMessage, message.getVerifier())) {
+      if (serverSignature == null
+          || !MessageDigest.isEqual(serverSignature, message.getVerifier())) {
         throw new ScramInvalidServerSignatureException("Invalid SCRAM server signature");
       }
+      if (verifiedKeysListener != null) {
+        verifiedKeysListener.accept(clientKey, serverKey);
+      }
       return message;
     } finally {
       // Wipe the sensitive data, even if an exception was thrown above
-      Arrays.fill(clientKey, (byte) 0);
-      Arrays.fill(storedKey, (byte) 0);
-      Arrays.fill(serverKey, (byte) 0);
+      wipe();
+    }
+  }
+
+  /**
+   * Wipes the keys held by this processor, after which it can't be used anymore.
+   */
+  void wipe() {
+    Arrays.fill(clientKey, (byte) 0);
+    Arrays.fill(storedKey, (byte) 0);
+    Arrays.fill(serverKey, (byte) 0);
+    if (serverSignature != null) {
+      Arrays.fill(serverSignature, (byte) 0);
     }
   }
 
@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.client;
+
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+import static com.ongres.scram.common.util.Preconditions.gt0;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.StringPreparation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A bounded cache of the ClientKey/ServerKey derived from a password, to skip the PBKDF2
+ * computation of the salted password when a client authenticates again against a server that
+ * sends the same salt and iteration count, like a connection pool reconnecting to a database.
+ *
+ * <p>The keys are cached by mechanism, normalized username, salt, iteration count and a
+ * fingerprint of the normalized password, which is a HMAC keyed with a random secret of the cache
+ * instance, so the password itself is never stored. Only keys verified by a successful
+ * {@code server-final-message} are added, and the keys of an entry that fails the authentication
+ * are evicted.
+ *
+ * <p>The cache holds up to a maximum number of entries, evicting the least recently used one when
+ * full, and each entry expires after a time to live since it was added. The keys are stored in
+ * arrays owned by the cache, that are zeroed when the entry is evicted, expires, is replaced or the
+ * cache is cleared.
+ *
+ * <p>Example of usage:
+ *
+ * <pre>{@code
+ * // Shared by all the connections of the pool
+ * ClientKeyCache cache = ClientKeyCache.create(1024, Duration.ofMinutes(30));
+ *
+ * ScramClient scramClient = ScramClient.builder()
+ *     .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256"))
+ *     .username("user")
+ *     .password("pencil".toCharArray())
+ *     .clientKeyCache(cache)
+ *     .build();
+ * }</pre>
+ *
+ * @apiNote This class is thread-safe. Caching the keys keeps password-equivalent secrets in
+ *          memory for the time to live, so the cache is opt-in and should be sized for the number
+ *          of distinct credentials actually in use.
+ * @since 3.5
+ */
+public final class ClientKeyCache {
+
+  private final int maximumSize;
+  private final long timeToLiveNanos;
+  private final LongSupplier ticker;
+  private final byte[] fingerprintSecret;
+  private final LinkedHashMap<Key, Entry> entries;
+  private final @Nullable ClientKeyCacheFile file;
+
+  ClientKeyCache(int maximumSize, @NotNull Duration timeToLive, @NotNull LongSupplier ticker,
+      @Nullable ClientKeyCacheFile file) {
+    this.maximumSize = gt0(maximumSize, "maximumSize");
+    checkNotNull(timeToLive, "timeToLive");
+    checkArgument(!timeToLive.isNegative() && !timeToLive.isZero(), "timeToLive",
+        "must be positive");
+    this.timeToLiveNanos = toNanos(timeToLive);
+    this.ticker = checkNotNull(ticker, "ticker");
+    this.file = file;
+    this.fingerprintSecret = file != null
+        ? file.fingerprintSecret()
+        : KeyDerivation.newFingerprintSecret();
+    // Access ordered, so the eldest entry is the least recently used
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Creates a cache of ClientKey/ServerKey.
+   *
+   * @param maximumSize the maximum number of entries
+   * @param timeToLive the time an entry is kept since it was added
+   * @return a new empty cache
+   * @throws IllegalArgumentException if the maximum size or the time to live are not positive
+   */
+  public static @NotNull ClientKeyCache create(int maximumSize, @NotNull Duration timeToLive) {
+    return new ClientKeyCache(maximumSize, timeToLive, System::nanoTime, null);
+  }
+
+  /**
+   * Creates a cache of ClientKey/ServerKey backed by a file, so the entries survive a restart.
+   *
+   * <p>The entries not found in memory are read from the file, and every entry added to the cache
+   * is also written to it, with the same time to live. The file is not closed by the cache.
+   *
+   * @param maximumSize the maximum number of entries kept in memory
+   * @param timeToLive the time an entry is kept since it was added
+   * @param file the file that persists the entries
+   * @return a new cache, initially holding the entries of the file
+   * @throws IllegalArgumentException if the maximum size or the time to live are not positive, or
+   *           the file is null
+   */
+  public static @NotNull ClientKeyCache create(int maximumSize, @NotNull Duration timeToLive,
+      @NotNull ClientKeyCacheFile file) {
+    return new ClientKeyCache(maximumSize, timeToLive, System::nanoTime,
+        checkNotNull(file, "file"));
+  }
+
+  /**
+   * Returns the number of entries in memory, including the expired ones not evicted yet.
+   *
+   * @return the number of entries
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Evicts all the entries, zeroing their keys, also from the file if the cache is backed by one.
+   */
+  public synchronized void clear() {
+    for (Entry entry : entries.values()) {
+      entry.wipe();
+    }
+    entries.clear();
+    if (file != null) {
+      file.clear();
+    }
+  }
+
+  /**
+   * Creates the key of an entry.
+   *
+   * @param scramMechanism the mechanism of the authentication
+   * @param stringPreparation the preparation of the username and the password
+   * @param username the username
+   * @param password the password, which is not modified
+   * @param salt the salt sent by the server
+   * @param iterationCount the iteration count sent by the server
+   * @return the key of the entry
+   */
+  @NotNull
+  Key key(@NotNull ScramMechanism scramMechanism, @NotNull StringPreparation stringPreparation,
+      @NotNull String username, char @NotNull [] password, byte @NotNull [] salt,
+      int iterationCount) {
+    return new Key(scramMechanism, normalizeUsername(stringPreparation, username), salt.clone(),
+        iterationCount, KeyDerivation.fingerprint(fingerprintSecret, stringPreparation, password));
+  }
+
+  /**
+   * Returns copies of the cached ClientKey and ServerKey, evicting the entry if it has expired.
+   *
+   * @param key the key of the entry
+   * @return a two elements array with the ClientKey and the ServerKey, or null if not cached
+   */
+  byte @Nullable [] @Nullable [] get(@NotNull Key key) {
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null && entry.isExpired(ticker.getAsLong())) {
+        entries.remove(key);
+        entry.wipe();
+        entry = null;
+      }
+      if (entry == null) {
+        entry = load(key);
+      }
+      if (entry == null) {
+        return null;
+      }
+      return new byte[][] {entry.clientKey.clone(), entry.serverKey.clone()};
+    }
+  }
+
+  /**
+   * Reads an entry from the file into memory, keeping the remaining time to live of the file.
+   */
+  private @Nullable Entry load(Key key) {
+    if (file == null) {
+      return null;
+    }
+    final ClientKeyCacheFile.StoredKeys stored = file.get(key);
+    if (stored == null) {
+      return null;
+    }
+    final long timeToLive = Math.min(timeToLiveNanos,
+        TimeUnit.MILLISECONDS.toNanos(stored.timeToLiveMillis));
+    final Entry entry = new Entry(stored.clientKey, stored.serverKey);
+    add(key, entry, timeToLive);
+    return entry;
+  }
+
+  /**
+   * Adds copies of the keys, replacing the entry of the same key and evicting the least recently
+   * used one when full.
+   *
+   * @param key the key of the entry
+   * @param clientKey the ClientKey
+   * @param serverKey the ServerKey
+   */
+  void put(@NotNull Key key, byte @NotNull [] clientKey, byte @NotNull [] serverKey) {
+    final Entry entry = new Entry(clientKey.clone(), serverKey.clone());
+    synchronized (this) {
+      add(key, entry, timeToLiveNanos);
+      // Entries are only put after a PBKDF2 computation, so a full scan is negligible here
+      final long now = ticker.getAsLong();
+      Iterator<Entry> iterator = entries.values().iterator();
+      while (iterator.hasNext()) {
+        Entry current = iterator.next();
+        if (current.isExpired(now)) {
+          iterator.remove();
+          current.wipe();
+        }
+      }
+      if (file != null) {
+        file.put(key, clientKey, serverKey, TimeUnit.NANOSECONDS.toMillis(timeToLiveNanos));
+      }
+    }
+  }
+
+  /**
+   * Adds an entry, evicting the least recently used ones at the head of the map while full. It's
+   * also called on a hit of the file, so it doesn't scan the entries.
+   */
+  private void add(Key key, Entry entry, long timeToLive) {
+    entry.expiresAt = ticker.getAsLong() + timeToLive;
+    Entry previous = entries.put(key, entry);
+    if (previous != null) {
+      previous.wipe();
+    }
+    Iterator<Entry> eldest = entries.values().iterator();
+    while (entries.size() > maximumSize) {
+      eldest.next().wipe();
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Evicts an entry, zeroing its keys.
+   *
+   * @param key the key of the entry
+   */
+  synchronized void invalidate(@NotNull Key key) {
+    Entry entry = entries.remove(key);
+    if (entry != null) {
+      entry.wipe();
+    }
+    if (file != null) {
+      file.remove(key);
+    }
+  }
+
+  private static String normalizeUsername(StringPreparation stringPreparation, String username) {
+    try {
+      return new String(stringPreparation.normalize(username.toCharArray()));
+    } catch (IllegalArgumentException ex) {
+      // The username is sent as is, it's only normalized to share the entries
+      return username;
+    }
+  }
+
+  private static long toNanos(Duration duration) {
+    try {
+      return duration.toNanos();
+    } catch (ArithmeticException ex) {
+      return Long.MAX_VALUE / 2;
+    }
+  }
+
+  /**
+   * The key of a cache entry.
+   */
+  static final class Key {
+    private final ScramMechanism scramMechanism;
+    private final String username;
+    private final byte[] salt;
+    private final int iterationCount;
+    private final byte[] passwordFingerprint;
+
+    private Key(ScramMechanism scramMechanism, String username, byte[] salt, int iterationCount,
+        byte[] passwordFingerprint) {
+      this.scramMechanism = scramMechanism;
+      this.username = username;
+      this.salt = salt;
+      this.iterationCount = iterationCount;
+      this.passwordFingerprint = passwordFingerprint;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return scramMechanism == other.scramMechanism
+          && iterationCount == other.iterationCount
+          && username.equals(other.username)
+          && Arrays.equals(salt, other.salt)
+          && MessageDigest.isEqual(passwordFingerprint, other.passwordFingerprint);
+    }
+
+    /**
+     * Returns a canonical encoding of the key, used to identify its entry in a
+     * {@link ClientKeyCacheFile}.
+     *
+     * @return the encoded key, owned by the caller
+     */
+    byte @NotNull [] encode() {
+      final byte[] mechanism = scramMechanism.getName().getBytes(StandardCharsets.UTF_8);
+      final byte[] user = username.getBytes(StandardCharsets.UTF_8);
+      final ByteBuffer buffer = ByteBuffer.allocate(4 * 5 + mechanism.length + user.length
+          + salt.length + passwordFingerprint.length);
+      buffer.putInt(mechanism.length).put(mechanism)
+          .putInt(user.length).put(user)
+          .putInt(salt.length).put(salt)
+          .putInt(iterationCount)
+          .putInt(passwordFingerprint.length).put(passwordFingerprint);
+      return buffer.array();
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(scramMechanism, username, iterationCount, Arrays.hashCode(salt));
+    }
+  }
+
+  /**
+   * The cached keys, owned by the cache.
+   */
+  private static final class Entry {
+    final byte[] clientKey;
+    final byte[] serverKey;
+    long expiresAt;
+
+    Entry(byte[] clientKey, byte[] serverKey) {
+      this.clientKey = clientKey;
+      this.serverKey = serverKey;
+    }
+
+    boolean isExpired(long now) {
+      return now - expiresAt >= 0;
+    }
+
+    void wipe() {
+      Arrays.fill(clientKey, (byte) 0);
+      Arrays.fill(serverKey, (byte) 0);
+    }
+  }
+
+}
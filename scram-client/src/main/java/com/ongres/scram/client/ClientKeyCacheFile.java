@@ -0,0 +1,462 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.client;
+
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+import static com.ongres.scram.common.util.Preconditions.gt0;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.ongres.scram.common.ScramFunctions;
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.exception.ScramRuntimeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A memory-mapped file that persists the entries of a {@link ClientKeyCache} across JVM restarts,
+ * so the clients can authenticate again without any PBKDF2 computation while the servers keep the
+ * same salt and iteration count.
+ *
+ * <p>The file has a fixed number of fixed-size records, so it never grows. Each record is looked up
+ * by a HMAC of the cache key (mechanism, username, salt, iteration count and password
+ * fingerprint), and holds the ClientKey/ServerKey encrypted with AES-GCM, authenticating the
+ * lookup id and the expiration time. The encryption, lookup and fingerprint keys are derived from
+ * a key supplied by the process, so the file doesn't reveal the usernames nor the keys, and it's
+ * only readable with the same key. A record that fails the authentication, e.g. after a torn
+ * write, is just a cache miss.
+ *
+ * <p>Layout, in big-endian order:
+ *
+ * <pre>
+ * header (64 bytes):  magic "SCRAMKCF" | version (int) | record size (int) | capacity (int)
+ *                     | key check (16 bytes) | reserved
+ * record (208 bytes): used (byte) | reserved (7 bytes) | expires at, epoch millis (long)
+ *                     | lookup id (32 bytes) | nonce (12 bytes)
+ *                     | AES-GCM(key length (byte) | ClientKey | ServerKey | padding) (145 bytes)
+ *                     | reserved (3 bytes)
+ * </pre>
+ *
+ * <p>A file with a different layout, capacity or key is reinitialized when opened, discarding its
+ * entries. The file should not be shared by concurrently running processes.
+ *
+ * @apiNote This class is thread-safe. The file must be closed when no longer used, entries can't be
+ *          read nor added after it's closed.
+ * @since 3.5
+ */
+public final class ClientKeyCacheFile implements Closeable {
+
+  private static final byte[] MAGIC = "SCRAMKCF".getBytes(StandardCharsets.US_ASCII);
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 64;
+  private static final int RECORD_SIZE = 208;
+  private static final int KEY_CHECK_LENGTH = 16;
+  private static final int HEADER_KEY_CHECK = 20;
+
+  private static final int RECORD_USED = 0;
+  private static final int RECORD_EXPIRES_AT = 8;
+  private static final int RECORD_LOOKUP_ID = 16;
+  private static final int RECORD_NONCE = 48;
+  private static final int RECORD_CIPHERTEXT = 60;
+  private static final int LOOKUP_ID_LENGTH = 32;
+  private static final int NONCE_LENGTH = 12;
+  private static final int TAG_BITS = 128;
+  private static final int MAX_KEY_LENGTH = 64;
+  private static final int PLAINTEXT_LENGTH = 1 + 2 * MAX_KEY_LENGTH;
+  private static final int MAX_PROBES = 8;
+  private static final int MIN_KEY_LENGTH = 16;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final int capacity;
+  private final SecretKeySpec encryptionKey;
+  private final byte[] lookupKey;
+  private final byte[] fingerprintSecret;
+  private final LongSupplier clock;
+  private final SecureRandom random = new SecureRandom();
+  private boolean closed;
+
+  private ClientKeyCacheFile(FileChannel channel, MappedByteBuffer buffer, int capacity,
+      byte[] encryptionKey, byte[] lookupKey, byte[] fingerprintSecret, LongSupplier clock) {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.capacity = capacity;
+    this.encryptionKey = new SecretKeySpec(encryptionKey, "AES");
+    this.lookupKey = lookupKey;
+    this.fingerprintSecret = fingerprintSecret;
+    this.clock = clock;
+  }
+
+  /**
+   * Opens the file, creating or reinitializing it if needed.
+   *
+   * @param path the path of the file
+   * @param capacity the number of records of the file
+   * @param key the key that protects the file, at least 16 bytes, supplied by the process (e.g.
+   *          from a secret manager); it's not modified
+   * @return the open file
+   * @throws IOException if the file can't be created, opened or mapped
+   * @throws IllegalArgumentException if the capacity is not positive or the key is too short
+   */
+  public static @NotNull ClientKeyCacheFile open(@NotNull Path path, int capacity,
+      byte @NotNull [] key) throws IOException {
+    return open(path, capacity, key, System::currentTimeMillis);
+  }
+
+  static @NotNull ClientKeyCacheFile open(@NotNull Path path, int capacity, byte @NotNull [] key,
+      @NotNull LongSupplier clock) throws IOException {
+    checkNotNull(path, "path");
+    gt0(capacity, "capacity");
+    checkNotNull(key, "key");
+    checkArgument(key.length >= MIN_KEY_LENGTH, "key", "must have at least 16 bytes");
+    checkArgument(capacity <= (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE, "capacity",
+        "is too large");
+
+    final byte[] encryptionKey = subKey(key, "scram client key cache encryption");
+    final byte[] lookupKey = subKey(key, "scram client key cache lookup");
+    final byte[] fingerprintSecret = subKey(key, "scram client key cache fingerprint");
+    final byte[] keyCheck = Arrays.copyOf(subKey(key, "scram client key cache check"),
+        KEY_CHECK_LENGTH);
+
+    final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      final long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+      final boolean valid = channel.size() == size && hasHeader(channel, capacity, keyCheck);
+      if (!valid) {
+        channel.truncate(0);
+      }
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      if (!valid) {
+        // The content of the extended file is not specified, all the records are emptied
+        for (long i = 0; i < size; i++) {
+          buffer.put((int) i, (byte) 0);
+        }
+        buffer.put(MAGIC)
+            .putInt(VERSION)
+            .putInt(RECORD_SIZE)
+            .putInt(capacity)
+            .put(keyCheck);
+        buffer.force();
+      }
+      return new ClientKeyCacheFile(channel, buffer, capacity, encryptionKey, lookupKey,
+          fingerprintSecret, clock);
+    } catch (IOException | RuntimeException ex) {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns the secret of the password fingerprints, which is derived from the key of the file so
+   * the cache keys are the same after a restart.
+   *
+   * @return the fingerprint secret
+   */
+  byte @NotNull [] fingerprintSecret() {
+    return fingerprintSecret;
+  }
+
+  /**
+   * Returns the ClientKey and ServerKey of an entry.
+   *
+   * @param key the key of the entry
+   * @return the keys and their remaining time to live, or null if not found, expired or not
+   *         authentic
+   */
+  synchronized @Nullable StoredKeys get(ClientKeyCache.@NotNull Key key) {
+    if (closed) {
+      return null;
+    }
+    final byte[] lookupId = lookupId(key);
+    final int slot = find(lookupId);
+    if (slot < 0) {
+      return null;
+    }
+    final int offset = offset(slot);
+    final long expiresAt = buffer.getLong(offset + RECORD_EXPIRES_AT);
+    final long now = clock.getAsLong();
+    if (now >= expiresAt) {
+      clear(offset);
+      return null;
+    }
+    final byte[] plaintext = decrypt(offset, lookupId, expiresAt);
+    if (plaintext == null) {
+      clear(offset);
+      return null;
+    }
+    try {
+      final int length = plaintext[0];
+      if (length <= 0 || length > MAX_KEY_LENGTH) {
+        clear(offset);
+        return null;
+      }
+      return new StoredKeys(Arrays.copyOfRange(plaintext, 1, 1 + length),
+          Arrays.copyOfRange(plaintext, 1 + length, 1 + 2 * length), expiresAt - now);
+    } finally {
+      Arrays.fill(plaintext, (byte) 0);
+    }
+  }
+
+  /**
+   * Writes an entry, replacing the entry of the same key. When the records where the entry can be
+   * placed are all in use, the one that expires first is replaced.
+   *
+   * @param key the key of the entry
+   * @param clientKey the ClientKey
+   * @param serverKey the ServerKey
+   * @param timeToLiveMillis the time to live of the entry, in milliseconds
+   */
+  synchronized void put(ClientKeyCache.@NotNull Key key, byte @NotNull [] clientKey,
+      byte @NotNull [] serverKey, long timeToLiveMillis) {
+    if (closed || clientKey.length != serverKey.length || clientKey.length > MAX_KEY_LENGTH) {
+      return;
+    }
+    final byte[] lookupId = lookupId(key);
+    final long now = clock.getAsLong();
+    final long expiresAt = now + timeToLiveMillis;
+    int target = -1;
+    int free = -1;
+    int oldestSlot = -1;
+    long oldest = Long.MAX_VALUE;
+    final int first = firstSlot(lookupId);
+    for (int i = 0; i < probes(); i++) {
+      final int slot = (first + i) % capacity;
+      final int offset = offset(slot);
+      if (!isUsed(offset)) {
+        free = free < 0 ? slot : free;
+        continue;
+      }
+      if (matches(offset, lookupId)) {
+        target = slot;
+        break;
+      }
+      final long slotExpiresAt = buffer.getLong(offset + RECORD_EXPIRES_AT);
+      if (slotExpiresAt <= now) {
+        free = free < 0 ? slot : free;
+      } else if (slotExpiresAt < oldest) {
+        oldestSlot = slot;
+        oldest = slotExpiresAt;
+      }
+    }
+    if (target < 0) {
+      target = free >= 0 ? free : oldestSlot;
+    }
+
+    final byte[] plaintext = new byte[PLAINTEXT_LENGTH];
+    plaintext[0] = (byte) clientKey.length;
+    System.arraycopy(clientKey, 0, plaintext, 1, clientKey.length);
+    System.arraycopy(serverKey, 0, plaintext, 1 + clientKey.length, serverKey.length);
+    final byte[] nonce = new byte[NONCE_LENGTH];
+    random.nextBytes(nonce);
+    try {
+      final byte[] ciphertext = cipher(Cipher.ENCRYPT_MODE, nonce, lookupId, expiresAt)
+          .doFinal(plaintext);
+      final int offset = offset(target);
+      clear(offset);
+      buffer.putLong(offset + RECORD_EXPIRES_AT, expiresAt);
+      put(offset + RECORD_LOOKUP_ID, lookupId);
+      put(offset + RECORD_NONCE, nonce);
+      put(offset + RECORD_CIPHERTEXT, ciphertext);
+      buffer.put(offset + RECORD_USED, (byte) 1);
+    } catch (GeneralSecurityException ex) {
+      throw new ScramRuntimeException("Error encrypting the client keys", ex);
+    } finally {
+      Arrays.fill(plaintext, (byte) 0);
+    }
+  }
+
+  /**
+   * Removes an entry.
+   *
+   * @param key the key of the entry
+   */
+  synchronized void remove(ClientKeyCache.@NotNull Key key) {
+    if (closed) {
+      return;
+    }
+    final int slot = find(lookupId(key));
+    if (slot >= 0) {
+      clear(offset(slot));
+    }
+  }
+
+  /**
+   * Removes all the entries.
+   */
+  synchronized void clear() {
+    if (closed) {
+      return;
+    }
+    for (int slot = 0; slot < capacity; slot++) {
+      final int offset = offset(slot);
+      if (isUsed(offset)) {
+        clear(offset);
+      }
+    }
+  }
+
+  /**
+   * Writes the changes to the storage device and closes the file.
+   *
+   * @throws IOException if an I/O error occurs
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      buffer.force();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private int find(byte[] lookupId) {
+    final int first = firstSlot(lookupId);
+    for (int i = 0; i < probes(); i++) {
+      final int slot = (first + i) % capacity;
+      final int offset = offset(slot);
+      if (isUsed(offset) && matches(offset, lookupId)) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  private int probes() {
+    return Math.min(MAX_PROBES, capacity);
+  }
+
+  private int firstSlot(byte[] lookupId) {
+    final int hash = ByteBuffer.wrap(lookupId).getInt() & Integer.MAX_VALUE;
+    return hash % capacity;
+  }
+
+  private static int offset(int slot) {
+    return HEADER_SIZE + slot * RECORD_SIZE;
+  }
+
+  private boolean isUsed(int offset) {
+    return buffer.get(offset + RECORD_USED) != 0;
+  }
+
+  private boolean matches(int offset, byte[] lookupId) {
+    final byte[] stored = new byte[LOOKUP_ID_LENGTH];
+    get(offset + RECORD_LOOKUP_ID, stored);
+    return MessageDigest.isEqual(stored, lookupId);
+  }
+
+  private byte @Nullable [] decrypt(int offset, byte[] lookupId, long expiresAt) {
+    final byte[] nonce = new byte[NONCE_LENGTH];
+    get(offset + RECORD_NONCE, nonce);
+    final byte[] ciphertext = new byte[PLAINTEXT_LENGTH + TAG_BITS / 8];
+    get(offset + RECORD_CIPHERTEXT, ciphertext);
+    try {
+      return cipher(Cipher.DECRYPT_MODE, nonce, lookupId, expiresAt).doFinal(ciphertext);
+    } catch (GeneralSecurityException ex) {
+      // Not authentic: written with another key, or torn
+      return null;
+    }
+  }
+
+  private Cipher cipher(int mode, byte[] nonce, byte[] lookupId, long expiresAt)
+      throws GeneralSecurityException {
+    final Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    cipher.init(mode, encryptionKey, new GCMParameterSpec(TAG_BITS, nonce));
+    cipher.updateAAD(lookupId);
+    cipher.updateAAD(ByteBuffer.allocate(Long.BYTES).putLong(0, expiresAt).array());
+    return cipher;
+  }
+
+  private void clear(int offset) {
+    for (int i = 0; i < RECORD_SIZE; i++) {
+      buffer.put(offset + i, (byte) 0);
+    }
+  }
+
+  private void put(int offset, byte[] bytes) {
+    for (int i = 0; i < bytes.length; i++) {
+      buffer.put(offset + i, bytes[i]);
+    }
+  }
+
+  private void get(int offset, byte[] bytes) {
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = buffer.get(offset + i);
+    }
+  }
+
+  private byte[] lookupId(ClientKeyCache.Key key) {
+    final byte[] encoded = key.encode();
+    try {
+      return ScramFunctions.hmac(ScramMechanism.SCRAM_SHA_256, lookupKey, encoded);
+    } finally {
+      Arrays.fill(encoded, (byte) 0);
+    }
+  }
+
+  private static boolean hasHeader(FileChannel channel, int capacity, byte[] keyCheck)
+      throws IOException {
+    final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        return false;
+      }
+    }
+    header.flip();
+    final byte[] magic = new byte[MAGIC.length];
+    header.get(magic);
+    final int version = header.getInt();
+    final int recordSize = header.getInt();
+    final int fileCapacity = header.getInt();
+    final byte[] fileKeyCheck = new byte[KEY_CHECK_LENGTH];
+    header.position(HEADER_KEY_CHECK);
+    header.get(fileKeyCheck);
+    return Arrays.equals(MAGIC, magic) && version == VERSION && recordSize == RECORD_SIZE
+        && fileCapacity == capacity && MessageDigest.isEqual(keyCheck, fileKeyCheck);
+  }
+
+  private static byte[] subKey(byte[] key, String label) {
+    return ScramFunctions.hmac(ScramMechanism.SCRAM_SHA_256, key,
+        label.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * The keys of an entry read from the file.
+   */
+  static final class StoredKeys {
+    final byte[] clientKey;
+    final byte[] serverKey;
+    final long timeToLiveMillis;
+
+    StoredKeys(byte[] clientKey, byte[] serverKey, long timeToLiveMillis) {
+      this.clientKey = clientKey;
+      this.serverKey = serverKey;
+      this.timeToLiveMillis = timeToLiveMillis;
+    }
+  }
+
+}
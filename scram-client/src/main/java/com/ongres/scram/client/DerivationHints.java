@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.client;
+
+import static com.ongres.scram.common.util.Preconditions.gt0;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.ongres.scram.common.ScramMechanism;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The salt and iteration count that a server sent for each user, used by {@link ScramClient} to
+ * start the derivation of the keys from the password speculatively, as soon as the
+ * {@code client-first-message} is built, instead of waiting a network round trip for the
+ * {@code server-first-message}.
+ *
+ * <p>When the {@code server-first-message} arrives, its salt and iteration count are compared with
+ * the guess: if they match, the speculative derivation is used; otherwise it's cancelled and the
+ * keys are derived from the received values. The hints are updated with every
+ * {@code server-first-message} received. They are not secret, a wrong hint only wastes the
+ * computation.
+ *
+ * <p>Example of usage:
+ *
+ * <pre>{@code
+ * // Shared by all the connections to the same server
+ * DerivationHints hints = DerivationHints.create(1024);
+ *
+ * ScramClient scramClient = ScramClient.builder()
+ *     .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256"))
+ *     .username("user")
+ *     .password("pencil".toCharArray())
+ *     .speculativeDerivation(hints)
+ *     .build();
+ * }</pre>
+ *
+ * @apiNote This class is thread-safe. The hints of different servers should be kept in different
+ *          instances, since the same user has a different salt on each server.
+ * @since 3.5
+ */
+public final class DerivationHints {
+
+  private final int maximumSize;
+  private final LinkedHashMap<Key, Hint> hints;
+
+  private DerivationHints(int maximumSize) {
+    this.maximumSize = maximumSize;
+    // Access ordered, so the eldest entry is the least recently used
+    this.hints = new LinkedHashMap<Key, Hint>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Hint> eldest) {
+        return size() > DerivationHints.this.maximumSize;
+      }
+    };
+  }
+
+  /**
+   * Creates an empty set of hints.
+   *
+   * @param maximumSize the maximum number of users, the least recently used are evicted
+   * @return a new empty set of hints
+   * @throws IllegalArgumentException if the maximum size is not positive
+   */
+  public static @NotNull DerivationHints create(int maximumSize) {
+    return new DerivationHints(gt0(maximumSize, "maximumSize"));
+  }
+
+  /**
+   * Returns the number of users with hints.
+   *
+   * @return the number of users with hints
+   */
+  public synchronized int size() {
+    return hints.size();
+  }
+
+  /**
+   * Removes all the hints.
+   */
+  public synchronized void clear() {
+    hints.clear();
+  }
+
+  /**
+   * Returns the last salt and iteration count seen for a user.
+   *
+   * @param scramMechanism the mechanism
+   * @param username the username
+   * @return the hint, or null if none was seen
+   */
+  synchronized @Nullable Hint get(@NotNull ScramMechanism scramMechanism,
+      @NotNull String username) {
+    return hints.get(new Key(scramMechanism, username));
+  }
+
+  /**
+   * Records the salt and iteration count sent by the server for a user.
+   *
+   * @param scramMechanism the mechanism
+   * @param username the username
+   * @param salt the salt, Base64 encoded as sent by the server
+   * @param iterationCount the iteration count
+   */
+  synchronized void put(@NotNull ScramMechanism scramMechanism, @NotNull String username,
+      @NotNull String salt, int iterationCount) {
+    hints.put(new Key(scramMechanism, username), new Hint(salt, iterationCount));
+  }
+
+  /**
+   * The salt and iteration count of a user.
+   */
+  static final class Hint {
+    private final String salt;
+    private final int iterationCount;
+
+    Hint(@NotNull String salt, int iterationCount) {
+      this.salt = salt;
+      this.iterationCount = iterationCount;
+    }
+
+    @NotNull
+    String getSalt() {
+      return salt;
+    }
+
+    int getIterationCount() {
+      return iterationCount;
+    }
+  }
+
+  private static final class Key {
+    private final ScramMechanism scramMechanism;
+    private final String username;
+
+    Key(ScramMechanism scramMechanism, String username) {
+      this.scramMechanism = scramMechanism;
+      this.username = username;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return scramMechanism == other.scramMechanism && username.equals(other.username);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(scramMechanism, username);
+    }
+  }
+
+}
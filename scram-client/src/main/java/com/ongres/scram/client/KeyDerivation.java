@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.client;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import com.ongres.scram.common.ScramFunctions;
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.StringPreparation;
+import com.ongres.scram.common.exception.ScramInterruptedException;
+import com.ongres.scram.common.exception.ScramRuntimeException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Derives the ClientKey/ServerKey of a password, coalescing the concurrent derivations of the same
+ * password, salt and iteration count (e.g. a connection pool opening many connections at once)
+ * into a single PBKDF2 computation.
+ *
+ * <p>The first thread to request a derivation computes it in its own thread, the others wait for
+ * it, and each one receives its own copy of the keys. The shared copy is zeroed when the last
+ * participant has copied it. A waiting thread that is interrupted stops waiting with a
+ * {@link ScramInterruptedException}, without affecting the computation; if the computing thread is
+ * interrupted instead, its waiters don't fail, one of them takes over the computation.
+ */
+final class KeyDerivation {
+
+  private static final int FINGERPRINT_SECRET_LENGTH = 32;
+  private static final byte[] FINGERPRINT_SECRET = newFingerprintSecret();
+  private static final ConcurrentMap<Key, Flight> IN_FLIGHT = new ConcurrentHashMap<>();
+
+  private KeyDerivation() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Derives the ClientKey and ServerKey of a password.
+   *
+   * @param scramMechanism the mechanism
+   * @param stringPreparation the preparation of the password
+   * @param password the password, which is not modified
+   * @param salt the salt
+   * @param iterationCount the iteration count
+   * @return a two elements array with the ClientKey and the ServerKey, owned by the caller
+   * @throws ScramInterruptedException if the thread is interrupted while computing or waiting
+   */
+  static byte @NotNull [] @NotNull [] clientAndServerKey(@NotNull ScramMechanism scramMechanism,
+      @NotNull StringPreparation stringPreparation, char @NotNull [] password,
+      byte @NotNull [] salt, int iterationCount) {
+    final Key key = new Key(scramMechanism, salt.clone(), iterationCount,
+        fingerprint(FINGERPRINT_SECRET, stringPreparation, password));
+    while (true) {
+      final Flight flight = new Flight();
+      final Flight current = IN_FLIGHT.compute(key, (k, existing) -> {
+        if (existing != null && existing.join()) {
+          return existing;
+        }
+        flight.join();
+        return flight;
+      });
+      if (current == flight) {
+        lead(key, flight, scramMechanism, stringPreparation, password, salt, iterationCount);
+      }
+      final byte[][] keys = current.await();
+      if (keys != null) {
+        return keys;
+      }
+      // The computing thread was interrupted, retry the derivation
+    }
+  }
+
+  /**
+   * Returns the number of derivations in progress.
+   *
+   * @return the number of derivations in progress
+   */
+  static int inFlight() {
+    return IN_FLIGHT.size();
+  }
+
+  private static void lead(Key key, Flight flight, ScramMechanism scramMechanism,
+      StringPreparation stringPreparation, char[] password, byte[] salt, int iterationCount) {
+    byte[] saltedPassword = null;
+    try {
+      saltedPassword = ScramFunctions.saltedPassword(scramMechanism, stringPreparation, password,
+          salt, iterationCount);
+      byte[][] keys = {
+          ScramFunctions.clientKey(scramMechanism, saltedPassword),
+          ScramFunctions.serverKey(scramMechanism, saltedPassword)
+      };
+      IN_FLIGHT.remove(key, flight);
+      flight.complete(keys);
+    } catch (ScramInterruptedException ex) {
+      IN_FLIGHT.remove(key, flight);
+      flight.abandon(ex);
+    } catch (RuntimeException | Error ex) {
+      IN_FLIGHT.remove(key, flight);
+      flight.fail(ex);
+    } finally {
+      if (saltedPassword != null) {
+        Arrays.fill(saltedPassword, (byte) 0);
+      }
+    }
+  }
+
+  /**
+   * Returns a fingerprint of the normalized password, keyed with a secret so it can't be used to
+   * recover the password.
+   *
+   * @param secret the key of the fingerprint
+   * @param stringPreparation the preparation of the password
+   * @param password the password, which is not modified
+   * @return the fingerprint
+   */
+  static byte @NotNull [] fingerprint(byte @NotNull [] secret,
+      @NotNull StringPreparation stringPreparation, char @NotNull [] password) {
+    final char[] normalized = stringPreparation.normalize(password);
+    final ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(normalized));
+    final byte[] bytes = new byte[encoded.remaining()];
+    encoded.get(bytes);
+    try {
+      return ScramFunctions.hmac(ScramMechanism.SCRAM_SHA_256, secret, bytes);
+    } finally {
+      Arrays.fill(bytes, (byte) 0);
+      if (encoded.hasArray()) {
+        Arrays.fill(encoded.array(), (byte) 0);
+      }
+      if (normalized != password) {
+        Arrays.fill(normalized, (char) 0);
+      }
+    }
+  }
+
+  /**
+   * Returns a new random secret for {@link #fingerprint(byte[], StringPreparation, char[])}.
+   *
+   * @return the secret
+   */
+  static byte @NotNull [] newFingerprintSecret() {
+    final byte[] secret = new byte[FINGERPRINT_SECRET_LENGTH];
+    new SecureRandom().nextBytes(secret);
+    return secret;
+  }
+
+  /**
+   * A derivation in progress, and the threads that will copy its result.
+   */
+  private static final class Flight {
+    private final CompletableFuture<byte[][]> result = new CompletableFuture<>();
+    private int participants;
+    private boolean done;
+
+    /**
+     * Adds a participant, unless the derivation has finished.
+     *
+     * @return false if the derivation has finished and can't be joined
+     */
+    synchronized boolean join() {
+      if (done) {
+        return false;
+      }
+      participants++;
+      return true;
+    }
+
+    void complete(byte[][] keys) {
+      synchronized (this) {
+        done = true;
+      }
+      result.complete(keys);
+    }
+
+    /**
+     * Finishes the derivation without keys, so the waiters retry it, and fails the computing
+     * thread with the interruption.
+     */
+    void abandon(ScramInterruptedException ex) {
+      synchronized (this) {
+        done = true;
+      }
+      result.complete(null);
+      leave();
+      throw ex;
+    }
+
+    void fail(Throwable ex) {
+      synchronized (this) {
+        done = true;
+      }
+      result.completeExceptionally(ex);
+    }
+
+    /**
+     * Waits for the derivation, and returns a copy of the keys.
+     *
+     * @return a copy of the keys, or null if the derivation was abandoned
+     */
+    byte[][] await() {
+      try {
+        final byte[][] keys = result.get();
+        if (keys == null) {
+          return null;
+        }
+        return new byte[][] {keys[0].clone(), keys[1].clone()};
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new ScramInterruptedException("Interrupted waiting for the PBKDF2 computation", ex);
+      } catch (ExecutionException ex) {
+        final Throwable cause = ex.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new ScramRuntimeException("PBKDF2 computation failed", cause);
+      } finally {
+        leave();
+      }
+    }
+
+    /**
+     * Removes a participant, zeroing the shared keys when it's the last one.
+     */
+    private void leave() {
+      final boolean last;
+      synchronized (this) {
+        last = --participants == 0;
+      }
+      // A failed derivation has no keys, and getNow() would throw its exception instead
+      if (last && result.isDone() && !result.isCompletedExceptionally()) {
+        final byte[][] keys = result.getNow(null);
+        if (keys != null) {
+          Arrays.fill(keys[0], (byte) 0);
+          Arrays.fill(keys[1], (byte) 0);
+        }
+      }
+    }
+  }
+
+  /**
+   * The parameters of a derivation.
+   */
+  private static final class Key {
+    private final ScramMechanism scramMechanism;
+    private final byte[] salt;
+    private final int iterationCount;
+    private final byte[] passwordFingerprint;
+
+    Key(ScramMechanism scramMechanism, byte[] salt, int iterationCount,
+        byte[] passwordFingerprint) {
+      this.scramMechanism = scramMechanism;
+      this.salt = salt;
+      this.iterationCount = iterationCount;
+      this.passwordFingerprint = passwordFingerprint;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return scramMechanism == other.scramMechanism
+          && iterationCount == other.iterationCount
+          && Arrays.equals(salt, other.salt)
+          && MessageDigest.isEqual(passwordFingerprint, other.passwordFingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(scramMechanism, iterationCount, Arrays.hashCode(salt));
+    }
+  }
+
+}
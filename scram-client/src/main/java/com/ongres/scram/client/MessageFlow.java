@@ -29,6 +29,9 @@ interface MessageFlow {
     NONE,
     CLIENT_FIRST,
     SERVER_FIRST,
+    // The client-final-message is computed asynchronously. The client stays in this stage if the
+    // computation fails or is cancelled, as its secrets are already wiped.
+    CLIENT_FINAL_PENDING,
     CLIENT_FINAL,
     SERVER_FINAL;
   }
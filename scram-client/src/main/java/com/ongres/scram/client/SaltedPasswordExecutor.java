@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.client;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The built-in executor used by {@link ScramClient#clientFinalMessageAsync()} to compute the
+ * salted passwords.
+ *
+ * <p>It has as many daemon threads as available processors, which are stopped after a minute
+ * idle, and a bounded queue; when the queue is full, the task is rejected instead of blocking the
+ * caller, and the returned stage completes exceptionally.
+ */
+final class SaltedPasswordExecutor {
+
+  private static final int QUEUE_CAPACITY_PER_THREAD = 256;
+  private static final long KEEP_ALIVE_SECONDS = 60L;
+
+  private SaltedPasswordExecutor() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Returns the shared executor, which is created on first use.
+   *
+   * @return the built-in executor
+   */
+  static @NotNull Executor get() {
+    return Holder.EXECUTOR;
+  }
+
+  private static final class Holder {
+    static final Executor EXECUTOR = create();
+
+    private Holder() {
+      throw new IllegalStateException("Holder class");
+    }
+
+    private static Executor create() {
+      final int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+          KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+          new ArrayBlockingQueue<>(threads * QUEUE_CAPACITY_PER_THREAD),
+          new DaemonThreadFactory());
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+
+  private static final class DaemonThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(@NotNull Runnable runnable) {
+      Thread thread = new Thread(runnable, "scram-salted-password-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+}
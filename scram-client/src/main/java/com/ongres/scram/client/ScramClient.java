@@ -10,6 +10,7 @@ import static com.ongres.scram.common.util.Preconditions.checkNotEmpty;
 import static com.ongres.scram.common.util.Preconditions.checkNotNull;
 import static com.ongres.scram.common.util.Preconditions.gt0;
 
+import java.nio.ByteBuffer;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.SecureRandom;
@@ -17,13 +18,18 @@ import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 
 import com.ongres.scram.common.ClientFinalMessage;
 import com.ongres.scram.common.ClientFirstMessage;
 import com.ongres.scram.common.Gs2CbindFlag;
-import com.ongres.scram.common.ScramFunctions;
+import com.ongres.scram.common.Gs2Header;
 import com.ongres.scram.common.ScramMechanism;
 import com.ongres.scram.common.ServerFinalMessage;
 import com.ongres.scram.common.ServerFirstMessage;
@@ -64,6 +70,8 @@ import org.jetbrains.annotations.Nullable;
  * ...
  * // Send the client-final-message ("c=...,r=...,p=...")
  * ClientFinalMessage clientFinalMsg = scramClient.clientFinalMessage();
+ * // or, to compute it without blocking the calling thread:
+ * // scramClient.clientFinalMessageAsync().thenAccept(clientFinalMsg -> ...);
  * ...
  * // Receive the server-final-message, throw an ScramException on error
  * ServerFinalMessage serverFinalMsg = scramClient.serverFinalMessage("v=...");
@@ -87,17 +95,18 @@ import org.jetbrains.annotations.Nullable;
 public final class ScramClient implements MessageFlow {
 
   private final ScramMechanism scramMechanism;
-  private final Gs2CbindFlag channelBinding;
+  private final Gs2Header gs2Header;
   private final StringPreparation stringPreparation;
   private final String username;
   private final char[] password;
   private final byte[] saltedPassword;
   private final byte[] clientKey;
   private final byte[] serverKey;
-  private final String cbindType;
   private final byte[] cbindData;
-  private final String authzid;
   private final String nonce;
+  private final ClientKeyCache clientKeyCache;
+  private final DerivationHints derivationHints;
+  private final Executor speculationExecutor;
 
   private Stage currentState = Stage.NONE;
   private ClientFirstMessage clientFirstMessage;
@@ -105,26 +114,36 @@ public final class ScramClient implements MessageFlow {
   private ServerFirstProcessor serverFirstProcessor;
 
   private ClientFinalProcessor clientFinalProcessor;
+  private ClientKeyCache.Key cachedKeysKey;
+  private SpeculativeDerivation speculativeDerivation;
 
   /**
    * Constructs a SCRAM client, to perform an authentication for a given user. This class can not be
-   * instantiated directly, use a {@link #builder()} is used instead.
+   * instantiated directly, use a {@link #builder()} or a {@link ScramClientFactory} instead.
    *
-   * @param builder The Builder used to initialize this client
+   * @param factory The factory with the negotiated parameters of this client
+   * @param nonce The client nonce
+   * @param password The password, owned by this client, or null
+   * @param saltedPassword The SaltedPassword, owned by this client, or null
+   * @param clientKey The ClientKey, owned by this client, or null
+   * @param serverKey The ServerKey, owned by this client, or null
    */
-  private ScramClient(@NotNull Builder builder) {
-    this.channelBinding = builder.channelBinding;
-    this.scramMechanism = builder.selectedScramMechanism;
-    this.stringPreparation = builder.stringPreparation;
-    this.username = builder.username;
-    this.password = builder.password != null ? builder.password.clone() : null;
-    this.saltedPassword = builder.saltedPassword != null ? builder.saltedPassword.clone() : null;
-    this.clientKey = builder.clientKey != null ? builder.clientKey.clone() : null;
-    this.serverKey = builder.serverKey != null ? builder.serverKey.clone() : null;
-    this.nonce = builder.nonce;
-    this.cbindType = builder.cbindType;
-    this.cbindData = builder.cbindData;
-    this.authzid = builder.authzid;
+  ScramClient(@NotNull ScramClientFactory factory, @NotNull String nonce,
+      char @Nullable [] password, byte @Nullable [] saltedPassword, byte @Nullable [] clientKey,
+      byte @Nullable [] serverKey) {
+    this.scramMechanism = factory.scramMechanism;
+    this.gs2Header = factory.gs2Header;
+    this.stringPreparation = factory.stringPreparation;
+    this.username = factory.username;
+    this.password = password;
+    this.saltedPassword = saltedPassword;
+    this.clientKey = clientKey;
+    this.serverKey = serverKey;
+    this.nonce = nonce;
+    this.cbindData = factory.cbindData;
+    this.clientKeyCache = factory.clientKeyCache;
+    this.derivationHints = factory.derivationHints;
+    this.speculationExecutor = factory.speculationExecutor;
   }
 
   /**
@@ -136,6 +155,22 @@ public final class ScramClient implements MessageFlow {
     return scramMechanism;
   }
 
+  /**
+   * Returns a non-blocking engine that drives the message flow of this client from buffers,
+   * instead of calling the message methods directly.
+   *
+   * @apiNote should be the initial call, the client must not be used directly afterwards
+   * @return a new engine for this client
+   * @see ScramClientEngine
+   * @since 3.5
+   */
+  public @NotNull ScramClientEngine engine() {
+    if (currentState != Stage.NONE) {
+      throw new IllegalStateException("Invalid state for creating an engine");
+    }
+    return new ScramClientEngine(this);
+  }
+
   /**
    * Returns the text representation of a SCRAM {@code client-first-message}.
    *
@@ -147,11 +182,45 @@ public final class ScramClient implements MessageFlow {
     if (currentState != Stage.NONE) {
       throw new IllegalStateException("Invalid state for processing client first message");
     }
-    this.clientFirstMessage = new ClientFirstMessage(channelBinding, cbindType, authzid, username, nonce);
+    this.clientFirstMessage = new ClientFirstMessage(gs2Header, username, nonce);
     this.currentState = Stage.CLIENT_FIRST;
+    startSpeculativeDerivation();
     return clientFirstMessage;
   }
 
+  /**
+   * Starts deriving the keys from the salt and iteration count last seen for the user, if any,
+   * while the client waits for the server-first-message.
+   */
+  private void startSpeculativeDerivation() {
+    if (derivationHints == null || password == null) {
+      return;
+    }
+    final DerivationHints.Hint hint = derivationHints.get(scramMechanism, username);
+    if (hint == null) {
+      return;
+    }
+    final byte[] salt;
+    try {
+      salt = Base64.getDecoder().decode(hint.getSalt());
+    } catch (IllegalArgumentException ex) {
+      // Not a valid salt, the server-first-message will fail the same way
+      return;
+    }
+    if (clientKeyCache != null) {
+      final byte[][] keys = clientKeyCache.get(clientKeyCache.key(scramMechanism,
+          stringPreparation, username, password, salt, hint.getIterationCount()));
+      if (keys != null) {
+        // Already cached, nothing to derive
+        Arrays.fill(keys[0], (byte) 0);
+        Arrays.fill(keys[1], (byte) 0);
+        return;
+      }
+    }
+    this.speculativeDerivation = SpeculativeDerivation.start(speculationExecutor, scramMechanism,
+        stringPreparation, password, salt, hint.getIterationCount());
+  }
+
   /**
    * Process the {@code server-first-message}, from its String representation.
    *
@@ -167,10 +236,39 @@ public final class ScramClient implements MessageFlow {
       throw new IllegalStateException("Invalid state for processing server first message");
     }
     checkNotEmpty(serverFirstMessage, "serverFirstMessage");
-    this.serverFirstProcessor = new ServerFirstProcessor(scramMechanism, stringPreparation, serverFirstMessage, nonce,
-        clientFirstMessage);
+    return receiveServerFirstMessage(ServerFirstMessage.parseFrom(serverFirstMessage, nonce));
+  }
+
+  /**
+   * Process the {@code server-first-message}, from the bytes received.
+   *
+   * <p>The message is parsed from the remaining bytes of the buffer, without decoding it to a
+   * String, and the position of the buffer is moved to its limit.
+   *
+   * @apiNote should be called after {@link #clientFirstMessage()}, instead of
+   *          {@link #serverFirstMessage(String)}, and can be called only once
+   * @param serverFirstMessage The buffer with the {@code server-first-message}, encoded in UTF-8
+   * @return The parsed {@code server-first-message}
+   * @throws ScramParseException If the message is not a valid server-first-message
+   * @throws IllegalArgumentException If the buffer is null or has no remaining bytes
+   * @since 3.5
+   */
+  public @NotNull ServerFirstMessage serverFirstMessage(@NotNull ByteBuffer serverFirstMessage)
+      throws ScramParseException {
+    if (currentState != Stage.CLIENT_FIRST) {
+      throw new IllegalStateException("Invalid state for processing server first message");
+    }
+    return receiveServerFirstMessage(ServerFirstMessage.parseFrom(serverFirstMessage, nonce));
+  }
+
+  private ServerFirstMessage receiveServerFirstMessage(ServerFirstMessage received) {
+    this.serverFirstProcessor = new ServerFirstProcessor(scramMechanism, stringPreparation,
+        received, clientFirstMessage);
+    if (derivationHints != null) {
+      derivationHints.put(scramMechanism, username, received.getSalt(), received.getIterationCount());
+    }
     this.currentState = Stage.SERVER_FIRST;
-    return serverFirstProcessor.getServerFirstMessage();
+    return received;
   }
 
   /**
@@ -184,32 +282,228 @@ public final class ScramClient implements MessageFlow {
     if (currentState != Stage.SERVER_FIRST || serverFirstProcessor == null) {
       throw new IllegalStateException("Invalid state for processing client final message");
     }
+    this.clientFinalProcessor = clientFinalProcessor();
+    ClientFinalMessage clientFinalMessage = clientFinalProcessor.clientFinalMessage(cbindData);
+    this.currentState = Stage.CLIENT_FINAL;
+    return clientFinalMessage;
+  }
+
+  /**
+   * Returns the SCRAM {@code client-final-message}, computed asynchronously on a built-in executor.
+   *
+   * <p>Computing the proof from a password requires the PBKDF2 derivation of the salted password,
+   * which takes tens of milliseconds with the iteration counts in common use, and should not run in
+   * an event loop thread. The built-in executor has a thread per available processor and a bounded
+   * queue, when the queue is full the returned stage completes exceptionally with a
+   * {@link RejectedExecutionException}.
+   *
+   * @apiNote should be called after {@link #serverFirstMessage(String)}, instead of
+   *          {@link #clientFinalMessage()}, and can be called only once
+   * @return a stage that completes with the {@code client-final-message}
+   * @see #clientFinalMessageAsync(Executor)
+   * @since 3.5
+   */
+  public @NotNull CompletionStage<ClientFinalMessage> clientFinalMessageAsync() {
+    return clientFinalMessageAsync(SaltedPasswordExecutor.get());
+  }
+
+  /**
+   * Returns the SCRAM {@code client-final-message}, computed asynchronously on the given executor.
+   *
+   * <p>The client moves to a pending stage until the returned stage completes, in which no other
+   * message can be processed; then {@link #serverFinalMessage(String)} can be called. If the
+   * computation fails, or the executor rejects it, the stage completes exceptionally and the client
+   * can't be used anymore.
+   *
+   * <p>The computation can be cancelled with {@code toCompletableFuture().cancel(...)}: if it has
+   * not started yet the secrets of the client are wiped immediately, otherwise the thread running it
+   * is interrupted and the secrets are wiped as soon as it stops.
+   *
+   * @apiNote should be called after {@link #serverFirstMessage(String)}, instead of
+   *          {@link #clientFinalMessage()}, and can be called only once
+   * @param executor the executor that computes the {@code client-final-message}
+   * @return a stage that completes with the {@code client-final-message}
+   * @throws IllegalArgumentException If the executor is null
+   * @since 3.5
+   */
+  public @NotNull CompletionStage<ClientFinalMessage> clientFinalMessageAsync(
+      @NotNull Executor executor) {
+    checkNotNull(executor, "executor");
+    if (currentState != Stage.SERVER_FIRST || serverFirstProcessor == null) {
+      throw new IllegalStateException("Invalid state for processing client final message");
+    }
+    this.currentState = Stage.CLIENT_FINAL_PENDING;
+    final ClientFinalTask task = new ClientFinalTask();
+    task.future.whenComplete((message, ex) -> {
+      if (task.future.isCancelled()) {
+        task.cancel();
+      }
+    });
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException ex) {
+      task.cancel();
+      task.future.completeExceptionally(ex);
+    }
+    return task.future;
+  }
+
+  /**
+   * Creates the processor of the client-final-message from the configured secrets, which are wiped
+   * afterwards.
+   */
+  private ClientFinalProcessor clientFinalProcessor() {
     try {
       if (password != null) {
-        this.clientFinalProcessor = serverFirstProcessor.clientFinalProcessor(password);
+        return passwordClientFinalProcessor();
       } else if (saltedPassword != null) {
-        this.clientFinalProcessor = serverFirstProcessor.clientFinalProcessor(saltedPassword);
-      } else if (clientKey != null && serverKey != null) {
-        this.clientFinalProcessor = serverFirstProcessor.clientFinalProcessor(clientKey, serverKey);
+        return serverFirstProcessor.clientFinalProcessor(saltedPassword);
+      } else {
+        return serverFirstProcessor.clientFinalProcessor(clientKey, serverKey);
       }
     } finally {
       // Wipe the sensitive data, even if an exception was thrown above
-      if (password != null) {
-        Arrays.fill(password, (char) 0);
+      wipeSecrets();
+    }
+  }
+
+  /**
+   * Creates the processor of the client-final-message from the password: with the keys cached for
+   * the password, the keys of the speculative derivation if it guessed the salt and iteration
+   * count, or the keys derived from the password otherwise. Keys that are not cached are added to
+   * the cache once the server's signature is verified.
+   */
+  private ClientFinalProcessor passwordClientFinalProcessor() {
+    final ServerFirstMessage serverFirstMessage = serverFirstProcessor.getServerFirstMessage();
+    final byte[] salt = Base64.getDecoder().decode(serverFirstMessage.getSalt());
+    final int iterationCount = serverFirstMessage.getIterationCount();
+    final SpeculativeDerivation speculation = this.speculativeDerivation;
+    this.speculativeDerivation = null;
+
+    ClientKeyCache.Key key = null;
+    if (clientKeyCache != null) {
+      key = clientKeyCache.key(scramMechanism, stringPreparation, username, password, salt,
+          iterationCount);
+      final byte[][] keys = clientKeyCache.get(key);
+      if (keys != null) {
+        if (speculation != null) {
+          speculation.cancel();
+        }
+        this.cachedKeysKey = key;
+        return clientFinalProcessor(keys);
       }
-      if (saltedPassword != null) {
-        Arrays.fill(saltedPassword, (byte) 0);
+    }
+
+    final byte[][] keys = speculation != null ? speculation.takeKeys(salt, iterationCount) : null;
+    final ClientFinalProcessor processor = keys != null
+        ? clientFinalProcessor(keys)
+        : serverFirstProcessor.clientFinalProcessor(password);
+    if (key != null) {
+      final ClientKeyCache.Key verifiedKey = key;
+      processor.onVerifiedKeys((verifiedClientKey, verifiedServerKey) -> clientKeyCache.put(
+          verifiedKey, verifiedClientKey, verifiedServerKey));
+    }
+    return processor;
+  }
+
+  private ClientFinalProcessor clientFinalProcessor(byte[][] keys) {
+    try {
+      return serverFirstProcessor.clientFinalProcessor(keys[0], keys[1]);
+    } finally {
+      Arrays.fill(keys[0], (byte) 0);
+      Arrays.fill(keys[1], (byte) 0);
+    }
+  }
+
+  /**
+   * Returns whether the client-final-message is computed from the password, which requires the
+   * PBKDF2 derivation unless the keys are cached or speculated.
+   */
+  boolean derivesFromPassword() {
+    return password != null;
+  }
+
+  void wipeSecrets() {
+    if (speculativeDerivation != null) {
+      speculativeDerivation.cancel();
+      speculativeDerivation = null;
+    }
+    if (password != null) {
+      Arrays.fill(password, (char) 0);
+    }
+    if (saltedPassword != null) {
+      Arrays.fill(saltedPassword, (byte) 0);
+    }
+    if (clientKey != null) {
+      Arrays.fill(clientKey, (byte) 0);
+    }
+    if (serverKey != null) {
+      Arrays.fill(serverKey, (byte) 0);
+    }
+  }
+
+  /**
+   * Computes the client-final-message on an executor thread, for
+   * {@link #clientFinalMessageAsync(Executor)}.
+   */
+  private final class ClientFinalTask implements Runnable {
+    final CompletableFuture<ClientFinalMessage> future = new CompletableFuture<>();
+    private boolean started;
+    private Thread worker;
+    private boolean interrupted;
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (started) {
+          // Cancelled before it started, the secrets are already wiped
+          return;
+        }
+        started = true;
+        worker = Thread.currentThread();
       }
-      if (clientKey != null) {
-        Arrays.fill(clientKey, (byte) 0);
+      ClientFinalProcessor processor = null;
+      try {
+        processor = clientFinalProcessor();
+        ClientFinalMessage message = processor.clientFinalMessage(cbindData);
+        // The stage is updated before completing, so it's visible to the dependent actions
+        ScramClient.this.clientFinalProcessor = processor;
+        ScramClient.this.currentState = Stage.CLIENT_FINAL;
+        if (future.complete(message)) {
+          processor = null;
+        } else {
+          ScramClient.this.clientFinalProcessor = null;
+          ScramClient.this.currentState = Stage.CLIENT_FINAL_PENDING;
+        }
+      } catch (RuntimeException | Error ex) {
+        future.completeExceptionally(ex);
+      } finally {
+        synchronized (this) {
+          worker = null;
+          if (interrupted) {
+            // Clear the interrupt raised by the cancellation, the thread belongs to the executor
+            Thread.interrupted();
+          }
+        }
+        if (processor != null) {
+          processor.wipe();
+        }
       }
-      if (serverKey != null) {
-        Arrays.fill(serverKey, (byte) 0);
+    }
+
+    /**
+     * Stops the computation: wipes the secrets if it has not started yet, or interrupts the
+     * thread running it otherwise.
+     */
+    synchronized void cancel() {
+      if (!started) {
+        started = true;
+        wipeSecrets();
+      } else if (worker != null) {
+        interrupted = true;
+        worker.interrupt();
       }
     }
-    ClientFinalMessage clientFinalMessage = clientFinalProcessor.clientFinalMessage(cbindData);
-    this.currentState = Stage.CLIENT_FINAL;
-    return clientFinalMessage;
   }
 
   /**
@@ -228,11 +522,56 @@ public final class ScramClient implements MessageFlow {
     if (currentState != Stage.CLIENT_FINAL || clientFinalProcessor == null) {
       throw new IllegalStateException("Invalid state for processing server final message");
     }
-    ServerFinalMessage receiveServerFinalMessage = clientFinalProcessor.receiveServerFinalMessage(serverFinalMessage);
+    final ServerFinalMessage receiveServerFinalMessage;
+    try {
+      receiveServerFinalMessage = clientFinalProcessor.receiveServerFinalMessage(serverFinalMessage);
+    } catch (ScramServerErrorException | ScramInvalidServerSignatureException ex) {
+      invalidateCachedKeys();
+      throw ex;
+    }
+    this.currentState = Stage.SERVER_FINAL;
+    return receiveServerFinalMessage;
+  }
+
+  /**
+   * Process and verify the {@code server-final-message}, from the bytes received.
+   *
+   * <p>The message is parsed from the remaining bytes of the buffer, without decoding it to a
+   * String, and the position of the buffer is moved to its limit.
+   *
+   * @apiNote should be called after {@link #clientFinalMessage()}, instead of
+   *          {@link #serverFinalMessage(String)}, and can be called only once
+   * @param serverFinalMessage The buffer with the {@code server-final-message}, encoded in UTF-8
+   * @return The parsed {@code server-final-message}
+   * @throws ScramParseException If the message is not a valid
+   * @throws ScramServerErrorException If the message is an error
+   * @throws ScramInvalidServerSignatureException If the verification fails
+   * @throws IllegalArgumentException If the buffer is null or has no remaining bytes
+   * @since 3.5
+   */
+  public @NotNull ServerFinalMessage serverFinalMessage(@NotNull ByteBuffer serverFinalMessage)
+      throws ScramParseException, ScramServerErrorException, ScramInvalidServerSignatureException {
+    if (currentState != Stage.CLIENT_FINAL || clientFinalProcessor == null) {
+      throw new IllegalStateException("Invalid state for processing server final message");
+    }
+    final ServerFinalMessage receiveServerFinalMessage;
+    try {
+      receiveServerFinalMessage = clientFinalProcessor.receiveServerFinalMessage(serverFinalMessage);
+    } catch (ScramServerErrorException | ScramInvalidServerSignatureException ex) {
+      invalidateCachedKeys();
+      throw ex;
+    }
     this.currentState = Stage.SERVER_FINAL;
     return receiveServerFinalMessage;
   }
 
+  private void invalidateCachedKeys() {
+    if (cachedKeysKey != null) {
+      // The cached keys don't match the password of the server anymore
+      clientKeyCache.invalidate(cachedKeysKey);
+    }
+  }
+
   /**
    * Creates a builder for {@link ScramClient ScramClient} instances.
    *
@@ -441,6 +780,53 @@ public final class ScramClient implements MessageFlow {
     FinalBuildStage secureRandomAlgorithmProvider(@NotNull String algorithm,
         @Nullable String provider);
 
+    /**
+     * Sets a cache of the ClientKey/ServerKey derived from the password, shared by the clients
+     * that authenticate with the same credentials, to skip the salted password computation when
+     * the server sends the same salt and iteration count again.
+     *
+     * <p>The cache is only used when the client is built with a {@code password}; the keys are
+     * added once the {@code server-final-message} is verified, and evicted if the authentication
+     * with the cached keys fails.
+     *
+     * @param clientKeyCache the cache of ClientKey/ServerKey
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException If clientKeyCache is null
+     * @since 3.5
+     */
+    FinalBuildStage clientKeyCache(@NotNull ClientKeyCache clientKeyCache);
+
+    /**
+     * Enables the speculative derivation of the keys from the password on the built-in executor.
+     *
+     * @param derivationHints the salt and iteration count last seen for each user
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException If derivationHints is null
+     * @see #speculativeDerivation(DerivationHints, Executor)
+     * @since 3.5
+     */
+    FinalBuildStage speculativeDerivation(@NotNull DerivationHints derivationHints);
+
+    /**
+     * Enables the speculative derivation of the keys from the password.
+     *
+     * <p>When the hints have the salt and iteration count of an earlier {@code server-first-message}
+     * for the user, {@link ScramClient#clientFirstMessage()} starts deriving the keys on the
+     * executor, hiding the PBKDF2 computation behind the network round trip. If the received
+     * {@code server-first-message} has the same values the derivation is used, otherwise it's
+     * cancelled and the keys are derived from the received values. The hints are updated with
+     * every {@code server-first-message} received. It's only used when the client is built with a
+     * {@code password}.
+     *
+     * @param derivationHints the salt and iteration count last seen for each user
+     * @param executor the executor that runs the speculative derivations
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException If derivationHints or executor are null
+     * @since 3.5
+     */
+    FinalBuildStage speculativeDerivation(@NotNull DerivationHints derivationHints,
+        @NotNull Executor executor);
+
     /**
      * Returns the fully constructed {@link ScramClient} ready to start the message flow
      * with the server.
@@ -453,6 +839,20 @@ public final class ScramClient implements MessageFlow {
      *         negotiation failure occurs
      */
     ScramClient build();
+
+    /**
+     * Returns a thread-safe factory of {@link ScramClient} instances configured with the specified
+     * parameters, that negotiates the mechanism and channel binding once for all of them.
+     *
+     * @return a ScramClientFactory configured with the specified parameters
+     * @throws IllegalArgumentException if a parameter is null or empty
+     * @throws MechanismNegotiationException if the local mechanism configuration is incompatible
+     *         with the client state engine or missing core fallback options
+     * @throws ChannelBindingException if a channel binding policy mismatch or cryptographic
+     *         negotiation failure occurs
+     * @since 3.5
+     */
+    ScramClientFactory buildFactory();
   }
 
   /**
@@ -472,7 +872,6 @@ public final class ScramClient implements MessageFlow {
     StringPreparation stringPreparation = StringPreparation.SASL_PREPARATION;
     X509Certificate serverCertificate;
     int nonceLength = 24;
-    String nonce;
     SecureRandom secureRandom;
     String username;
     char[] password;
@@ -483,6 +882,9 @@ public final class ScramClient implements MessageFlow {
     byte[] cbindData;
     String authzid;
     Supplier<String> nonceSupplier;
+    ClientKeyCache clientKeyCache;
+    DerivationHints derivationHints;
+    Executor speculationExecutor;
     private boolean cbindConfigured;
 
     private Builder() {
@@ -595,14 +997,39 @@ public final class ScramClient implements MessageFlow {
       return this;
     }
 
+    @Override
+    public FinalBuildStage clientKeyCache(@NotNull ClientKeyCache clientKeyCache) {
+      this.clientKeyCache = checkNotNull(clientKeyCache, "clientKeyCache");
+      return this;
+    }
+
+    @Override
+    public FinalBuildStage speculativeDerivation(@NotNull DerivationHints derivationHints) {
+      return speculativeDerivation(derivationHints, SaltedPasswordExecutor.get());
+    }
+
+    @Override
+    public FinalBuildStage speculativeDerivation(@NotNull DerivationHints derivationHints,
+        @NotNull Executor executor) {
+      this.derivationHints = checkNotNull(derivationHints, "derivationHints");
+      this.speculationExecutor = checkNotNull(executor, "executor");
+      return this;
+    }
+
     @Override
     public ScramClient build() {
-      final SecureRandom random = secureRandom != null ? secureRandom : new SecureRandom();
-      this.nonce = nonceSupplier != null
-          ? nonceSupplier.get()
-          : ScramFunctions.nonce(nonceLength, random);
+      final ScramClientFactory factory = buildFactory();
+      try {
+        return factory.newClient();
+      } finally {
+        factory.destroy();
+      }
+    }
+
+    @Override
+    public ScramClientFactory buildFactory() {
       this.selectedScramMechanism = mechanismNegotiation();
-      return new ScramClient(this);
+      return new ScramClientFactory(this);
     }
 
     private ScramMechanism mechanismNegotiation() {
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.client;
+
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.ToIntFunction;
+
+import com.ongres.scram.common.ClientFinalMessage;
+import com.ongres.scram.common.exception.ScramException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A non-blocking engine that drives the message flow of a {@link ScramClient} from buffers, for
+ * selector-based drivers, in the spirit of {@link javax.net.ssl.SSLEngine}.
+ *
+ * <p>Each {@link #step(ByteBuffer, ByteBuffer)} call consumes the received message, if any, and
+ * writes the next message to send, if any, and returns a {@link Status} telling the driver what to
+ * do next. The framing of the messages is the job of the transport: the remaining bytes of the
+ * input buffer must be exactly one server message.
+ *
+ * <p>The PBKDF2 derivation of the salted password is never done by {@code step}: when it's
+ * required, the engine returns {@link Status#NEED_TASK} and the derivation is available from
+ * {@link #getDelegatedTask()}, to be run on a worker thread. Once it has run, the next
+ * {@code step} call writes the {@code client-final-message}.
+ *
+ * <p>Example of usage:
+ *
+ * <pre>{@code
+ * ScramClientEngine engine = scramClient.engine();
+ * ScramClientEngine.Status status = engine.step(in, out);
+ * // OUTPUT_READY: send the bytes written to out, then wait for the server response
+ * // NEED_INPUT: read a server message into in, then call step again
+ * // NEED_TASK: run engine.getDelegatedTask() on a worker, then call step again
+ * // COMPLETE: the server signature has been verified
+ * }</pre>
+ *
+ * @apiNote This class is not thread-safe, except for running the delegated task on another thread.
+ * @since 3.5
+ */
+public final class ScramClientEngine {
+
+  /**
+   * The result of a {@link ScramClientEngine#step(ByteBuffer, ByteBuffer)} call.
+   *
+   * @since 3.5
+   */
+  public enum Status {
+    /**
+     * A message has been written to the output buffer and must be sent to the server.
+     */
+    OUTPUT_READY,
+    /**
+     * The output buffer has not enough space for the next message, nothing has been written.
+     */
+    BUFFER_OVERFLOW,
+    /**
+     * A message from the server is required, the input buffer has no remaining bytes.
+     */
+    NEED_INPUT,
+    /**
+     * The {@code client-final-message} requires a task that may block, available from
+     * {@link ScramClientEngine#getDelegatedTask()}, which has not completed yet.
+     */
+    NEED_TASK,
+    /**
+     * The server signature has been verified and the authentication is complete.
+     */
+    COMPLETE;
+  }
+
+  private enum State {
+    CLIENT_FIRST,
+    SERVER_FIRST,
+    CLIENT_FINAL_TASK,
+    SERVER_FINAL,
+    COMPLETE,
+    FAILED;
+  }
+
+  private final ScramClient client;
+  private State state = State.CLIENT_FIRST;
+  private ToIntFunction<ByteBuffer> pendingOutput;
+  private CompletableFuture<ClientFinalMessage> clientFinal;
+  private Runnable delegatedTask;
+
+  ScramClientEngine(@NotNull ScramClient client) {
+    this.client = client;
+  }
+
+  /**
+   * Advances the message flow: consumes the server message in the input buffer if one is
+   * expected, and writes the next client message to the output buffer if there is one.
+   *
+   * @param in the buffer with the received server message, without framing
+   * @param out the buffer where the next client message is written, as UTF-8
+   * @return the status of the message flow
+   * @throws ScramException If the server message is not valid, is an error, or its signature is
+   *           not valid
+   * @throws IllegalArgumentException If any buffer is null
+   * @throws IllegalStateException If the authentication has failed in a previous step
+   */
+  public @NotNull Status step(@NotNull ByteBuffer in, @NotNull ByteBuffer out)
+      throws ScramException {
+    checkNotNull(in, "in");
+    checkNotNull(out, "out");
+    if (state == State.FAILED) {
+      throw new IllegalStateException("The authentication has failed in a previous step");
+    }
+    try {
+      return advance(in, out);
+    } catch (ScramException | RuntimeException | Error ex) {
+      state = State.FAILED;
+      pendingOutput = null;
+      throw ex;
+    }
+  }
+
+  private Status advance(ByteBuffer in, ByteBuffer out) throws ScramException {
+    if (pendingOutput != null) {
+      return flush(out);
+    }
+    switch (state) {
+      case CLIENT_FIRST:
+        pendingOutput = client.clientFirstMessage()::encodeTo;
+        state = State.SERVER_FIRST;
+        return flush(out);
+      case SERVER_FIRST:
+        if (!in.hasRemaining()) {
+          return Status.NEED_INPUT;
+        }
+        client.serverFirstMessage(in);
+        if (client.derivesFromPassword()) {
+          clientFinal = client.clientFinalMessageAsync(task -> delegatedTask = task)
+              .toCompletableFuture();
+          state = State.CLIENT_FINAL_TASK;
+          return Status.NEED_TASK;
+        }
+        pendingOutput = client.clientFinalMessage()::encodeTo;
+        state = State.SERVER_FINAL;
+        return flush(out);
+      case CLIENT_FINAL_TASK:
+        if (!clientFinal.isDone()) {
+          return Status.NEED_TASK;
+        }
+        pendingOutput = clientFinalMessage()::encodeTo;
+        state = State.SERVER_FINAL;
+        return flush(out);
+      case SERVER_FINAL:
+        if (!in.hasRemaining()) {
+          return Status.NEED_INPUT;
+        }
+        client.serverFinalMessage(in);
+        state = State.COMPLETE;
+        return Status.COMPLETE;
+      case COMPLETE:
+      default:
+        return Status.COMPLETE;
+    }
+  }
+
+  /**
+   * Returns the task that computes the {@code client-final-message}, after a step has returned
+   * {@link Status#NEED_TASK}. The task is returned only once, and must be run, on any thread, for
+   * the message flow to continue.
+   *
+   * @return the delegated task, or null if there is none pending
+   */
+  public @Nullable Runnable getDelegatedTask() {
+    final Runnable task = delegatedTask;
+    delegatedTask = null;
+    return task;
+  }
+
+  private ClientFinalMessage clientFinalMessage() {
+    try {
+      return clientFinal.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      if (ex.getCause() instanceof Error) {
+        throw (Error) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  private Status flush(ByteBuffer out) {
+    try {
+      pendingOutput.applyAsInt(out);
+    } catch (BufferOverflowException ex) {
+      return Status.BUFFER_OVERFLOW;
+    }
+    pendingOutput = null;
+    return Status.OUTPUT_READY;
+  }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.client;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import javax.security.auth.Destroyable;
+
+import com.ongres.scram.common.Gs2Header;
+import com.ongres.scram.common.ScramFunctions;
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.StringPreparation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable factory of {@link ScramClient} instances that authenticate with the same
+ * credentials, channel binding and advertised mechanisms, like the connections of a pool.
+ *
+ * <p>The factory does once the work that {@link ScramClient.FinalBuildStage#build()} does for each
+ * client: the mechanism negotiation, the channel binding checks, and the {@code gs2-header} and its
+ * {@code cbind-input}. Each {@link #newClient()} call only generates a nonce and copies the
+ * secrets. The nonces are generated by {@link ScramFunctions#nonce(int)}, or with the
+ * {@link SecureRandom} selected in the builder, which is shared.
+ *
+ * <p>Example of usage:
+ *
+ * <pre>{@code
+ * ScramClientFactory factory = ScramClient.builder()
+ *     .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256", "SCRAM-SHA-256-PLUS"))
+ *     .username("user")
+ *     .password("pencil".toCharArray())
+ *     .buildFactory();
+ *
+ * // For each connection
+ * ScramClient scramClient = factory.newClient();
+ * ClientFirstMessage clientFirstMsg = scramClient.clientFirstMessage();
+ * ...
+ *
+ * // When the credentials are no longer needed
+ * factory.destroy();
+ * }</pre>
+ *
+ * @apiNote This class is thread-safe, the {@link ScramClient} instances it creates are not. The
+ *          factory keeps a copy of the password, or the keys, until it's destroyed.
+ * @since 3.5
+ */
+public final class ScramClientFactory implements Destroyable {
+
+  final ScramMechanism scramMechanism;
+  final Gs2Header gs2Header;
+  final StringPreparation stringPreparation;
+  final String username;
+  final byte[] cbindData;
+  final ClientKeyCache clientKeyCache;
+  final DerivationHints derivationHints;
+  final Executor speculationExecutor;
+  private final char[] password;
+  private final byte[] saltedPassword;
+  private final byte[] clientKey;
+  private final byte[] serverKey;
+  private final int nonceLength;
+  private final Supplier<String> nonceSupplier;
+  private final SecureRandom secureRandom;
+  private volatile boolean destroyed;
+
+  /**
+   * Constructs a factory from a builder whose mechanism has been negotiated.
+   *
+   * @param builder the builder, which is not retained
+   */
+  ScramClientFactory(@NotNull ScramClient.Builder builder) {
+    this.scramMechanism = builder.selectedScramMechanism;
+    this.gs2Header = new Gs2Header(builder.channelBinding, builder.cbindType, builder.authzid);
+    this.stringPreparation = builder.stringPreparation;
+    this.username = builder.username;
+    this.cbindData = builder.cbindData != null ? builder.cbindData.clone() : null;
+    this.clientKeyCache = builder.clientKeyCache;
+    this.derivationHints = builder.derivationHints;
+    this.speculationExecutor = builder.speculationExecutor;
+    this.password = builder.password != null ? builder.password.clone() : null;
+    this.saltedPassword = builder.saltedPassword != null ? builder.saltedPassword.clone() : null;
+    this.clientKey = builder.clientKey != null ? builder.clientKey.clone() : null;
+    this.serverKey = builder.serverKey != null ? builder.serverKey.clone() : null;
+    this.nonceLength = builder.nonceLength;
+    this.nonceSupplier = builder.nonceSupplier;
+    this.secureRandom = builder.secureRandom;
+  }
+
+  /**
+   * Returns the SCRAM mechanism negotiated for the clients of this factory.
+   *
+   * @return the SCRAM mechanism selected during the negotiation
+   */
+  public @NotNull ScramMechanism getScramMechanism() {
+    return scramMechanism;
+  }
+
+  /**
+   * Creates a client, with a new nonce, ready to start the message flow with the server.
+   *
+   * @return a new ScramClient
+   * @throws IllegalStateException if the factory has been destroyed
+   */
+  public @NotNull ScramClient newClient() {
+    checkNotDestroyed();
+    final String nonce;
+    if (nonceSupplier != null) {
+      nonce = nonceSupplier.get();
+    } else if (secureRandom != null) {
+      nonce = ScramFunctions.nonce(nonceLength, secureRandom);
+    } else {
+      nonce = ScramFunctions.nonce(nonceLength);
+    }
+    final ScramClient client = new ScramClient(this, nonce, copy(password), copy(saltedPassword),
+        copy(clientKey), copy(serverKey));
+    if (destroyed) {
+      // Destroyed while copying, the copies may be partially wiped
+      client.wipeSecrets();
+      checkNotDestroyed();
+    }
+    return client;
+  }
+
+  /**
+   * Wipes the password, or the keys, held by this factory, after which no more clients can be
+   * created. The clients already created are not affected.
+   */
+  @Override
+  public void destroy() {
+    destroyed = true;
+    if (password != null) {
+      Arrays.fill(password, (char) 0);
+    }
+    if (saltedPassword != null) {
+      Arrays.fill(saltedPassword, (byte) 0);
+    }
+    if (clientKey != null) {
+      Arrays.fill(clientKey, (byte) 0);
+    }
+    if (serverKey != null) {
+      Arrays.fill(serverKey, (byte) 0);
+    }
+  }
+
+  @Override
+  public boolean isDestroyed() {
+    return destroyed;
+  }
+
+  private static char @Nullable [] copy(char @Nullable [] value) {
+    return value != null ? value.clone() : null;
+  }
+
+  private static byte @Nullable [] copy(byte @Nullable [] value) {
+    return value != null ? value.clone() : null;
+  }
+
+  private void checkNotDestroyed() {
+    if (destroyed) {
+      throw new IllegalStateException("The factory has been destroyed");
+    }
+  }
+
+}
@@ -8,6 +8,7 @@ package com.ongres.scram.client;
 import static com.ongres.scram.common.util.Preconditions.checkNotEmpty;
 import static com.ongres.scram.common.util.Preconditions.checkNotNull;
 
+import java.util.Arrays;
 import java.util.Base64;
 
 import com.ongres.scram.common.ClientFirstMessage;
@@ -15,7 +16,6 @@ import com.ongres.scram.common.ScramFunctions;
 import com.ongres.scram.common.ScramMechanism;
 import com.ongres.scram.common.ServerFirstMessage;
 import com.ongres.scram.common.StringPreparation;
-import com.ongres.scram.common.exception.ScramParseException;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -29,11 +29,11 @@ final class ServerFirstProcessor {
   private final ServerFirstMessage serverFirstMessage;
 
   ServerFirstProcessor(ScramMechanism scramMechanism, StringPreparation stringPreparation,
-      @NotNull String receivedServerFirstMessage, @NotNull String nonce,
-      @NotNull ClientFirstMessage clientFirstMessage) throws ScramParseException {
+      @NotNull ServerFirstMessage serverFirstMessage,
+      @NotNull ClientFirstMessage clientFirstMessage) {
     this.scramMechanism = scramMechanism;
     this.stringPreparation = stringPreparation;
-    this.serverFirstMessage = ServerFirstMessage.parseFrom(receivedServerFirstMessage, nonce);
+    this.serverFirstMessage = serverFirstMessage;
     this.clientFirstMessage = clientFirstMessage;
   }
 
@@ -51,13 +51,19 @@ final class ServerFirstProcessor {
    * @throws IllegalArgumentException If the message is null or empty
    */
   ClientFinalProcessor clientFinalProcessor(char[] password) {
-    return new ClientFinalProcessor(
+    final byte[][] keys = KeyDerivation.clientAndServerKey(
         scramMechanism,
         stringPreparation,
         checkNotEmpty(password, "password"),
         Base64.getDecoder().decode(serverFirstMessage.getSalt()),
-        clientFirstMessage,
-        serverFirstMessage);
+        serverFirstMessage.getIterationCount());
+    try {
+      return new ClientFinalProcessor(scramMechanism, keys[0], keys[1], clientFirstMessage,
+          serverFirstMessage);
+    } finally {
+      Arrays.fill(keys[0], (byte) 0);
+      Arrays.fill(keys[1], (byte) 0);
+    }
   }
 
   /**
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.client;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.StringPreparation;
+import com.ongres.scram.common.exception.ScramInterruptedException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A derivation of the ClientKey/ServerKey started before the {@code server-first-message} is
+ * received, from the salt and iteration count of a {@link DerivationHints} guess.
+ *
+ * <p>The derivation runs on an executor with its own copy of the password, which is wiped when it
+ * finishes or is cancelled. The keys are taken once, by {@link #takeKeys(byte[], int)}, if the
+ * received values match the guess; otherwise the derivation is cancelled, interrupting the thread
+ * running it.
+ */
+final class SpeculativeDerivation implements Runnable {
+
+  private final ScramMechanism scramMechanism;
+  private final StringPreparation stringPreparation;
+  private final char[] password;
+  private final byte[] salt;
+  private final int iterationCount;
+  private final CompletableFuture<byte[][]> keys = new CompletableFuture<>();
+  private boolean started;
+  private boolean cancelled;
+  private Thread worker;
+
+  private SpeculativeDerivation(ScramMechanism scramMechanism,
+      StringPreparation stringPreparation, char[] password, byte[] salt, int iterationCount) {
+    this.scramMechanism = scramMechanism;
+    this.stringPreparation = stringPreparation;
+    this.password = password.clone();
+    this.salt = salt;
+    this.iterationCount = iterationCount;
+  }
+
+  /**
+   * Starts a speculative derivation on the executor.
+   *
+   * @param executor the executor that runs the derivation
+   * @param scramMechanism the mechanism
+   * @param stringPreparation the preparation of the password
+   * @param password the password, which is copied
+   * @param salt the guessed salt
+   * @param iterationCount the guessed iteration count
+   * @return the started derivation, or null if the executor rejected it
+   */
+  static @Nullable SpeculativeDerivation start(@NotNull Executor executor,
+      @NotNull ScramMechanism scramMechanism, @NotNull StringPreparation stringPreparation,
+      char @NotNull [] password, byte @NotNull [] salt, int iterationCount) {
+    SpeculativeDerivation derivation = new SpeculativeDerivation(scramMechanism,
+        stringPreparation, password, salt, iterationCount);
+    try {
+      executor.execute(derivation);
+      return derivation;
+    } catch (RejectedExecutionException ex) {
+      // Just a speculation, the keys are derived when the server-first-message is received
+      derivation.cancel();
+      return null;
+    }
+  }
+
+  @Override
+  public void run() {
+    synchronized (this) {
+      if (started) {
+        // Cancelled before it started, the password is already wiped
+        return;
+      }
+      started = true;
+      worker = Thread.currentThread();
+    }
+    try {
+      keys.complete(KeyDerivation.clientAndServerKey(scramMechanism, stringPreparation, password,
+          salt, iterationCount));
+    } catch (RuntimeException | Error ex) {
+      keys.completeExceptionally(ex);
+    } finally {
+      Arrays.fill(password, (char) 0);
+      synchronized (this) {
+        worker = null;
+        if (cancelled) {
+          // Clear the interrupt raised by the cancellation, the thread belongs to the executor
+          Thread.interrupted();
+          wipe(derivedKeys());
+        }
+      }
+    }
+  }
+
+  /**
+   * Takes the derived keys if the guess matches the received salt and iteration count, waiting for
+   * the derivation to finish, or cancels the derivation otherwise.
+   *
+   * @param receivedSalt the salt of the {@code server-first-message}
+   * @param receivedIterationCount the iteration count of the {@code server-first-message}
+   * @return a two elements array with the ClientKey and the ServerKey, owned by the caller, or null
+   *         if the keys must be derived from the received values
+   * @throws ScramInterruptedException if the thread is interrupted while waiting
+   */
+  byte @Nullable [] @Nullable [] takeKeys(byte @NotNull [] receivedSalt,
+      int receivedIterationCount) {
+    if (receivedIterationCount != iterationCount || !Arrays.equals(receivedSalt, salt)) {
+      cancel();
+      return null;
+    }
+    try {
+      return keys.get();
+    } catch (InterruptedException ex) {
+      cancel();
+      Thread.currentThread().interrupt();
+      throw new ScramInterruptedException("Interrupted waiting for the PBKDF2 computation", ex);
+    } catch (ExecutionException | CancellationException ex) {
+      // The speculation failed, the keys are derived again with the received values
+      return null;
+    }
+  }
+
+  /**
+   * Cancels the derivation: wipes the password if it has not started yet, interrupts the thread
+   * running it, or wipes the keys if it has finished.
+   */
+  synchronized void cancel() {
+    cancelled = true;
+    if (!started) {
+      started = true;
+      Arrays.fill(password, (char) 0);
+      keys.cancel(false);
+    } else if (worker != null) {
+      worker.interrupt();
+    } else {
+      wipe(derivedKeys());
+    }
+  }
+
+  private byte @Nullable [] @Nullable [] derivedKeys() {
+    return keys.isDone() && !keys.isCompletedExceptionally() ? keys.join() : null;
+  }
+
+  private static void wipe(byte @Nullable [] @Nullable [] derived) {
+    if (derived != null) {
+      Arrays.fill(derived[0], (byte) 0);
+      Arrays.fill(derived[1], (byte) 0);
+    }
+  }
+
+}
@@ -7,20 +7,45 @@ package com.example;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
-
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.ongres.scram.client.ClientKeyCache;
+import com.ongres.scram.client.ClientKeyCacheFile;
+import com.ongres.scram.client.DerivationHints;
 import com.ongres.scram.client.ScramClient;
+import com.ongres.scram.client.ScramClientEngine;
+import com.ongres.scram.client.ScramClientEngine.Status;
+import com.ongres.scram.client.ScramClientFactory;
 import com.ongres.scram.common.ClientFinalMessage;
 import com.ongres.scram.common.ScramFunctions;
 import com.ongres.scram.common.ScramMechanism;
 import com.ongres.scram.common.StringPreparation;
 import com.ongres.scram.common.exception.ScramInvalidServerSignatureException;
+import com.ongres.scram.common.exception.ScramParseException;
 import com.ongres.scram.common.exception.ScramServerErrorException;
 import com.ongres.scram.common.util.TlsServerEndpoint;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class ScramClientTest {
 
@@ -86,6 +111,190 @@ class ScramClientTest {
         () -> scramSession.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
   }
 
+  @Test
+  void completeTestByteBuffer() throws Exception {
+    ScramClient scramSession = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256", "SCRAM-SHA-256-PLUS"))
+        .username("user")
+        .password("pencil".toCharArray())
+        .channelBinding(TlsServerEndpoint.TLS_SERVER_END_POINT, CBIND_DATA)
+        .nonceSupplier(() -> "rOprNGfwEbeRWgbNEkqO")
+        .build();
+    ByteBuffer out = ByteBuffer.allocateDirect(256);
+    scramSession.clientFirstMessage().encodeTo(out);
+    assertEquals("p=tls-server-end-point,,n=user,r=rOprNGfwEbeRWgbNEkqO", flip(out));
+
+    ByteBuffer in = ByteBuffer.allocateDirect(256);
+    in.put(("r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0,"
+        + "s=W22ZaJ0SNY7soEsUEjb6gQ==,i=4096").getBytes(StandardCharsets.UTF_8)).flip();
+    assertEquals(4096, scramSession.serverFirstMessage(in).getIterationCount());
+    assertFalse(in.hasRemaining());
+
+    out.clear();
+    scramSession.clientFinalMessage().encodeTo(out);
+    assertEquals(
+        "c=cD10bHMtc2VydmVyLWVuZC1wb2ludCwsDv4abLuK1TiHcq3tJ"
+            + "XrHODILGFQuC1M4kfP4w7dyRvjadaqGq8D/Po1XeJZpzUqal+mAKXNGytneo5KPOsJnYA=="
+            + ",r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0"
+            + ",p=WIBtRXGH4I4R2CU1/tHa2YREwrJjLFa3/pKJQH/0Ofo=",
+        flip(out));
+
+    in.clear();
+    in.put("v=9k31qsYXd74d6BnbFf9jE+r9un6a8ou85FYeNxDAdqc=".getBytes(StandardCharsets.UTF_8))
+        .flip();
+    assertFalse(scramSession.serverFinalMessage(in).isError());
+    assertFalse(in.hasRemaining());
+  }
+
+  @Test
+  void engineTest() throws Exception {
+    ScramClientEngine engine = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256", "SCRAM-SHA-256-PLUS"))
+        .username("user")
+        .password("pencil".toCharArray())
+        .nonceSupplier(() -> "rOprNGfwEbeRWgbNEkqO")
+        .build()
+        .engine();
+    ByteBuffer in = ByteBuffer.allocate(256).flip();
+    ByteBuffer out = ByteBuffer.allocate(10);
+    assertEquals(Status.BUFFER_OVERFLOW, engine.step(in, out));
+    assertEquals(0, out.position());
+    out = ByteBuffer.allocate(256);
+    assertEquals(Status.OUTPUT_READY, engine.step(in, out));
+    assertEquals("n,,n=user,r=rOprNGfwEbeRWgbNEkqO", flip(out));
+    out.clear();
+    assertEquals(Status.NEED_INPUT, engine.step(in, out));
+
+    in.clear();
+    in.put(("r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0,"
+        + "s=W22ZaJ0SNY7soEsUEjb6gQ==,i=4096").getBytes(StandardCharsets.UTF_8)).flip();
+    assertEquals(Status.NEED_TASK, engine.step(in, out));
+    assertEquals(Status.NEED_TASK, engine.step(in, out));
+    Runnable task = engine.getDelegatedTask();
+    assertNotNull(task);
+    assertNull(engine.getDelegatedTask());
+    CompletableFuture.runAsync(task).get(10, TimeUnit.SECONDS);
+
+    assertEquals(Status.OUTPUT_READY, engine.step(in, out));
+    assertEquals("c=biws,r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0"
+        + ",p=dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=", flip(out));
+    out.clear();
+    assertEquals(Status.NEED_INPUT, engine.step(in, out));
+
+    in.clear();
+    in.put("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4=".getBytes(StandardCharsets.UTF_8))
+        .flip();
+    assertEquals(Status.COMPLETE, engine.step(in, out));
+    assertEquals(0, out.position());
+    assertEquals(Status.COMPLETE, engine.step(in, out));
+  }
+
+  @Test
+  void engineWithoutTask() throws Exception {
+    ScramMechanism mechanism = ScramMechanism.SCRAM_SHA_256;
+    byte[] saltedPassword = ScramFunctions.saltedPassword(mechanism,
+        StringPreparation.SASL_PREPARATION, "pencil".toCharArray(),
+        Base64.getDecoder().decode("W22ZaJ0SNY7soEsUEjb6gQ=="), 4096);
+    ScramClientEngine engine = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256"))
+        .username("user")
+        .saltedPassword(saltedPassword)
+        .nonceSupplier(() -> "rOprNGfwEbeRWgbNEkqO")
+        .build()
+        .engine();
+    ByteBuffer in = ByteBuffer.allocate(256).flip();
+    ByteBuffer out = ByteBuffer.allocate(256);
+    assertEquals(Status.OUTPUT_READY, engine.step(in, out));
+    out.clear();
+
+    in.clear();
+    in.put(("r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0,"
+        + "s=W22ZaJ0SNY7soEsUEjb6gQ==,i=4096").getBytes(StandardCharsets.UTF_8)).flip();
+    assertEquals(Status.OUTPUT_READY, engine.step(in, out));
+    assertNull(engine.getDelegatedTask());
+    assertEquals("c=biws,r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0"
+        + ",p=dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=", flip(out));
+
+    in.clear();
+    in.put("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4=".getBytes(StandardCharsets.UTF_8))
+        .flip();
+    assertEquals(Status.COMPLETE, engine.step(in, out));
+  }
+
+  @Test
+  void engineFailure() {
+    ScramClient scramClient = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256"))
+        .username("user")
+        .password("pencil".toCharArray())
+        .nonceSupplier(() -> "rOprNGfwEbeRWgbNEkqO")
+        .build();
+    ScramClientEngine engine = scramClient.engine();
+    ByteBuffer in = ByteBuffer.allocate(0);
+    ByteBuffer out = ByteBuffer.allocate(256);
+    assertDoesNotThrow(() -> engine.step(in, out));
+    assertThrows(IllegalStateException.class, scramClient::engine);
+    ByteBuffer invalid = ByteBuffer.wrap("r=otherNonce,s=W22ZaJ0SNY7soEsUEjb6gQ==,i=4096"
+        .getBytes(StandardCharsets.UTF_8));
+    assertThrows(ScramParseException.class, () -> engine.step(invalid, out));
+    assertThrows(IllegalStateException.class, () -> engine.step(invalid, out));
+  }
+
+  private static String flip(ByteBuffer buffer) {
+    buffer.flip();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void clientFactory() {
+    ScramClientFactory factory = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256", "SCRAM-SHA-256-PLUS"))
+        .username("user")
+        .password("pencil".toCharArray())
+        .channelBinding(TlsServerEndpoint.TLS_SERVER_END_POINT, CBIND_DATA)
+        .nonceSupplier(() -> "rOprNGfwEbeRWgbNEkqO")
+        .buildFactory();
+    assertEquals("SCRAM-SHA-256-PLUS", factory.getScramMechanism().getName());
+    for (int i = 0; i < 2; i++) {
+      ScramClient scramSession = factory.newClient();
+      assertEquals("p=tls-server-end-point,,n=user,r=rOprNGfwEbeRWgbNEkqO",
+          scramSession.clientFirstMessage().toString());
+      assertDoesNotThrow(
+          () -> scramSession.serverFirstMessage(
+              "r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0,"
+                  + "s=W22ZaJ0SNY7soEsUEjb6gQ==,"
+                  + "i=4096"));
+      assertEquals(
+          "c=cD10bHMtc2VydmVyLWVuZC1wb2ludCwsDv4abLuK1TiHcq3tJ"
+              + "XrHODILGFQuC1M4kfP4w7dyRvjadaqGq8D/Po1XeJZpzUqal+mAKXNGytneo5KPOsJnYA=="
+              + ",r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0"
+              + ",p=WIBtRXGH4I4R2CU1/tHa2YREwrJjLFa3/pKJQH/0Ofo=",
+          scramSession.clientFinalMessage().toString());
+      assertDoesNotThrow(
+          () -> scramSession.serverFinalMessage("v=9k31qsYXd74d6BnbFf9jE+r9un6a8ou85FYeNxDAdqc="));
+    }
+
+    factory.destroy();
+    assertTrue(factory.isDestroyed());
+    assertThrows(IllegalStateException.class, factory::newClient);
+  }
+
+  @Test
+  void clientFactoryNonces() {
+    ScramClientFactory factory = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256"))
+        .username("user")
+        .password("pencil".toCharArray())
+        .nonceLength(32)
+        .buildFactory();
+    String nonce1 = factory.newClient().clientFirstMessage().getClientNonce();
+    String nonce2 = factory.newClient().clientFirstMessage().getClientNonce();
+    assertEquals(32, nonce1.length());
+    assertNotEquals(nonce1, nonce2);
+  }
+
   @Test
   void iterationTest() {
     ScramClient scramSession = ScramClient.builder()
@@ -202,4 +411,301 @@ class ScramClientTest {
         () -> scramSession.serverFinalMessage("e=invalid-proof"));
   }
 
+  @Test
+  void completeTestAsync() throws Exception {
+    ScramClient scramSession = asyncSession();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      ClientFinalMessage clientFinalMessage = scramSession.clientFinalMessageAsync(executor)
+          .toCompletableFuture().get(30, TimeUnit.SECONDS);
+      assertEquals(
+          "c=biws,r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0"
+              + ",p=dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=",
+          clientFinalMessage.toString());
+    } finally {
+      executor.shutdown();
+    }
+
+    assertDoesNotThrow(
+        () -> scramSession.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+  }
+
+  @Test
+  void completeTestAsyncBuiltInExecutor() throws Exception {
+    ScramClient scramSession = asyncSession();
+    ClientFinalMessage clientFinalMessage = scramSession.clientFinalMessageAsync()
+        .thenApply(message -> {
+          // Dependent actions already see the client in the client-final stage
+          assertDoesNotThrow(() -> scramSession.serverFinalMessage(
+              "v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+          return message;
+        })
+        .toCompletableFuture().get(30, TimeUnit.SECONDS);
+    assertEquals(
+        "c=biws,r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0"
+            + ",p=dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=",
+        clientFinalMessage.toString());
+  }
+
+  @Test
+  void asyncPendingStage() {
+    ScramClient scramSession = asyncSession();
+    List<Runnable> tasks = new ArrayList<>();
+    CompletableFuture<ClientFinalMessage> future =
+        scramSession.clientFinalMessageAsync(tasks::add).toCompletableFuture();
+
+    // No other message can be processed until the computation completes
+    assertThrows(IllegalStateException.class, scramSession::clientFinalMessage);
+    assertThrows(IllegalStateException.class,
+        () -> scramSession.clientFinalMessageAsync(Runnable::run));
+    assertThrows(IllegalStateException.class,
+        () -> scramSession.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+
+    assertEquals(1, tasks.size());
+    tasks.get(0).run();
+    assertTrue(future.isDone());
+    assertDoesNotThrow(
+        () -> scramSession.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+  }
+
+  @Test
+  void asyncCancelledBeforeStart() {
+    ScramClient scramSession = asyncSession();
+    List<Runnable> tasks = new ArrayList<>();
+    CompletableFuture<ClientFinalMessage> future =
+        scramSession.clientFinalMessageAsync(tasks::add).toCompletableFuture();
+    assertTrue(future.cancel(true));
+
+    // The task does nothing once cancelled, and the client can't be used anymore
+    tasks.get(0).run();
+    assertTrue(future.isCancelled());
+    assertThrows(IllegalStateException.class, scramSession::clientFinalMessage);
+    assertThrows(IllegalStateException.class,
+        () -> scramSession.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+  }
+
+  @Test
+  void asyncCancelledWhileRunning() throws Exception {
+    ScramClient scramSession = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256"))
+        .username("user")
+        .password("pencil".toCharArray())
+        .nonceSupplier(() -> "rOprNGfwEbeRWgbNEkqO")
+        .build();
+    scramSession.clientFirstMessage();
+    assertDoesNotThrow(
+        () -> scramSession.serverFirstMessage(
+            "r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0,"
+                + "s=W22ZaJ0SNY7soEsUEjb6gQ==,"
+                + "i=" + Integer.MAX_VALUE));
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      CompletableFuture<ClientFinalMessage> future =
+          scramSession.clientFinalMessageAsync(executor).toCompletableFuture();
+      Thread.sleep(50);
+      assertTrue(future.cancel(true));
+
+      // The interrupted computation stops, and the executor thread can run other tasks
+      assertEquals("done", executor.submit(() -> {
+        assertFalse(Thread.currentThread().isInterrupted());
+        return "done";
+      }).get(30, TimeUnit.SECONDS));
+      assertThrows(IllegalStateException.class,
+          () -> scramSession.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void asyncRejectedExecution() {
+    ScramClient scramSession = asyncSession();
+    CompletableFuture<ClientFinalMessage> future = scramSession.clientFinalMessageAsync(task -> {
+      throw new RejectedExecutionException("full");
+    }).toCompletableFuture();
+    CompletionException ex = assertThrows(CompletionException.class, future::join);
+    assertTrue(ex.getCause() instanceof RejectedExecutionException);
+    assertThrows(IllegalStateException.class, scramSession::clientFinalMessage);
+  }
+
+  @Test
+  void clientKeyCache() {
+    ClientKeyCache cache = ClientKeyCache.create(16, Duration.ofMinutes(5));
+    for (int i = 0; i < 3; i++) {
+      ScramClient scramSession = cachedSession(cache, "pencil");
+      ClientFinalMessage clientFinalMessage = scramSession.clientFinalMessage();
+      assertEquals(
+          "c=biws,r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0"
+              + ",p=dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=",
+          clientFinalMessage.toString());
+      assertDoesNotThrow(
+          () -> scramSession.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+      assertEquals(1, cache.size());
+    }
+
+    // Another password is not served from the entry of the first one
+    ScramClient otherPassword = cachedSession(cache, "pencil2");
+    assertFalse(otherPassword.clientFinalMessage().toString()
+        .endsWith(",p=dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ="));
+    assertThrows(ScramInvalidServerSignatureException.class,
+        () -> otherPassword.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+    assertEquals(1, cache.size());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void clientKeyCacheFile(@TempDir Path dir) throws Exception {
+    Path path = dir.resolve("client-keys");
+    byte[] fileKey = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(path, 16, fileKey)) {
+      ClientKeyCache cache = ClientKeyCache.create(16, Duration.ofMinutes(5), file);
+      ScramClient scramSession = cachedSession(cache, "pencil");
+      scramSession.clientFinalMessage();
+      assertDoesNotThrow(
+          () -> scramSession.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+    }
+
+    // After a restart, the keys are read from the file before the server-final-message
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(path, 16, fileKey)) {
+      ClientKeyCache cache = ClientKeyCache.create(16, Duration.ofMinutes(5), file);
+      assertEquals(0, cache.size());
+      ScramClient scramSession = cachedSession(cache, "pencil");
+      assertEquals(
+          "c=biws,r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0"
+              + ",p=dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=",
+          scramSession.clientFinalMessage().toString());
+      assertEquals(1, cache.size());
+      assertDoesNotThrow(
+          () -> scramSession.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+    }
+  }
+
+  @Test
+  void clientKeyCacheEvictedOnFailure() {
+    ClientKeyCache cache = ClientKeyCache.create(16, Duration.ofMinutes(5));
+    ScramClient first = cachedSession(cache, "pencil");
+    first.clientFinalMessage();
+    assertDoesNotThrow(
+        () -> first.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+    assertEquals(1, cache.size());
+
+    // The server rejects the proof of the cached keys, e.g. the password was changed
+    ScramClient second = cachedSession(cache, "pencil");
+    second.clientFinalMessage();
+    assertThrows(ScramServerErrorException.class,
+        () -> second.serverFinalMessage("e=invalid-proof"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void speculativeDerivation() {
+    DerivationHints hints = DerivationHints.create(16);
+    List<Runnable> tasks = new ArrayList<>();
+
+    // Nothing to guess on the first connection
+    ScramClient first = speculativeSession(hints, tasks, "i=4096");
+    assertTrue(tasks.isEmpty());
+    assertEquals(1, hints.size());
+    assertEquals(",p=dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=",
+        proof(first.clientFinalMessage()));
+
+    // The derivation starts with the client-first-message, and is used by the client-final-message
+    ScramClient second = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256"))
+        .username("user")
+        .password("pencil".toCharArray())
+        .speculativeDerivation(hints, tasks::add)
+        .nonceSupplier(() -> "rOprNGfwEbeRWgbNEkqO")
+        .build();
+    second.clientFirstMessage();
+    assertEquals(1, tasks.size());
+    tasks.remove(0).run();
+    assertDoesNotThrow(
+        () -> second.serverFirstMessage(
+            "r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0,"
+                + "s=W22ZaJ0SNY7soEsUEjb6gQ==,"
+                + "i=4096"));
+    assertEquals(",p=dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=",
+        proof(second.clientFinalMessage()));
+    assertDoesNotThrow(
+        () -> second.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+  }
+
+  @Test
+  void speculativeDerivationMismatch() {
+    DerivationHints hints = DerivationHints.create(16);
+    List<Runnable> tasks = new ArrayList<>();
+    speculativeSession(hints, tasks, "i=4097");
+    assertTrue(tasks.isEmpty());
+
+    // The guess (4097 iterations) is discarded, and the keys derived from the received values
+    ScramClient scramSession = speculativeSession(hints, tasks, "i=4096");
+    assertEquals(1, tasks.size());
+    assertEquals(",p=dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=",
+        proof(scramSession.clientFinalMessage()));
+    assertDoesNotThrow(
+        () -> scramSession.serverFinalMessage("v=6rriTRBi23WpRR/wtup+mMhUZUn/dB5nLTJRsjl95G4="));
+    // The cancelled derivation does nothing when the executor runs it
+    assertDoesNotThrow(() -> tasks.remove(0).run());
+  }
+
+  private static ScramClient speculativeSession(DerivationHints hints, List<Runnable> tasks,
+      String iterations) {
+    ScramClient scramSession = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256"))
+        .username("user")
+        .password("pencil".toCharArray())
+        .speculativeDerivation(hints, tasks::add)
+        .nonceSupplier(() -> "rOprNGfwEbeRWgbNEkqO")
+        .build();
+    scramSession.clientFirstMessage();
+    assertDoesNotThrow(
+        () -> scramSession.serverFirstMessage(
+            "r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0,"
+                + "s=W22ZaJ0SNY7soEsUEjb6gQ==,"
+                + iterations));
+    return scramSession;
+  }
+
+  private static String proof(ClientFinalMessage clientFinalMessage) {
+    String message = clientFinalMessage.toString();
+    return message.substring(message.lastIndexOf(",p="));
+  }
+
+  private static ScramClient cachedSession(ClientKeyCache cache, String password) {
+    ScramClient scramSession = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256"))
+        .username("user")
+        .password(password.toCharArray())
+        .clientKeyCache(cache)
+        .nonceSupplier(() -> "rOprNGfwEbeRWgbNEkqO")
+        .build();
+    scramSession.clientFirstMessage();
+    assertDoesNotThrow(
+        () -> scramSession.serverFirstMessage(
+            "r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0,"
+                + "s=W22ZaJ0SNY7soEsUEjb6gQ==,"
+                + "i=4096"));
+    return scramSession;
+  }
+
+  private static ScramClient asyncSession() {
+    ScramClient scramSession = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256"))
+        .username("user")
+        .password("pencil".toCharArray())
+        .nonceSupplier(() -> "rOprNGfwEbeRWgbNEkqO")
+        .build();
+    scramSession.clientFirstMessage();
+    assertDoesNotThrow(
+        () -> scramSession.serverFirstMessage(
+            "r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0,"
+                + "s=W22ZaJ0SNY7soEsUEjb6gQ==,"
+                + "i=4096"));
+    return scramSession;
+  }
+
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.StringPreparation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ClientKeyCacheFileTest {
+
+  private static final byte[] SALT = {1, 2, 3, 4};
+  private static final byte[] CLIENT_KEY = new byte[32];
+  private static final byte[] SERVER_KEY = new byte[32];
+  private static final byte[] FILE_KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  static {
+    Arrays.fill(CLIENT_KEY, (byte) 10);
+    Arrays.fill(SERVER_KEY, (byte) 20);
+  }
+
+  @TempDir
+  Path dir;
+
+  private static ClientKeyCache.Key key(ClientKeyCacheFile file, String username) {
+    ClientKeyCache cache = ClientKeyCache.create(4, Duration.ofMinutes(1), file);
+    return cache.key(ScramMechanism.SCRAM_SHA_256, StringPreparation.SASL_PREPARATION, username,
+        "pencil".toCharArray(), SALT, 4096);
+  }
+
+  @Test
+  void putAndGet() throws IOException {
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(dir.resolve("keys"), 8, FILE_KEY)) {
+      ClientKeyCache.Key key = key(file, "user");
+      assertNull(file.get(key));
+
+      file.put(key, CLIENT_KEY, SERVER_KEY, 60_000);
+      ClientKeyCacheFile.StoredKeys stored = file.get(key);
+      assertNotNull(stored);
+      assertArrayEquals(CLIENT_KEY, stored.clientKey);
+      assertArrayEquals(SERVER_KEY, stored.serverKey);
+      assertNull(file.get(key(file, "other")));
+
+      file.remove(key);
+      assertNull(file.get(key));
+    }
+    assertEquals(64 + 8 * 208, Files.size(dir.resolve("keys")));
+  }
+
+  @Test
+  void persistsAcrossReopen() throws IOException {
+    Path path = dir.resolve("keys");
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(path, 8, FILE_KEY)) {
+      file.put(key(file, "user1"), CLIENT_KEY, SERVER_KEY, 60_000);
+      file.put(key(file, "user2"), SERVER_KEY, CLIENT_KEY, 60_000);
+    }
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(path, 8, FILE_KEY)) {
+      assertArrayEquals(CLIENT_KEY, file.get(key(file, "user1")).clientKey);
+      assertArrayEquals(CLIENT_KEY, file.get(key(file, "user2")).serverKey);
+
+      file.clear();
+      assertNull(file.get(key(file, "user1")));
+    }
+  }
+
+  @Test
+  void reinitializedWithAnotherKeyOrCapacity() throws IOException {
+    Path path = dir.resolve("keys");
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(path, 8, FILE_KEY)) {
+      file.put(key(file, "user"), CLIENT_KEY, SERVER_KEY, 60_000);
+    }
+    byte[] otherKey = FILE_KEY.clone();
+    otherKey[0]++;
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(path, 8, otherKey)) {
+      assertNull(file.get(key(file, "user")));
+      file.put(key(file, "user"), CLIENT_KEY, SERVER_KEY, 60_000);
+    }
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(path, 4, otherKey)) {
+      assertNull(file.get(key(file, "user")));
+    }
+    assertEquals(64 + 4 * 208, Files.size(path));
+  }
+
+  @Test
+  void expiredEntriesNotReturned() throws IOException {
+    AtomicLong now = new AtomicLong(1_000_000);
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(dir.resolve("keys"), 8, FILE_KEY,
+        now::get)) {
+      ClientKeyCache.Key key = key(file, "user");
+      file.put(key, CLIENT_KEY, SERVER_KEY, 10_000);
+      now.addAndGet(9_000);
+      assertEquals(1_000, file.get(key).timeToLiveMillis);
+      now.addAndGet(1_000);
+      assertNull(file.get(key));
+    }
+  }
+
+  @Test
+  void tamperedRecordIsMiss() throws IOException {
+    Path path = dir.resolve("keys");
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(path, 1, FILE_KEY)) {
+      file.put(key(file, "user"), CLIENT_KEY, SERVER_KEY, 60_000);
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      // The first byte of the ciphertext of the only record
+      ByteBuffer ciphertext = ByteBuffer.allocate(1);
+      channel.read(ciphertext, 64 + 60);
+      ciphertext.put(0, (byte) (ciphertext.get(0) ^ 1));
+      ciphertext.rewind();
+      channel.write(ciphertext, 64 + 60);
+    }
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(path, 1, FILE_KEY)) {
+      assertNull(file.get(key(file, "user")));
+    }
+  }
+
+  @Test
+  void replacesEntryExpiringFirstWhenFull() throws IOException {
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(dir.resolve("keys"), 2, FILE_KEY)) {
+      file.put(key(file, "user1"), CLIENT_KEY, SERVER_KEY, 10_000);
+      file.put(key(file, "user2"), CLIENT_KEY, SERVER_KEY, 60_000);
+      file.put(key(file, "user3"), CLIENT_KEY, SERVER_KEY, 60_000);
+      assertNull(file.get(key(file, "user1")));
+      assertNotNull(file.get(key(file, "user2")));
+      assertNotNull(file.get(key(file, "user3")));
+    }
+  }
+
+  @Test
+  void cacheLoadsEvictLeastRecentlyUsed() throws IOException {
+    try (ClientKeyCacheFile file = ClientKeyCacheFile.open(dir.resolve("keys"), 8, FILE_KEY)) {
+      ClientKeyCache cache = ClientKeyCache.create(2, Duration.ofMinutes(1), file);
+      ClientKeyCache.Key[] keys = new ClientKeyCache.Key[4];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = cache.key(ScramMechanism.SCRAM_SHA_256, StringPreparation.SASL_PREPARATION,
+            "user" + i, "pencil".toCharArray(), SALT, 4096);
+        file.put(keys[i], CLIENT_KEY, SERVER_KEY, 60_000);
+      }
+      // Each entry read from the file is kept in memory, up to the maximum size
+      for (ClientKeyCache.Key key : keys) {
+        assertArrayEquals(CLIENT_KEY, cache.get(key)[0]);
+        assertEquals(Math.min(2, Arrays.asList(keys).indexOf(key) + 1), cache.size());
+      }
+      file.clear();
+      assertNull(cache.get(keys[1]));
+      assertNotNull(cache.get(keys[2]));
+      assertNotNull(cache.get(keys[3]));
+    }
+  }
+
+  @Test
+  void closedFileIsEmpty() throws IOException {
+    ClientKeyCacheFile file = ClientKeyCacheFile.open(dir.resolve("keys"), 8, FILE_KEY);
+    ClientKeyCache.Key key = key(file, "user");
+    file.put(key, CLIENT_KEY, SERVER_KEY, 60_000);
+    file.close();
+    assertNull(file.get(key));
+    file.close();
+  }
+
+  @Test
+  void invalidArguments() {
+    Path path = dir.resolve("keys");
+    assertThrows(IllegalArgumentException.class,
+        () -> ClientKeyCacheFile.open(path, 0, FILE_KEY));
+    assertThrows(IllegalArgumentException.class,
+        () -> ClientKeyCacheFile.open(path, 8, new byte[15]));
+    assertThrows(IllegalArgumentException.class,
+        () -> ClientKeyCacheFile.open(null, 8, FILE_KEY));
+  }
+
+}
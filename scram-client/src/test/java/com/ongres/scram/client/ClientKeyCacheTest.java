@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.StringPreparation;
+import org.junit.jupiter.api.Test;
+
+class ClientKeyCacheTest {
+
+  private static final byte[] SALT = {1, 2, 3, 4};
+  private static final byte[] CLIENT_KEY = {10, 11, 12};
+  private static final byte[] SERVER_KEY = {20, 21, 22};
+
+  private static ClientKeyCache.Key key(ClientKeyCache cache, String username, String password) {
+    return cache.key(ScramMechanism.SCRAM_SHA_256, StringPreparation.SASL_PREPARATION, username,
+        password.toCharArray(), SALT, 4096);
+  }
+
+  @Test
+  void getReturnsCopies() {
+    ClientKeyCache cache = ClientKeyCache.create(4, Duration.ofMinutes(1));
+    ClientKeyCache.Key key = key(cache, "user", "pencil");
+    assertNull(cache.get(key));
+
+    cache.put(key, CLIENT_KEY, SERVER_KEY);
+    byte[][] keys = cache.get(key(cache, "user", "pencil"));
+    assertNotNull(keys);
+    assertArrayEquals(CLIENT_KEY, keys[0]);
+    assertArrayEquals(SERVER_KEY, keys[1]);
+
+    Arrays.fill(keys[0], (byte) 0);
+    assertArrayEquals(CLIENT_KEY, cache.get(key)[0]);
+  }
+
+  @Test
+  void keyComponents() {
+    ClientKeyCache cache = ClientKeyCache.create(4, Duration.ofMinutes(1));
+    ClientKeyCache.Key key = key(cache, "user", "pencil");
+    assertEquals(key, key(cache, "user", "pencil"));
+    // Both are normalized to "IX" by SASLprep
+    assertEquals(key(cache, "I­X", "pencil"), key(cache, "IX", "pencil"));
+    assertEquals(key(cache, "user", "I­X"), key(cache, "user", "IX"));
+    assertNotEquals(key, key(cache, "other", "pencil"));
+    assertNotEquals(key, key(cache, "user", "pencil2"));
+    assertNotEquals(key, cache.key(ScramMechanism.SCRAM_SHA_1, StringPreparation.SASL_PREPARATION,
+        "user", "pencil".toCharArray(), SALT, 4096));
+    assertNotEquals(key, cache.key(ScramMechanism.SCRAM_SHA_256,
+        StringPreparation.SASL_PREPARATION, "user", "pencil".toCharArray(), SALT, 4097));
+    assertNotEquals(key, cache.key(ScramMechanism.SCRAM_SHA_256,
+        StringPreparation.SASL_PREPARATION, "user", "pencil".toCharArray(), new byte[] {1}, 4096));
+
+    // The fingerprint secret is random per cache
+    ClientKeyCache other = ClientKeyCache.create(4, Duration.ofMinutes(1));
+    assertNotEquals(key, key(other, "user", "pencil"));
+  }
+
+  @Test
+  void expiresAfterTimeToLive() {
+    AtomicLong now = new AtomicLong();
+    ClientKeyCache cache = new ClientKeyCache(4, Duration.ofSeconds(10), now::get, null);
+    ClientKeyCache.Key key = key(cache, "user", "pencil");
+    cache.put(key, CLIENT_KEY, SERVER_KEY);
+
+    now.set(Duration.ofSeconds(9).toNanos());
+    assertNotNull(cache.get(key));
+    now.set(Duration.ofSeconds(10).toNanos());
+    assertNull(cache.get(key));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void expiredEntriesEvictedOnPut() {
+    AtomicLong now = new AtomicLong();
+    ClientKeyCache cache = new ClientKeyCache(4, Duration.ofSeconds(10), now::get, null);
+    cache.put(key(cache, "user1", "pencil"), CLIENT_KEY, SERVER_KEY);
+    cache.put(key(cache, "user2", "pencil"), CLIENT_KEY, SERVER_KEY);
+    assertEquals(2, cache.size());
+
+    now.set(Duration.ofSeconds(15).toNanos());
+    cache.put(key(cache, "user3", "pencil"), CLIENT_KEY, SERVER_KEY);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsed() {
+    ClientKeyCache cache = ClientKeyCache.create(2, Duration.ofMinutes(1));
+    ClientKeyCache.Key key1 = key(cache, "user1", "pencil");
+    ClientKeyCache.Key key2 = key(cache, "user2", "pencil");
+    ClientKeyCache.Key key3 = key(cache, "user3", "pencil");
+    cache.put(key1, CLIENT_KEY, SERVER_KEY);
+    cache.put(key2, CLIENT_KEY, SERVER_KEY);
+    assertNotNull(cache.get(key1));
+
+    cache.put(key3, CLIENT_KEY, SERVER_KEY);
+    assertEquals(2, cache.size());
+    assertNotNull(cache.get(key1));
+    assertNull(cache.get(key2));
+    assertNotNull(cache.get(key3));
+
+    cache.invalidate(key1);
+    assertNull(cache.get(key1));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void invalidArguments() {
+    assertThrows(IllegalArgumentException.class,
+        () -> ClientKeyCache.create(0, Duration.ofMinutes(1)));
+    assertThrows(IllegalArgumentException.class, () -> ClientKeyCache.create(1, Duration.ZERO));
+    assertThrows(IllegalArgumentException.class, () -> ClientKeyCache.create(1, null));
+  }
+
+}
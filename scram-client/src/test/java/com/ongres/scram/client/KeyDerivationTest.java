@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import javax.crypto.Mac;
+import javax.crypto.MacSpi;
+
+import com.ongres.scram.common.ScramFunctions;
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.StringPreparation;
+import com.ongres.scram.common.exception.ScramInterruptedException;
+import org.junit.jupiter.api.Test;
+
+class KeyDerivationTest {
+
+  private static final ScramMechanism MECHANISM = ScramMechanism.SCRAM_SHA_256;
+  private static final StringPreparation PREPARATION = StringPreparation.SASL_PREPARATION;
+
+  @Test
+  void concurrentDerivationsReceiveOwnCopies() throws Exception {
+    byte[] salt = Base64.getDecoder().decode("W22ZaJ0SNY7soEsUEjb6gQ==");
+    byte[] saltedPassword = ScramFunctions.saltedPassword(MECHANISM, PREPARATION,
+        "pencil".toCharArray(), salt, 4096);
+    byte[] clientKey = ScramFunctions.clientKey(MECHANISM, saltedPassword);
+    byte[] serverKey = ScramFunctions.serverKey(MECHANISM, saltedPassword);
+
+    int threads = 16;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<byte[][]>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return KeyDerivation.clientAndServerKey(MECHANISM, PREPARATION,
+              "pencil".toCharArray(), salt, 4096);
+        }));
+      }
+      start.countDown();
+      List<byte[][]> results = new ArrayList<>();
+      for (Future<byte[][]> future : futures) {
+        byte[][] keys = future.get(30, TimeUnit.SECONDS);
+        assertArrayEquals(clientKey, keys[0]);
+        assertArrayEquals(serverKey, keys[1]);
+        results.add(keys);
+      }
+      for (int i = 1; i < results.size(); i++) {
+        assertNotSame(results.get(0)[0], results.get(i)[0]);
+        assertNotSame(results.get(0)[1], results.get(i)[1]);
+      }
+      assertEquals(0, KeyDerivation.inFlight());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void interruptedWaiterDoesNotCancelComputation() throws Exception {
+    byte[] salt = ScramFunctions.salt(16, new SecureRandom());
+    Callable<byte[][]> derivation = () -> KeyDerivation.clientAndServerKey(MECHANISM,
+        PREPARATION, "pencil".toCharArray(), salt, Integer.MAX_VALUE);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      AtomicReference<Thread> leaderThread = new AtomicReference<>();
+      Future<byte[][]> leader = executor.submit(() -> {
+        leaderThread.set(Thread.currentThread());
+        return derivation.call();
+      });
+      awaitCondition(() -> KeyDerivation.inFlight() == 1);
+
+      AtomicReference<Thread> waiterThread = new AtomicReference<>();
+      AtomicReference<Boolean> interruptFlag = new AtomicReference<>();
+      Future<byte[][]> waiter = executor.submit(() -> {
+        waiterThread.set(Thread.currentThread());
+        try {
+          return derivation.call();
+        } finally {
+          interruptFlag.set(Thread.currentThread().isInterrupted());
+        }
+      });
+      awaitCondition(() -> waiterThread.get() != null
+          && waiterThread.get().getState() == Thread.State.WAITING);
+
+      waiterThread.get().interrupt();
+      ExecutionException waiterFailure = assertThrows(
+          ExecutionException.class, () -> waiter.get(10, TimeUnit.SECONDS));
+      assertInstanceOf(ScramInterruptedException.class, waiterFailure.getCause());
+      assertTrue(interruptFlag.get());
+
+      // The computation is still running
+      assertEquals(1, KeyDerivation.inFlight());
+      assertTrue(leaderThread.get().isAlive());
+
+      leaderThread.get().interrupt();
+      ExecutionException leaderFailure = assertThrows(
+          ExecutionException.class, () -> leader.get(10, TimeUnit.SECONDS));
+      assertInstanceOf(ScramInterruptedException.class, leaderFailure.getCause());
+      assertEquals(0, KeyDerivation.inFlight());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void waiterTakesOverInterruptedComputation() throws Exception {
+    byte[] salt = ScramFunctions.salt(16, new SecureRandom());
+    Callable<byte[][]> derivation = () -> KeyDerivation.clientAndServerKey(MECHANISM,
+        PREPARATION, "pencil".toCharArray(), salt, Integer.MAX_VALUE);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      AtomicReference<Thread> leaderThread = new AtomicReference<>();
+      Future<byte[][]> leader = executor.submit(() -> {
+        leaderThread.set(Thread.currentThread());
+        return derivation.call();
+      });
+      awaitCondition(() -> KeyDerivation.inFlight() == 1);
+
+      AtomicReference<Thread> waiterThread = new AtomicReference<>();
+      Future<byte[][]> waiter = executor.submit(() -> {
+        waiterThread.set(Thread.currentThread());
+        return derivation.call();
+      });
+      awaitCondition(() -> waiterThread.get() != null
+          && waiterThread.get().getState() == Thread.State.WAITING);
+
+      leaderThread.get().interrupt();
+      ExecutionException leaderFailure = assertThrows(
+          ExecutionException.class, () -> leader.get(10, TimeUnit.SECONDS));
+      assertInstanceOf(ScramInterruptedException.class, leaderFailure.getCause());
+
+      // The waiter doesn't fail, it computes the derivation itself
+      awaitCondition(() -> KeyDerivation.inFlight() == 1
+          && waiterThread.get().getState() == Thread.State.RUNNABLE);
+
+      waiterThread.get().interrupt();
+      ExecutionException waiterFailure = assertThrows(
+          ExecutionException.class, () -> waiter.get(10, TimeUnit.SECONDS));
+      assertInstanceOf(ScramInterruptedException.class, waiterFailure.getCause());
+      assertEquals(0, KeyDerivation.inFlight());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void failedComputationReachesEveryWaiter() throws Exception {
+    byte[] salt = ScramFunctions.salt(16, new SecureRandom());
+    int threads = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    // Not the mechanism of the fingerprint, which would block too
+    ScramMechanism mechanism = ScramMechanism.SCRAM_SHA_1;
+    mechanism.bindProvider(new BlockingProvider(), null);
+    try {
+      CountDownLatch release = new CountDownLatch(1);
+      BlockingMac.release = release;
+      List<Thread> threadList = new CopyOnWriteArrayList<>();
+      List<Future<byte[][]>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          threadList.add(Thread.currentThread());
+          return KeyDerivation.clientAndServerKey(mechanism, PREPARATION,
+              "pencil".toCharArray(), salt, 4096);
+        }));
+      }
+      // The computing thread waits for the release, and the others for the computation
+      awaitCondition(() -> threadList.size() == threads
+          && threadList.stream().allMatch(t -> t.getState() == Thread.State.WAITING));
+      assertEquals(1, KeyDerivation.inFlight());
+
+      release.countDown();
+      Throwable failure = null;
+      for (Future<byte[][]> future : futures) {
+        ExecutionException ex = assertThrows(
+            ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+        assertEquals("HMAC failed", ex.getCause().getMessage());
+        if (failure != null) {
+          assertSame(failure, ex.getCause());
+        }
+        failure = ex.getCause();
+      }
+      assertEquals(0, KeyDerivation.inFlight());
+    } finally {
+      BlockingMac.release = null;
+      mechanism.bindProvider(null);
+      executor.shutdownNow();
+    }
+  }
+
+  private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() - deadline < 0, "Timed out waiting for the condition");
+      Thread.sleep(5);
+    }
+  }
+
+  /**
+   * A provider with an HMAC-SHA-1 that, once {@link BlockingMac#release} is set, waits for it
+   * and fails instead of computing the MAC.
+   */
+  private static final class BlockingProvider extends Provider {
+    private static final long serialVersionUID = 1L;
+
+    BlockingProvider() {
+      super("Blocking", "1.0", "HmacSHA1 that blocks and fails");
+      putService(new Service(this, "Mac", "HmacSHA1", BlockingMac.class.getName(), null, null) {
+        @Override
+        public Object newInstance(Object constructorParameter) throws NoSuchAlgorithmException {
+          return new BlockingMac();
+        }
+      });
+    }
+  }
+
+  private static final class BlockingMac extends MacSpi {
+    static volatile CountDownLatch release;
+
+    private final Mac delegate;
+
+    BlockingMac() throws NoSuchAlgorithmException {
+      delegate = Mac.getInstance("HmacSHA1");
+    }
+
+    @Override
+    protected int engineGetMacLength() {
+      return delegate.getMacLength();
+    }
+
+    @Override
+    protected void engineInit(Key key, AlgorithmParameterSpec params)
+        throws InvalidKeyException, InvalidAlgorithmParameterException {
+      delegate.init(key, params);
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+      delegate.update(input);
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int len) {
+      delegate.update(input, offset, len);
+    }
+
+    @Override
+    protected byte[] engineDoFinal() {
+      CountDownLatch latch = release;
+      if (latch != null) {
+        try {
+          latch.await();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        throw new IllegalStateException("HMAC failed");
+      }
+      return delegate.doFinal();
+    }
+
+    @Override
+    protected void engineReset() {
+      delegate.reset();
+    }
+  }
+
+}
@@ -5,6 +5,11 @@
 
 package com.ongres.scram.common;
 
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -20,4 +25,32 @@ abstract class AbstractScramMessage extends StringWritable {
     return writeTo(new StringBuilder(48)).toString();
   }
 
+  /**
+   * Writes the SCRAM message, encoded in UTF-8, into a buffer at its current position, without
+   * creating an intermediate String, as sent to the network.
+   *
+   * @param buffer the buffer to write to
+   * @return the number of bytes written
+   * @throws BufferOverflowException if the remaining space of the buffer is not enough for the
+   *           message, in which case nothing is written
+   * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+   * @throws IllegalArgumentException if the buffer is null
+   * @since 3.5
+   */
+  public final int encodeTo(@NotNull ByteBuffer buffer) {
+    checkNotNull(buffer, "buffer");
+    final StringBuilder sb = writeTo(new StringBuilder(48));
+    final int encodedLength = Utf8Encoder.length(sb);
+    if (buffer.remaining() < encodedLength) {
+      throw new BufferOverflowException();
+    }
+    final Utf8Encoder encoder = new Utf8Encoder(sb);
+    final byte[] chunk = new byte[Math.min(encodedLength, 252) + Utf8Encoder.MAX_BYTES_PER_CHAR];
+    int written;
+    while ((written = encoder.encode(chunk)) > 0) {
+      buffer.put(chunk, 0, written);
+    }
+    return encodedLength;
+  }
+
 }
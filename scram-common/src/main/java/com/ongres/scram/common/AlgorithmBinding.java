@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+
+import javax.crypto.Mac;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The source of the {@link MessageDigest} and {@link Mac} instances of a {@link ScramMechanism}:
+ * either the JVM-wide provider list, or the {@link Provider Providers} bound to the mechanism.
+ *
+ * <p>Each binding has its own pools of instances, so replacing the binding of a mechanism also
+ * drops the instances created by the previous provider.
+ */
+final class AlgorithmBinding {
+
+  private final @Nullable Provider macProvider;
+  private final @Nullable Provider digestProvider;
+  private final InstancePool<MessageDigest> digests = new InstancePool<>();
+  private final InstancePool<Mac> macs = new InstancePool<>();
+
+  AlgorithmBinding(@Nullable Provider macProvider, @Nullable Provider digestProvider) {
+    this.macProvider = macProvider;
+    this.digestProvider = digestProvider;
+  }
+
+  /**
+   * Whether any of the algorithms is bound to a provider.
+   *
+   * @return false if all the algorithms are resolved through the provider list
+   */
+  boolean isBound() {
+    return macProvider != null || digestProvider != null;
+  }
+
+  /**
+   * Whether the HMAC algorithm is bound to a provider.
+   *
+   * @return false if the HMAC algorithm is resolved through the provider list
+   */
+  boolean isMacBound() {
+    return macProvider != null;
+  }
+
+  /**
+   * A description of the bound providers, for error messages.
+   *
+   * @return the names of the bound providers
+   */
+  @NotNull
+  String describe() {
+    return macProvider == digestProvider
+        ? name(macProvider)
+        : name(macProvider) + "/" + name(digestProvider);
+  }
+
+  @NotNull
+  InstancePool<MessageDigest> digests() {
+    return digests;
+  }
+
+  @NotNull
+  InstancePool<Mac> macs() {
+    return macs;
+  }
+
+  /**
+   * Creates a new {@link MessageDigest} of the bound provider.
+   *
+   * @param algorithm the standard name of the hash algorithm
+   * @return a new instance
+   * @throws NoSuchAlgorithmException if the algorithm is not supported
+   */
+  @NotNull
+  MessageDigest newMessageDigest(@NotNull String algorithm) throws NoSuchAlgorithmException {
+    return digestProvider == null
+        ? MessageDigest.getInstance(algorithm)
+        : MessageDigest.getInstance(algorithm, digestProvider);
+  }
+
+  /**
+   * Creates a new {@link Mac} of the bound provider.
+   *
+   * @param algorithm the standard name of the HMAC algorithm
+   * @return a new instance
+   * @throws NoSuchAlgorithmException if the algorithm is not supported
+   */
+  @NotNull
+  Mac newMac(@NotNull String algorithm) throws NoSuchAlgorithmException {
+    return macProvider == null
+        ? Mac.getInstance(algorithm)
+        : Mac.getInstance(algorithm, macProvider);
+  }
+
+  private static String name(@Nullable Provider provider) {
+    return provider != null ? provider.getName() : "<default>";
+  }
+
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+import com.ongres.scram.common.exception.ScramParseException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Scans the comma separated fields of a SCRAM message with a cursor, without splitting it.
+ *
+ * <p>Each field is tracked by its offsets in the message, so the fields that are only validated are
+ * never copied, and only the values that are kept by the message are materialized as Strings. The
+ * message is either a {@link CharSequence}, or the remaining bytes of a {@link ByteBuffer} as
+ * received from the network, which are only decoded as UTF-8 for the values that are kept. The
+ * syntax of the messages is ASCII, so an unsigned byte is compared as a char; the bytes of a
+ * multi-byte UTF-8 sequence are above {@code 0x7F}, and never match a delimiter or an attribute.
+ */
+final class AttributeScanner {
+
+  private final Input message;
+  private final int length;
+  private int position;
+  private int fieldStart;
+  private int fieldEnd;
+
+  AttributeScanner(@NotNull CharSequence message) {
+    this(new CharsInput(message));
+  }
+
+  /**
+   * Scans the remaining bytes of a buffer with absolute reads, so the position of the buffer is not
+   * modified until {@link #consume()} is called, once the message has been parsed successfully.
+   *
+   * @param message the buffer with the message, encoded in UTF-8
+   */
+  AttributeScanner(@NotNull ByteBuffer message) {
+    this(new BytesInput(message));
+  }
+
+  private AttributeScanner(Input message) {
+    this.message = message;
+    this.length = message.length();
+  }
+
+  /**
+   * Moves to the next field, without validating it. An empty message has no fields.
+   *
+   * @return false if there are no more fields
+   */
+  boolean nextField() {
+    if (position > length || length == 0) {
+      return false;
+    }
+    int end = position;
+    while (end < length && message.charAt(end) != ',') {
+      end++;
+    }
+    this.fieldStart = position;
+    this.fieldEnd = end;
+    // Skip the comma, if any; past the length means there are no more fields
+    this.position = end + 1;
+    return true;
+  }
+
+  /**
+   * Moves to the next field, which must be an attribute-value of the given attribute. Its value is
+   * available from the {@code value*} methods until the next call.
+   *
+   * @param attribute the expected attribute
+   * @param errorMessage the error message if the field is missing or of another attribute
+   * @throws ScramParseException if the field is missing, invalid or of another attribute
+   */
+  void next(@NotNull ScramAttributes attribute, @NotNull String errorMessage)
+      throws ScramParseException {
+    if (attribute.getChar() != nextAttribute(errorMessage)) {
+      throw new ScramParseException(errorMessage);
+    }
+  }
+
+  /**
+   * Moves to the next field, which must be an attribute-value. Its value is available from the
+   * {@code value*} methods until the next call.
+   *
+   * @param errorMessage the error message if the field is missing
+   * @return the name of the attribute
+   * @throws ScramParseException if the field is missing, invalid or of an unknown attribute
+   */
+  char nextAttribute(@NotNull String errorMessage) throws ScramParseException {
+    if (!nextField()) {
+      throw new ScramParseException(errorMessage);
+    }
+    if (fieldLength() < 3 || message.charAt(fieldStart + 1) != '=') {
+      throw new ScramParseException("Invalid ScramAttributeValue '" + field() + "'");
+    }
+    final char name = message.charAt(fieldStart);
+    ScramAttributes.byChar(name);
+    return name;
+  }
+
+  /**
+   * Returns the current field.
+   *
+   * @return the whole field, as a String
+   */
+  @NotNull
+  String field() {
+    return message.substring(fieldStart, fieldEnd);
+  }
+
+  /**
+   * Returns the length of the current field.
+   *
+   * @return the number of chars, or bytes, of the field
+   */
+  int fieldLength() {
+    return fieldEnd - fieldStart;
+  }
+
+  /**
+   * Returns a char of the current field.
+   *
+   * @param index the index of the char in the field
+   * @return the char, or the unsigned byte
+   */
+  char fieldChar(int index) {
+    return message.charAt(fieldStart + index);
+  }
+
+  /**
+   * Returns the value of the current field, after the attribute and the {@code '='}.
+   *
+   * @return the value
+   */
+  @NotNull
+  String value() {
+    return value(0);
+  }
+
+  /**
+   * Returns the value of the current field, skipping a prefix.
+   *
+   * @param offset the number of chars, or bytes, of the value to skip
+   * @return the value after the prefix
+   */
+  @NotNull
+  String value(int offset) {
+    return message.substring(fieldStart + 2 + offset, fieldEnd);
+  }
+
+  /**
+   * Returns the length of the value of the current field.
+   *
+   * @return the number of chars, or bytes, of the value
+   */
+  int valueLength() {
+    return fieldEnd - fieldStart - 2;
+  }
+
+  /**
+   * Returns a char of the value of the current field.
+   *
+   * @param index the index of the char in the value
+   * @return the char, or the unsigned byte
+   */
+  char valueChar(int index) {
+    return message.charAt(fieldStart + 2 + index);
+  }
+
+  /**
+   * Parses the value of the current field as a non-negative decimal integer.
+   *
+   * @return the integer
+   * @throws NumberFormatException if the value is not a valid integer
+   */
+  int valueAsInt() {
+    final int valueLength = valueLength();
+    if (valueLength > 10) {
+      throw new NumberFormatException("For input string: \"" + value() + "\"");
+    }
+    long result = 0;
+    for (int i = 0; i < valueLength; i++) {
+      final int digit = valueChar(i) - '0';
+      if (digit < 0 || digit > 9) {
+        throw new NumberFormatException("For input string: \"" + value() + "\"");
+      }
+      result = result * 10 + digit;
+    }
+    if (result > Integer.MAX_VALUE) {
+      throw new NumberFormatException("For input string: \"" + value() + "\"");
+    }
+    return (int) result;
+  }
+
+  /**
+   * Decodes the Base64 value of the current field.
+   *
+   * @return the decoded bytes
+   * @throws IllegalArgumentException if the value is not valid Base64
+   */
+  byte @NotNull [] valueAsBase64() {
+    final byte[] encoded = new byte[valueLength()];
+    for (int i = 0; i < encoded.length; i++) {
+      final char c = valueChar(i);
+      // Chars outside of ASCII are not valid Base64, and are rejected by the decoder
+      encoded[i] = c < 0x80 ? (byte) c : (byte) '?';
+    }
+    return Base64.getDecoder().decode(encoded);
+  }
+
+  /**
+   * Marks the whole message as read. The position of a buffer is moved to its limit, a
+   * {@link CharSequence} is not modified.
+   */
+  void consume() {
+    message.consume();
+  }
+
+  /**
+   * The chars of a message, or its bytes.
+   */
+  private interface Input {
+
+    int length();
+
+    char charAt(int index);
+
+    String substring(int from, int to);
+
+    void consume();
+  }
+
+  private static final class CharsInput implements Input {
+    private final CharSequence chars;
+
+    CharsInput(CharSequence chars) {
+      this.chars = chars;
+    }
+
+    @Override
+    public int length() {
+      return chars.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+      return chars.charAt(index);
+    }
+
+    @Override
+    public String substring(int from, int to) {
+      return chars.subSequence(from, to).toString();
+    }
+
+    @Override
+    public void consume() {
+      // A CharSequence has no position
+    }
+  }
+
+  private static final class BytesInput implements Input {
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int limit;
+
+    BytesInput(ByteBuffer buffer) {
+      this.buffer = buffer;
+      this.offset = buffer.position();
+      this.limit = buffer.limit();
+    }
+
+    @Override
+    public int length() {
+      return limit - offset;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public String substring(int from, int to) {
+      if (buffer.hasArray()) {
+        return new String(buffer.array(), buffer.arrayOffset() + offset + from, to - from, UTF_8);
+      }
+      final byte[] bytes = new byte[to - from];
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = buffer.get(offset + from + i);
+      }
+      return new String(bytes, UTF_8);
+    }
+
+    @Override
+    public void consume() {
+      buffer.position(limit);
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+
+import javax.crypto.Mac;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The AuthMessage of an authentication exchange, which is signed by both the client and the server.
+ *
+ * <pre>{@code
+ *      AuthMessage := client-first-message-bare + "," +
+ *                                    server-first-message + "," +
+ *                                    client-final-message-without-proof
+ * }</pre>
+ *
+ * <p>The segments are written once, and are fed to the HMACs in chunks of UTF-8 encoded bytes,
+ * without creating a String nor a byte array of the whole AuthMessage for each signature. The
+ * {@code ScramFunctions} methods that take an AuthMessage compute the ClientSignature and the
+ * ServerSignature in a single pass over it.
+ *
+ * @since 3.5
+ */
+public final class AuthMessage {
+
+  private static final int CHUNK_SIZE = 128;
+
+  private final StringBuilder segments;
+
+  private AuthMessage(@NotNull StringBuilder segments) {
+    this.segments = segments;
+  }
+
+  /**
+   * Creates the AuthMessage of an authentication exchange.
+   *
+   * @param clientFirstMessage the {@link ClientFirstMessage ClientFirstMessage}
+   * @param serverFirstMessage the {@link ServerFirstMessage ServerFirstMessage}
+   * @param cbindData the channel binding data, or null
+   * @return the AuthMessage
+   * @throws IllegalArgumentException if any of the messages is null
+   */
+  public static @NotNull AuthMessage of(@NotNull ClientFirstMessage clientFirstMessage,
+      @NotNull ServerFirstMessage serverFirstMessage, byte @Nullable [] cbindData) {
+    checkNotNull(clientFirstMessage, "clientFirstMessage");
+    checkNotNull(serverFirstMessage, "serverFirstMessage");
+    StringBuilder sb = clientFirstMessage.clientFirstMessageBare(new StringBuilder(256))
+        .append(',');
+    serverFirstMessage.writeTo(sb).append(',');
+    ClientFinalMessage.withoutProof(sb, clientFirstMessage.getGs2Header(),
+        cbindData, serverFirstMessage.getNonce());
+    return new AuthMessage(sb);
+  }
+
+  /**
+   * Feeds the UTF-8 encoded AuthMessage to initialized Macs, in a single pass.
+   *
+   * @param macs the Macs to update
+   */
+  void update(@NotNull Mac @NotNull... macs) {
+    final Utf8Encoder encoder = new Utf8Encoder(segments);
+    final byte[] chunk = new byte[CHUNK_SIZE];
+    int written;
+    while ((written = encoder.encode(chunk)) > 0) {
+      for (Mac mac : macs) {
+        mac.update(chunk, 0, written);
+      }
+    }
+  }
+
+  /**
+   * String representation of the AuthMessage.
+   */
+  @Override
+  public @NotNull String toString() {
+    return segments.toString();
+  }
+
+}
@@ -8,8 +8,7 @@ package com.ongres.scram.common;
 import static com.ongres.scram.common.util.Preconditions.checkNotEmpty;
 import static com.ongres.scram.common.util.Preconditions.checkNotNull;
 
-import java.nio.charset.StandardCharsets;
-
+import com.ongres.scram.common.exception.ScramParseException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -76,6 +75,12 @@ public final class ClientFinalMessage extends AbstractScramMessage {
     this.proof = checkNotNull(proof, "proof").clone();
   }
 
+  private ClientFinalMessage(String cbindInput, String nonce, byte[] proof) {
+    this.cbindInput = cbindInput;
+    this.nonce = nonce;
+    this.proof = proof;
+  }
+
   /**
    * Return the channel-binding "c=" base64 encoding of cbind-input.
    *
@@ -103,6 +108,58 @@ public final class ClientFinalMessage extends AbstractScramMessage {
     return proof.clone();
   }
 
+  /**
+   * Checks whether the channel-binding of this message is the one expected by the server, from the
+   * {@code gs2-header} of the client-first-message and the channel binding data of the connection.
+   *
+   * @param gs2Header The GSS-API header of the client-first-message
+   * @param cbindData The channel binding data, if the header requires channel binding
+   * @return true if the {@code cbind-input} matches
+   * @throws IllegalArgumentException If the header is null
+   * @since 3.5
+   */
+  public boolean isChannelBindingValid(@NotNull Gs2Header gs2Header,
+      byte @Nullable [] cbindData) {
+    checkNotNull(gs2Header, "gs2Header");
+    return cbindInput.equals(gs2Header.cbindInput(cbindData));
+  }
+
+  /**
+   * Construct a {@link ClientFinalMessage} instance from a message (String). This method is
+   * intended to be used by SCRAM servers.
+   *
+   * @param clientFinalMessage The String representing the client-final-message
+   * @return The instance
+   * @throws ScramParseException If the message is not a valid client-final-message
+   * @throws IllegalArgumentException If the message is null or empty, or the channel-binding or the
+   *           proof are not valid Base64
+   * @implNote {@code extensions} are not supported, the proof must follow the nonce.
+   * @since 3.5
+   */
+  public static @NotNull ClientFinalMessage parseFrom(@NotNull String clientFinalMessage)
+      throws ScramParseException {
+    checkNotEmpty(clientFinalMessage, "clientFinalMessage");
+
+    final AttributeScanner scanner = new AttributeScanner(clientFinalMessage);
+    scanner.next(ScramAttributes.CHANNEL_BINDING,
+        "channel-binding must be the 1st element of the client-final-message");
+    final String cbindInput = scanner.value();
+    // Validate the Base64, the server compares it encoded
+    scanner.valueAsBase64();
+
+    scanner.next(ScramAttributes.NONCE, "nonce must be the 2nd element of the client-final-message");
+    final String nonce = scanner.value();
+
+    scanner.next(ScramAttributes.CLIENT_PROOF,
+        "proof must be the 3rd element of the client-final-message");
+    final byte[] proof = scanner.valueAsBase64();
+
+    if (scanner.nextField()) {
+      throw new ScramParseException("Invalid number of elements in client-final-message");
+    }
+    return new ClientFinalMessage(cbindInput, nonce, proof);
+  }
+
   private static void checkChannelBinding(Gs2Header gs2Header, byte[] cbindData) {
     final Gs2CbindFlag channelBindingFlag = gs2Header.getChannelBindingFlag();
     if (channelBindingFlag == Gs2CbindFlag.CHANNEL_BINDING_REQUIRED
@@ -119,18 +176,7 @@ public final class ClientFinalMessage extends AbstractScramMessage {
       byte @Nullable [] cbindData) {
     checkNotNull(gs2Header, "gs2Header");
     checkChannelBinding(gs2Header, cbindData);
-
-    byte[] cbindInput = gs2Header.writeTo(new StringBuilder(32))
-        .append(',').toString().getBytes(StandardCharsets.UTF_8);
-
-    if (null != cbindData && cbindData.length != 0) {
-      byte[] cbindInputNew = new byte[cbindInput.length + cbindData.length];
-      System.arraycopy(cbindInput, 0, cbindInputNew, 0, cbindInput.length);
-      System.arraycopy(cbindData, 0, cbindInputNew, cbindInput.length, cbindData.length);
-      cbindInput = cbindInputNew;
-    }
-
-    return ScramStringFormatting.base64Encode(cbindInput);
+    return gs2Header.cbindInput(cbindData);
   }
 
   private StringBuilder writeToWithoutProof(@NotNull StringBuilder sb) {
@@ -5,6 +5,7 @@
 
 package com.ongres.scram.common;
 
+import static com.ongres.scram.common.util.Preconditions.castNonNull;
 import static com.ongres.scram.common.util.Preconditions.checkNotEmpty;
 import static com.ongres.scram.common.util.Preconditions.checkNotNull;
 
@@ -98,6 +99,17 @@ public final class ClientFirstMessage extends AbstractScramMessage {
     this(new Gs2Header(Gs2CbindFlag.CLIENT_NOT), username, clientNonce);
   }
 
+  /**
+   * Constructs a parsed client-first-message, keeping the saslname as received so the AuthMessage
+   * of the server matches the one of the client, instead of preparing and escaping it again.
+   */
+  private ClientFirstMessage(@NotNull String saslName, @NotNull String clientNonce,
+      @NotNull Gs2Header gs2Header) {
+    this.gs2Header = gs2Header;
+    this.username = saslName;
+    this.clientNonce = clientNonce;
+  }
+
   /**
    * Check to probe if gs2-cbind-flag is set to "p=".
    *
@@ -125,6 +137,16 @@ public final class ClientFirstMessage extends AbstractScramMessage {
     return username;
   }
 
+  /**
+   * Return the username, with the {@code "=2C"} and {@code "=3D"} of the saslname unescaped.
+   *
+   * @return the username
+   * @since 3.5
+   */
+  public @NotNull String getUnescapedUsername() {
+    return castNonNull(ScramStringFormatting.fromSaslName(username));
+  }
+
   /**
    * Return the client nonce.
    *
@@ -162,26 +184,26 @@ public final class ClientFirstMessage extends AbstractScramMessage {
       throws ScramParseException {
     checkNotEmpty(clientFirstMessage, "clientFirstMessage");
 
-    @NotNull
-    String @NotNull [] userNonceString;
-    try {
-      userNonceString = StringWritableCsv.parseFrom(clientFirstMessage, 2, 2);
-    } catch (IllegalArgumentException e) {
-      throw new ScramParseException("Illegal series of attributes in client-first-message", e);
+    final AttributeScanner scanner = new AttributeScanner(clientFirstMessage);
+    // Skip the gs2-header, which is parsed once the rest of the message is validated
+    if (!scanner.nextField() || !scanner.nextField()) {
+      throw new ScramParseException("Illegal series of attributes in client-first-message");
     }
 
-    ScramAttributeValue user = ScramAttributeValue.parse(userNonceString[0]);
-    if (ScramAttributes.USERNAME.getChar() != user.getChar()) {
-      throw new ScramParseException("user must be the 3rd element of the client-first-message");
+    scanner.next(ScramAttributes.USERNAME,
+        "user must be the 3rd element of the client-first-message");
+    final String user = scanner.value();
+    try {
+      ScramStringFormatting.fromSaslName(user);
+    } catch (IllegalArgumentException ex) {
+      throw new ScramParseException("Invalid saslname in client-first-message", ex);
     }
 
-    ScramAttributeValue nonce = ScramAttributeValue.parse(userNonceString[1]);
-    if (ScramAttributes.NONCE.getChar() != nonce.getChar()) {
-      throw new ScramParseException("nonce must be the 4th element of the client-first-message");
-    }
+    scanner.next(ScramAttributes.NONCE, "nonce must be the 4th element of the client-first-message");
+    final String nonce = scanner.value();
 
     Gs2Header gs2Header = Gs2Header.parseFrom(clientFirstMessage); // Takes first two fields
-    return new ClientFirstMessage(gs2Header, user.getValue(), nonce.getValue());
+    return new ClientFirstMessage(user, nonce, gs2Header);
   }
 
   @Override
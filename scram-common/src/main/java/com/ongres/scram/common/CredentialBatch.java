@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import com.ongres.scram.common.exception.ScramInterruptedException;
+import com.ongres.scram.common.exception.ScramRuntimeException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Computes the credentials of a list of inputs on an {@link Executor}, and hands them out in
+ * submission order.
+ *
+ * <p>Consecutive inputs that share the iteration count are grouped in chunks of as many inputs as
+ * SIMD lanes are available for the mechanism (see {@link VectorPbkdf2#lanes(String)}), and each
+ * chunk is computed by a single task. To bound the memory used by results that have not been
+ * consumed yet, only a window of twice the parallelism of the executor is submitted ahead of the
+ * consumer; the next chunks are submitted as the results are consumed.
+ *
+ * <p>The salted passwords are wiped as soon as their keys are derived. An error computing an
+ * input is only thrown when that input is reached, and closing the batch skips the chunks that
+ * have not started yet.
+ */
+final class CredentialBatch implements Spliterator<ScramCredentials>, Runnable {
+
+  private final ScramMechanism scramMechanism;
+  private final StringPreparation stringPreparation;
+  private final List<ScramCredentialInput> inputs;
+  private final Executor executor;
+  private final int chunkSize;
+  private final int maxInFlight;
+
+  private final Deque<CompletableFuture<Object[]>> inFlight = new ArrayDeque<>();
+  private volatile boolean closed;
+  private int nextInput;
+  /**
+   * The results of the chunk being consumed, each one is either a {@link ScramCredentials} or the
+   * {@link RuntimeException} thrown computing it.
+   */
+  private Object[] current = new Object[0];
+  private int currentIndex;
+
+  CredentialBatch(@NotNull ScramMechanism scramMechanism,
+      @NotNull StringPreparation stringPreparation, @NotNull List<ScramCredentialInput> inputs,
+      @NotNull Executor executor) {
+    this.scramMechanism = scramMechanism;
+    this.stringPreparation = stringPreparation;
+    this.inputs = inputs;
+    this.executor = executor;
+    this.chunkSize = VectorPbkdf2.lanes(scramMechanism.getHmacAlgorithmName());
+    int parallelism = executor instanceof ForkJoinPool
+        ? ((ForkJoinPool) executor).getParallelism()
+        : Runtime.getRuntime().availableProcessors();
+    this.maxInFlight = 2 * Math.max(1, parallelism);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super ScramCredentials> action) {
+    if (currentIndex == current.length) {
+      if (closed) {
+        return false;
+      }
+      submit();
+      CompletableFuture<Object[]> next = inFlight.poll();
+      if (next == null) {
+        return false;
+      }
+      current = join(next);
+      currentIndex = 0;
+      submit();
+    }
+    Object result = current[currentIndex];
+    current[currentIndex++] = null;
+    if (result instanceof RuntimeException) {
+      throw (RuntimeException) result;
+    }
+    action.accept((ScramCredentials) result);
+    return true;
+  }
+
+  @Override
+  public Spliterator<ScramCredentials> trySplit() {
+    // The computation is already parallel, the consumer is kept sequential to preserve the order
+    return null;
+  }
+
+  @Override
+  public long estimateSize() {
+    return inputs.size();
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL | SIZED | IMMUTABLE;
+  }
+
+  /**
+   * Closes the batch, the chunks that have not started yet are not computed.
+   */
+  @Override
+  public void run() {
+    closed = true;
+    for (CompletableFuture<Object[]> future : inFlight) {
+      future.cancel(false);
+    }
+    inFlight.clear();
+  }
+
+  private void submit() {
+    final int size = inputs.size();
+    while (!closed && inFlight.size() < maxInFlight && nextInput < size) {
+      final int from = nextInput;
+      final int iterationCount = inputs.get(from).getIterationCount();
+      int to = from + 1;
+      while (to < size && to - from < chunkSize
+          && inputs.get(to).getIterationCount() == iterationCount) {
+        to++;
+      }
+      nextInput = to;
+      final List<ScramCredentialInput> chunk = inputs.subList(from, to);
+      inFlight.add(CompletableFuture.supplyAsync(() -> compute(chunk, iterationCount), executor));
+    }
+  }
+
+  private Object[] compute(List<ScramCredentialInput> chunk, int iterationCount) {
+    if (closed) {
+      throw new CancellationException();
+    }
+    final int count = chunk.size();
+    final Object[] results = new Object[count];
+    if (count > 1) {
+      char[][] passwords = new char[count][];
+      byte[][] salts = new byte[count][];
+      for (int i = 0; i < count; i++) {
+        passwords[i] = chunk.get(i).password();
+        salts[i] = chunk.get(i).salt();
+      }
+      try {
+        byte[][] saltedPasswords = scramMechanism.saltedPasswords(stringPreparation, passwords,
+            salts, iterationCount);
+        try {
+          for (int i = 0; i < count; i++) {
+            results[i] = ScramCredentials.fromSaltedPassword(scramMechanism, saltedPasswords[i],
+                salts[i], iterationCount);
+          }
+          return results;
+        } finally {
+          for (byte[] saltedPassword : saltedPasswords) {
+            Arrays.fill(saltedPassword, (byte) 0);
+          }
+        }
+      } catch (ScramInterruptedException ex) {
+        throw ex;
+      } catch (RuntimeException ex) {
+        // Fall through, to find out which inputs of the chunk are failing
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      ScramCredentialInput input = chunk.get(i);
+      try {
+        results[i] = credentials(scramMechanism.saltedPassword(stringPreparation,
+            input.password(), input.salt(), iterationCount), input.salt(), iterationCount);
+      } catch (ScramInterruptedException ex) {
+        throw ex;
+      } catch (RuntimeException ex) {
+        results[i] = ex;
+      }
+    }
+    return results;
+  }
+
+  private ScramCredentials credentials(byte[] saltedPassword, byte[] salt, int iterationCount) {
+    try {
+      return ScramCredentials.fromSaltedPassword(scramMechanism, saltedPassword, salt,
+          iterationCount);
+    } finally {
+      Arrays.fill(saltedPassword, (byte) 0);
+    }
+  }
+
+  private static Object[] join(CompletableFuture<Object[]> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ScramRuntimeException("Error computing the credentials", cause);
+    }
+  }
+
+}
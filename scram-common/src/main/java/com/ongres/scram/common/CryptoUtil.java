@@ -42,7 +42,7 @@ final class CryptoUtil {
    * to use a highly optimized bitwise AND operation {@code (i & (STRIDE - 1))}
    * rather than a slower modulo operator.
    */
-  private static final int INTERRUPT_CHECK_STRIDE = 1024;
+  static final int INTERRUPT_CHECK_STRIDE = 1024;
 
   private CryptoUtil() {
     throw new IllegalStateException("Utility class");
@@ -135,13 +135,68 @@ final class CryptoUtil {
     }
   }
 
+  /**
+   * Compute the "Hi" function for SCRAM, using a specialized PBKDF2 engine.
+   *
+   * <p>The result is identical to {@link #hi(Mac, char[], byte[], int)} with the corresponding
+   * HMAC algorithm, but the inner and outer HMAC midstates are computed only once.
+   *
+   * @param engine A new engine, it's reset once the computation is completed
+   * @param password The char array to compute the Hi function
+   * @param salt The salt
+   * @param iterationCount The number of iterations
+   * @return The bytes of the computed Hi value
+   * @throws ScramRuntimeException if thread is interrupted
+   */
+  static byte[] pbkdf2(Pbkdf2Engine engine, char[] password, byte[] salt, int iterationCount) {
+    checkNotNull(engine, "engine");
+    gt0(iterationCount, "iterationCount");
+    try {
+      start(engine, password, salt);
+      int i = 1;
+      while (i < iterationCount) {
+        int count = Math.min(iterationCount - i, INTERRUPT_CHECK_STRIDE);
+        engine.iterate(count);
+        i += count;
+        if (i < iterationCount && Thread.currentThread().isInterrupted()) {
+          throw new ScramInterruptedException("PBKDF2 computation interrupted at iteration " + i);
+        }
+      }
+      return engine.result();
+    } finally {
+      engine.reset();
+    }
+  }
+
+  /**
+   * Computes the midstates of a specialized PBKDF2 engine for the password, and its first
+   * iteration {@code U1} for the salt.
+   *
+   * @param engine A new engine
+   * @param password The char array to compute the Hi function
+   * @param salt The salt
+   */
+  static void start(Pbkdf2Engine engine, char[] password, byte[] salt) {
+    checkNotNull(engine, "engine");
+    checkNotNull(password, "password");
+    checkNotNull(salt, "salt");
+    checkArgument(salt.length != 0, "salt");
+    byte[] pwBytes = passwordToUtf8Bytes(password);
+    try {
+      engine.init(pwBytes);
+    } finally {
+      Arrays.fill(pwBytes, (byte) 0);
+    }
+    engine.start(salt);
+  }
+
   /**
    * Convert password to UTF-8 bytes and secure clear the backing array.
    *
    * @param password The password to convert
    * @return The UTF-8 bytes of the password
    */
-  private static byte[] passwordToUtf8Bytes(char[] password) {
+  static byte[] passwordToUtf8Bytes(char[] password) {
     ByteBuffer bb = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
     try {
       byte[] pwBytes = new byte[bb.remaining()];
@@ -179,6 +234,18 @@ final class CryptoUtil {
    * @throws ScramRuntimeException unsupported key for HMAC algorithm
    */
   static byte[] hmac(SecretKeySpec secretKeySpec, Mac mac, byte[] message) {
+    init(secretKeySpec, mac);
+    return mac.doFinal(message);
+  }
+
+  /**
+   * Initializes a Mac with a key, to compute a HMAC from messages fed in parts.
+   *
+   * @param secretKeySpec the key
+   * @param mac the Mac instance to initialize
+   * @throws ScramRuntimeException if the key is not supported by the Mac
+   */
+  static void init(SecretKeySpec secretKeySpec, Mac mac) {
     try {
       mac.init(secretKeySpec);
     } catch (InvalidKeyException ex) {
@@ -187,7 +254,6 @@ final class CryptoUtil {
               mac.getAlgorithm()),
           ex);
     }
-    return mac.doFinal(message);
   }
 
   /**
@@ -9,7 +9,8 @@ import static com.ongres.scram.common.util.Preconditions.castNonNull;
 import static com.ongres.scram.common.util.Preconditions.checkNotEmpty;
 import static com.ongres.scram.common.util.Preconditions.checkNotNull;
 
-import com.ongres.scram.common.util.Preconditions;
+import java.nio.charset.StandardCharsets;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -48,6 +49,17 @@ public final class Gs2Header extends StringWritable {
   private final @NotNull Gs2AttributeValue gs2CbindFlag;
   private final @Nullable Gs2AttributeValue authzid;
 
+  /**
+   * The {@code gs2-header} part of the {@code cbind-input}, precomputed since the header is shared
+   * by every client-final-message of a client.
+   */
+  private final byte @NotNull [] cbindInputPrefix;
+
+  /**
+   * The {@code cbind-input} without channel binding data, Base64 encoded.
+   */
+  private final @NotNull String cbindInputWithoutData;
+
   /**
    * Construct and validates a Gs2Header. Only provide the channel binding name if the channel
    * binding flag is set to required.
@@ -64,6 +76,9 @@ public final class Gs2Header extends StringWritable {
     this.gs2CbindFlag = new Gs2AttributeValue(Gs2Attributes.byGs2CbindFlag(cbindFlag), cbName);
     this.authzid = authzid == null ? null
         : new Gs2AttributeValue(Gs2Attributes.AUTHZID, ScramStringFormatting.toSaslName(authzid));
+    this.cbindInputPrefix = writeTo(new StringBuilder(32)).append(',').toString()
+        .getBytes(StandardCharsets.UTF_8);
+    this.cbindInputWithoutData = ScramStringFormatting.base64Encode(cbindInputPrefix);
   }
 
   /**
@@ -121,6 +136,27 @@ public final class Gs2Header extends StringWritable {
     return StringWritableCsv.writeTo(sb, gs2CbindFlag, authzid);
   }
 
+  /**
+   * Returns the Base64 encoded {@code cbind-input} of this header and the channel binding data.
+   *
+   * <pre>{@code
+   * cbind-input = gs2-header [ cbind-data ]
+   * }</pre>
+   *
+   * @param cbindData the channel binding data, or null
+   * @return the {@code cbind-input}, Base64 encoded
+   */
+  @NotNull
+  String cbindInput(byte @Nullable [] cbindData) {
+    if (cbindData == null || cbindData.length == 0) {
+      return cbindInputWithoutData;
+    }
+    byte[] cbindInput = new byte[cbindInputPrefix.length + cbindData.length];
+    System.arraycopy(cbindInputPrefix, 0, cbindInput, 0, cbindInputPrefix.length);
+    System.arraycopy(cbindData, 0, cbindInput, cbindInputPrefix.length, cbindData.length);
+    return ScramStringFormatting.base64Encode(cbindInput);
+  }
+
   /**
    * Read a Gs2Header from a String. String may contain trailing fields that will be ignored.
    *
@@ -132,18 +168,36 @@ public final class Gs2Header extends StringWritable {
   public static @NotNull Gs2Header parseFrom(@NotNull String message) {
     checkNotNull(message, "Null message");
 
-    @NotNull
-    String[] gs2HeaderSplit = StringWritableCsv.parseFrom(message, 2);
-    if (gs2HeaderSplit.length == 0) {
+    final AttributeScanner scanner = new AttributeScanner(message);
+    if (!scanner.nextField()) {
       throw new IllegalArgumentException("Invalid number of fields for the GS2 Header");
     }
 
-    Gs2AttributeValue gs2cbind = Gs2AttributeValue.parse(castNonNull(gs2HeaderSplit[0]));
-    String authzId = Preconditions.isNullOrEmpty(gs2HeaderSplit[1])
-        ? null
-        : castNonNull(Gs2AttributeValue.parse(gs2HeaderSplit[1])).getValue();
+    final char cbindFlag = parseGs2Attribute(scanner);
+    final String cbName = scanner.fieldLength() > 2 ? scanner.value() : null;
+    String authzId = null;
+    if (scanner.nextField() && scanner.fieldLength() > 0) {
+      parseGs2Attribute(scanner);
+      authzId = scanner.fieldLength() > 2 ? scanner.value() : null;
+    }
 
-    return new Gs2Header(Gs2CbindFlag.byChar(gs2cbind.getChar()), gs2cbind.getValue(), authzId);
+    return new Gs2Header(Gs2CbindFlag.byChar(cbindFlag), cbName, authzId);
+  }
+
+  /**
+   * Validates the current field of the scanner as a Gs2AttributeValue, with the same rules as
+   * {@link Gs2AttributeValue#parse(String)}, without copying it.
+   */
+  private static char parseGs2Attribute(AttributeScanner scanner) {
+    final int length = scanner.fieldLength();
+    if (length == 0 || length == 2 || length > 2 && scanner.fieldChar(1) != '=') {
+      throw new IllegalArgumentException("Invalid Gs2AttributeValue");
+    }
+    final Gs2Attributes attribute = Gs2Attributes.byChar(scanner.fieldChar(0));
+    if (attribute.isRequiredValue() && length < 3) {
+      throw new IllegalArgumentException("Invalid Gs2AttributeValue");
+    }
+    return attribute.getChar();
   }
 
   private static void checkChannelBinding(@NotNull Gs2CbindFlag cbindFlag,
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A small lock-free pool of reusable instances, such as {@link javax.crypto.Mac} or
+ * {@link java.security.MessageDigest}, to avoid the provider lookup and instantiation of
+ * {@code getInstance()} on every use.
+ *
+ * <p>The pool is a fixed array of slots, and each thread is mapped to a slot by the identity hash
+ * of the thread. Unlike a {@link ThreadLocal}, instances are not bound to threads, so a pool shared
+ * by many short-lived (e.g. virtual) threads stays bounded and keeps its instances warm. Taking an
+ * instance from an empty slot returns {@code null}, and returning an instance to an occupied slot
+ * drops it; in both cases the caller just falls back to a new instance.
+ *
+ * @param <T> the type of the pooled instances
+ */
+final class InstancePool<T> {
+
+  private static final int MAX_SLOTS = 256;
+
+  private final AtomicReferenceArray<T> slots;
+  private final int mask;
+
+  InstancePool() {
+    int processors = Math.max(1, Runtime.getRuntime().availableProcessors());
+    // Twice the number of processors, rounded up to a power of two
+    int size = Math.min(MAX_SLOTS, Integer.highestOneBit(2 * processors - 1) << 1);
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  /**
+   * Takes an instance from the slot of the current thread.
+   *
+   * @return a pooled instance, or null if the slot is empty
+   */
+  @Nullable
+  T poll() {
+    return slots.getAndSet(slot(), null);
+  }
+
+  /**
+   * Returns an instance to the slot of the current thread. The instance must be reset by the caller
+   * so it holds no secret, and must not be used afterwards.
+   *
+   * @param instance the instance to return
+   */
+  void offer(@NotNull T instance) {
+    slots.compareAndSet(slot(), null, instance);
+  }
+
+  private int slot() {
+    int hash = System.identityHashCode(Thread.currentThread());
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.security.InvalidKeyException;
+import java.util.Arrays;
+import java.util.Locale;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.ongres.scram.common.exception.ScramRuntimeException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * PBKDF2 engine backed by a {@link Mac}, for the HMAC algorithms without a specialized engine, or
+ * when the JVM has a faster intrinsic for the hash function.
+ *
+ * <p>It computes the same iterations as {@link CryptoUtil#hi(Mac, char[], byte[], int)}, but
+ * exposes them through the {@link Pbkdf2Engine} interface so the computation can be advanced in
+ * steps.
+ */
+final class MacPbkdf2 extends Pbkdf2Engine {
+
+  private final Mac mac;
+  private byte[] ui;
+  private byte[] result;
+
+  MacPbkdf2(@NotNull Mac mac) {
+    this.mac = mac;
+  }
+
+  @Override
+  int getMacLength() {
+    return mac.getMacLength();
+  }
+
+  @Override
+  void init(byte @NotNull [] key) {
+    try {
+      mac.init(new SecretKeySpec(key, mac.getAlgorithm()));
+    } catch (InvalidKeyException ex) {
+      throw new ScramRuntimeException(
+          String.format(Locale.ROOT, "Platform error: unsupported key for %s algorithm",
+              mac.getAlgorithm()),
+          ex);
+    }
+  }
+
+  @Override
+  void start(byte @NotNull [] salt) {
+    mac.update(salt);
+    // The 4-octet encoding of the integer 1 INT(1).
+    mac.update((byte) 0);
+    mac.update((byte) 0);
+    mac.update((byte) 0);
+    mac.update((byte) 1);
+    this.ui = mac.doFinal();
+    this.result = ui.clone();
+  }
+
+  @Override
+  void iterate(int count) {
+    try {
+      for (int i = 0; i < count; i++) {
+        mac.update(ui);
+        mac.doFinal(ui, 0);
+        for (int j = 0; j < result.length; j++) {
+          result[j] ^= ui[j];
+        }
+      }
+    } catch (ShortBufferException e) {
+      throw new AssertionError("Buffer sized by Mac.doFinal() is suddenly too short", e);
+    }
+  }
+
+  @Override
+  byte @NotNull [] result() {
+    return result.clone();
+  }
+
+  @Override
+  void reset() {
+    if (ui != null) {
+      Arrays.fill(ui, (byte) 0);
+    }
+    if (result != null) {
+      Arrays.fill(result, (byte) 0);
+    }
+    mac.reset();
+  }
+
+}
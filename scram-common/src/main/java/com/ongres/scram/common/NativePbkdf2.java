@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * PBKDF2 computed by the {@code PKCS5_PBKDF2_HMAC} function of the system OpenSSL
+ * {@code libcrypto}.
+ *
+ * <p>This is the Java 8 variant, which can't call native code, so the salted password is always
+ * computed in Java. The multi-release variant for Java 22+ binds to {@code libcrypto} with the
+ * Foreign Function &amp; Memory API, when it's enabled with
+ * {@code -Dcom.ongres.scram.pbkdf2=native} or the module has native access enabled.
+ */
+final class NativePbkdf2 {
+
+  private NativePbkdf2() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Whether the native library is loaded and enabled.
+   *
+   * @return true if {@link #hi(String, char[], byte[], int)} computes the salted passwords
+   */
+  static boolean isAvailable() {
+    return false;
+  }
+
+  /**
+   * Computes the salted password with the native library, if available.
+   *
+   * @param hmacAlgorithmName the standard name of the HMAC algorithm
+   * @param normalizedPassword the normalized password
+   * @param salt the salt
+   * @param iterationCount the number of iterations
+   * @return the salted password, or null if it must be computed in Java
+   */
+  static byte @Nullable [] hi(@NotNull String hmacAlgorithmName,
+      char @NotNull [] normalizedPassword, byte @NotNull [] salt, int iterationCount) {
+    return null;
+  }
+
+}
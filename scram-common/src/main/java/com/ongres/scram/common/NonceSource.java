@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Generates nonces from random bytes drawn in batches, instead of a {@code nextInt} call per
+ * character.
+ *
+ * <p>Each random byte is mapped to one of the 93 printable ASCII characters except comma: the
+ * bytes below {@code 2 * 93} are reduced modulo 93, and the rest are discarded, so every character
+ * has the same probability. The shared source is striped like {@link InstancePool}: each thread is
+ * mapped to a stripe by its identity hash, and each stripe has its own {@link SecureRandom} and
+ * buffer of random bytes, created on first use, so the threads don't contend on a single lock nor
+ * on the seed generator.
+ */
+final class NonceSource {
+
+  private static final char[] ALPHABET = alphabet();
+  private static final int ACCEPTED_BYTES = 256 - 256 % ALPHABET.length;
+  private static final int BUFFER_SIZE = 512;
+  private static final int MAX_STRIPES = 64;
+  private static final NonceSource SHARED = new NonceSource();
+
+  private final AtomicReferenceArray<Stripe> stripes;
+  private final int mask;
+
+  private NonceSource() {
+    int processors = Math.max(1, Runtime.getRuntime().availableProcessors());
+    // Twice the number of processors, rounded up to a power of two
+    int size = Math.min(MAX_STRIPES, Integer.highestOneBit(2 * processors - 1) << 1);
+    this.stripes = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  /**
+   * Generates a nonce from the shared source.
+   *
+   * @param nonceSize the length of the nonce
+   * @return the nonce
+   */
+  static @NotNull String nonce(int nonceSize) {
+    return SHARED.stripe().nonce(nonceSize);
+  }
+
+  /**
+   * Generates a nonce drawing batches of random bytes from the given random.
+   *
+   * @param nonceSize the length of the nonce
+   * @param random the source of random bytes
+   * @return the nonce
+   */
+  static @NotNull String nonce(int nonceSize, @NotNull SecureRandom random) {
+    final char[] nonce = new char[nonceSize];
+    // Enough bytes for the expected number of rejections of a usual nonce, plus a margin
+    final int batch = Math.min(nonceSize, BUFFER_SIZE);
+    final byte[] bytes = new byte[batch + batch / 2 + 8];
+    int length = 0;
+    while (length < nonceSize) {
+      random.nextBytes(bytes);
+      length = map(bytes, nonce, length);
+    }
+    return new String(nonce);
+  }
+
+  /**
+   * Maps random bytes to characters of the nonce, discarding the bytes that would bias it.
+   *
+   * @return the new length of the nonce
+   */
+  private static int map(byte[] bytes, char[] nonce, int length) {
+    for (int i = 0; i < bytes.length && length < nonce.length; i++) {
+      final int value = bytes[i] & 0xFF;
+      if (value < ACCEPTED_BYTES) {
+        nonce[length++] = ALPHABET[value % ALPHABET.length];
+      }
+    }
+    return length;
+  }
+
+  private Stripe stripe() {
+    int hash = System.identityHashCode(Thread.currentThread());
+    int index = (hash ^ (hash >>> 16)) & mask;
+    Stripe stripe = stripes.get(index);
+    if (stripe == null) {
+      stripe = new Stripe();
+      if (!stripes.compareAndSet(index, null, stripe)) {
+        stripe = stripes.get(index);
+      }
+    }
+    return stripe;
+  }
+
+  private static char[] alphabet() {
+    final char[] alphabet = new char[0x7E - 0x21];
+    int length = 0;
+    for (char c = 0x21; c <= 0x7E; c++) {
+      if (c != ',') {
+        alphabet[length++] = c;
+      }
+    }
+    return alphabet;
+  }
+
+  /**
+   * A random generator and its buffer of unused random bytes.
+   */
+  private static final class Stripe {
+    private final SecureRandom random = new SecureRandom();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = BUFFER_SIZE;
+
+    synchronized String nonce(int nonceSize) {
+      final char[] nonce = new char[nonceSize];
+      int length = 0;
+      while (length < nonceSize) {
+        if (position == BUFFER_SIZE) {
+          random.nextBytes(buffer);
+          position = 0;
+        }
+        final int value = buffer[position++] & 0xFF;
+        if (value < ACCEPTED_BYTES) {
+          nonce[length++] = ALPHABET[value % ALPHABET.length];
+        }
+      }
+      return new String(nonce);
+    }
+  }
+
+}
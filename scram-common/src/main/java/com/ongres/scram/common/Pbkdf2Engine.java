@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.util.Locale;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Specialized PBKDF2-HMAC core used to compute the SCRAM "Hi" function without going through
+ * {@link javax.crypto.Mac}.
+ *
+ * <p>A generic {@code Mac} re-hashes the inner and outer padded key blocks on every
+ * {@code doFinal()}, so each PBKDF2 iteration costs four compressions plus provider dispatch.
+ * Implementations of this class compute the compression state of both padded key blocks
+ * (the HMAC "midstates") once per password, and then run every iteration as exactly two
+ * compressions of a single block over primitive state, without any allocation.
+ *
+ * <p>An engine is stateful and not thread-safe: a new instance must be used for each derivation
+ * (see {@link #select(String)}), and {@link #reset()} must be called once the result has been read
+ * to wipe the key material.
+ */
+abstract class Pbkdf2Engine {
+
+  /**
+   * System property that selects how the salted password is computed: {@code "jca"} always uses
+   * {@link javax.crypto.Mac}, {@code "java"} uses the specialized engines for every algorithm
+   * that has one, and {@code "auto"} (the default) uses them only where the JVM is not expected to
+   * replace the compression function of the hash with an intrinsic. On Java 22+, {@code "native"}
+   * uses the system OpenSSL {@code libcrypto} when it can be loaded (see {@link NativePbkdf2}),
+   * and otherwise behaves as {@code "auto"}.
+   */
+  static final String IMPLEMENTATION_PROPERTY = "com.ongres.scram.pbkdf2";
+
+  private static final String IMPLEMENTATION = implementation();
+
+  private static final boolean HOTSPOT = isHotSpot();
+
+  /**
+   * HotSpot intrinsifies the SHA-256 compression function on x86-64 (SHA extensions or AVX2) and on
+   * AArch64 (SHA2 extensions), and an intrinsic compression is faster than the pure Java one even
+   * though {@code Mac} needs twice as many compressions per iteration.
+   */
+  private static final boolean SHA256_INTRINSICS = HOTSPOT
+      && (isArch("amd64") || isArch("x86_64") || isArch("aarch64"));
+
+  /**
+   * The SHA-512 compression function is only worth its intrinsic on AArch64, where it's backed by
+   * the SHA-512 instructions; the AVX2 intrinsic on x86-64 is slower than running half of the
+   * compressions in pure Java.
+   */
+  private static final boolean SHA512_INTRINSICS = HOTSPOT && isArch("aarch64");
+
+  /**
+   * HotSpot only intrinsifies the Keccak permutation on AArch64 (SHA3 extensions).
+   */
+  private static final boolean SHA3_INTRINSICS = HOTSPOT && isArch("aarch64");
+
+  /**
+   * The output length of the HMAC, in bytes.
+   *
+   * @return the length of {@code Ui} and of the computed Hi value
+   */
+  abstract int getMacLength();
+
+  /**
+   * Computes the inner and outer HMAC midstates for the given key. Keys longer than the block
+   * size of the hash function are hashed first, as mandated by RFC 2104.
+   *
+   * @param key the HMAC key, it's not modified nor retained by the engine
+   */
+  abstract void init(byte @NotNull [] key);
+
+  /**
+   * Computes {@code U1 := HMAC(key, salt + INT(1))}, and sets the accumulator to {@code U1}.
+   *
+   * @param salt the salt
+   */
+  abstract void start(byte @NotNull [] salt);
+
+  /**
+   * Runs {@code count} further iterations of {@code Ui := HMAC(key, Ui-1)}, accumulating
+   * {@code Hi := Hi XOR Ui}.
+   *
+   * @param count the number of iterations to run
+   */
+  abstract void iterate(int count);
+
+  /**
+   * Returns the accumulated Hi value.
+   *
+   * @return a new array with the current value of the accumulator
+   */
+  abstract byte @NotNull [] result();
+
+  /**
+   * Wipes the midstates, the current {@code Ui} and the accumulator.
+   */
+  abstract void reset();
+
+  /**
+   * Returns a new specialized engine for the given HMAC algorithm, if it's expected to be faster
+   * than {@link javax.crypto.Mac} on the running JVM.
+   *
+   * @param hmacAlgorithmName the standard name of the HMAC algorithm
+   * @return a new engine, or null if {@code Mac} should be used instead
+   * @see #IMPLEMENTATION_PROPERTY
+   */
+  static @Nullable Pbkdf2Engine select(@NotNull String hmacAlgorithmName) {
+    switch (IMPLEMENTATION) {
+      case "jca":
+        return null;
+      case "java":
+        return forAlgorithm(hmacAlgorithmName);
+      default:
+        return hasFasterIntrinsic(hmacAlgorithmName) ? null : forAlgorithm(hmacAlgorithmName);
+    }
+  }
+
+  /**
+   * Returns a new specialized engine for the given HMAC algorithm.
+   *
+   * @param hmacAlgorithmName the standard name of the HMAC algorithm
+   * @return a new engine, or null if there is no specialized engine for the algorithm
+   */
+  static @Nullable Pbkdf2Engine forAlgorithm(@NotNull String hmacAlgorithmName) {
+    switch (hmacAlgorithmName) {
+      case "HmacSHA224":
+        return Sha256Pbkdf2.sha224();
+      case "HmacSHA256":
+        return Sha256Pbkdf2.sha256();
+      case "HmacSHA384":
+        return Sha512Pbkdf2.sha384();
+      case "HmacSHA512":
+        return Sha512Pbkdf2.sha512();
+      case "HmacSHA3-512":
+        return Sha3Pbkdf2.sha3512();
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Whether the specialized engines are disabled, because {@link #IMPLEMENTATION_PROPERTY} is set
+   * to {@code "jca"}.
+   *
+   * @return true if {@link javax.crypto.Mac} must always be used
+   */
+  static boolean isDisabled() {
+    return "jca".equals(IMPLEMENTATION);
+  }
+
+  /**
+   * Whether the native {@code libcrypto} PBKDF2 is requested, because
+   * {@link #IMPLEMENTATION_PROPERTY} is set to {@code "native"}.
+   *
+   * @return true if {@link NativePbkdf2} should be used when available
+   */
+  static boolean isNativeRequested() {
+    return "native".equals(IMPLEMENTATION);
+  }
+
+  /**
+   * Whether the implementation is selected automatically, because
+   * {@link #IMPLEMENTATION_PROPERTY} is not set or set to {@code "auto"}.
+   *
+   * @return true if the implementation is selected automatically
+   */
+  static boolean isAuto() {
+    return "auto".equals(IMPLEMENTATION);
+  }
+
+  private static boolean hasFasterIntrinsic(String hmacAlgorithmName) {
+    switch (hmacAlgorithmName) {
+      case "HmacSHA224":
+      case "HmacSHA256":
+        return SHA256_INTRINSICS;
+      case "HmacSHA384":
+      case "HmacSHA512":
+        return SHA512_INTRINSICS;
+      case "HmacSHA3-512":
+        return SHA3_INTRINSICS;
+      default:
+        return true;
+    }
+  }
+
+  private static String implementation() {
+    try {
+      return System.getProperty(IMPLEMENTATION_PROPERTY, "auto").toLowerCase(Locale.ROOT);
+    } catch (SecurityException ex) {
+      return "auto";
+    }
+  }
+
+  private static boolean isHotSpot() {
+    try {
+      String vmName = System.getProperty("java.vm.name", "");
+      return (vmName.contains("HotSpot") || vmName.contains("OpenJDK"))
+          && !vmName.contains("Zero");
+    } catch (SecurityException ex) {
+      return false;
+    }
+  }
+
+  private static boolean isArch(String arch) {
+    try {
+      return arch.equals(System.getProperty("os.arch"));
+    } catch (SecurityException ex) {
+      return false;
+    }
+  }
+
+}
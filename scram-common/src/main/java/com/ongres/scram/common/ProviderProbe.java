@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.ongres.scram.common.exception.ScramRuntimeException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Verifies that the algorithms of a {@link AlgorithmBinding} compute the expected values, before
+ * the binding is used by a {@link ScramMechanism}.
+ *
+ * <p>Every binding is checked with the digest of {@code "abc"} (FIPS 180-4 and FIPS 202 examples)
+ * and the HMAC of the RFC 2202 / RFC 4231 test case 2 ({@code key = "Jefe"}). The {@code SHA-1}
+ * and {@code SHA-256} bindings are also checked with the complete {@code ClientProof} computation
+ * of the RFC 5802 and RFC 7677 examples, which includes the salted password.
+ */
+final class ProviderProbe {
+
+  private static final byte[] DIGEST_MESSAGE = "abc".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] HMAC_KEY = "Jefe".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] HMAC_MESSAGE =
+      "what do ya want for nothing?".getBytes(StandardCharsets.US_ASCII);
+
+  private static final String RFC5802_SALT = "QSXCR+Q6sek8bf92";
+  private static final String RFC5802_AUTH_MESSAGE = "n=user,r=fyko+d2lbbFgONRv9qkxdawL,"
+      + "r=fyko+d2lbbFgONRv9qkxdawL3rfcNHYJY1ZVvWVs7j,s=QSXCR+Q6sek8bf92,i=4096,"
+      + "c=biws,r=fyko+d2lbbFgONRv9qkxdawL3rfcNHYJY1ZVvWVs7j";
+  private static final String RFC5802_CLIENT_PROOF = "v0X8v3Bz2T0CJGbJQyF0X+HI4Ts=";
+
+  private static final String RFC7677_SALT = "W22ZaJ0SNY7soEsUEjb6gQ==";
+  private static final String RFC7677_AUTH_MESSAGE = "n=user,r=rOprNGfwEbeRWgbNEkqO,"
+      + "r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0,s=W22ZaJ0SNY7soEsUEjb6gQ==,i=4096,"
+      + "c=biws,r=rOprNGfwEbeRWgbNEkqO%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0";
+  private static final String RFC7677_CLIENT_PROOF = "dHzbZapWIk4jUhN+Ute9ytag9zjfMHgsqmmiz7AndVQ=";
+
+  private static final int RFC_ITERATIONS = 4096;
+
+  private ProviderProbe() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Verifies the binding for the algorithms of the mechanism.
+   *
+   * @param mechanism the mechanism that will use the binding
+   * @param binding the binding to verify
+   * @throws ScramRuntimeException if an algorithm is not supported by the binding, or computes a
+   *           value different from the test vector
+   */
+  static void verify(@NotNull ScramMechanism mechanism, @NotNull AlgorithmBinding binding) {
+    final String hashAlgorithmName = mechanism.getHashAlgorithmName();
+    final String hmacAlgorithmName = mechanism.getHmacAlgorithmName();
+    final MessageDigest digest;
+    final Mac mac;
+    try {
+      digest = binding.newMessageDigest(hashAlgorithmName);
+      mac = binding.newMac(hmacAlgorithmName);
+    } catch (NoSuchAlgorithmException ex) {
+      throw new ScramRuntimeException(String.format(Locale.ROOT,
+          "Provider %s does not support %s", binding.describe(), mechanism.getName()), ex);
+    }
+
+    check(binding, hashAlgorithmName, expectedDigest(hashAlgorithmName),
+        digest.digest(DIGEST_MESSAGE));
+    check(binding, hmacAlgorithmName, expectedHmac(hashAlgorithmName),
+        hmac(mac, HMAC_KEY, HMAC_MESSAGE));
+
+    if ("SHA-1".equals(hashAlgorithmName)) {
+      check(binding, "RFC 5802 ClientProof", Base64.getDecoder().decode(RFC5802_CLIENT_PROOF),
+          clientProof(digest, mac, RFC5802_SALT, RFC5802_AUTH_MESSAGE));
+    } else if ("SHA-256".equals(hashAlgorithmName)) {
+      check(binding, "RFC 7677 ClientProof", Base64.getDecoder().decode(RFC7677_CLIENT_PROOF),
+          clientProof(digest, mac, RFC7677_SALT, RFC7677_AUTH_MESSAGE));
+    }
+  }
+
+  private static byte[] clientProof(MessageDigest digest, Mac mac, String salt,
+      String authMessage) {
+    byte[] saltedPassword = CryptoUtil.hi(mac, "pencil".toCharArray(),
+        Base64.getDecoder().decode(salt), RFC_ITERATIONS);
+    byte[] clientKey = hmac(mac, saltedPassword, "Client Key".getBytes(StandardCharsets.UTF_8));
+    byte[] storedKey = digest.digest(clientKey);
+    byte[] clientSignature = hmac(mac, storedKey, authMessage.getBytes(StandardCharsets.UTF_8));
+    return CryptoUtil.xor(clientKey, clientSignature);
+  }
+
+  private static byte[] hmac(Mac mac, byte[] key, byte[] message) {
+    return CryptoUtil.hmac(new SecretKeySpec(key, mac.getAlgorithm()), mac, message);
+  }
+
+  private static void check(AlgorithmBinding binding, String name, byte[] expected,
+      byte[] actual) {
+    if (!MessageDigest.isEqual(expected, actual)) {
+      throw new ScramRuntimeException(String.format(Locale.ROOT,
+          "Provider %s failed the %s test vector", binding.describe(), name));
+    }
+  }
+
+  private static byte[] expectedDigest(String hashAlgorithmName) {
+    switch (hashAlgorithmName) {
+      case "SHA-1":
+        return hex("a9993e364706816aba3e25717850c26c9cd0d89d");
+      case "SHA-224":
+        return hex("23097d223405d8228642a477bda255b32aadbce4bda0b3f7e36c9da7");
+      case "SHA-256":
+        return hex("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+      case "SHA-384":
+        return hex("cb00753f45a35e8bb5a03d699ac65007272c32ab0eded163"
+            + "1a8b605a43ff5bed8086072ba1e7cc2358baeca134c825a7");
+      case "SHA-512":
+        return hex("ddaf35a193617abacc417349ae20413112e6fa4e89a97ea20a9eeee64b55d39a"
+            + "2192992a274fc1a836ba3c23a3feebbd454d4423643ce80e2a9ac94fa54ca49f");
+      case "SHA3-512":
+        return hex("b751850b1a57168a5693cd924b6b096e08f621827444f70d884f5d0240d2712e"
+            + "10e116e9192af3c91a7ec57647e3934057340b4cf408d5a56592f8274eec53f0");
+      default:
+        throw new ScramRuntimeException("No test vector for " + hashAlgorithmName);
+    }
+  }
+
+  private static byte[] expectedHmac(String hashAlgorithmName) {
+    switch (hashAlgorithmName) {
+      case "SHA-1":
+        return hex("effcdf6ae5eb2fa2d27416d5f184df9c259a7c79");
+      case "SHA-224":
+        return hex("a30e01098bc6dbbf45690f3a7e9e6d0f8bbea2a39e6148008fd05e44");
+      case "SHA-256":
+        return hex("5bdcc146bf60754e6a042426089575c75a003f089d2739839dec58b964ec3843");
+      case "SHA-384":
+        return hex("af45d2e376484031617f78d2b58a6b1b9c7ef464f5a01b47"
+            + "e42ec3736322445e8e2240ca5e69e2c78b3239ecfab21649");
+      case "SHA-512":
+        return hex("164b7a7bfcf819e2e395fbe73b56e0a387bd64222e831fd610270cd7ea250554"
+            + "9758bf75c05a994a6d034f65f8f0e6fdcaeab1a34d4a6b4b636e070a38bce737");
+      case "SHA3-512":
+        // No RFC defines HMAC-SHA3 vectors, this is the HMAC of the same test case 2 inputs
+        return hex("5a4bfeab6166427c7a3647b747292b8384537cdb89afb3bf5665e4c5e709350b"
+            + "287baec921fd7ca0ee7a0c31d022a95e1fc92ba9d77df883960275beb4e62024");
+      default:
+        throw new ScramRuntimeException("No test vector for " + hashAlgorithmName);
+    }
+  }
+
+  private static byte[] hex(String value) {
+    byte[] bytes = new byte[value.length() / 2];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) Integer.parseInt(value.substring(2 * i, 2 * i + 2), 16);
+    }
+    return bytes;
+  }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import static com.ongres.scram.common.util.Preconditions.gt0;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A salted password computation that can be advanced in steps, for cooperative schedulers.
+ *
+ * <p>The PBKDF2 state (the HMAC midstates or {@code Mac}, the last {@code Ui} and the accumulated
+ * Hi value) is held by this object between calls, so a single-threaded event loop can interleave
+ * an expensive derivation with other work, running a bounded number of iterations, or iterations
+ * for a bounded amount of time, on each call:
+ *
+ * <pre>{@code
+ * SaltedPasswordStepper stepper = ScramFunctions.saltedPasswordStepper(
+ *     mechanism, stringPreparation, password, salt, iterationCount);
+ * // on each turn of the event loop
+ * if (stepper.stepFor(TimeUnit.MICROSECONDS.toNanos(500))) {
+ *   byte[] saltedPassword = stepper.getSaltedPassword();
+ *   stepper.close();
+ *   ...
+ * }
+ * }</pre>
+ *
+ * <p>The result is the same as
+ * {@link ScramFunctions#saltedPassword(ScramMechanism, StringPreparation, char[], byte[], int)}.
+ * Unlike it, the stepper never checks the interrupted status of the thread, the caller decides
+ * when the computation runs and can abandon it at any time by calling {@link #close()}.
+ *
+ * @apiNote This class is not thread-safe, each call must happen-before the next one.
+ * @since 3.5
+ */
+public final class SaltedPasswordStepper implements AutoCloseable {
+
+  /**
+   * The number of iterations run between checks of the time budget, so that reading the clock
+   * stays negligible compared to the iterations while overshooting the budget by only a few
+   * microseconds.
+   */
+  private static final int TIME_CHECK_SLICE = 16;
+
+  private final Pbkdf2Engine engine;
+  private final int iterationCount;
+  private int iteration;
+  private boolean closed;
+
+  SaltedPasswordStepper(@NotNull Pbkdf2Engine engine, char @NotNull [] normalizedPassword,
+      byte @NotNull [] salt, int iterationCount) {
+    this.iterationCount = gt0(iterationCount, "iterationCount");
+    this.engine = engine;
+    try {
+      CryptoUtil.start(engine, normalizedPassword, salt);
+    } catch (RuntimeException ex) {
+      engine.reset();
+      throw ex;
+    }
+    this.iteration = 1;
+  }
+
+  /**
+   * Runs at most the given number of iterations.
+   *
+   * @param maxIterations the maximum number of iterations to run, must be positive
+   * @return true if the computation is completed
+   * @throws IllegalArgumentException if {@code maxIterations} is not positive
+   * @throws IllegalStateException if the stepper is closed
+   */
+  public boolean step(int maxIterations) {
+    gt0(maxIterations, "maxIterations");
+    checkOpen();
+    int count = Math.min(iterationCount - iteration, maxIterations);
+    if (count > 0) {
+      engine.iterate(count);
+      iteration += count;
+    }
+    return isDone();
+  }
+
+  /**
+   * Runs iterations until the computation completes or the given time budget is spent. At least
+   * one slice of a few iterations is run on each call, even if the budget is not positive.
+   *
+   * @param budgetNanos the time budget, in nanoseconds
+   * @return true if the computation is completed
+   * @throws IllegalStateException if the stepper is closed
+   */
+  public boolean stepFor(long budgetNanos) {
+    checkOpen();
+    final long start = System.nanoTime();
+    do {
+      int count = Math.min(iterationCount - iteration, TIME_CHECK_SLICE);
+      if (count <= 0) {
+        break;
+      }
+      engine.iterate(count);
+      iteration += count;
+    } while (System.nanoTime() - start < budgetNanos);
+    return isDone();
+  }
+
+  /**
+   * Whether all the iterations have run.
+   *
+   * @return true if the computation is completed
+   */
+  public boolean isDone() {
+    return iteration >= iterationCount;
+  }
+
+  /**
+   * The number of iterations that have not run yet.
+   *
+   * @return the remaining iterations, 0 once the computation is completed
+   */
+  public int getRemainingIterations() {
+    return iterationCount - iteration;
+  }
+
+  /**
+   * Returns the salted password, once the computation is completed.
+   *
+   * @return a new array with the salted password
+   * @throws IllegalStateException if the computation is not completed, or the stepper is closed
+   */
+  public byte @NotNull [] getSaltedPassword() {
+    checkOpen();
+    if (!isDone()) {
+      throw new IllegalStateException(
+          "The salted password is not computed yet, " + getRemainingIterations()
+              + " iterations remaining");
+    }
+    return engine.result();
+  }
+
+  /**
+   * Wipes the PBKDF2 state. The stepper can't be used anymore after closing it.
+   */
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      engine.reset();
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("The stepper is closed");
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+import static com.ongres.scram.common.util.Preconditions.gt0;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The password, salt and iteration count of a credential, used to compute its keys in bulk with
+ * {@link ScramFunctions#credentials(ScramMechanism, StringPreparation, java.util.List,
+ * java.util.concurrent.Executor)}.
+ *
+ * @implNote The password array is not copied, so it must not be modified until the batch that
+ *           uses this input is completed; wiping it afterwards is the responsibility of the caller.
+ * @since 3.5
+ */
+public final class ScramCredentialInput {
+
+  private final char[] password;
+  private final byte[] salt;
+  private final int iterationCount;
+
+  private ScramCredentialInput(char[] password, byte[] salt, int iterationCount) {
+    this.password = checkNotNull(password, "password");
+    this.salt = checkNotNull(salt, "salt").clone();
+    checkArgument(salt.length != 0, "salt");
+    this.iterationCount = gt0(iterationCount, "iterationCount");
+  }
+
+  /**
+   * Creates the input of a credential.
+   *
+   * @param password The non-salted password
+   * @param salt The bytes representing the salt
+   * @param iterationCount The number of iterations
+   * @return the credential input
+   * @throws IllegalArgumentException if the salt is empty or the iteration count is not positive
+   */
+  public static @NotNull ScramCredentialInput of(char @NotNull [] password,
+      byte @NotNull [] salt, int iterationCount) {
+    return new ScramCredentialInput(password, salt, iterationCount);
+  }
+
+  char @NotNull [] password() {
+    return password;
+  }
+
+  byte @NotNull [] salt() {
+    return salt;
+  }
+
+  /**
+   * Return the salt.
+   *
+   * @return the salt
+   */
+  public byte @NotNull [] getSalt() {
+    return salt.clone();
+  }
+
+  /**
+   * Return the iteration count.
+   *
+   * @return the iteration count
+   */
+  public int getIterationCount() {
+    return iterationCount;
+  }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The keys derived from the salted password of a credential, as computed by
+ * {@link ScramFunctions#credentials(ScramMechanism, StringPreparation, java.util.List,
+ * java.util.concurrent.Executor)}.
+ *
+ * <pre>{@code
+ *      SaltedPassword  := Hi(Normalize(password), salt, i)
+ *      ClientKey       := HMAC(SaltedPassword, "Client Key")
+ *      StoredKey       := H(ClientKey)
+ *      ServerKey       := HMAC(SaltedPassword, "Server Key")
+ * }</pre>
+ *
+ * @since 3.5
+ */
+public final class ScramCredentials {
+
+  private final ScramMechanism scramMechanism;
+  private final byte[] salt;
+  private final int iterationCount;
+  private final byte[] clientKey;
+  private final byte[] storedKey;
+  private final byte[] serverKey;
+
+  private ScramCredentials(ScramMechanism scramMechanism, byte[] salt, int iterationCount,
+      byte[] clientKey, byte[] storedKey, byte[] serverKey) {
+    this.scramMechanism = scramMechanism;
+    this.salt = salt;
+    this.iterationCount = iterationCount;
+    this.clientKey = clientKey;
+    this.storedKey = storedKey;
+    this.serverKey = serverKey;
+  }
+
+  /**
+   * Derives the keys from a salted password, which is not retained.
+   */
+  static @NotNull ScramCredentials fromSaltedPassword(@NotNull ScramMechanism scramMechanism,
+      byte @NotNull [] saltedPassword, byte @NotNull [] salt, int iterationCount) {
+    byte[] clientKey = ScramFunctions.clientKey(scramMechanism, saltedPassword);
+    byte[] storedKey = ScramFunctions.storedKey(scramMechanism, clientKey);
+    byte[] serverKey = ScramFunctions.serverKey(scramMechanism, saltedPassword);
+    return new ScramCredentials(scramMechanism, salt.clone(), iterationCount,
+        clientKey, storedKey, serverKey);
+  }
+
+  /**
+   * Return the SCRAM mechanism.
+   *
+   * @return the SCRAM mechanism
+   */
+  public @NotNull ScramMechanism getScramMechanism() {
+    return scramMechanism;
+  }
+
+  /**
+   * Return the salt.
+   *
+   * @return the salt
+   */
+  public byte @NotNull [] getSalt() {
+    return salt.clone();
+  }
+
+  /**
+   * Return the iteration count.
+   *
+   * @return the iteration count
+   */
+  public int getIterationCount() {
+    return iterationCount;
+  }
+
+  /**
+   * Return the client key.
+   *
+   * @return the {@code ClientKey}
+   */
+  public byte @NotNull [] getClientKey() {
+    return clientKey.clone();
+  }
+
+  /**
+   * Return the stored key.
+   *
+   * @return the {@code StoredKey}
+   */
+  public byte @NotNull [] getStoredKey() {
+    return storedKey.clone();
+  }
+
+  /**
+   * Return the server key.
+   *
+   * @return the {@code ServerKey}
+   */
+  public byte @NotNull [] getServerKey() {
+    return serverKey.clone();
+  }
+
+}
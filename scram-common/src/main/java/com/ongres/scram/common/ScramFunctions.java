@@ -9,9 +9,16 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.security.MessageDigest;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.ongres.scram.common.util.Preconditions;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Utility functions (mostly crypto) for SCRAM.
@@ -46,6 +53,94 @@ public final class ScramFunctions {
     return scramMechanism.saltedPassword(stringPreparation, password, salt, iterationCount);
   }
 
+  /**
+   * Starts a salted password computation that can be advanced in steps, based on the given SCRAM
+   * mechanism, the String preparation algorithm, the provided salt and the number of iterations.
+   *
+   * <p>The computed salted password is the same as the one returned by
+   * {@link #saltedPassword(ScramMechanism, StringPreparation, char[], byte[], int)}, but the
+   * iterations run only when {@link SaltedPasswordStepper#step(int)} or
+   * {@link SaltedPasswordStepper#stepFor(long)} are called, so the computation can be interleaved
+   * with other work in the same thread.
+   *
+   * @param scramMechanism The SCRAM mechanism
+   * @param stringPreparation The String preparation
+   * @param password The non-salted password
+   * @param salt The bytes representing the salt
+   * @param iterationCount The number of iterations
+   * @return The stepper, that must be closed to wipe the computation state
+   * @since 3.5
+   */
+  public static @NotNull SaltedPasswordStepper saltedPasswordStepper(
+      @NotNull ScramMechanism scramMechanism, @NotNull StringPreparation stringPreparation,
+      char @NotNull [] password, byte @NotNull [] salt, int iterationCount) {
+    return scramMechanism.saltedPasswordStepper(stringPreparation, password, salt,
+        iterationCount);
+  }
+
+  /**
+   * Compute the salted passwords of a batch of independent credentials, based on the given SCRAM
+   * mechanism, the String preparation algorithm, the salt of each password and the number of
+   * iterations shared by the whole batch.
+   *
+   * <p>Each salted password is the same as the one returned by
+   * {@link #saltedPassword(ScramMechanism, StringPreparation, char[], byte[], int)}. On Java 17+
+   * with the {@code jdk.incubator.vector} module added to the boot layer, the {@code SCRAM-SHA-224}
+   * and {@code SCRAM-SHA-256} mechanisms compute several passwords side by side in SIMD lanes;
+   * otherwise the passwords are computed one after another.
+   *
+   * @param scramMechanism The SCRAM mechanism
+   * @param stringPreparation The String preparation
+   * @param passwords The non-salted passwords
+   * @param salts The bytes representing the salt of each password
+   * @param iterationCount The number of iterations
+   * @return The salted passwords, in the same order as the passwords
+   * @throws IllegalArgumentException if the number of passwords and salts differ
+   * @since 3.5
+   */
+  public static byte @NotNull [] @NotNull [] saltedPasswords(
+      @NotNull ScramMechanism scramMechanism, @NotNull StringPreparation stringPreparation,
+      char @NotNull [] @NotNull [] passwords, byte @NotNull [] @NotNull [] salts,
+      int iterationCount) {
+    return scramMechanism.saltedPasswords(stringPreparation, passwords, salts, iterationCount);
+  }
+
+  /**
+   * Compute the client, stored and server keys of a batch of independent credentials, fanning out
+   * the salted password computations to the given executor.
+   *
+   * <p>The returned stream is lazy and sequential, and hands out the credentials in the same order
+   * as the inputs. To bound the memory used, only a window of twice the parallelism of the
+   * executor is computed ahead of the consumer of the stream. The intermediate salted passwords
+   * are wiped as soon as the keys are derived. Closing the stream skips the computations that
+   * have not started yet.
+   *
+   * <p>Any exception thrown computing a credential is rethrown by the stream when that credential
+   * is reached.
+   *
+   * @param scramMechanism The SCRAM mechanism
+   * @param stringPreparation The String preparation
+   * @param inputs The password, salt and iteration count of each credential
+   * @param executor The executor used to compute the salted passwords, or null to use the
+   *          {@link ForkJoinPool#commonPool() common pool}
+   * @return A stream of the computed credentials, in the same order as the inputs
+   * @since 3.5
+   */
+  public static @NotNull Stream<@NotNull ScramCredentials> credentials(
+      @NotNull ScramMechanism scramMechanism, @NotNull StringPreparation stringPreparation,
+      @NotNull List<@NotNull ScramCredentialInput> inputs, @Nullable Executor executor) {
+    Preconditions.checkNotNull(scramMechanism, "scramMechanism");
+    Preconditions.checkNotNull(stringPreparation, "stringPreparation");
+    final List<ScramCredentialInput> snapshot =
+        new ArrayList<>(Preconditions.checkNotNull(inputs, "inputs"));
+    for (ScramCredentialInput input : snapshot) {
+      Preconditions.checkNotNull(input, "input");
+    }
+    final CredentialBatch batch = new CredentialBatch(scramMechanism, stringPreparation, snapshot,
+        executor != null ? executor : ForkJoinPool.commonPool());
+    return StreamSupport.stream(batch, false).onClose(batch);
+  }
+
   /**
    * Computes the HMAC of the message and key, using the given SCRAM mechanism.
    *
@@ -143,6 +238,45 @@ public final class ScramFunctions {
     return hmac(scramMechanism, storedKey, authMessage.getBytes(UTF_8));
   }
 
+  /**
+   * Computes the SCRAM client signature, feeding the AuthMessage to the HMAC in chunks.
+   *
+   * <pre>{@code
+   *      ClientSignature := HMAC(StoredKey, AuthMessage)
+   * }</pre>
+   *
+   * @param scramMechanism The SCRAM mechanism
+   * @param storedKey The stored key
+   * @param authMessage The auth message
+   * @return The client signature
+   * @since 3.5
+   */
+  public static byte @NotNull [] clientSignature(@NotNull ScramMechanism scramMechanism,
+      byte @NotNull [] storedKey, @NotNull AuthMessage authMessage) {
+    return scramMechanism.hmac(authMessage, storedKey)[0];
+  }
+
+  /**
+   * Computes the SCRAM client and server signatures together, in a single pass over the encoded
+   * AuthMessage.
+   *
+   * <pre>{@code
+   *      ClientSignature := HMAC(StoredKey, AuthMessage)
+   *      ServerSignature := HMAC(ServerKey, AuthMessage)
+   * }</pre>
+   *
+   * @param scramMechanism The SCRAM mechanism
+   * @param storedKey The stored key
+   * @param serverKey The server key
+   * @param authMessage The auth message
+   * @return An array with the client signature and the server signature, in that order
+   * @since 3.5
+   */
+  public static byte @NotNull [] @NotNull [] signatures(@NotNull ScramMechanism scramMechanism,
+      byte @NotNull [] storedKey, byte @NotNull [] serverKey, @NotNull AuthMessage authMessage) {
+    return scramMechanism.hmac(authMessage, storedKey, serverKey);
+  }
+
   /**
    * Computes the SCRAM client proof to be sent to the server on the client-final-message.
    *
@@ -175,6 +309,24 @@ public final class ScramFunctions {
     return hmac(scramMechanism, serverKey, authMessage.getBytes(UTF_8));
   }
 
+  /**
+   * Compute the SCRAM server signature, feeding the AuthMessage to the HMAC in chunks.
+   *
+   * <pre>{@code
+   *      ServerSignature := HMAC(ServerKey, AuthMessage)
+   * }</pre>
+   *
+   * @param scramMechanism The SCRAM mechanism
+   * @param serverKey The server key
+   * @param authMessage The auth message
+   * @return The server signature
+   * @since 3.5
+   */
+  public static byte @NotNull [] serverSignature(@NotNull ScramMechanism scramMechanism,
+      byte @NotNull [] serverKey, @NotNull AuthMessage authMessage) {
+    return scramMechanism.hmac(authMessage, serverKey)[0];
+  }
+
   /**
    * Verifies that a provided client proof is correct.
    *
@@ -220,14 +372,25 @@ public final class ScramFunctions {
   public static String nonce(int nonceSize, SecureRandom random) {
     Preconditions.gt0(nonceSize, "nonceSize");
     Preconditions.checkNotNull(random, "random");
-    final StringBuilder nonceBuilder = new StringBuilder(nonceSize);
-    while (nonceBuilder.length() < nonceSize) {
-      int codePoint = random.nextInt(0x7E - 0x21 + 1) + 0x21;
-      if (codePoint != ',') {
-        nonceBuilder.append((char) codePoint);
-      }
-    }
-    return nonceBuilder.toString();
+    return NonceSource.nonce(nonceSize, random);
+  }
+
+  /**
+   * Generates a random string (called a 'nonce'), composed of ASCII printable characters, except
+   * comma (','), from a shared source of random bytes.
+   *
+   * <p>The random bytes are drawn in batches from {@link SecureRandom} instances striped by thread,
+   * so generating many nonces concurrently (e.g. at a high connection rate) doesn't contend on a
+   * single generator, nor creates a new one for each nonce.
+   *
+   * @param nonceSize The length of the nonce, in characters/bytes
+   * @return The String representing the nonce
+   * @throws IllegalArgumentException if the nonceSize is not positive
+   * @since 3.5
+   */
+  public static @NotNull String nonce(int nonceSize) {
+    Preconditions.gt0(nonceSize, "nonceSize");
+    return NonceSource.nonce(nonceSize);
   }
 
   /**
@@ -258,11 +421,7 @@ public final class ScramFunctions {
    */
   public static String authMessage(ClientFirstMessage clientFirstMessage,
       ServerFirstMessage serverFirstMessage, byte[] cbindData) {
-    StringBuilder sb = clientFirstMessage.clientFirstMessageBare(new StringBuilder(96))
-        .append(',').append(serverFirstMessage).append(',');
-    ClientFinalMessage.withoutProof(sb, clientFirstMessage.getGs2Header(),
-        cbindData, serverFirstMessage.getNonce());
-    return sb.toString();
+    return AuthMessage.of(clientFirstMessage, serverFirstMessage, cbindData).toString();
   }
 
 }
@@ -5,10 +5,14 @@
 
 package com.ongres.scram.common;
 
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
 import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+import static com.ongres.scram.common.util.Preconditions.gt0;
 
+import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -91,24 +95,29 @@ public enum ScramMechanism {
 
   private static final @Unmodifiable Map<String, ScramMechanism> BY_NAME_MAPPING =
       Arrays.stream(values())
-          .filter(ScramMechanism::isAlgorithmSupported)
           .collect(Collectors.collectingAndThen(
               Collectors.toMap(ScramMechanism::getName, Function.identity()),
               Collections::unmodifiableMap));
-  private static final @Unmodifiable List<String> SUPPORTED_MECHANISMS = BY_NAME_MAPPING.keySet()
-      .stream()
-      .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
 
   private final @NotNull String mechanismName;
   private final @NotNull String hashAlgorithmName;
   private final @NotNull String hmacAlgorithmName;
   private final boolean channelBinding;
+  private volatile @NotNull AlgorithmBinding binding = new AlgorithmBinding(null, null);
+  private volatile boolean supported;
+  /**
+   * A non-secret key used to re-initialize the pooled {@link Mac} instances, so they don't retain
+   * the key of their last use.
+   */
+  private final SecretKeySpec scrubKey;
 
   ScramMechanism(String name, String hashAlgorithmName, String hmacAlgorithmName) {
     this.mechanismName = checkNotNull(name, "name");
     this.hashAlgorithmName = checkNotNull(hashAlgorithmName, "hashAlgorithmName");
     this.hmacAlgorithmName = checkNotNull(hmacAlgorithmName, "hmacAlgorithmName");
     this.channelBinding = name.endsWith("-PLUS");
+    this.scrubKey = new SecretKeySpec(new byte[1], hmacAlgorithmName);
+    this.supported = isAlgorithmSupported(this);
   }
 
   /**
@@ -158,6 +167,57 @@ public enum ScramMechanism {
     return channelBinding;
   }
 
+  /**
+   * Binds a security provider to this mechanism, which is then used for all its hash and HMAC
+   * computations instead of the JVM-wide provider list, without reordering the providers of the
+   * JVM.
+   *
+   * <p>Before it's bound, the provider is verified against test vectors of the algorithms of the
+   * mechanism (the RFC 5802 and RFC 7677 examples for {@code SHA-1} and {@code SHA-256}, and the
+   * standard digest and HMAC test vectors for every hash); if the verification fails, the binding
+   * of the mechanism is not changed. Once bound, the salted password is computed with the
+   * {@link javax.crypto.Mac} of the provider instead of the built-in PBKDF2 engines, and the
+   * mechanism is reported by {@link #byName(String)} and {@link #supportedMechanisms()} even if
+   * the JVM-wide providers lack its algorithms.
+   *
+   * @apiNote The binding is global to the JVM and applies only to this mechanism, the
+   *          {@code -PLUS} variant must be bound separately. It's meant to be done once at
+   *          startup, computations already in progress finish with the previous binding.
+   * @param provider the provider of both the HMAC and hash algorithms, or null to use the JVM-wide
+   *          provider list again
+   * @throws ScramRuntimeException if the provider does not support the algorithms of the
+   *           mechanism, or fails the verification
+   * @see #bindProvider(Provider, Provider)
+   * @since 3.5
+   */
+  public void bindProvider(@Nullable Provider provider) {
+    bindProvider(provider, provider);
+  }
+
+  /**
+   * Binds a security provider for the HMAC algorithm, and another one for the hash algorithm, to
+   * this mechanism. This is needed when the algorithms are supplied by different providers, as in
+   * the JDK, where {@code SunJCE} supplies the HMAC and {@code SUN} the hash algorithms.
+   *
+   * @param macProvider the provider of the HMAC algorithm, or null to use the JVM-wide provider list
+   * @param digestProvider the provider of the hash algorithm, or null to use the JVM-wide provider
+   *          list
+   * @throws ScramRuntimeException if a provider does not support the algorithm of the mechanism,
+   *           or fails the verification
+   * @see #bindProvider(Provider)
+   * @since 3.5
+   */
+  public void bindProvider(@Nullable Provider macProvider, @Nullable Provider digestProvider) {
+    final AlgorithmBinding candidate = new AlgorithmBinding(macProvider, digestProvider);
+    if (candidate.isBound()) {
+      ProviderProbe.verify(this, candidate);
+    }
+    synchronized (this) {
+      this.binding = candidate;
+      this.supported = candidate.isBound() || isAlgorithmSupported(this);
+    }
+  }
+
   /**
    * Calculate a message digest, according to the algorithm of the SCRAM mechanism.
    *
@@ -167,12 +227,20 @@ public enum ScramMechanism {
    *           implementations
    */
   byte @NotNull [] digest(byte @NotNull [] message) {
-    try {
-      return MessageDigest.getInstance(hashAlgorithmName).digest(message);
-    } catch (NoSuchAlgorithmException e) {
-      throw new ScramRuntimeException(
-          "Hash algorithm " + hashAlgorithmName + " not present in current JVM", e);
+    final AlgorithmBinding current = binding;
+    MessageDigest messageDigest = current.digests().poll();
+    if (messageDigest == null) {
+      try {
+        messageDigest = current.newMessageDigest(hashAlgorithmName);
+      } catch (NoSuchAlgorithmException e) {
+        throw new ScramRuntimeException(
+            "Hash algorithm " + hashAlgorithmName + " not present in current JVM", e);
+      }
     }
+    // digest() resets the instance, so it can be reused unless an exception is thrown
+    byte[] digest = messageDigest.digest(message);
+    current.digests().offer(messageDigest);
+    return digest;
   }
 
   /**
@@ -185,15 +253,78 @@ public enum ScramMechanism {
    *           implementations
    */
   byte @NotNull [] hmac(byte @NotNull [] key, byte @NotNull [] message) {
+    final AlgorithmBinding current = binding;
+    final Mac mac = mac(current);
     try {
-      return CryptoUtil.hmac(new SecretKeySpec(key, hmacAlgorithmName),
-          Mac.getInstance(hmacAlgorithmName), message);
+      return CryptoUtil.hmac(new SecretKeySpec(key, hmacAlgorithmName), mac, message);
+    } finally {
+      release(current, mac);
+    }
+  }
+
+  /**
+   * Calculate the hmacs of an AuthMessage with several keys, in a single pass over its encoded
+   * bytes, according to the algorithm of the SCRAM mechanism.
+   *
+   * @param authMessage the AuthMessage
+   * @param keys the keys
+   * @return The calculated hmacs, in the order of the keys
+   * @throws ScramRuntimeException If the algorithm is not provided by current JVM or any included
+   *           implementations
+   */
+  byte @NotNull [] @NotNull [] hmac(@NotNull AuthMessage authMessage,
+      byte @NotNull [] @NotNull... keys) {
+    final AlgorithmBinding current = binding;
+    final Mac[] macs = new Mac[keys.length];
+    try {
+      for (int i = 0; i < keys.length; i++) {
+        macs[i] = mac(current);
+        CryptoUtil.init(new SecretKeySpec(keys[i], hmacAlgorithmName), macs[i]);
+      }
+      authMessage.update(macs);
+      final byte[][] hmacs = new byte[keys.length][];
+      for (int i = 0; i < keys.length; i++) {
+        hmacs[i] = macs[i].doFinal();
+      }
+      return hmacs;
+    } finally {
+      for (Mac mac : macs) {
+        if (mac != null) {
+          release(current, mac);
+        }
+      }
+    }
+  }
+
+  /**
+   * Takes a {@link Mac} from the pool, or creates a new one if the pool is empty.
+   */
+  private @NotNull Mac mac(@NotNull AlgorithmBinding current) {
+    final Mac mac = current.macs().poll();
+    if (mac != null) {
+      return mac;
+    }
+    try {
+      return current.newMac(hmacAlgorithmName);
     } catch (NoSuchAlgorithmException e) {
       throw new ScramRuntimeException(
           "HMAC algorithm " + hmacAlgorithmName + " not present in current JVM", e);
     }
   }
 
+  /**
+   * Returns a {@link Mac} to the pool, once it's re-initialized with a non-secret key to drop the
+   * key derived material of its last use.
+   */
+  private void release(@NotNull AlgorithmBinding current, @NotNull Mac mac) {
+    try {
+      mac.init(scrubKey);
+      current.macs().offer(mac);
+    } catch (InvalidKeyException | RuntimeException ex) {
+      // Not reusable, left to the garbage collector
+    }
+  }
+
   /**
    * Compute the salted password.
    *
@@ -207,10 +338,28 @@ public enum ScramMechanism {
    */
   byte @NotNull [] saltedPassword(@NotNull StringPreparation stringPreparation,
       char @NotNull [] password, byte @NotNull [] salt, int iterationCount) {
-    final char[] normalizedPassword = stringPreparation.normalize(password);
+    return hi(stringPreparation.normalize(password), salt, iterationCount);
+  }
+
+  private byte @NotNull [] hi(char @NotNull [] normalizedPassword, byte @NotNull [] salt,
+      int iterationCount) {
+    final AlgorithmBinding current = binding;
+    if (!current.isMacBound()) {
+      final byte[] saltedPassword = NativePbkdf2.hi(hmacAlgorithmName, normalizedPassword, salt,
+          iterationCount);
+      if (saltedPassword != null) {
+        return saltedPassword;
+      }
+    }
+    final Pbkdf2Engine engine = !current.isMacBound()
+        ? Pbkdf2Engine.select(hmacAlgorithmName)
+        : null;
+    if (engine != null) {
+      return CryptoUtil.pbkdf2(engine, normalizedPassword, salt, iterationCount);
+    }
     try {
       return CryptoUtil.hi(
-          Mac.getInstance(hmacAlgorithmName),
+          current.newMac(hmacAlgorithmName),
           normalizedPassword,
           salt,
           iterationCount);
@@ -220,6 +369,89 @@ public enum ScramMechanism {
     }
   }
 
+  /**
+   * Starts a salted password computation that can be advanced in steps.
+   *
+   * @param stringPreparation Type of preparation to perform in the string
+   * @param password Password used
+   * @param salt Salt used
+   * @param iterationCount Number of iterations
+   * @return The stepper, with the first iteration already computed
+   * @throws ScramRuntimeException If the algorithm is not provided by current JVM or any included
+   *           implementations
+   */
+  @NotNull SaltedPasswordStepper saltedPasswordStepper(@NotNull StringPreparation stringPreparation,
+      char @NotNull [] password, byte @NotNull [] salt, int iterationCount) {
+    checkNotNull(password, "password");
+    final AlgorithmBinding current = binding;
+    Pbkdf2Engine engine = !current.isMacBound()
+        ? Pbkdf2Engine.select(hmacAlgorithmName)
+        : null;
+    if (engine == null) {
+      try {
+        engine = new MacPbkdf2(current.newMac(hmacAlgorithmName));
+      } catch (NoSuchAlgorithmException ex) {
+        throw new ScramRuntimeException(
+            "Unsupported " + hmacAlgorithmName + " for " + mechanismName, ex);
+      }
+    }
+    final char[] normalizedPassword = stringPreparation.normalize(password);
+    try {
+      return new SaltedPasswordStepper(engine, normalizedPassword, salt, iterationCount);
+    } finally {
+      if (normalizedPassword != password) {
+        Arrays.fill(normalizedPassword, '\0');
+      }
+    }
+  }
+
+  /**
+   * Compute the salted passwords of a batch of independent credentials that share the iteration
+   * count.
+   *
+   * @param stringPreparation Type of preparation to perform in the strings
+   * @param passwords Passwords used
+   * @param salts Salt used for each password
+   * @param iterationCount Number of iterations
+   * @return The salted passwords, in the same order as the passwords
+   * @throws ScramRuntimeException If the algorithm is not provided by current JVM or any included
+   *           implementations
+   */
+  byte @NotNull [] @NotNull [] saltedPasswords(@NotNull StringPreparation stringPreparation,
+      char @NotNull [] @NotNull [] passwords, byte @NotNull [] @NotNull [] salts,
+      int iterationCount) {
+    checkNotNull(passwords, "passwords");
+    checkNotNull(salts, "salts");
+    checkArgument(passwords.length == salts.length, "salts",
+        "must have the same length as passwords");
+    gt0(iterationCount, "iterationCount");
+    final char[][] normalizedPasswords = new char[passwords.length][];
+    try {
+      for (int i = 0; i < passwords.length; i++) {
+        checkNotNull(salts[i], "salt");
+        normalizedPasswords[i] = stringPreparation.normalize(checkNotNull(passwords[i], "password"));
+      }
+      final byte[][] saltedPasswords = !binding.isMacBound()
+          ? VectorPbkdf2.saltedPasswords(hmacAlgorithmName, normalizedPasswords, salts,
+              iterationCount)
+          : null;
+      if (saltedPasswords != null) {
+        return saltedPasswords;
+      }
+      final byte[][] results = new byte[passwords.length][];
+      for (int i = 0; i < passwords.length; i++) {
+        results[i] = hi(normalizedPasswords[i], salts[i], iterationCount);
+      }
+      return results;
+    } finally {
+      for (int i = 0; i < passwords.length; i++) {
+        if (normalizedPasswords[i] != null && normalizedPasswords[i] != passwords[i]) {
+          Arrays.fill(normalizedPasswords[i], '\0');
+        }
+      }
+    }
+  }
+
   /**
    * Gets a SCRAM mechanism given its standard IANA name, supported by the Java security provider.
    *
@@ -230,7 +462,8 @@ public enum ScramMechanism {
    * @return An instance that contains the ScramMechanism if it was found, or null otherwise.
    */
   public static @Nullable ScramMechanism byName(@NotNull String name) {
-    return BY_NAME_MAPPING.get(checkNotNull(name, "name"));
+    ScramMechanism mechanism = BY_NAME_MAPPING.get(checkNotNull(name, "name"));
+    return mechanism != null && mechanism.supported ? mechanism : null;
   }
 
   /**
@@ -240,7 +473,10 @@ public enum ScramMechanism {
    */
   @Unmodifiable
   public static @NotNull List<@NotNull String> supportedMechanisms() {
-    return Collections.unmodifiableList(SUPPORTED_MECHANISMS);
+    return Arrays.stream(values())
+        .filter(mechanism -> mechanism.supported)
+        .map(ScramMechanism::getName)
+        .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
   }
 
   private static boolean isAlgorithmSupported(@NotNull ScramMechanism mechanism) {
@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
+import static com.ongres.scram.common.util.Preconditions.checkNotEmpty;
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+import static com.ongres.scram.common.util.Preconditions.gt0;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import com.ongres.scram.common.exception.ScramParseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The verifier of a credential, as stored by a SCRAM server: the salt and iteration count, and the
+ * StoredKey and ServerKey, without the password nor the ClientKey.
+ *
+ * <pre>{@code
+ *      SaltedPassword  := Hi(Normalize(password), salt, i)
+ *      StoredKey       := H(HMAC(SaltedPassword, "Client Key"))
+ *      ServerKey       := HMAC(SaltedPassword, "Server Key")
+ * }</pre>
+ *
+ * <p>A verifier authenticates a client without the PBKDF2 derivation: the client proof is checked
+ * with an HMAC and a hash, see {@link #verifyClientProof(AuthMessage, byte[])}. A verifier of a
+ * mechanism is also valid for its {@code -PLUS} variant, which has the same algorithms.
+ *
+ * <p>Verifiers are serialized in the format of the {@code rolpassword} column of PostgreSQL's
+ * {@code pg_authid}, see {@link #parseFrom(String)} and {@link #toVerifierString()}.
+ *
+ * @since 3.5
+ */
+public final class ScramVerifier {
+
+  private final ScramMechanism scramMechanism;
+  private final byte[] salt;
+  private final String saltBase64;
+  private final int iterationCount;
+  private final byte[] storedKey;
+  private final byte[] serverKey;
+
+  private ScramVerifier(ScramMechanism scramMechanism, byte[] salt, int iterationCount,
+      byte[] storedKey, byte[] serverKey) {
+    this.scramMechanism = scramMechanism;
+    this.salt = salt;
+    this.saltBase64 = ScramStringFormatting.base64Encode(salt);
+    this.iterationCount = iterationCount;
+    this.storedKey = storedKey;
+    this.serverKey = serverKey;
+  }
+
+  /**
+   * Creates a verifier from its components.
+   *
+   * @param scramMechanism the SCRAM mechanism
+   * @param salt the salt
+   * @param iterationCount the iteration count
+   * @param storedKey the StoredKey
+   * @param serverKey the ServerKey
+   * @return the verifier, with copies of the arrays
+   * @throws IllegalArgumentException if any argument is null or empty, or the iteration count is
+   *           not positive
+   */
+  public static @NotNull ScramVerifier of(@NotNull ScramMechanism scramMechanism,
+      byte @NotNull [] salt, int iterationCount, byte @NotNull [] storedKey,
+      byte @NotNull [] serverKey) {
+    checkNotNull(scramMechanism, "scramMechanism");
+    checkArgument(checkNotNull(salt, "salt").length > 0, "salt");
+    gt0(iterationCount, "iterationCount");
+    checkArgument(checkNotNull(storedKey, "storedKey").length > 0, "storedKey");
+    checkArgument(checkNotNull(serverKey, "serverKey").length > 0, "serverKey");
+    return new ScramVerifier(scramMechanism, salt.clone(), iterationCount, storedKey.clone(),
+        serverKey.clone());
+  }
+
+  /**
+   * Creates the verifier of some credentials, without their ClientKey.
+   *
+   * @param credentials the credentials
+   * @return the verifier
+   * @throws IllegalArgumentException if the credentials are null
+   */
+  public static @NotNull ScramVerifier of(@NotNull ScramCredentials credentials) {
+    checkNotNull(credentials, "credentials");
+    return new ScramVerifier(credentials.getScramMechanism(), credentials.getSalt(),
+        credentials.getIterationCount(), credentials.getStoredKey(), credentials.getServerKey());
+  }
+
+  /**
+   * Computes the verifier of a password, which requires the PBKDF2 derivation of the salted
+   * password. Meant for provisioning the verifiers, not for authentication.
+   *
+   * @param scramMechanism the SCRAM mechanism
+   * @param stringPreparation the string preparation of the password
+   * @param password the password, which is not retained
+   * @param salt the salt
+   * @param iterationCount the iteration count
+   * @return the verifier
+   * @throws IllegalArgumentException if any argument is null or empty, or the iteration count is
+   *           not positive
+   */
+  public static @NotNull ScramVerifier fromPassword(@NotNull ScramMechanism scramMechanism,
+      @NotNull StringPreparation stringPreparation, char @NotNull [] password,
+      byte @NotNull [] salt, int iterationCount) {
+    checkNotNull(scramMechanism, "scramMechanism");
+    checkArgument(checkNotNull(salt, "salt").length > 0, "salt");
+    byte[] saltedPassword = ScramFunctions.saltedPassword(scramMechanism, stringPreparation,
+        password, salt, iterationCount);
+    try {
+      return of(ScramCredentials.fromSaltedPassword(scramMechanism, saltedPassword, salt,
+          iterationCount));
+    } finally {
+      Arrays.fill(saltedPassword, (byte) 0);
+    }
+  }
+
+  /**
+   * Parses a verifier in the format of PostgreSQL, with the Base64 encoded salt and keys.
+   *
+   * <pre>{@code
+   *      SCRAM-SHA-256$<iteration count>:<salt>$<StoredKey>:<ServerKey>
+   * }</pre>
+   *
+   * <p>The mechanism is any supported by {@link ScramMechanism#byName(String)}, the keys must be of
+   * the length of its hash.
+   *
+   * @param verifier the verifier
+   * @return the parsed verifier
+   * @throws ScramParseException if the verifier is not valid
+   * @throws IllegalArgumentException if the verifier is null or empty
+   */
+  public static @NotNull ScramVerifier parseFrom(@NotNull String verifier)
+      throws ScramParseException {
+    checkNotEmpty(verifier, "verifier");
+    final int iterationStart = verifier.indexOf('$') + 1;
+    final int saltStart = verifier.indexOf(':', iterationStart) + 1;
+    final int storedKeyStart = verifier.indexOf('$', saltStart) + 1;
+    final int serverKeyStart = verifier.indexOf(':', storedKeyStart) + 1;
+    if (iterationStart == 0 || saltStart == 0 || storedKeyStart == 0 || serverKeyStart == 0) {
+      throw new ScramParseException("Invalid verifier format");
+    }
+    final ScramMechanism scramMechanism =
+        ScramMechanism.byName(verifier.substring(0, iterationStart - 1));
+    if (scramMechanism == null) {
+      throw new ScramParseException("Unsupported mechanism of the verifier");
+    }
+    final int iterationCount;
+    try {
+      iterationCount = Integer.parseInt(verifier.substring(iterationStart, saltStart - 1));
+    } catch (NumberFormatException ex) {
+      throw new ScramParseException("Invalid iteration count of the verifier", ex);
+    }
+    final byte[] salt = base64Decode(verifier.substring(saltStart, storedKeyStart - 1), "salt");
+    final byte[] storedKey =
+        base64Decode(verifier.substring(storedKeyStart, serverKeyStart - 1), "StoredKey");
+    final byte[] serverKey = base64Decode(verifier.substring(serverKeyStart), "ServerKey");
+    final int keyLength = scramMechanism.digest(new byte[0]).length;
+    if (iterationCount <= 0 || salt.length == 0 || storedKey.length != keyLength
+        || serverKey.length != keyLength) {
+      throw new ScramParseException("Invalid verifier values");
+    }
+    return new ScramVerifier(scramMechanism, salt, iterationCount, storedKey, serverKey);
+  }
+
+  private static byte[] base64Decode(String value, String name) throws ScramParseException {
+    try {
+      return ScramStringFormatting.base64Decode(value);
+    } catch (IllegalArgumentException ex) {
+      throw new ScramParseException("Invalid Base64 of the " + name + " of the verifier", ex);
+    }
+  }
+
+  /**
+   * Returns the verifier in the format of PostgreSQL, parsed by {@link #parseFrom(String)}. The
+   * verifier of a {@code -PLUS} mechanism is written with the name of the mechanism without
+   * channel binding, as both have the same algorithms.
+   *
+   * @return the verifier string
+   */
+  public @NotNull String toVerifierString() {
+    final String name = scramMechanism.getName();
+    return new StringBuilder(128)
+        .append(scramMechanism.isPlus() ? name.substring(0, name.length() - 5) : name)
+        .append('$').append(iterationCount)
+        .append(':').append(saltBase64)
+        .append('$').append(ScramStringFormatting.base64Encode(storedKey))
+        .append(':').append(ScramStringFormatting.base64Encode(serverKey))
+        .toString();
+  }
+
+  /**
+   * Return the SCRAM mechanism.
+   *
+   * @return the SCRAM mechanism
+   */
+  public @NotNull ScramMechanism getScramMechanism() {
+    return scramMechanism;
+  }
+
+  /**
+   * Return the salt.
+   *
+   * @return the salt
+   */
+  public byte @NotNull [] getSalt() {
+    return salt.clone();
+  }
+
+  /**
+   * Return the salt, Base64 encoded as sent in the {@code server-first-message}. It's encoded once.
+   *
+   * @return the Base64 encoded salt
+   */
+  public @NotNull String getSaltBase64() {
+    return saltBase64;
+  }
+
+  /**
+   * Return the iteration count.
+   *
+   * @return the iteration count
+   */
+  public int getIterationCount() {
+    return iterationCount;
+  }
+
+  /**
+   * Return the StoredKey.
+   *
+   * @return the StoredKey
+   */
+  public byte @NotNull [] getStoredKey() {
+    return storedKey.clone();
+  }
+
+  /**
+   * Return the ServerKey.
+   *
+   * @return the ServerKey
+   */
+  public byte @NotNull [] getServerKey() {
+    return serverKey.clone();
+  }
+
+  /**
+   * Checks whether this verifier can authenticate with a mechanism, which is the case if the
+   * mechanism uses the same algorithms, regardless of channel binding.
+   *
+   * @param mechanism the SCRAM mechanism
+   * @return true if the verifier is valid for the mechanism
+   */
+  public boolean isValidFor(@NotNull ScramMechanism mechanism) {
+    return scramMechanism.getHashAlgorithmName().equals(mechanism.getHashAlgorithmName())
+        && scramMechanism.getHmacAlgorithmName().equals(mechanism.getHmacAlgorithmName());
+  }
+
+  /**
+   * Verifies a client proof, computing the ClientSignature and the ServerSignature in a single
+   * pass over the AuthMessage.
+   *
+   * <pre>{@code
+   *      ClientKey       := ClientProof XOR HMAC(StoredKey, AuthMessage)
+   *      verified        := H(ClientKey) == StoredKey
+   * }</pre>
+   *
+   * @param authMessage the AuthMessage of the authentication exchange
+   * @param clientProof the proof of the {@code client-final-message}
+   * @return the ServerSignature for the {@code server-final-message} if the proof is valid, or null
+   *         otherwise
+   * @throws IllegalArgumentException if any argument is null
+   */
+  public byte @Nullable [] verifyClientProof(@NotNull AuthMessage authMessage,
+      byte @NotNull [] clientProof) {
+    checkNotNull(authMessage, "authMessage");
+    checkNotNull(clientProof, "clientProof");
+    final byte[][] signatures = scramMechanism.hmac(authMessage, storedKey, serverKey);
+    if (clientProof.length != signatures[0].length) {
+      return null;
+    }
+    final byte[] clientKey = CryptoUtil.xor(signatures[0], clientProof);
+    final boolean verified = MessageDigest.isEqual(storedKey, scramMechanism.digest(clientKey));
+    return verified ? signatures[1] : null;
+  }
+
+}
@@ -6,9 +6,12 @@
 package com.ongres.scram.common;
 
 import static com.ongres.scram.common.util.Preconditions.castNonNull;
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
 import static com.ongres.scram.common.util.Preconditions.checkNotEmpty;
 import static com.ongres.scram.common.util.Preconditions.checkNotNull;
 
+import java.nio.ByteBuffer;
+
 import com.ongres.scram.common.exception.ScramParseException;
 import com.ongres.scram.common.exception.ServerErrorValue;
 import org.jetbrains.annotations.NotNull;
@@ -124,18 +127,40 @@ public final class ServerFinalMessage extends AbstractScramMessage {
       throws ScramParseException {
     checkNotEmpty(serverFinalMessage, "serverFinalMessage");
 
-    @NotNull
-    String @NotNull [] attributeValues = StringWritableCsv.parseFrom(serverFinalMessage, 1, 0);
-    if (attributeValues.length != 1) {
-      throw new ScramParseException("Invalid server-final-message");
-    }
+    return parseFrom(new AttributeScanner(serverFinalMessage));
+  }
 
-    ScramAttributeValue attributeValue = ScramAttributeValue.parse(attributeValues[0]);
-    if (ScramAttributes.SERVER_SIGNATURE.getChar() == attributeValue.getChar()) {
-      byte[] verifier = ScramStringFormatting.base64Decode(attributeValue.getValue());
-      return new ServerFinalMessage(verifier);
-    } else if (ScramAttributes.ERROR.getChar() == attributeValue.getChar()) {
-      return new ServerFinalMessage(attributeValue.getValue());
+  /**
+   * Parses a server-final-message from the remaining bytes of a buffer, as received from the
+   * network, without decoding the whole message to a String.
+   *
+   * <p>The position of the buffer is moved to its limit if the message is parsed successfully, and
+   * left unchanged otherwise.
+   *
+   * @param serverFinalMessage The buffer with the server-final-message, encoded in UTF-8
+   * @return A constructed server-final-message instance
+   * @throws ScramParseException If the bytes are not a valid server-final-message
+   * @throws IllegalArgumentException If the buffer is null or has no remaining bytes
+   * @since 3.5
+   */
+  public static @NotNull ServerFinalMessage parseFrom(@NotNull ByteBuffer serverFinalMessage)
+      throws ScramParseException {
+    checkNotNull(serverFinalMessage, "serverFinalMessage");
+    checkArgument(serverFinalMessage.hasRemaining(), "serverFinalMessage");
+
+    final AttributeScanner scanner = new AttributeScanner(serverFinalMessage);
+    final ServerFinalMessage message = parseFrom(scanner);
+    scanner.consume();
+    return message;
+  }
+
+  private static ServerFinalMessage parseFrom(AttributeScanner scanner)
+      throws ScramParseException {
+    final char attribute = scanner.nextAttribute("Invalid server-final-message");
+    if (ScramAttributes.SERVER_SIGNATURE.getChar() == attribute) {
+      return new ServerFinalMessage(scanner.valueAsBase64());
+    } else if (ScramAttributes.ERROR.getChar() == attribute) {
+      return new ServerFinalMessage(scanner.value());
     } else {
       throw new ScramParseException(
           "Invalid server-final-message: it must contain either a verifier or an error attribute");
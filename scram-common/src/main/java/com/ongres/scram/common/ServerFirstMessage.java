@@ -5,11 +5,13 @@
 
 package com.ongres.scram.common;
 
-import static com.ongres.scram.common.util.Preconditions.castNonNull;
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
 import static com.ongres.scram.common.util.Preconditions.checkNotEmpty;
 import static com.ongres.scram.common.util.Preconditions.checkNotNull;
 import static com.ongres.scram.common.util.Preconditions.gt0;
 
+import java.nio.ByteBuffer;
+
 import com.ongres.scram.common.exception.ScramParseException;
 import org.jetbrains.annotations.NotNull;
 
@@ -140,54 +142,73 @@ public final class ServerFirstMessage extends AbstractScramMessage {
     checkNotEmpty(serverFirstMessage, "serverFirstMessage");
     checkNotEmpty(clientNonce, "clientNonce");
 
-    String[] attributeValues = StringWritableCsv.parseFrom(serverFirstMessage, 3, 0);
-    if (attributeValues.length != 3) {
-      throw new ScramParseException("Invalid server-first-message");
-    }
+    return parseFrom(new AttributeScanner(serverFirstMessage), clientNonce);
+  }
 
-    ScramAttributeValue nonce = ScramAttributeValue.parse(castNonNull(attributeValues[0]));
-    if (ScramAttributes.NONCE.getChar() != nonce.getChar()) {
-      throw new ScramParseException(
-          "nonce must be the 1st element of the server-first-message");
-    }
-    if (!isValidNonce(nonce.getValue())) {
-      throw new ScramParseException("nonce contains invalid characters");
+  /**
+   * Parses a server-first-message from the remaining bytes of a buffer, as received from the
+   * network, without decoding the whole message to a String.
+   *
+   * <p>The position of the buffer is moved to its limit if the message is parsed successfully, and
+   * left unchanged otherwise.
+   *
+   * @param serverFirstMessage The buffer with the server-first-message, encoded in UTF-8
+   * @param clientNonce The clientNonce that is present in the client-first-message
+   * @return The parsed instance
+   * @throws ScramParseException If the bytes are not a valid server-first-message
+   * @throws IllegalArgumentException If the buffer is null or has no remaining bytes, or the
+   *           clientNonce is empty
+   * @since 3.5
+   */
+  public static @NotNull ServerFirstMessage parseFrom(@NotNull ByteBuffer serverFirstMessage,
+      @NotNull String clientNonce) throws ScramParseException {
+    checkNotNull(serverFirstMessage, "serverFirstMessage");
+    checkArgument(serverFirstMessage.hasRemaining(), "serverFirstMessage");
+    checkNotEmpty(clientNonce, "clientNonce");
+
+    final AttributeScanner scanner = new AttributeScanner(serverFirstMessage);
+    final ServerFirstMessage message = parseFrom(scanner, clientNonce);
+    scanner.consume();
+    return message;
+  }
+
+  private static ServerFirstMessage parseFrom(AttributeScanner scanner, String clientNonce)
+      throws ScramParseException {
+    scanner.next(ScramAttributes.NONCE, "nonce must be the 1st element of the server-first-message");
+    final int nonceLength = scanner.valueLength();
+    for (int i = 0; i < nonceLength; i++) {
+      if (!isValidNonceChar(scanner.valueChar(i))) {
+        throw new ScramParseException("nonce contains invalid characters");
+      }
     }
-    if (!nonce.getValue().startsWith(clientNonce)) {
+    if (nonceLength < clientNonce.length()) {
       throw new ScramParseException("parsed nonce does not start with client nonce");
     }
-
-    ScramAttributeValue salt = ScramAttributeValue.parse(castNonNull(attributeValues[1]));
-    if (ScramAttributes.SALT.getChar() != salt.getChar()) {
-      throw new ScramParseException("salt must be the 2nd element of the server-first-message");
+    for (int i = 0; i < clientNonce.length(); i++) {
+      if (scanner.valueChar(i) != clientNonce.charAt(i)) {
+        throw new ScramParseException("parsed nonce does not start with client nonce");
+      }
     }
+    final String serverNonce = scanner.value(clientNonce.length());
 
-    ScramAttributeValue iteration = ScramAttributeValue.parse(castNonNull(attributeValues[2]));
-    if (ScramAttributes.ITERATION.getChar() != iteration.getChar()) {
-      throw new ScramParseException(
-          "iteration must be the 3rd element of the server-first-message");
-    }
+    scanner.next(ScramAttributes.SALT, "salt must be the 2nd element of the server-first-message");
+    final String salt = scanner.value();
 
-    int iterationInt;
+    scanner.next(ScramAttributes.ITERATION,
+        "iteration must be the 3rd element of the server-first-message");
+    final int iterationCount;
     try {
-      iterationInt = Integer.parseInt(iteration.getValue());
+      iterationCount = scanner.valueAsInt();
     } catch (NumberFormatException ex) {
       throw new ScramParseException("invalid iteration", ex);
     }
 
-    return new ServerFirstMessage(clientNonce, nonce.getValue().substring(clientNonce.length()),
-        salt.getValue(), iterationInt);
+    return new ServerFirstMessage(clientNonce, serverNonce, salt, iterationCount);
   }
 
   // RFC 5802 Section 7: printable = %x21-2B / %x2D-7E (printable ASCII excluding comma)
-  private static boolean isValidNonce(String nonce) {
-    for (int i = 0; i < nonce.length(); i++) {
-      char c = nonce.charAt(i);
-      if (c < 0x21 || c > 0x7E || c == ',') {
-        return false;
-      }
-    }
-    return true;
+  private static boolean isValidNonceChar(int c) {
+    return c >= 0x21 && c <= 0x7E && c != ',';
   }
 
   @Override
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * PBKDF2 engine for HMAC-SHA-224 and HMAC-SHA-256, working on the 32-bit word state of the
+ * SHA-256 compression function defined in FIPS 180-4.
+ *
+ * <p>Since {@code Ui} always fits in a single block together with its padding, the padding words
+ * of the message schedule are constant, and each iteration only reloads the first 7 or 8 words.
+ *
+ * @see <a href="https://csrc.nist.gov/pubs/fips/180-4/upd1/final">FIPS 180-4: Secure Hash
+ *      Standard</a>
+ */
+final class Sha256Pbkdf2 extends Pbkdf2Engine {
+
+  private static final int BLOCK_LENGTH = 64;
+
+  private static final int[] SHA224_IV = {
+      0xc1059ed8, 0x367cd507, 0x3070dd17, 0xf70e5939,
+      0xffc00b31, 0x68581511, 0x64f98fa7, 0xbefa4fa4
+  };
+
+  private static final int[] SHA256_IV = {
+      0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a,
+      0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+  };
+
+  private static final int[] K = {
+      0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+      0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+      0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+      0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+      0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+      0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+      0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+      0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+  };
+
+  private final int[] iv;
+  private final int digestWords;
+
+  private final int[] innerState = new int[8];
+  private final int[] outerState = new int[8];
+  private final int[] schedule = new int[64];
+  private final int[] scratch = new int[8];
+  private final int[] ui = new int[8];
+  private final int[] accumulator = new int[8];
+
+  private Sha256Pbkdf2(int[] iv, int digestWords) {
+    this.iv = iv;
+    this.digestWords = digestWords;
+  }
+
+  static Sha256Pbkdf2 sha224() {
+    return new Sha256Pbkdf2(SHA224_IV, 7);
+  }
+
+  static Sha256Pbkdf2 sha256() {
+    return new Sha256Pbkdf2(SHA256_IV, 8);
+  }
+
+  @Override
+  int getMacLength() {
+    return digestWords * 4;
+  }
+
+  @Override
+  void init(byte @NotNull [] key) {
+    byte[] block = new byte[BLOCK_LENGTH];
+    try {
+      if (key.length > BLOCK_LENGTH) {
+        hash(iv, key, 0, scratch);
+        storeWords(scratch, digestWords, block);
+      } else {
+        System.arraycopy(key, 0, block, 0, key.length);
+      }
+      for (int i = 0; i < BLOCK_LENGTH; i++) {
+        block[i] ^= 0x36;
+      }
+      loadBlock(block, 0);
+      compress(iv, innerState);
+      for (int i = 0; i < BLOCK_LENGTH; i++) {
+        block[i] ^= 0x36 ^ 0x5c;
+      }
+      loadBlock(block, 0);
+      compress(iv, outerState);
+    } finally {
+      Arrays.fill(block, (byte) 0);
+      Arrays.fill(scratch, 0);
+    }
+  }
+
+  @Override
+  void start(byte @NotNull [] salt) {
+    byte[] message = Arrays.copyOf(salt, salt.length + 4);
+    // The 4-octet encoding of the integer 1 INT(1).
+    message[salt.length + 3] = 1;
+    hash(innerState, message, BLOCK_LENGTH, scratch);
+    loadDigestBlock(scratch);
+    compress(outerState, ui);
+    System.arraycopy(ui, 0, accumulator, 0, digestWords);
+  }
+
+  @Override
+  void iterate(int count) {
+    final int[] w = schedule;
+    final int n = digestWords;
+    final int[] u = ui;
+    final int[] t = accumulator;
+    loadDigestBlock(u);
+    for (int c = 0; c < count; c++) {
+      compress(innerState, scratch);
+      System.arraycopy(scratch, 0, w, 0, n);
+      compress(outerState, u);
+      System.arraycopy(u, 0, w, 0, n);
+      for (int i = 0; i < n; i++) {
+        t[i] ^= u[i];
+      }
+    }
+  }
+
+  @Override
+  byte @NotNull [] result() {
+    byte[] out = new byte[getMacLength()];
+    storeWords(accumulator, digestWords, out);
+    return out;
+  }
+
+  /**
+   * The number of 32-bit words of the digest, 7 for SHA-224 and 8 for SHA-256.
+   */
+  int digestWords() {
+    return digestWords;
+  }
+
+  /**
+   * Copies the midstates and the current {@code Ui} into word-major arrays holding several
+   * independent derivations, where word {@code i} of {@code lane} is stored at
+   * {@code i * lanes + lane}, so the iterations can be continued side by side.
+   *
+   * @param inner the inner midstates, of {@code 8 * lanes} words
+   * @param outer the outer midstates, of {@code 8 * lanes} words
+   * @param u the current {@code Ui}, of {@code 8 * lanes} words
+   * @param lane the lane to write
+   * @param lanes the number of lanes
+   */
+  void exportLane(int[] inner, int[] outer, int[] u, int lane, int lanes) {
+    for (int i = 0; i < 8; i++) {
+      inner[i * lanes + lane] = innerState[i];
+      outer[i * lanes + lane] = outerState[i];
+      u[i * lanes + lane] = ui[i];
+    }
+  }
+
+  @Override
+  void reset() {
+    Arrays.fill(innerState, 0);
+    Arrays.fill(outerState, 0);
+    Arrays.fill(schedule, 0);
+    Arrays.fill(scratch, 0);
+    Arrays.fill(ui, 0);
+    Arrays.fill(accumulator, 0);
+  }
+
+  /**
+   * Loads a digest followed by its padding as the only block of a message that is preceded by a
+   * padded key block, as hashed in every HMAC iteration.
+   */
+  private void loadDigestBlock(int[] digest) {
+    final int[] w = schedule;
+    System.arraycopy(digest, 0, w, 0, digestWords);
+    w[digestWords] = 0x80000000;
+    Arrays.fill(w, digestWords + 1, 15, 0);
+    w[15] = (BLOCK_LENGTH + digestWords * 4) * 8;
+  }
+
+  /**
+   * Hashes a complete message starting from the given chaining state.
+   *
+   * @param from the chaining state to start from
+   * @param message the message bytes
+   * @param prefixLength the number of bytes already compressed into {@code from}
+   * @param to where to write the resulting state
+   */
+  private void hash(int[] from, byte[] message, long prefixLength, int[] to) {
+    System.arraycopy(from, 0, to, 0, 8);
+    int offset = 0;
+    while (message.length - offset >= BLOCK_LENGTH) {
+      loadBlock(message, offset);
+      compress(to, to);
+      offset += BLOCK_LENGTH;
+    }
+    byte[] tail = new byte[2 * BLOCK_LENGTH];
+    try {
+      int remaining = message.length - offset;
+      System.arraycopy(message, offset, tail, 0, remaining);
+      tail[remaining] = (byte) 0x80;
+      int tailLength = remaining + 9 <= BLOCK_LENGTH ? BLOCK_LENGTH : 2 * BLOCK_LENGTH;
+      long bitLength = (prefixLength + message.length) * 8;
+      for (int i = 0; i < 8; i++) {
+        tail[tailLength - 1 - i] = (byte) (bitLength >>> (8 * i));
+      }
+      for (int block = 0; block < tailLength; block += BLOCK_LENGTH) {
+        loadBlock(tail, block);
+        compress(to, to);
+      }
+    } finally {
+      Arrays.fill(tail, (byte) 0);
+    }
+  }
+
+  private void loadBlock(byte[] src, int offset) {
+    for (int i = 0; i < 16; i++) {
+      int j = offset + i * 4;
+      schedule[i] = (src[j] & 0xff) << 24 | (src[j + 1] & 0xff) << 16
+          | (src[j + 2] & 0xff) << 8 | src[j + 3] & 0xff;
+    }
+  }
+
+  private static void storeWords(int[] words, int count, byte[] dst) {
+    for (int i = 0; i < count; i++) {
+      int word = words[i];
+      dst[i * 4] = (byte) (word >>> 24);
+      dst[i * 4 + 1] = (byte) (word >>> 16);
+      dst[i * 4 + 2] = (byte) (word >>> 8);
+      dst[i * 4 + 3] = (byte) word;
+    }
+  }
+
+  /**
+   * The SHA-256 compression function over the block loaded in the first 16 words of the message
+   * schedule, which are left untouched. {@code from} and {@code to} may be the same array.
+   */
+  private void compress(int[] from, int[] to) {
+    final int[] w = schedule;
+    for (int i = 16; i < 64; i++) {
+      int w15 = w[i - 15];
+      int w2 = w[i - 2];
+      int s0 = Integer.rotateRight(w15, 7) ^ Integer.rotateRight(w15, 18) ^ (w15 >>> 3);
+      int s1 = Integer.rotateRight(w2, 17) ^ Integer.rotateRight(w2, 19) ^ (w2 >>> 10);
+      w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+    }
+
+    int a = from[0];
+    int b = from[1];
+    int c = from[2];
+    int d = from[3];
+    int e = from[4];
+    int f = from[5];
+    int g = from[6];
+    int h = from[7];
+    for (int i = 0; i < 64; i++) {
+      int s1 = Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+      int t1 = h + s1 + (e & f ^ ~e & g) + K[i] + w[i];
+      int s0 = Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+      int t2 = s0 + (a & b ^ a & c ^ b & c);
+      h = g;
+      g = f;
+      f = e;
+      e = d + t1;
+      d = c;
+      c = b;
+      b = a;
+      a = t1 + t2;
+    }
+    to[0] = from[0] + a;
+    to[1] = from[1] + b;
+    to[2] = from[2] + c;
+    to[3] = from[3] + d;
+    to[4] = from[4] + e;
+    to[5] = from[5] + f;
+    to[6] = from[6] + g;
+    to[7] = from[7] + h;
+  }
+
+}
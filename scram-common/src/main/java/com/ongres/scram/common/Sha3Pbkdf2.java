@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * PBKDF2 engine for HMAC-SHA3-512, working on the 25-lane state of the Keccak-f[1600] sponge
+ * defined in FIPS 202.
+ *
+ * <p>The HMAC block size of SHA3-512 is its rate of 72 bytes, so both padded key blocks are
+ * absorbed with a single permutation, and the sponge state after that permutation is kept as the
+ * inner and outer midstates. A 64-byte {@code Ui} plus the SHA-3 padding fills exactly one rate
+ * block, so each iteration costs two permutations, instead of the four needed by a generic
+ * {@code Mac}.
+ *
+ * @see <a href="https://csrc.nist.gov/pubs/fips/202/final">FIPS 202: SHA-3 Standard</a>
+ */
+final class Sha3Pbkdf2 extends Pbkdf2Engine {
+
+  private static final int RATE = 72;
+  private static final int RATE_LANES = RATE / 8;
+  private static final int DIGEST_LANES = 8;
+
+  /**
+   * Last lane of a rate block holding a 64-byte message: the SHA-3 domain suffix and first bit of
+   * the padding ({@code 0x06}) in the first byte, and the last bit of the padding ({@code 0x80})
+   * in the last byte.
+   */
+  private static final long DIGEST_PADDING = 0x8000000000000006L;
+
+  private static final long[] RC = {
+      0x0000000000000001L, 0x0000000000008082L, 0x800000000000808aL, 0x8000000080008000L,
+      0x000000000000808bL, 0x0000000080000001L, 0x8000000080008081L, 0x8000000000008009L,
+      0x000000000000008aL, 0x0000000000000088L, 0x0000000080008009L, 0x000000008000000aL,
+      0x000000008000808bL, 0x800000000000008bL, 0x8000000000008089L, 0x8000000000008003L,
+      0x8000000000008002L, 0x8000000000000080L, 0x000000000000800aL, 0x800000008000000aL,
+      0x8000000080008081L, 0x8000000000008080L, 0x0000000080000001L, 0x8000000080008008L
+  };
+
+  private final long[] innerState = new long[25];
+  private final long[] outerState = new long[25];
+  private final long[] state = new long[25];
+  private final long[] scratch = new long[DIGEST_LANES];
+  private final long[] ui = new long[DIGEST_LANES];
+  private final long[] accumulator = new long[DIGEST_LANES];
+
+  static Sha3Pbkdf2 sha3512() {
+    return new Sha3Pbkdf2();
+  }
+
+  @Override
+  int getMacLength() {
+    return DIGEST_LANES * 8;
+  }
+
+  @Override
+  void init(byte @NotNull [] key) {
+    byte[] block = new byte[RATE];
+    try {
+      if (key.length > RATE) {
+        Arrays.fill(state, 0L);
+        absorbAndPad(key);
+        storeLanes(state, DIGEST_LANES, block);
+      } else {
+        System.arraycopy(key, 0, block, 0, key.length);
+      }
+      for (int i = 0; i < RATE; i++) {
+        block[i] ^= 0x36;
+      }
+      Arrays.fill(innerState, 0L);
+      xorBlock(innerState, block, 0);
+      keccak(innerState);
+      for (int i = 0; i < RATE; i++) {
+        block[i] ^= 0x36 ^ 0x5c;
+      }
+      Arrays.fill(outerState, 0L);
+      xorBlock(outerState, block, 0);
+      keccak(outerState);
+    } finally {
+      Arrays.fill(block, (byte) 0);
+      Arrays.fill(state, 0L);
+    }
+  }
+
+  @Override
+  void start(byte @NotNull [] salt) {
+    byte[] message = Arrays.copyOf(salt, salt.length + 4);
+    // The 4-octet encoding of the integer 1 INT(1).
+    message[salt.length + 3] = 1;
+    System.arraycopy(innerState, 0, state, 0, 25);
+    absorbAndPad(message);
+    System.arraycopy(state, 0, scratch, 0, DIGEST_LANES);
+    outer(scratch, ui);
+    System.arraycopy(ui, 0, accumulator, 0, DIGEST_LANES);
+  }
+
+  @Override
+  void iterate(int count) {
+    final long[] s = state;
+    final long[] u = ui;
+    final long[] t = accumulator;
+    for (int c = 0; c < count; c++) {
+      System.arraycopy(innerState, 0, s, 0, 25);
+      for (int i = 0; i < DIGEST_LANES; i++) {
+        s[i] ^= u[i];
+      }
+      s[DIGEST_LANES] ^= DIGEST_PADDING;
+      keccak(s);
+      outer(s, u);
+      for (int i = 0; i < DIGEST_LANES; i++) {
+        t[i] ^= u[i];
+      }
+    }
+  }
+
+  @Override
+  byte @NotNull [] result() {
+    byte[] out = new byte[getMacLength()];
+    storeLanes(accumulator, DIGEST_LANES, out);
+    return out;
+  }
+
+  @Override
+  void reset() {
+    Arrays.fill(innerState, 0L);
+    Arrays.fill(outerState, 0L);
+    Arrays.fill(state, 0L);
+    Arrays.fill(scratch, 0L);
+    Arrays.fill(ui, 0L);
+    Arrays.fill(accumulator, 0L);
+  }
+
+  /**
+   * Computes the outer hash of the HMAC over the inner digest held in the first lanes of
+   * {@code digest}, which may be the working state itself.
+   */
+  private void outer(long[] digest, long[] to) {
+    final long[] s = state;
+    long d0 = digest[0];
+    long d1 = digest[1];
+    long d2 = digest[2];
+    long d3 = digest[3];
+    long d4 = digest[4];
+    long d5 = digest[5];
+    long d6 = digest[6];
+    long d7 = digest[7];
+    System.arraycopy(outerState, 0, s, 0, 25);
+    s[0] ^= d0;
+    s[1] ^= d1;
+    s[2] ^= d2;
+    s[3] ^= d3;
+    s[4] ^= d4;
+    s[5] ^= d5;
+    s[6] ^= d6;
+    s[7] ^= d7;
+    s[DIGEST_LANES] ^= DIGEST_PADDING;
+    keccak(s);
+    System.arraycopy(s, 0, to, 0, DIGEST_LANES);
+  }
+
+  /**
+   * Absorbs a complete message into the working state, applying the SHA-3 padding, and leaves the
+   * squeezed digest in its first lanes.
+   */
+  private void absorbAndPad(byte[] message) {
+    int offset = 0;
+    while (message.length - offset >= RATE) {
+      xorBlock(state, message, offset);
+      keccak(state);
+      offset += RATE;
+    }
+    byte[] tail = new byte[RATE];
+    try {
+      int remaining = message.length - offset;
+      System.arraycopy(message, offset, tail, 0, remaining);
+      tail[remaining] ^= 0x06;
+      tail[RATE - 1] ^= (byte) 0x80;
+      xorBlock(state, tail, 0);
+      keccak(state);
+    } finally {
+      Arrays.fill(tail, (byte) 0);
+    }
+  }
+
+  private static void xorBlock(long[] lanes, byte[] src, int offset) {
+    for (int i = 0; i < RATE_LANES; i++) {
+      int j = offset + i * 8;
+      long lane = 0;
+      for (int b = 7; b >= 0; b--) {
+        lane = lane << 8 | src[j + b] & 0xff;
+      }
+      lanes[i] ^= lane;
+    }
+  }
+
+  private static void storeLanes(long[] lanes, int count, byte[] dst) {
+    for (int i = 0; i < count; i++) {
+      long lane = lanes[i];
+      for (int b = 0; b < 8; b++) {
+        dst[i * 8 + b] = (byte) (lane >>> (8 * b));
+      }
+    }
+  }
+
+  /**
+   * The Keccak-f[1600] permutation, with the lanes held in locals and the rho and pi steps merged
+   * into a single cycle over the 24 moving lanes.
+   */
+  private static void keccak(long[] a) {
+    long a00 = a[0];
+    long a01 = a[1];
+    long a02 = a[2];
+    long a03 = a[3];
+    long a04 = a[4];
+    long a05 = a[5];
+    long a06 = a[6];
+    long a07 = a[7];
+    long a08 = a[8];
+    long a09 = a[9];
+    long a10 = a[10];
+    long a11 = a[11];
+    long a12 = a[12];
+    long a13 = a[13];
+    long a14 = a[14];
+    long a15 = a[15];
+    long a16 = a[16];
+    long a17 = a[17];
+    long a18 = a[18];
+    long a19 = a[19];
+    long a20 = a[20];
+    long a21 = a[21];
+    long a22 = a[22];
+    long a23 = a[23];
+    long a24 = a[24];
+
+    for (int round = 0; round < 24; round++) {
+      // theta
+      long c0 = a00 ^ a05 ^ a10 ^ a15 ^ a20;
+      long c1 = a01 ^ a06 ^ a11 ^ a16 ^ a21;
+      long c2 = a02 ^ a07 ^ a12 ^ a17 ^ a22;
+      long c3 = a03 ^ a08 ^ a13 ^ a18 ^ a23;
+      long c4 = a04 ^ a09 ^ a14 ^ a19 ^ a24;
+      long d0 = Long.rotateLeft(c1, 1) ^ c4;
+      long d1 = Long.rotateLeft(c2, 1) ^ c0;
+      long d2 = Long.rotateLeft(c3, 1) ^ c1;
+      long d3 = Long.rotateLeft(c4, 1) ^ c2;
+      long d4 = Long.rotateLeft(c0, 1) ^ c3;
+      a00 ^= d0;
+      a05 ^= d0;
+      a10 ^= d0;
+      a15 ^= d0;
+      a20 ^= d0;
+      a01 ^= d1;
+      a06 ^= d1;
+      a11 ^= d1;
+      a16 ^= d1;
+      a21 ^= d1;
+      a02 ^= d2;
+      a07 ^= d2;
+      a12 ^= d2;
+      a17 ^= d2;
+      a22 ^= d2;
+      a03 ^= d3;
+      a08 ^= d3;
+      a13 ^= d3;
+      a18 ^= d3;
+      a23 ^= d3;
+      a04 ^= d4;
+      a09 ^= d4;
+      a14 ^= d4;
+      a19 ^= d4;
+      a24 ^= d4;
+
+      // rho and pi
+      c1 = Long.rotateLeft(a01, 1);
+      a01 = Long.rotateLeft(a06, 44);
+      a06 = Long.rotateLeft(a09, 20);
+      a09 = Long.rotateLeft(a22, 61);
+      a22 = Long.rotateLeft(a14, 39);
+      a14 = Long.rotateLeft(a20, 18);
+      a20 = Long.rotateLeft(a02, 62);
+      a02 = Long.rotateLeft(a12, 43);
+      a12 = Long.rotateLeft(a13, 25);
+      a13 = Long.rotateLeft(a19, 8);
+      a19 = Long.rotateLeft(a23, 56);
+      a23 = Long.rotateLeft(a15, 41);
+      a15 = Long.rotateLeft(a04, 27);
+      a04 = Long.rotateLeft(a24, 14);
+      a24 = Long.rotateLeft(a21, 2);
+      a21 = Long.rotateLeft(a08, 55);
+      a08 = Long.rotateLeft(a16, 45);
+      a16 = Long.rotateLeft(a05, 36);
+      a05 = Long.rotateLeft(a03, 28);
+      a03 = Long.rotateLeft(a18, 21);
+      a18 = Long.rotateLeft(a17, 15);
+      a17 = Long.rotateLeft(a11, 10);
+      a11 = Long.rotateLeft(a07, 6);
+      a07 = Long.rotateLeft(a10, 3);
+      a10 = c1;
+
+      // chi
+      c0 = a00 ^ ~a01 & a02;
+      c1 = a01 ^ ~a02 & a03;
+      a02 ^= ~a03 & a04;
+      a03 ^= ~a04 & a00;
+      a04 ^= ~a00 & a01;
+      a00 = c0;
+      a01 = c1;
+
+      c0 = a05 ^ ~a06 & a07;
+      c1 = a06 ^ ~a07 & a08;
+      a07 ^= ~a08 & a09;
+      a08 ^= ~a09 & a05;
+      a09 ^= ~a05 & a06;
+      a05 = c0;
+      a06 = c1;
+
+      c0 = a10 ^ ~a11 & a12;
+      c1 = a11 ^ ~a12 & a13;
+      a12 ^= ~a13 & a14;
+      a13 ^= ~a14 & a10;
+      a14 ^= ~a10 & a11;
+      a10 = c0;
+      a11 = c1;
+
+      c0 = a15 ^ ~a16 & a17;
+      c1 = a16 ^ ~a17 & a18;
+      a17 ^= ~a18 & a19;
+      a18 ^= ~a19 & a15;
+      a19 ^= ~a15 & a16;
+      a15 = c0;
+      a16 = c1;
+
+      c0 = a20 ^ ~a21 & a22;
+      c1 = a21 ^ ~a22 & a23;
+      a22 ^= ~a23 & a24;
+      a23 ^= ~a24 & a20;
+      a24 ^= ~a20 & a21;
+      a20 = c0;
+      a21 = c1;
+
+      // iota
+      a00 ^= RC[round];
+    }
+
+    a[0] = a00;
+    a[1] = a01;
+    a[2] = a02;
+    a[3] = a03;
+    a[4] = a04;
+    a[5] = a05;
+    a[6] = a06;
+    a[7] = a07;
+    a[8] = a08;
+    a[9] = a09;
+    a[10] = a10;
+    a[11] = a11;
+    a[12] = a12;
+    a[13] = a13;
+    a[14] = a14;
+    a[15] = a15;
+    a[16] = a16;
+    a[17] = a17;
+    a[18] = a18;
+    a[19] = a19;
+    a[20] = a20;
+    a[21] = a21;
+    a[22] = a22;
+    a[23] = a23;
+    a[24] = a24;
+  }
+
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * PBKDF2 engine for HMAC-SHA-384 and HMAC-SHA-512, working on the 64-bit word state of the
+ * SHA-512 compression function defined in FIPS 180-4.
+ *
+ * <p>Since {@code Ui} always fits in a single 128-byte block together with its padding, the
+ * padding words of the message schedule are constant, and each iteration only reloads the first
+ * 6 or 8 words. {@code Ui} and the accumulator are kept as words, and only converted to bytes
+ * once the derivation is completed.
+ *
+ * @see <a href="https://csrc.nist.gov/pubs/fips/180-4/upd1/final">FIPS 180-4: Secure Hash
+ *      Standard</a>
+ */
+final class Sha512Pbkdf2 extends Pbkdf2Engine {
+
+  private static final int BLOCK_LENGTH = 128;
+
+  private static final long[] SHA384_IV = {
+      0xcbbb9d5dc1059ed8L, 0x629a292a367cd507L, 0x9159015a3070dd17L, 0x152fecd8f70e5939L,
+      0x67332667ffc00b31L, 0x8eb44a8768581511L, 0xdb0c2e0d64f98fa7L, 0x47b5481dbefa4fa4L
+  };
+
+  private static final long[] SHA512_IV = {
+      0x6a09e667f3bcc908L, 0xbb67ae8584caa73bL, 0x3c6ef372fe94f82bL, 0xa54ff53a5f1d36f1L,
+      0x510e527fade682d1L, 0x9b05688c2b3e6c1fL, 0x1f83d9abfb41bd6bL, 0x5be0cd19137e2179L
+  };
+
+  private static final long[] K = {
+      0x428a2f98d728ae22L, 0x7137449123ef65cdL, 0xb5c0fbcfec4d3b2fL, 0xe9b5dba58189dbbcL,
+      0x3956c25bf348b538L, 0x59f111f1b605d019L, 0x923f82a4af194f9bL, 0xab1c5ed5da6d8118L,
+      0xd807aa98a3030242L, 0x12835b0145706fbeL, 0x243185be4ee4b28cL, 0x550c7dc3d5ffb4e2L,
+      0x72be5d74f27b896fL, 0x80deb1fe3b1696b1L, 0x9bdc06a725c71235L, 0xc19bf174cf692694L,
+      0xe49b69c19ef14ad2L, 0xefbe4786384f25e3L, 0x0fc19dc68b8cd5b5L, 0x240ca1cc77ac9c65L,
+      0x2de92c6f592b0275L, 0x4a7484aa6ea6e483L, 0x5cb0a9dcbd41fbd4L, 0x76f988da831153b5L,
+      0x983e5152ee66dfabL, 0xa831c66d2db43210L, 0xb00327c898fb213fL, 0xbf597fc7beef0ee4L,
+      0xc6e00bf33da88fc2L, 0xd5a79147930aa725L, 0x06ca6351e003826fL, 0x142929670a0e6e70L,
+      0x27b70a8546d22ffcL, 0x2e1b21385c26c926L, 0x4d2c6dfc5ac42aedL, 0x53380d139d95b3dfL,
+      0x650a73548baf63deL, 0x766a0abb3c77b2a8L, 0x81c2c92e47edaee6L, 0x92722c851482353bL,
+      0xa2bfe8a14cf10364L, 0xa81a664bbc423001L, 0xc24b8b70d0f89791L, 0xc76c51a30654be30L,
+      0xd192e819d6ef5218L, 0xd69906245565a910L, 0xf40e35855771202aL, 0x106aa07032bbd1b8L,
+      0x19a4c116b8d2d0c8L, 0x1e376c085141ab53L, 0x2748774cdf8eeb99L, 0x34b0bcb5e19b48a8L,
+      0x391c0cb3c5c95a63L, 0x4ed8aa4ae3418acbL, 0x5b9cca4f7763e373L, 0x682e6ff3d6b2b8a3L,
+      0x748f82ee5defb2fcL, 0x78a5636f43172f60L, 0x84c87814a1f0ab72L, 0x8cc702081a6439ecL,
+      0x90befffa23631e28L, 0xa4506cebde82bde9L, 0xbef9a3f7b2c67915L, 0xc67178f2e372532bL,
+      0xca273eceea26619cL, 0xd186b8c721c0c207L, 0xeada7dd6cde0eb1eL, 0xf57d4f7fee6ed178L,
+      0x06f067aa72176fbaL, 0x0a637dc5a2c898a6L, 0x113f9804bef90daeL, 0x1b710b35131c471bL,
+      0x28db77f523047d84L, 0x32caab7b40c72493L, 0x3c9ebe0a15c9bebcL, 0x431d67c49c100d4cL,
+      0x4cc5d4becb3e42b6L, 0x597f299cfc657e2aL, 0x5fcb6fab3ad6faecL, 0x6c44198c4a475817L
+  };
+
+  private final long[] iv;
+  private final int digestWords;
+
+  private final long[] innerState = new long[8];
+  private final long[] outerState = new long[8];
+  private final long[] schedule = new long[80];
+  private final long[] scratch = new long[8];
+  private final long[] ui = new long[8];
+  private final long[] accumulator = new long[8];
+
+  private Sha512Pbkdf2(long[] iv, int digestWords) {
+    this.iv = iv;
+    this.digestWords = digestWords;
+  }
+
+  static Sha512Pbkdf2 sha384() {
+    return new Sha512Pbkdf2(SHA384_IV, 6);
+  }
+
+  static Sha512Pbkdf2 sha512() {
+    return new Sha512Pbkdf2(SHA512_IV, 8);
+  }
+
+  @Override
+  int getMacLength() {
+    return digestWords * 8;
+  }
+
+  @Override
+  void init(byte @NotNull [] key) {
+    byte[] block = new byte[BLOCK_LENGTH];
+    try {
+      if (key.length > BLOCK_LENGTH) {
+        hash(iv, key, 0, scratch);
+        storeWords(scratch, digestWords, block);
+      } else {
+        System.arraycopy(key, 0, block, 0, key.length);
+      }
+      for (int i = 0; i < BLOCK_LENGTH; i++) {
+        block[i] ^= 0x36;
+      }
+      loadBlock(block, 0);
+      compress(iv, innerState);
+      for (int i = 0; i < BLOCK_LENGTH; i++) {
+        block[i] ^= 0x36 ^ 0x5c;
+      }
+      loadBlock(block, 0);
+      compress(iv, outerState);
+    } finally {
+      Arrays.fill(block, (byte) 0);
+      Arrays.fill(scratch, 0L);
+    }
+  }
+
+  @Override
+  void start(byte @NotNull [] salt) {
+    byte[] message = Arrays.copyOf(salt, salt.length + 4);
+    // The 4-octet encoding of the integer 1 INT(1).
+    message[salt.length + 3] = 1;
+    hash(innerState, message, BLOCK_LENGTH, scratch);
+    loadDigestBlock(scratch);
+    compress(outerState, ui);
+    System.arraycopy(ui, 0, accumulator, 0, digestWords);
+  }
+
+  @Override
+  void iterate(int count) {
+    final long[] w = schedule;
+    final int n = digestWords;
+    final long[] u = ui;
+    final long[] t = accumulator;
+    loadDigestBlock(u);
+    for (int c = 0; c < count; c++) {
+      compress(innerState, scratch);
+      System.arraycopy(scratch, 0, w, 0, n);
+      compress(outerState, u);
+      System.arraycopy(u, 0, w, 0, n);
+      for (int i = 0; i < n; i++) {
+        t[i] ^= u[i];
+      }
+    }
+  }
+
+  @Override
+  byte @NotNull [] result() {
+    byte[] out = new byte[getMacLength()];
+    storeWords(accumulator, digestWords, out);
+    return out;
+  }
+
+  @Override
+  void reset() {
+    Arrays.fill(innerState, 0L);
+    Arrays.fill(outerState, 0L);
+    Arrays.fill(schedule, 0L);
+    Arrays.fill(scratch, 0L);
+    Arrays.fill(ui, 0L);
+    Arrays.fill(accumulator, 0L);
+  }
+
+  /**
+   * Loads a digest followed by its padding as the only block of a message that is preceded by a
+   * padded key block, as hashed in every HMAC iteration.
+   */
+  private void loadDigestBlock(long[] digest) {
+    final long[] w = schedule;
+    System.arraycopy(digest, 0, w, 0, digestWords);
+    w[digestWords] = 0x8000000000000000L;
+    Arrays.fill(w, digestWords + 1, 15, 0L);
+    w[15] = (BLOCK_LENGTH + digestWords * 8) * 8L;
+  }
+
+  /**
+   * Hashes a complete message starting from the given chaining state.
+   *
+   * @param from the chaining state to start from
+   * @param message the message bytes
+   * @param prefixLength the number of bytes already compressed into {@code from}
+   * @param to where to write the resulting state
+   */
+  private void hash(long[] from, byte[] message, long prefixLength, long[] to) {
+    System.arraycopy(from, 0, to, 0, 8);
+    int offset = 0;
+    while (message.length - offset >= BLOCK_LENGTH) {
+      loadBlock(message, offset);
+      compress(to, to);
+      offset += BLOCK_LENGTH;
+    }
+    byte[] tail = new byte[2 * BLOCK_LENGTH];
+    try {
+      int remaining = message.length - offset;
+      System.arraycopy(message, offset, tail, 0, remaining);
+      tail[remaining] = (byte) 0x80;
+      // 128-bit length field, the upper 64 bits are always zero for the supported lengths
+      int tailLength = remaining + 17 <= BLOCK_LENGTH ? BLOCK_LENGTH : 2 * BLOCK_LENGTH;
+      long bitLength = (prefixLength + message.length) * 8;
+      for (int i = 0; i < 8; i++) {
+        tail[tailLength - 1 - i] = (byte) (bitLength >>> (8 * i));
+      }
+      for (int block = 0; block < tailLength; block += BLOCK_LENGTH) {
+        loadBlock(tail, block);
+        compress(to, to);
+      }
+    } finally {
+      Arrays.fill(tail, (byte) 0);
+    }
+  }
+
+  private void loadBlock(byte[] src, int offset) {
+    for (int i = 0; i < 16; i++) {
+      int j = offset + i * 8;
+      long word = 0;
+      for (int b = 0; b < 8; b++) {
+        word = word << 8 | src[j + b] & 0xff;
+      }
+      schedule[i] = word;
+    }
+  }
+
+  private static void storeWords(long[] words, int count, byte[] dst) {
+    for (int i = 0; i < count; i++) {
+      long word = words[i];
+      for (int b = 0; b < 8; b++) {
+        dst[i * 8 + b] = (byte) (word >>> (56 - 8 * b));
+      }
+    }
+  }
+
+  /**
+   * The SHA-512 compression function over the block loaded in the first 16 words of the message
+   * schedule, which are left untouched. {@code from} and {@code to} may be the same array.
+   */
+  private void compress(long[] from, long[] to) {
+    final long[] w = schedule;
+    for (int i = 16; i < 80; i++) {
+      long w15 = w[i - 15];
+      long w2 = w[i - 2];
+      long s0 = Long.rotateRight(w15, 1) ^ Long.rotateRight(w15, 8) ^ (w15 >>> 7);
+      long s1 = Long.rotateRight(w2, 19) ^ Long.rotateRight(w2, 61) ^ (w2 >>> 6);
+      w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+    }
+
+    long a = from[0];
+    long b = from[1];
+    long c = from[2];
+    long d = from[3];
+    long e = from[4];
+    long f = from[5];
+    long g = from[6];
+    long h = from[7];
+    for (int i = 0; i < 80; i++) {
+      long s1 = Long.rotateRight(e, 14) ^ Long.rotateRight(e, 18) ^ Long.rotateRight(e, 41);
+      long t1 = h + s1 + (e & f ^ ~e & g) + K[i] + w[i];
+      long s0 = Long.rotateRight(a, 28) ^ Long.rotateRight(a, 34) ^ Long.rotateRight(a, 39);
+      long t2 = s0 + (a & b ^ a & c ^ b & c);
+      h = g;
+      g = f;
+      f = e;
+      e = d + t1;
+      d = c;
+      c = b;
+      b = a;
+      a = t1 + t2;
+    }
+    to[0] = from[0] + a;
+    to[1] = from[1] + b;
+    to[2] = from[2] + c;
+    to[3] = from[3] + d;
+    to[4] = from[4] + e;
+    to[5] = from[5] + f;
+    to[6] = from[6] + g;
+    to[7] = from[7] + h;
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Encodes a sequence of chars to UTF-8 in chunks, into a reused array, without creating a String
+ * nor a byte array of the whole sequence.
+ *
+ * <p>Unpaired surrogates are replaced by {@code '?'}, as {@code String.getBytes(UTF_8)} does, so
+ * the encoded bytes are the same.
+ */
+final class Utf8Encoder {
+
+  /**
+   * The maximum number of bytes of a single char, or surrogate pair.
+   */
+  static final int MAX_BYTES_PER_CHAR = 4;
+
+  private final CharSequence chars;
+  private int position;
+
+  Utf8Encoder(@NotNull CharSequence chars) {
+    this.chars = chars;
+  }
+
+  /**
+   * Encodes the next chars into the chunk, until the chars are exhausted or the chunk is almost
+   * full.
+   *
+   * @param chunk the array to write to, with room for at least {@link #MAX_BYTES_PER_CHAR} bytes
+   * @return the number of bytes written, or 0 if all the chars have been encoded
+   */
+  int encode(byte @NotNull [] chunk) {
+    final int length = chars.length();
+    final int limit = chunk.length - MAX_BYTES_PER_CHAR;
+    int written = 0;
+    while (position < length && written <= limit) {
+      final char c = chars.charAt(position++);
+      if (c < 0x80) {
+        chunk[written++] = (byte) c;
+      } else if (c < 0x800) {
+        chunk[written++] = (byte) (0xC0 | c >> 6);
+        chunk[written++] = (byte) (0x80 | c & 0x3F);
+      } else if (Character.isHighSurrogate(c) && position < length
+          && Character.isLowSurrogate(chars.charAt(position))) {
+        final int codePoint = Character.toCodePoint(c, chars.charAt(position++));
+        chunk[written++] = (byte) (0xF0 | codePoint >> 18);
+        chunk[written++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+        chunk[written++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        chunk[written++] = (byte) (0x80 | codePoint & 0x3F);
+      } else if (Character.isSurrogate(c)) {
+        // Unpaired surrogate, replaced like String.getBytes(UTF_8) does
+        chunk[written++] = (byte) '?';
+      } else {
+        chunk[written++] = (byte) (0xE0 | c >> 12);
+        chunk[written++] = (byte) (0x80 | c >> 6 & 0x3F);
+        chunk[written++] = (byte) (0x80 | c & 0x3F);
+      }
+    }
+    return written;
+  }
+
+  /**
+   * Computes the length of a sequence of chars encoded in UTF-8.
+   *
+   * @param chars the chars
+   * @return the number of bytes
+   */
+  static int length(@NotNull CharSequence chars) {
+    int length = 0;
+    for (int i = 0; i < chars.length(); i++) {
+      final char c = chars.charAt(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < chars.length()
+          && Character.isLowSurrogate(chars.charAt(i + 1))) {
+        length += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        length++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Multi-lane PBKDF2, computing several independent salted passwords side by side in SIMD
+ * registers.
+ *
+ * <p>This is the Java 8 variant, which has no SIMD support, so batches are always computed one
+ * password at a time. The multi-release variant for Java 17+ runs HMAC-SHA-224 and HMAC-SHA-256
+ * lanes with the Vector API when the {@code jdk.incubator.vector} module is present in the boot
+ * layer (i.e. when the JVM is started with {@code --add-modules jdk.incubator.vector}).
+ */
+final class VectorPbkdf2 {
+
+  private VectorPbkdf2() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * The number of derivations computed side by side for the given HMAC algorithm.
+   *
+   * @param hmacAlgorithmName the standard name of the HMAC algorithm
+   * @return the number of lanes, or 1 if there is no SIMD support for the algorithm
+   */
+  static int lanes(@NotNull String hmacAlgorithmName) {
+    return 1;
+  }
+
+  /**
+   * Computes the salted passwords of a batch using SIMD lanes, if supported.
+   *
+   * @param hmacAlgorithmName the standard name of the HMAC algorithm
+   * @param normalizedPasswords the normalized passwords
+   * @param salts the salt of each password
+   * @param iterationCount the number of iterations, common to the whole batch
+   * @return the salted passwords, or null if the batch can't be computed using SIMD lanes
+   */
+  static byte @Nullable [] @NotNull [] saltedPasswords(@NotNull String hmacAlgorithmName,
+      char @NotNull [] @NotNull [] normalizedPasswords, byte @NotNull [] @NotNull [] salts,
+      int iterationCount) {
+    return null;
+  }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.util.Arrays;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * PBKDF2 iterations of HMAC-SHA-224 or HMAC-SHA-256 over several independent derivations, one per
+ * vector lane.
+ *
+ * <p>All the state is kept word-major, where word {@code i} of a lane is stored at
+ * {@code i * lanes + lane}, so each word of every lane is loaded as a single vector. The midstates
+ * and {@code U1} of each lane are computed by {@link Sha256Pbkdf2}.
+ */
+final class Sha256Lanes {
+
+  private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+  private static final int[] K = {
+      0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+      0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+      0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+      0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+      0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+      0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+      0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+      0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+  };
+
+  private final int lanes;
+  private int digestWords;
+
+  private final int[] innerState;
+  private final int[] outerState;
+  private final int[] schedule;
+  private final int[] scratch;
+  private final int[] ui;
+  private final int[] accumulator;
+
+  Sha256Lanes(int lanes) {
+    this.lanes = lanes;
+    this.innerState = new int[8 * lanes];
+    this.outerState = new int[8 * lanes];
+    this.schedule = new int[64 * lanes];
+    this.scratch = new int[8 * lanes];
+    this.ui = new int[8 * lanes];
+    this.accumulator = new int[8 * lanes];
+  }
+
+  /**
+   * The number of lanes of the preferred vector species of the platform.
+   */
+  static int lanes() {
+    return SPECIES.length();
+  }
+
+  /**
+   * Loads the midstates and {@code U1} of a started engine into a lane, and sets its accumulator
+   * to {@code U1}. All the lanes must use the same hash function.
+   */
+  void load(Sha256Pbkdf2 engine, int lane) {
+    digestWords = engine.digestWords();
+    engine.exportLane(innerState, outerState, ui, lane, lanes);
+    for (int i = 0; i < 8; i++) {
+      accumulator[i * lanes + lane] = ui[i * lanes + lane];
+    }
+  }
+
+  /**
+   * Runs {@code count} further iterations in every lane.
+   */
+  void iterate(int count) {
+    final int n = digestWords;
+    final int[] w = schedule;
+    final int[] u = ui;
+    final int[] t = accumulator;
+    final int words = n * lanes;
+    // The padding of a digest preceded by a padded key block is the same on every iteration
+    Arrays.fill(w, words, 15 * lanes, 0);
+    Arrays.fill(w, words, words + lanes, 0x80000000);
+    Arrays.fill(w, 15 * lanes, 16 * lanes, (64 + n * 4) * 8);
+    System.arraycopy(u, 0, w, 0, words);
+    for (int c = 0; c < count; c++) {
+      compress(innerState, scratch);
+      System.arraycopy(scratch, 0, w, 0, words);
+      compress(outerState, u);
+      System.arraycopy(u, 0, w, 0, words);
+      for (int i = 0; i < words; i += SPECIES.length()) {
+        IntVector.fromArray(SPECIES, t, i)
+            .lanewise(VectorOperators.XOR, IntVector.fromArray(SPECIES, u, i))
+            .intoArray(t, i);
+      }
+    }
+  }
+
+  /**
+   * Returns the accumulated Hi value of a lane.
+   */
+  byte[] result(int lane) {
+    byte[] out = new byte[digestWords * 4];
+    for (int i = 0; i < digestWords; i++) {
+      int word = accumulator[i * lanes + lane];
+      out[i * 4] = (byte) (word >>> 24);
+      out[i * 4 + 1] = (byte) (word >>> 16);
+      out[i * 4 + 2] = (byte) (word >>> 8);
+      out[i * 4 + 3] = (byte) word;
+    }
+    return out;
+  }
+
+  /**
+   * Wipes the midstates, the current {@code Ui} and the accumulators of all the lanes.
+   */
+  void reset() {
+    Arrays.fill(innerState, 0);
+    Arrays.fill(outerState, 0);
+    Arrays.fill(schedule, 0);
+    Arrays.fill(scratch, 0);
+    Arrays.fill(ui, 0);
+    Arrays.fill(accumulator, 0);
+  }
+
+  /**
+   * The SHA-256 compression function of every lane, over the blocks loaded in the first 16 words
+   * of the message schedule, which are left untouched.
+   */
+  private void compress(int[] from, int[] to) {
+    final int[] w = schedule;
+    final int l = lanes;
+    for (int i = 16; i < 64; i++) {
+      IntVector w15 = IntVector.fromArray(SPECIES, w, (i - 15) * l);
+      IntVector w2 = IntVector.fromArray(SPECIES, w, (i - 2) * l);
+      IntVector s0 = w15.lanewise(VectorOperators.ROR, 7)
+          .lanewise(VectorOperators.XOR, w15.lanewise(VectorOperators.ROR, 18))
+          .lanewise(VectorOperators.XOR, w15.lanewise(VectorOperators.LSHR, 3));
+      IntVector s1 = w2.lanewise(VectorOperators.ROR, 17)
+          .lanewise(VectorOperators.XOR, w2.lanewise(VectorOperators.ROR, 19))
+          .lanewise(VectorOperators.XOR, w2.lanewise(VectorOperators.LSHR, 10));
+      IntVector.fromArray(SPECIES, w, (i - 16) * l)
+          .add(s0)
+          .add(IntVector.fromArray(SPECIES, w, (i - 7) * l))
+          .add(s1)
+          .intoArray(w, i * l);
+    }
+
+    IntVector a = IntVector.fromArray(SPECIES, from, 0);
+    IntVector b = IntVector.fromArray(SPECIES, from, l);
+    IntVector c = IntVector.fromArray(SPECIES, from, 2 * l);
+    IntVector d = IntVector.fromArray(SPECIES, from, 3 * l);
+    IntVector e = IntVector.fromArray(SPECIES, from, 4 * l);
+    IntVector f = IntVector.fromArray(SPECIES, from, 5 * l);
+    IntVector g = IntVector.fromArray(SPECIES, from, 6 * l);
+    IntVector h = IntVector.fromArray(SPECIES, from, 7 * l);
+    for (int i = 0; i < 64; i++) {
+      IntVector s1 = e.lanewise(VectorOperators.ROR, 6)
+          .lanewise(VectorOperators.XOR, e.lanewise(VectorOperators.ROR, 11))
+          .lanewise(VectorOperators.XOR, e.lanewise(VectorOperators.ROR, 25));
+      IntVector ch = e.and(f).lanewise(VectorOperators.XOR, e.not().and(g));
+      IntVector t1 = h.add(s1).add(ch).add(K[i]).add(IntVector.fromArray(SPECIES, w, i * l));
+      IntVector s0 = a.lanewise(VectorOperators.ROR, 2)
+          .lanewise(VectorOperators.XOR, a.lanewise(VectorOperators.ROR, 13))
+          .lanewise(VectorOperators.XOR, a.lanewise(VectorOperators.ROR, 22));
+      IntVector maj = a.and(b).lanewise(VectorOperators.XOR, a.and(c))
+          .lanewise(VectorOperators.XOR, b.and(c));
+      IntVector t2 = s0.add(maj);
+      h = g;
+      g = f;
+      f = e;
+      e = d.add(t1);
+      d = c;
+      c = b;
+      b = a;
+      a = t1.add(t2);
+    }
+    a.add(IntVector.fromArray(SPECIES, from, 0)).intoArray(to, 0);
+    b.add(IntVector.fromArray(SPECIES, from, l)).intoArray(to, l);
+    c.add(IntVector.fromArray(SPECIES, from, 2 * l)).intoArray(to, 2 * l);
+    d.add(IntVector.fromArray(SPECIES, from, 3 * l)).intoArray(to, 3 * l);
+    e.add(IntVector.fromArray(SPECIES, from, 4 * l)).intoArray(to, 4 * l);
+    f.add(IntVector.fromArray(SPECIES, from, 5 * l)).intoArray(to, 5 * l);
+    g.add(IntVector.fromArray(SPECIES, from, 6 * l)).intoArray(to, 6 * l);
+    h.add(IntVector.fromArray(SPECIES, from, 7 * l)).intoArray(to, 7 * l);
+  }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import java.util.Optional;
+
+import com.ongres.scram.common.exception.ScramInterruptedException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Multi-lane PBKDF2, computing several independent salted passwords side by side in SIMD
+ * registers.
+ *
+ * <p>This is the Java 17+ variant: when the {@code jdk.incubator.vector} module is present in the
+ * boot layer (i.e. when the JVM is started with {@code --add-modules jdk.incubator.vector}),
+ * HMAC-SHA-224 and HMAC-SHA-256 batches run in 4, 8 or 16 lanes, depending on the preferred
+ * vector size of the platform. The Vector API classes are only referenced from
+ * {@link Sha256Lanes}, which is not loaded unless the module is available.
+ */
+final class VectorPbkdf2 {
+
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+  private static final boolean AVAILABLE = isVectorModuleAvailable();
+
+  private VectorPbkdf2() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * The number of derivations computed side by side for the given HMAC algorithm.
+   *
+   * @param hmacAlgorithmName the standard name of the HMAC algorithm
+   * @return the number of lanes, or 1 if there is no SIMD support for the algorithm
+   */
+  static int lanes(@NotNull String hmacAlgorithmName) {
+    if (!AVAILABLE || Pbkdf2Engine.isDisabled()) {
+      return 1;
+    }
+    if (!"HmacSHA224".equals(hmacAlgorithmName) && !"HmacSHA256".equals(hmacAlgorithmName)) {
+      return 1;
+    }
+    return Sha256Lanes.lanes();
+  }
+
+  /**
+   * Computes the salted passwords of a batch using SIMD lanes, if supported.
+   *
+   * @param hmacAlgorithmName the standard name of the HMAC algorithm
+   * @param normalizedPasswords the normalized passwords
+   * @param salts the salt of each password
+   * @param iterationCount the number of iterations, common to the whole batch
+   * @return the salted passwords, or null if the batch can't be computed using SIMD lanes
+   */
+  static byte @Nullable [] @NotNull [] saltedPasswords(@NotNull String hmacAlgorithmName,
+      char @NotNull [] @NotNull [] normalizedPasswords, byte @NotNull [] @NotNull [] salts,
+      int iterationCount) {
+    final int lanes = lanes(hmacAlgorithmName);
+    if (lanes < 2 || normalizedPasswords.length < 2) {
+      return null;
+    }
+
+    final int total = normalizedPasswords.length;
+    final byte[][] results = new byte[total][];
+    for (int first = 0; first < total; first += lanes) {
+      int count = Math.min(lanes, total - first);
+      Sha256Lanes group = new Sha256Lanes(lanes);
+      try {
+        for (int lane = 0; lane < lanes; lane++) {
+          // Unused lanes of the last group repeat its first derivation
+          int index = first + (lane < count ? lane : 0);
+          Sha256Pbkdf2 engine = (Sha256Pbkdf2) Pbkdf2Engine.forAlgorithm(hmacAlgorithmName);
+          try {
+            CryptoUtil.start(engine, normalizedPasswords[index], salts[index]);
+            group.load(engine, lane);
+          } finally {
+            engine.reset();
+          }
+        }
+        int i = 1;
+        while (i < iterationCount) {
+          int stride = Math.min(iterationCount - i, CryptoUtil.INTERRUPT_CHECK_STRIDE);
+          group.iterate(stride);
+          i += stride;
+          if (i < iterationCount && Thread.currentThread().isInterrupted()) {
+            throw new ScramInterruptedException(
+                "PBKDF2 computation interrupted at iteration " + i);
+          }
+        }
+        for (int lane = 0; lane < count; lane++) {
+          results[first + lane] = group.result(lane);
+        }
+      } finally {
+        group.reset();
+      }
+    }
+    return results;
+  }
+
+  private static boolean isVectorModuleAvailable() {
+    try {
+      Optional<Module> vector = ModuleLayer.boot().findModule(VECTOR_MODULE);
+      if (vector.isPresent()) {
+        // The module descriptor can't require an incubator module, so the read edge is added at
+        // runtime. This is a no-op when running from the class path.
+        VectorPbkdf2.class.getModule().addReads(vector.get());
+        return true;
+      }
+      return false;
+    } catch (SecurityException | LinkageError ex) {
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+import static com.ongres.scram.common.util.Preconditions.gt0;
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.ongres.scram.common.exception.ScramRuntimeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * PBKDF2 computed by the {@code PKCS5_PBKDF2_HMAC} function of the system OpenSSL
+ * {@code libcrypto}.
+ *
+ * <p>This is the Java 22+ variant, which binds to {@code libcrypto} with the Foreign Function
+ * &amp; Memory API the first time it's used. It's enabled when {@code com.ongres.scram.pbkdf2} is
+ * set to {@code "native"}, or when it's {@code "auto"} (the default) and the module has native
+ * access enabled (e.g. with {@code --enable-native-access=com.ongres.scram.common}, or
+ * {@code ALL-UNNAMED} from the class path), so that no restricted method warning is printed
+ * otherwise. If the library or one of its symbols is missing, the salted password is computed in
+ * Java.
+ *
+ * <p>The password and the salt are copied to off-heap segments of a confined arena, that are zeroed
+ * before the arena is closed, together with the derived key. The native call can't be interrupted.
+ */
+final class NativePbkdf2 {
+
+  private static final String[] LIBRARY_NAMES = {
+      "libcrypto.so.3", "libcrypto.so", "libcrypto.so.1.1", "libcrypto.3.dylib", "libcrypto.dylib"
+  };
+
+  private NativePbkdf2() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Whether the native library is loaded and enabled.
+   *
+   * @return true if {@link #hi(String, char[], byte[], int)} computes the salted passwords
+   */
+  static boolean isAvailable() {
+    return isEnabled() && Library.INSTANCE != null;
+  }
+
+  /**
+   * Computes the salted password with the native library, if available.
+   *
+   * @param hmacAlgorithmName the standard name of the HMAC algorithm
+   * @param normalizedPassword the normalized password
+   * @param salt the salt
+   * @param iterationCount the number of iterations
+   * @return the salted password, or null if it must be computed in Java
+   */
+  static byte @Nullable [] hi(@NotNull String hmacAlgorithmName,
+      char @NotNull [] normalizedPassword, byte @NotNull [] salt, int iterationCount) {
+    if (!isEnabled()) {
+      return null;
+    }
+    final Library library = Library.INSTANCE;
+    if (library == null) {
+      return null;
+    }
+    final Digest digest = library.digests.get(hmacAlgorithmName);
+    if (digest == null) {
+      return null;
+    }
+    checkNotNull(normalizedPassword, "password");
+    checkNotNull(salt, "salt");
+    checkArgument(salt.length != 0, "salt");
+    gt0(iterationCount, "iterationCount");
+
+    final byte[] pwBytes = CryptoUtil.passwordToUtf8Bytes(normalizedPassword);
+    try (Arena arena = Arena.ofConfined()) {
+      final MemorySegment password = arena.allocate(Math.max(1, pwBytes.length));
+      final MemorySegment saltSegment = arena.allocate(salt.length);
+      final MemorySegment out = arena.allocate(digest.length);
+      try {
+        MemorySegment.copy(pwBytes, 0, password, JAVA_BYTE, 0, pwBytes.length);
+        MemorySegment.copy(salt, 0, saltSegment, JAVA_BYTE, 0, salt.length);
+        int rc = (int) library.pbkdf2.invokeExact(password, pwBytes.length, saltSegment,
+            salt.length, iterationCount, digest.md, digest.length, out);
+        if (rc != 1) {
+          throw new ScramRuntimeException("PKCS5_PBKDF2_HMAC failed for " + hmacAlgorithmName);
+        }
+        return out.toArray(JAVA_BYTE);
+      } catch (RuntimeException | Error ex) {
+        throw ex;
+      } catch (Throwable ex) {
+        throw new ScramRuntimeException("Error calling PKCS5_PBKDF2_HMAC", ex);
+      } finally {
+        password.fill((byte) 0);
+        saltSegment.fill((byte) 0);
+        out.fill((byte) 0);
+      }
+    } finally {
+      Arrays.fill(pwBytes, (byte) 0);
+    }
+  }
+
+  private static boolean isEnabled() {
+    if (Pbkdf2Engine.isDisabled()) {
+      return false;
+    }
+    return Pbkdf2Engine.isNativeRequested()
+        || (Pbkdf2Engine.isAuto() && NativePbkdf2.class.getModule().isNativeAccessEnabled());
+  }
+
+  /**
+   * The {@code EVP_MD} of a hash function, and the length of its output.
+   */
+  private static final class Digest {
+    final MemorySegment md;
+    final int length;
+
+    Digest(MemorySegment md, int length) {
+      this.md = md;
+      this.length = length;
+    }
+  }
+
+  /**
+   * The bound {@code libcrypto}, loaded on first use.
+   */
+  private static final class Library {
+    static final @Nullable Library INSTANCE = load();
+
+    final MethodHandle pbkdf2;
+    final Map<String, Digest> digests;
+
+    private Library(MethodHandle pbkdf2, Map<String, Digest> digests) {
+      this.pbkdf2 = pbkdf2;
+      this.digests = digests;
+    }
+
+    private static @Nullable Library load() {
+      try {
+        final SymbolLookup lookup = lookup();
+        if (lookup == null) {
+          return null;
+        }
+        final Linker linker = Linker.nativeLinker();
+        // int PKCS5_PBKDF2_HMAC(const char *pass, int passlen, const unsigned char *salt,
+        //     int saltlen, int iter, const EVP_MD *digest, int keylen, unsigned char *out)
+        final MethodHandle pbkdf2 = linker.downcallHandle(
+            lookup.find("PKCS5_PBKDF2_HMAC").orElseThrow(),
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, JAVA_INT, ADDRESS, JAVA_INT, JAVA_INT,
+                ADDRESS, JAVA_INT, ADDRESS));
+        final Map<String, Digest> digests = new HashMap<>();
+        addDigest(linker, lookup, digests, "HmacSHA1", "EVP_sha1", 20);
+        addDigest(linker, lookup, digests, "HmacSHA224", "EVP_sha224", 28);
+        addDigest(linker, lookup, digests, "HmacSHA256", "EVP_sha256", 32);
+        addDigest(linker, lookup, digests, "HmacSHA384", "EVP_sha384", 48);
+        addDigest(linker, lookup, digests, "HmacSHA512", "EVP_sha512", 64);
+        addDigest(linker, lookup, digests, "HmacSHA3-512", "EVP_sha3_512", 64);
+        return new Library(pbkdf2, digests);
+      } catch (RuntimeException | LinkageError ex) {
+        return null;
+      }
+    }
+
+    private static @Nullable SymbolLookup lookup() {
+      for (String name : LIBRARY_NAMES) {
+        try {
+          return SymbolLookup.libraryLookup(name, Arena.global());
+        } catch (IllegalArgumentException ex) {
+          // Try the next name
+        }
+      }
+      return null;
+    }
+
+    private static void addDigest(Linker linker, SymbolLookup lookup, Map<String, Digest> digests,
+        String hmacAlgorithmName, String function, int length) {
+      lookup.find(function).ifPresent(symbol -> {
+        try {
+          // const EVP_MD *EVP_sha256(void)
+          MethodHandle handle = linker.downcallHandle(symbol, FunctionDescriptor.of(ADDRESS));
+          MemorySegment md = (MemorySegment) handle.invokeExact();
+          if (!MemorySegment.NULL.equals(md)) {
+            digests.put(hmacAlgorithmName, new Digest(md, length));
+          }
+        } catch (RuntimeException | Error ex) {
+          throw ex;
+        } catch (Throwable ex) {
+          throw new ScramRuntimeException("Error calling " + function, ex);
+        }
+      });
+    }
+  }
+
+}
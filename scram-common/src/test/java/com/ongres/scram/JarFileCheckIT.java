@@ -23,6 +23,7 @@ import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -69,4 +70,17 @@ class JarFileCheckIT {
     assertNotNull(moduleDescriptor);
     assertEquals("com.ongres.scram.common", moduleDescriptor.name());
   }
+
+  @Test
+  void checkVectorOverlayPresent() {
+    assertNotNull(jarFile.getJarEntry("META-INF/versions/17/com/ongres/scram/common/VectorPbkdf2.class"),
+        "Vector API variant of the batch PBKDF2 should be present in the final JAR file");
+  }
+
+  @Test
+  void checkNativeOverlayPresent() {
+    Assumptions.assumeTrue(Runtime.version().feature() >= 22, "FFM overlay requires JDK 22+");
+    assertNotNull(jarFile.getJarEntry("META-INF/versions/22/com/ongres/scram/common/NativePbkdf2.class"),
+        "FFM variant of the native PBKDF2 should be present in the final JAR file");
+  }
 }
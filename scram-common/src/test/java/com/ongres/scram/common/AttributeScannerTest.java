@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.ongres.scram.common.exception.ScramParseException;
+import org.junit.jupiter.api.Test;
+
+class AttributeScannerTest {
+
+  @Test
+  void fields() {
+    AttributeScanner scanner = new AttributeScanner("n,,n=user,r=fyko");
+    assertTrue(scanner.nextField());
+    assertEquals("n", scanner.field());
+    assertTrue(scanner.nextField());
+    assertEquals(0, scanner.fieldLength());
+    assertTrue(scanner.nextField());
+    assertEquals("n=user", scanner.field());
+    assertEquals("user", scanner.value());
+    assertTrue(scanner.nextField());
+    assertEquals('r', scanner.fieldChar(0));
+    assertFalse(scanner.nextField());
+
+    assertFalse(new AttributeScanner("").nextField());
+    AttributeScanner trailing = new AttributeScanner("a,");
+    assertTrue(trailing.nextField());
+    assertTrue(trailing.nextField());
+    assertEquals(0, trailing.fieldLength());
+    assertFalse(trailing.nextField());
+  }
+
+  @Test
+  void attributes() throws ScramParseException {
+    AttributeScanner scanner = new AttributeScanner(
+        new StringBuilder("r=abcdef,s=QSXCR+Q6sek8bf92,i=4096"));
+    scanner.next(ScramAttributes.NONCE, "nonce");
+    assertEquals(6, scanner.valueLength());
+    assertEquals('c', scanner.valueChar(2));
+    assertEquals("def", scanner.value(3));
+    assertEquals('s', scanner.nextAttribute("salt"));
+    assertArrayEquals(ScramStringFormatting.base64Decode("QSXCR+Q6sek8bf92"),
+        scanner.valueAsBase64());
+    scanner.next(ScramAttributes.ITERATION, "iteration");
+    assertEquals(4096, scanner.valueAsInt());
+    ScramParseException missing =
+        assertThrows(ScramParseException.class, () -> scanner.nextAttribute("missing"));
+    assertEquals("missing", missing.getMessage());
+  }
+
+  @Test
+  void bytes() throws ScramParseException {
+    byte[] message =
+        "xxn=\u00e9l\u00e8ve,i=4096,s=QSXCR+Q6sek8bf92".getBytes(StandardCharsets.UTF_8);
+    for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.wrap(message),
+        ByteBuffer.allocateDirect(message.length).put(message)}) {
+      buffer.position(2);
+      AttributeScanner scanner = new AttributeScanner(buffer);
+      scanner.next(ScramAttributes.USERNAME, "username");
+      // The length and the chars of the value are of its UTF-8 bytes
+      assertEquals(7, scanner.valueLength());
+      assertEquals(0xC3, scanner.valueChar(0));
+      assertEquals("\u00e9l\u00e8ve", scanner.value());
+      assertEquals("l\u00e8ve", scanner.value(2));
+      scanner.next(ScramAttributes.ITERATION, "iteration");
+      assertEquals(4096, scanner.valueAsInt());
+      scanner.next(ScramAttributes.SALT, "salt");
+      assertArrayEquals(ScramStringFormatting.base64Decode("QSXCR+Q6sek8bf92"),
+          scanner.valueAsBase64());
+      assertFalse(scanner.nextField());
+
+      // The position is only moved when the message is consumed
+      assertEquals(2, buffer.position());
+      scanner.consume();
+      assertEquals(buffer.limit(), buffer.position());
+    }
+  }
+
+  @Test
+  void invalidAttributes() {
+    assertThrows(ScramParseException.class,
+        () -> new AttributeScanner("s=salt").next(ScramAttributes.NONCE, "nonce"));
+    assertThrows(ScramParseException.class,
+        () -> new AttributeScanner("r=").nextAttribute("nonce"));
+    assertThrows(ScramParseException.class,
+        () -> new AttributeScanner("rr=abc").nextAttribute("nonce"));
+    assertThrows(ScramParseException.class,
+        () -> new AttributeScanner("z=abc").nextAttribute("nonce"));
+  }
+
+  @Test
+  void invalidValues() throws ScramParseException {
+    for (String value : new String[] {"i=+4096", "i=-1", "i=40 96", "i=2147483648",
+        "i=99999999999"}) {
+      AttributeScanner scanner = new AttributeScanner(value);
+      scanner.next(ScramAttributes.ITERATION, "iteration");
+      assertThrows(NumberFormatException.class, scanner::valueAsInt, value);
+    }
+    AttributeScanner max = new AttributeScanner("i=2147483647");
+    max.next(ScramAttributes.ITERATION, "iteration");
+    assertEquals(Integer.MAX_VALUE, max.valueAsInt());
+
+    AttributeScanner base64 = new AttributeScanner("v=\u00e9abcdefg");
+    base64.nextAttribute("verifier");
+    assertThrows(IllegalArgumentException.class, base64::valueAsBase64);
+  }
+
+}
@@ -5,8 +5,15 @@
 
 package com.ongres.scram.common;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+
+import com.ongres.scram.common.exception.ScramParseException;
 import org.junit.jupiter.api.Test;
 
 class ClientFinalMessageTest {
@@ -19,4 +26,52 @@ class ClientFinalMessageTest {
     assertEquals(RfcExampleSha1.CLIENT_FINAL_MESSAGE_WITHOUT_PROOF, sb.toString());
   }
 
+  @Test
+  void parseFromValidValues() throws ScramParseException {
+    ClientFinalMessage message = ClientFinalMessage.parseFrom(RfcExampleSha1.CLIENT_FINAL_MESSAGE);
+    assertEquals(RfcExampleSha1.GS2_HEADER_BASE64, message.getCbindInput());
+    assertEquals(RfcExampleSha1.FULL_NONCE, message.getNonce());
+    assertArrayEquals(ScramStringFormatting.base64Decode(RfcExampleSha1.CLIENT_FINAL_MESSAGE_PROOF),
+        message.getProof());
+    assertEquals(RfcExampleSha1.CLIENT_FINAL_MESSAGE, message.toString());
+    assertTrue(message.isChannelBindingValid(new Gs2Header(Gs2CbindFlag.CLIENT_NOT), null));
+    assertFalse(message.isChannelBindingValid(new Gs2Header(Gs2CbindFlag.CLIENT_YES_SERVER_NOT),
+        null));
+  }
+
+  @Test
+  void parseFromChannelBinding() throws ScramParseException {
+    Gs2Header gs2Header = new Gs2Header(Gs2CbindFlag.CHANNEL_BINDING_REQUIRED,
+        "tls-server-end-point");
+    byte[] cbindData = "certificate hash".getBytes(StandardCharsets.UTF_8);
+    ClientFinalMessage sent = new ClientFinalMessage(gs2Header, cbindData,
+        RfcExampleSha1.FULL_NONCE, new byte[20]);
+
+    ClientFinalMessage message = ClientFinalMessage.parseFrom(sent.toString());
+    assertEquals(sent.getCbindInput(), message.getCbindInput());
+    assertTrue(message.isChannelBindingValid(gs2Header, cbindData));
+    assertFalse(message.isChannelBindingValid(gs2Header,
+        "other hash".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void parseFromInvalidValues() {
+    String[] invalidValues = {
+        "r=" + RfcExampleSha1.FULL_NONCE + ",c=biws,p=AAAA",
+        "c=biws,p=AAAA",
+        "c=biws,r=" + RfcExampleSha1.FULL_NONCE,
+        "c=biws,r=" + RfcExampleSha1.FULL_NONCE + ",x=ext,p=AAAA",
+        "c=biws,r=" + RfcExampleSha1.FULL_NONCE + ",p=AAAA,x=ext",
+        "c=biws,r=" + RfcExampleSha1.FULL_NONCE + ",p=",
+    };
+    for (String value : invalidValues) {
+      assertThrows(ScramParseException.class, () -> ClientFinalMessage.parseFrom(value), value);
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> ClientFinalMessage.parseFrom("c=b!ws,r=" + RfcExampleSha1.FULL_NONCE + ",p=AAAA"));
+    assertThrows(IllegalArgumentException.class,
+        () -> ClientFinalMessage.parseFrom("c=biws,r=" + RfcExampleSha1.FULL_NONCE + ",p=A"));
+    assertThrows(IllegalArgumentException.class, () -> ClientFinalMessage.parseFrom(""));
+  }
+
 }
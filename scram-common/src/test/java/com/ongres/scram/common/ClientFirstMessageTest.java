@@ -6,6 +6,7 @@
 package com.ongres.scram.common;
 
 import static com.ongres.scram.common.RfcExampleSha1.CLIENT_NONCE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -14,6 +15,9 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import com.ongres.scram.common.exception.ScramParseException;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
@@ -51,6 +55,21 @@ class ClientFirstMessageTest {
             "authzid", "user", "fyko").toString());
   }
 
+  @Test
+  void encodeToNonAsciiUsername() {
+    ClientFirstMessage message = new ClientFirstMessage("us\u00e9r\u20ac\ud83d\ude00=2C", "fyko");
+    byte[] expected = message.toString().getBytes(StandardCharsets.UTF_8);
+
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    buffer.put((byte) '#');
+    assertEquals(expected.length, message.encodeTo(buffer));
+    assertEquals(1 + expected.length, buffer.position());
+    byte[] written = new byte[expected.length];
+    buffer.flip().position(1);
+    buffer.get(written);
+    assertArrayEquals(expected, written);
+  }
+
   @Test
   void parseToValidValues() throws ScramParseException {
     assertEquals(ClientFirstMessage.parseFrom("n,,n=user,r=fyko").toString(),
@@ -122,4 +141,15 @@ class ClientFirstMessageTest {
 
     assertEquals(invalidValues.length, n);
   }
+
+  @Test
+  void parseFromKeepsSaslName() throws ScramParseException {
+    ClientFirstMessage message = ClientFirstMessage.parseFrom("n,,n=us=2Cer=3D,r=" + CLIENT_NONCE);
+    assertEquals("us=2Cer=3D", message.getUsername());
+    assertEquals("us,er=", message.getUnescapedUsername());
+    assertEquals("n,,n=us=2Cer=3D,r=" + CLIENT_NONCE, message.toString());
+
+    assertThrows(ScramParseException.class,
+        () -> ClientFirstMessage.parseFrom("n,,n=us=2Der,r=" + CLIENT_NONCE));
+  }
 }
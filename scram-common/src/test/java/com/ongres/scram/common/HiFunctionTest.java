@@ -89,6 +89,95 @@ class HiFunctionTest {
     }
   }
 
+  @ParameterizedTest(name = "{0} | PW Len: {1} | Iter: {2}")
+  @MethodSource("scramTestMatrix")
+  void testEngineCorrectness(ScramMechanism mechanism, int pwLength, int iterations)
+      throws Exception {
+    String hmacAlgorithm = mechanism.getHmacAlgorithmName();
+    Pbkdf2Engine engine = Pbkdf2Engine.forAlgorithm(hmacAlgorithm);
+    if (engine == null) {
+      Assumptions.abort("Skipping: " + hmacAlgorithm + " has no specialized engine.");
+      return;
+    }
+    char[] password = StringPreparation.POSTGRESQL_PREPARATION.normalize(generateRandom(pwLength));
+    int randomSaltSize = ThreadLocalRandom.current().nextInt(2, 200);
+    byte[] salt = CryptoUtil.salt(randomSaltSize, SECURE_RANDOM);
+
+    byte[] expected = CryptoUtil.hi(Mac.getInstance(hmacAlgorithm), password, salt, iterations);
+    byte[] actual = CryptoUtil.pbkdf2(engine, password, salt, iterations);
+
+    assertArrayEquals(expected, actual, "Engine Hi mismatch for " + hmacAlgorithm);
+  }
+
+  @ParameterizedTest(name = "{0} | PW Len: {1} | Iter: {2}")
+  @MethodSource("scramTestMatrix")
+  void testMacEngineCorrectness(ScramMechanism mechanism, int pwLength, int iterations)
+      throws Exception {
+    String hmacAlgorithm = mechanism.getHmacAlgorithmName();
+    char[] password = StringPreparation.POSTGRESQL_PREPARATION.normalize(generateRandom(pwLength));
+    byte[] salt = CryptoUtil.salt(ThreadLocalRandom.current().nextInt(2, 200), SECURE_RANDOM);
+    Mac mac;
+    try {
+      mac = Mac.getInstance(hmacAlgorithm);
+    } catch (NoSuchAlgorithmException e) {
+      Assumptions.abort("Skipping: " + hmacAlgorithm + " not supported by current Provider.");
+      return;
+    }
+
+    byte[] expected = CryptoUtil.hi(Mac.getInstance(hmacAlgorithm), password, salt, iterations);
+    byte[] actual = CryptoUtil.pbkdf2(new MacPbkdf2(mac), password, salt, iterations);
+
+    assertArrayEquals(expected, actual, "Mac engine Hi mismatch for " + hmacAlgorithm);
+  }
+
+  @ParameterizedTest(name = "{0} | PW Len: {1} | Iter: {2}")
+  @MethodSource("scramTestMatrix")
+  void testNativeCorrectness(ScramMechanism mechanism, int pwLength, int iterations)
+      throws Exception {
+    String hmacAlgorithm = mechanism.getHmacAlgorithmName();
+    char[] password = StringPreparation.POSTGRESQL_PREPARATION.normalize(generateRandom(pwLength));
+    byte[] salt = CryptoUtil.salt(ThreadLocalRandom.current().nextInt(2, 200), SECURE_RANDOM);
+
+    byte[] actual = NativePbkdf2.hi(hmacAlgorithm, password, salt, iterations);
+    if (actual == null) {
+      Assumptions.abort("Skipping: native PBKDF2 of " + hmacAlgorithm + " is not available.");
+      return;
+    }
+    byte[] expected = CryptoUtil.hi(Mac.getInstance(hmacAlgorithm), password, salt, iterations);
+
+    assertArrayEquals(expected, actual, "Native Hi mismatch for " + hmacAlgorithm);
+  }
+
+  @Test
+  void testEngineRfc7677() {
+    // SaltedPassword of the RFC 7677 example, as computed by the Mac based implementation
+    byte[] expected = Base64.getDecoder().decode("xKSVEDI6tPlSysH6mUQZOeeOp01r6B3fcJbodRPcYV0=");
+    byte[] actual = CryptoUtil.pbkdf2(Pbkdf2Engine.forAlgorithm("HmacSHA256"),
+        "pencil".toCharArray(), Base64.getDecoder().decode("W22ZaJ0SNY7soEsUEjb6gQ=="), 4096);
+
+    assertArrayEquals(expected, actual, "Hi mismatch for the RFC 7677 example");
+  }
+
+  @Test
+  void testEngineInterruptionBehavior() {
+    char[] password = "long-running-task".toCharArray();
+    byte[] salt = CryptoUtil.salt(24, new SecureRandom());
+    int iterations = 1_000_000;
+
+    try {
+      Thread.currentThread().interrupt();
+
+      ScramInterruptedException exception = assertThrows(ScramInterruptedException.class,
+          () -> CryptoUtil.pbkdf2(Pbkdf2Engine.forAlgorithm("HmacSHA256"), password, salt,
+              iterations));
+
+      assertTrue(exception.getMessage().contains("PBKDF2 computation interrupted"),
+          "Expected interruption error but got: " + exception.getMessage());
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
   @Test
   void testNullHandling() throws Exception {
     Mac mac = Mac.getInstance("HmacSHA256");
@@ -8,13 +8,24 @@ package com.ongres.scram.common;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 
@@ -118,6 +129,154 @@ class ScramFunctionsTest {
         generateSaltedPasswordSha256());
   }
 
+  @Test
+  void saltedPasswordsBatch() {
+    SecureRandom random = new SecureRandom();
+    for (ScramMechanism mechanism : new ScramMechanism[] {ScramMechanism.SCRAM_SHA_1,
+        ScramMechanism.SCRAM_SHA_224, ScramMechanism.SCRAM_SHA_256}) {
+      char[][] passwords = new char[19][];
+      byte[][] salts = new byte[19][];
+      for (int i = 0; i < passwords.length; i++) {
+        passwords[i] = ("pencil" + i).toCharArray();
+        salts[i] = ScramFunctions.salt(16 + i, random);
+      }
+      byte[][] saltedPasswords = ScramFunctions.saltedPasswords(mechanism,
+          StringPreparation.POSTGRESQL_PREPARATION, passwords, salts, 4096);
+      assertEquals(passwords.length, saltedPasswords.length);
+      for (int i = 0; i < passwords.length; i++) {
+        assertArrayEquals(ScramFunctions.saltedPassword(mechanism,
+            StringPreparation.POSTGRESQL_PREPARATION, passwords[i], salts[i], 4096),
+            saltedPasswords[i], mechanism + " password " + i);
+      }
+    }
+  }
+
+  @Test
+  void saltedPasswordsBatchMismatchedSalts() {
+    char[][] passwords = {"pencil".toCharArray(), "pen".toCharArray()};
+    byte[][] salts = {Base64.getDecoder().decode("W22ZaJ0SNY7soEsUEjb6gQ==")};
+    assertThrows(IllegalArgumentException.class,
+        () -> ScramFunctions.saltedPasswords(ScramMechanism.SCRAM_SHA_256,
+            StringPreparation.POSTGRESQL_PREPARATION, passwords, salts, 4096));
+  }
+
+  @Test
+  void credentialsStream() throws InterruptedException {
+    SecureRandom random = new SecureRandom();
+    List<ScramCredentialInput> inputs = new ArrayList<>();
+    for (int i = 0; i < 37; i++) {
+      inputs.add(ScramCredentialInput.of(("pencil" + i).toCharArray(),
+          ScramFunctions.salt(16, random), i % 5 == 0 ? 1024 : 4096));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try (Stream<ScramCredentials> stream = ScramFunctions.credentials(
+        ScramMechanism.SCRAM_SHA_256, StringPreparation.POSTGRESQL_PREPARATION, inputs, executor)) {
+      List<ScramCredentials> credentials = stream.collect(Collectors.toList());
+      assertEquals(inputs.size(), credentials.size());
+      for (int i = 0; i < inputs.size(); i++) {
+        ScramCredentialInput input = inputs.get(i);
+        ScramCredentials actual = credentials.get(i);
+        byte[] saltedPassword = ScramFunctions.saltedPassword(ScramMechanism.SCRAM_SHA_256,
+            StringPreparation.POSTGRESQL_PREPARATION, ("pencil" + i).toCharArray(),
+            input.getSalt(), input.getIterationCount());
+        byte[] clientKey = ScramFunctions.clientKey(ScramMechanism.SCRAM_SHA_256, saltedPassword);
+        assertArrayEquals(input.getSalt(), actual.getSalt());
+        assertEquals(input.getIterationCount(), actual.getIterationCount());
+        assertArrayEquals(clientKey, actual.getClientKey());
+        assertArrayEquals(ScramFunctions.storedKey(ScramMechanism.SCRAM_SHA_256, clientKey),
+            actual.getStoredKey());
+        assertArrayEquals(ScramFunctions.serverKey(ScramMechanism.SCRAM_SHA_256, saltedPassword),
+            actual.getServerKey());
+      }
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void credentialsStreamPropagatesErrors() {
+    List<ScramCredentialInput> inputs = Arrays.asList(
+        ScramCredentialInput.of("pencil".toCharArray(), new byte[] {1, 2}, 4096),
+        ScramCredentialInput.of("\u0007".toCharArray(), new byte[] {1, 2}, 4096));
+    try (Stream<ScramCredentials> stream = ScramFunctions.credentials(
+        ScramMechanism.SCRAM_SHA_256, StringPreparation.SASL_PREPARATION, inputs, null)) {
+      Iterator<ScramCredentials> iterator = stream.iterator();
+      assertNotNull(iterator.next());
+      assertThrows(IllegalArgumentException.class, iterator::next);
+    }
+  }
+
+  @Test
+  void saltedPasswordStepper() {
+    SecureRandom random = new SecureRandom();
+    for (ScramMechanism mechanism : ScramMechanism.values()) {
+      if (mechanism.isPlus()) {
+        continue;
+      }
+      for (int iterationCount : new int[] {1, 2, 17, 4096}) {
+        char[] password = ("pencil" + iterationCount).toCharArray();
+        byte[] salt = ScramFunctions.salt(16, random);
+        byte[] expected = ScramFunctions.saltedPassword(mechanism,
+            StringPreparation.SASL_PREPARATION, password, salt, iterationCount);
+        try (SaltedPasswordStepper stepper = ScramFunctions.saltedPasswordStepper(mechanism,
+            StringPreparation.SASL_PREPARATION, password, salt, iterationCount)) {
+          assertEquals(iterationCount - 1, stepper.getRemainingIterations());
+          int steps = 0;
+          while (!stepper.step(1 + random.nextInt(1000))) {
+            assertThrows(IllegalStateException.class, stepper::getSaltedPassword);
+            steps++;
+          }
+          assertTrue(steps <= iterationCount);
+          assertEquals(0, stepper.getRemainingIterations());
+          assertArrayEquals(expected, stepper.getSaltedPassword(), mechanism.getName());
+          // Stepping a completed computation doesn't change the result
+          assertTrue(stepper.step(10));
+          assertArrayEquals(expected, stepper.getSaltedPassword(), mechanism.getName());
+        }
+      }
+    }
+  }
+
+  @Test
+  void saltedPasswordStepperTimeBudget() {
+    byte[] salt = Base64.getDecoder().decode("W22ZaJ0SNY7soEsUEjb6gQ==");
+    byte[] expected = ScramFunctions.saltedPassword(ScramMechanism.SCRAM_SHA_256,
+        StringPreparation.SASL_PREPARATION, "pencil".toCharArray(), salt, 100_000);
+    try (SaltedPasswordStepper stepper = ScramFunctions.saltedPasswordStepper(
+        ScramMechanism.SCRAM_SHA_256, StringPreparation.SASL_PREPARATION,
+        "pencil".toCharArray(), salt, 100_000)) {
+      // A zero budget still makes progress
+      assertFalse(stepper.stepFor(0));
+      int remaining = stepper.getRemainingIterations();
+      assertTrue(remaining < 99_999);
+      int slices = 1;
+      while (!stepper.stepFor(TimeUnit.MICROSECONDS.toNanos(200))) {
+        slices++;
+      }
+      assertTrue(slices > 2, "expected the computation to span several slices");
+      assertArrayEquals(expected, stepper.getSaltedPassword());
+    }
+  }
+
+  @Test
+  void saltedPasswordStepperClosed() {
+    SaltedPasswordStepper stepper = ScramFunctions.saltedPasswordStepper(
+        ScramMechanism.SCRAM_SHA_1, StringPreparation.SASL_PREPARATION, "pencil".toCharArray(),
+        new byte[] {1, 2}, 4096);
+    stepper.close();
+    stepper.close();
+    assertThrows(IllegalStateException.class, () -> stepper.step(1));
+    assertThrows(IllegalStateException.class, () -> stepper.stepFor(1000));
+    assertThrows(IllegalStateException.class, stepper::getSaltedPassword);
+    assertThrows(IllegalArgumentException.class, () -> ScramFunctions.saltedPasswordStepper(
+        ScramMechanism.SCRAM_SHA_256, StringPreparation.SASL_PREPARATION, "pencil".toCharArray(),
+        new byte[] {1, 2}, 0));
+    assertThrows(IllegalArgumentException.class, () -> ScramFunctions.saltedPasswordStepper(
+        ScramMechanism.SCRAM_SHA_256, StringPreparation.SASL_PREPARATION, "pencil".toCharArray(),
+        new byte[0], 4096));
+  }
+
   private byte[] generateClientKey() {
     return ScramFunctions.clientKey(ScramMechanism.SCRAM_SHA_1, generateSaltedPassword());
   }
@@ -236,6 +395,54 @@ class ScramFunctionsTest {
         generateServerSignatureSha256());
   }
 
+  @Test
+  void signaturesFromAuthMessage() throws Exception {
+    AuthMessage authMessage = AuthMessage.of(
+        ClientFirstMessage.parseFrom(RfcExampleSha256.CLIENT_FIRST_MESSAGE),
+        ServerFirstMessage.parseFrom(RfcExampleSha256.SERVER_FIRST_MESSAGE,
+            RfcExampleSha256.CLIENT_NONCE),
+        null);
+    assertEquals(RfcExampleSha256.AUTH_MESSAGE, authMessage.toString());
+
+    byte[][] signatures = ScramFunctions.signatures(ScramMechanism.SCRAM_SHA_256,
+        generateStoredKeySha256(), generateServerKeySha256(), authMessage);
+    assertArrayEquals(generateClientSignatureSha256(), signatures[0]);
+    assertArrayEquals(generateServerSignatureSha256(), signatures[1]);
+    assertArrayEquals(generateClientSignatureSha256(), ScramFunctions.clientSignature(
+        ScramMechanism.SCRAM_SHA_256, generateStoredKeySha256(), authMessage));
+    assertArrayEquals(generateServerSignatureSha256(), ScramFunctions.serverSignature(
+        ScramMechanism.SCRAM_SHA_256, generateServerKeySha256(), authMessage));
+  }
+
+  @Test
+  void signaturesFromLongNonAsciiAuthMessage() {
+    StringBuilder username = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      username.append("u\u00f1\u20ac\ud83d\ude00");
+    }
+    ClientFirstMessage clientFirstMessage = new ClientFirstMessage(
+        Gs2CbindFlag.CHANNEL_BINDING_REQUIRED, "tls-server-end-point", null, username.toString(),
+        "rOprNGfwEbeRWgbNEkqO");
+    ServerFirstMessage serverFirstMessage = new ServerFirstMessage("rOprNGfwEbeRWgbNEkqO",
+        "%hvYDpWUa2RaTCAfuxFIlj)hNlF$k0", "W22ZaJ0SNY7soEsUEjb6gQ==", 4096);
+    AuthMessage authMessage = AuthMessage.of(clientFirstMessage, serverFirstMessage,
+        new byte[] {1, 2, 3});
+    String expected = ScramFunctions.authMessage(clientFirstMessage, serverFirstMessage,
+        new byte[] {1, 2, 3});
+    assertEquals(expected, authMessage.toString());
+
+    byte[] storedKey = generateStoredKeySha256();
+    byte[] serverKey = generateServerKeySha256();
+    byte[][] signatures = ScramFunctions.signatures(ScramMechanism.SCRAM_SHA_256, storedKey,
+        serverKey, authMessage);
+    assertArrayEquals(
+        ScramFunctions.clientSignature(ScramMechanism.SCRAM_SHA_256, storedKey, expected),
+        signatures[0]);
+    assertArrayEquals(
+        ScramFunctions.serverSignature(ScramMechanism.SCRAM_SHA_256, serverKey, expected),
+        signatures[1]);
+  }
+
   @Test
   void verifyClientProof() {
     assertTrue(
@@ -5,20 +5,36 @@
 
 package com.ongres.scram.common;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 
+import com.ongres.scram.common.exception.ScramRuntimeException;
 import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EmptySource;
 import org.junit.jupiter.params.provider.EnumSource;
@@ -89,6 +105,145 @@ class ScramMechanismTest {
     assertEquals(mac.getMacLength(), hmac.length);
   }
 
+  @ParameterizedTest
+  @MethodSource("provideSupportedMechanisms")
+  void testPooledInstancesConcurrently(@NotNull String mechanism) throws Exception {
+    ScramMechanism scramMechanism = ScramMechanism.byName(mechanism);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 32; t++) {
+        futures.add(executor.submit(() -> {
+          Random random = ThreadLocalRandom.current();
+          for (int i = 0; i < 200; i++) {
+            byte[] key = new byte[1 + random.nextInt(200)];
+            byte[] message = new byte[random.nextInt(300)];
+            random.nextBytes(key);
+            random.nextBytes(message);
+            Mac mac = Mac.getInstance(scramMechanism.getHmacAlgorithmName());
+            mac.init(new SecretKeySpec(key, scramMechanism.getHmacAlgorithmName()));
+            assertArrayEquals(mac.doFinal(message), scramMechanism.hmac(key, message));
+            assertArrayEquals(
+                MessageDigest.getInstance(scramMechanism.getHashAlgorithmName()).digest(message),
+                scramMechanism.digest(message));
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testInstancePool() {
+    InstancePool<Object> pool = new InstancePool<>();
+    assertNull(pool.poll());
+    Object instance = new Object();
+    pool.offer(instance);
+    // The slot is occupied, so this instance is dropped
+    pool.offer(new Object());
+    assertSame(instance, pool.poll());
+    assertNull(pool.poll());
+  }
+
+  @Test
+  void testBindProvider() {
+    ScramMechanism mechanism = ScramMechanism.SCRAM_SHA_256;
+    byte[] salt = Base64.getDecoder().decode(RfcExampleSha256.SERVER_SALT);
+    byte[] expected = mechanism.saltedPassword(StringPreparation.NO_PREPARATION,
+        RfcExampleSha256.PASSWORD.toCharArray(), salt, RfcExampleSha256.SERVER_ITERATIONS);
+    try {
+      mechanism.bindProvider(Security.getProvider("SunJCE"), Security.getProvider("SUN"));
+      assertSame(mechanism, ScramMechanism.byName("SCRAM-SHA-256"));
+      assertTrue(ScramMechanism.supportedMechanisms().contains("SCRAM-SHA-256"));
+      assertArrayEquals(expected, mechanism.saltedPassword(StringPreparation.NO_PREPARATION,
+          RfcExampleSha256.PASSWORD.toCharArray(), salt, RfcExampleSha256.SERVER_ITERATIONS));
+      byte[] clientKey = ScramFunctions.clientKey(mechanism, expected);
+      assertArrayEquals(Base64.getDecoder().decode(RfcExampleSha256.CLIENT_FINAL_MESSAGE_PROOF),
+          ScramFunctions.clientProof(clientKey, ScramFunctions.clientSignature(mechanism,
+              ScramFunctions.storedKey(mechanism, clientKey), RfcExampleSha256.AUTH_MESSAGE)));
+    } finally {
+      mechanism.bindProvider(null);
+    }
+  }
+
+  @Test
+  void testBindProviderMissingAlgorithm() {
+    ScramMechanism mechanism = ScramMechanism.SCRAM_SHA_1;
+    // The SUN provider has the hash algorithms, but not the HMAC algorithms
+    ScramRuntimeException ex = assertThrows(ScramRuntimeException.class,
+        () -> mechanism.bindProvider(Security.getProvider("SUN")));
+    assertTrue(ex.getMessage().contains("does not support SCRAM-SHA-1"), ex.getMessage());
+    // The binding is not changed
+    assertEquals(20, mechanism.digest(new byte[0]).length);
+    assertEquals(20, mechanism.hmac(EMPTY_KEY, new byte[0]).length);
+  }
+
+  @Test
+  void testBindProviderFailsVerification() {
+    ScramMechanism mechanism = ScramMechanism.SCRAM_SHA_256;
+    ScramRuntimeException ex = assertThrows(ScramRuntimeException.class,
+        () -> mechanism.bindProvider(null, new FaultyProvider()));
+    assertTrue(ex.getMessage().contains("Faulty failed the SHA-256 test vector"), ex.getMessage());
+    assertArrayEquals(Base64.getDecoder().decode("47DEQpj8HBSa+/TImW+5JCeuQeRkm5NMpJWZG3hSuFU="),
+        mechanism.digest(new byte[0]));
+  }
+
+  /**
+   * A provider with a SHA-256 that computes a SHA-224 digest padded with zeros.
+   */
+  private static final class FaultyProvider extends Provider {
+    private static final long serialVersionUID = 1L;
+
+    FaultyProvider() {
+      super("Faulty", "1.0", "SHA-256 that computes the wrong digest");
+      putService(new Service(this, "MessageDigest", "SHA-256", FaultyDigest.class.getName(),
+          null, null) {
+        @Override
+        public Object newInstance(Object constructorParameter) {
+          return new FaultyDigest();
+        }
+      });
+    }
+  }
+
+  private static final class FaultyDigest extends MessageDigest {
+    private final MessageDigest delegate;
+
+    FaultyDigest() {
+      super("SHA-256");
+      try {
+        this.delegate = MessageDigest.getInstance("SHA-224");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+      delegate.update(input);
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int len) {
+      delegate.update(input, offset, len);
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+      return Arrays.copyOf(delegate.digest(), 32);
+    }
+
+    @Override
+    protected void engineReset() {
+      delegate.reset();
+    }
+  }
+
   private static @NotNull List<@NotNull String> provideSupportedMechanisms() {
     return ScramMechanism.supportedMechanisms();
   }
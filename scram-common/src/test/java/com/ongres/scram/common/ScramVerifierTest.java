@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ongres.scram.common.exception.ScramParseException;
+import org.junit.jupiter.api.Test;
+
+class ScramVerifierTest {
+
+  private static ScramVerifier rfcVerifier() {
+    return ScramVerifier.fromPassword(ScramMechanism.SCRAM_SHA_1,
+        StringPreparation.SASL_PREPARATION, RfcExampleSha1.PASSWORD.toCharArray(),
+        ScramStringFormatting.base64Decode(RfcExampleSha1.SERVER_SALT),
+        RfcExampleSha1.SERVER_ITERATIONS);
+  }
+
+  private static AuthMessage rfcAuthMessage() throws ScramParseException {
+    return AuthMessage.of(ClientFirstMessage.parseFrom(RfcExampleSha1.CLIENT_FIRST_MESSAGE),
+        ServerFirstMessage.parseFrom(RfcExampleSha1.SERVER_FIRST_MESSAGE,
+            RfcExampleSha1.CLIENT_NONCE),
+        null);
+  }
+
+  @Test
+  void verifyClientProof() throws ScramParseException {
+    ScramVerifier verifier = rfcVerifier();
+    assertEquals(RfcExampleSha1.SERVER_SALT, verifier.getSaltBase64());
+    assertEquals(RfcExampleSha1.SERVER_ITERATIONS, verifier.getIterationCount());
+
+    byte[] proof = ScramStringFormatting.base64Decode(RfcExampleSha1.CLIENT_FINAL_MESSAGE_PROOF);
+    byte[] serverSignature = verifier.verifyClientProof(rfcAuthMessage(), proof);
+    assertEquals(RfcExampleSha1.SERVER_FINAL_MESSAGE,
+        new ServerFinalMessage(serverSignature).toString());
+
+    proof[0] ^= 1;
+    assertNull(verifier.verifyClientProof(rfcAuthMessage(), proof));
+    assertNull(verifier.verifyClientProof(rfcAuthMessage(), new byte[4]));
+  }
+
+  @Test
+  void copiesArrays() {
+    ScramVerifier verifier = rfcVerifier();
+    byte[] storedKey = verifier.getStoredKey();
+    ScramVerifier copy = ScramVerifier.of(verifier.getScramMechanism(), verifier.getSalt(),
+        verifier.getIterationCount(), storedKey, verifier.getServerKey());
+    storedKey[0] ^= 1;
+    assertArrayEquals(verifier.getStoredKey(), copy.getStoredKey());
+  }
+
+  @Test
+  void isValidFor() {
+    ScramVerifier verifier = rfcVerifier();
+    assertTrue(verifier.isValidFor(ScramMechanism.SCRAM_SHA_1));
+    assertTrue(verifier.isValidFor(ScramMechanism.SCRAM_SHA_1_PLUS));
+    assertFalse(verifier.isValidFor(ScramMechanism.SCRAM_SHA_256));
+  }
+
+  @Test
+  void invalidArguments() {
+    byte[] key = new byte[20];
+    assertThrows(IllegalArgumentException.class,
+        () -> ScramVerifier.of(ScramMechanism.SCRAM_SHA_1, new byte[0], 4096, key, key));
+    assertThrows(IllegalArgumentException.class,
+        () -> ScramVerifier.of(ScramMechanism.SCRAM_SHA_1, key, 0, key, key));
+    assertThrows(IllegalArgumentException.class,
+        () -> ScramVerifier.of(ScramMechanism.SCRAM_SHA_1, key, 4096, new byte[0], key));
+    assertThrows(IllegalArgumentException.class,
+        () -> ScramVerifier.of(null, key, 4096, key, key));
+  }
+
+  @Test
+  void parseFromPostgresVerifier() throws ScramParseException {
+    String rfcVerifier = "SCRAM-SHA-256$4096:W22ZaJ0SNY7soEsUEjb6gQ==$"
+        + "WG5d8oPm3OtcPnkdi4Uo7BkeZkBFzpcXkuLmtbsT4qY=:"
+        + "wfPLwcE6nTWhTAmQ7tl2KeoiWGPlZqQxSrmfPwDl2dU=";
+    ScramVerifier verifier = ScramVerifier.parseFrom(rfcVerifier);
+    assertEquals(ScramMechanism.SCRAM_SHA_256, verifier.getScramMechanism());
+    assertEquals(RfcExampleSha256.SERVER_SALT, verifier.getSaltBase64());
+    assertEquals(RfcExampleSha256.SERVER_ITERATIONS, verifier.getIterationCount());
+    assertEquals(rfcVerifier, verifier.toVerifierString());
+
+    ScramVerifier computed = ScramVerifier.fromPassword(ScramMechanism.SCRAM_SHA_256_PLUS,
+        StringPreparation.SASL_PREPARATION, RfcExampleSha256.PASSWORD.toCharArray(),
+        ScramStringFormatting.base64Decode(RfcExampleSha256.SERVER_SALT),
+        RfcExampleSha256.SERVER_ITERATIONS);
+    // Written without -PLUS, as PostgreSQL stores it
+    assertEquals(rfcVerifier, computed.toVerifierString());
+
+    String sha1Verifier = rfcVerifier().toVerifierString();
+    assertTrue(sha1Verifier.startsWith("SCRAM-SHA-1$4096:" + RfcExampleSha1.SERVER_SALT + "$"));
+    assertEquals(sha1Verifier, ScramVerifier.parseFrom(sha1Verifier).toVerifierString());
+  }
+
+  @Test
+  void parseFromInvalid() {
+    String salt = "W22ZaJ0SNY7soEsUEjb6gQ==";
+    String key = "WG5d8oPm3OtcPnkdi4Uo7BkeZkBFzpcXkuLmtbsT4qY=";
+    assertThrows(ScramParseException.class,
+        () -> ScramVerifier.parseFrom("md5a3556571e93b0d20722ba62be61e8c2d"));
+    assertThrows(ScramParseException.class,
+        () -> ScramVerifier.parseFrom("SCRAM-SHA-256$4096:" + salt + "$" + key));
+    assertThrows(ScramParseException.class,
+        () -> ScramVerifier.parseFrom("SCRAM-MD5$4096:" + salt + "$" + key + ":" + key));
+    assertThrows(ScramParseException.class,
+        () -> ScramVerifier.parseFrom("SCRAM-SHA-256$many:" + salt + "$" + key + ":" + key));
+    assertThrows(ScramParseException.class,
+        () -> ScramVerifier.parseFrom("SCRAM-SHA-256$0:" + salt + "$" + key + ":" + key));
+    assertThrows(ScramParseException.class,
+        () -> ScramVerifier.parseFrom("SCRAM-SHA-256$4096:" + salt + "$" + key + ":" + salt));
+    assertThrows(ScramParseException.class,
+        () -> ScramVerifier.parseFrom("SCRAM-SHA-256$4096:" + salt + "$" + key + ":%%%%"));
+    assertThrows(IllegalArgumentException.class, () -> ScramVerifier.parseFrom(""));
+  }
+
+}
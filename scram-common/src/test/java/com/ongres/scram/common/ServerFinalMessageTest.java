@@ -15,6 +15,8 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
 import com.ongres.scram.common.exception.ScramParseException;
@@ -55,6 +57,35 @@ class ServerFinalMessageTest {
         serverFinalMessage2.getServerError());
   }
 
+  @Test
+  void validParseFromByteBuffer() throws ScramParseException {
+    ByteBuffer buffer1 = ByteBuffer.wrap(SERVER_FINAL_MESSAGE.getBytes(StandardCharsets.UTF_8));
+    ServerFinalMessage serverFinalMessage1 = ServerFinalMessage.parseFrom(buffer1);
+    assertEquals(SERVER_FINAL_MESSAGE, serverFinalMessage1.toString());
+    assertFalse(serverFinalMessage1.isError());
+    assertEquals(0, buffer1.remaining());
+
+    byte[] error = "e=channel-binding-not-supported".getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer2 = ByteBuffer.allocateDirect(error.length).put(error);
+    buffer2.flip();
+    ServerFinalMessage serverFinalMessage2 = ServerFinalMessage.parseFrom(buffer2);
+    assertTrue(serverFinalMessage2.isError());
+    assertEquals("channel-binding-not-supported", serverFinalMessage2.getServerError());
+    assertEquals(0, buffer2.remaining());
+  }
+
+  @Test
+  void invalidParseFromByteBuffer() {
+    for (String message : new String[] {"r=abc", "v=", "x"}) {
+      ByteBuffer buffer = ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8));
+      assertThrows(ScramParseException.class, () -> ServerFinalMessage.parseFrom(buffer), message);
+      assertEquals(0, buffer.position());
+    }
+    ByteBuffer invalidBase64 = ByteBuffer.wrap("v=not*base64".getBytes(StandardCharsets.UTF_8));
+    assertThrows(IllegalArgumentException.class, () -> ServerFinalMessage.parseFrom(invalidBase64));
+    assertEquals(0, invalidBase64.position());
+  }
+
   @Test
   void invalidServerError() throws ScramParseException {
     assertThrows(IllegalArgumentException.class,
@@ -7,9 +7,13 @@ package com.ongres.scram.common;
 
 import static com.ongres.scram.common.RfcExampleSha1.CLIENT_NONCE;
 import static com.ongres.scram.common.RfcExampleSha1.SERVER_FIRST_MESSAGE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.stream.Stream;
 
 import com.ongres.scram.common.exception.ScramParseException;
@@ -37,6 +41,68 @@ class ServerFirstMessageTest {
     assertEquals(SERVER_FIRST_MESSAGE, serverFirstMessage.toString());
   }
 
+  @Test
+  void validParseFromByteBuffer() throws ScramParseException {
+    byte[] bytes = SERVER_FIRST_MESSAGE.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer heap = ByteBuffer.wrap(bytes);
+    ServerFirstMessage fromHeap = ServerFirstMessage.parseFrom(heap, CLIENT_NONCE);
+    assertEquals(SERVER_FIRST_MESSAGE, fromHeap.toString());
+    assertEquals(4096, fromHeap.getIterationCount());
+    assertEquals(0, heap.remaining());
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 4);
+    direct.put(new byte[] {'x', 'y'}).put(bytes).put(new byte[] {'z', 'z'}).flip();
+    direct.position(2).limit(2 + bytes.length);
+    ServerFirstMessage fromDirect = ServerFirstMessage.parseFrom(direct, CLIENT_NONCE);
+    assertEquals(SERVER_FIRST_MESSAGE, fromDirect.toString());
+    assertEquals(2 + bytes.length, direct.position());
+  }
+
+  @ParameterizedTest(name = "nonce with invalid char rejected from bytes")
+  @MethodSource("invalidServerNonceSuffixes")
+  void invalidNonceCharactersRejectedFromByteBuffer(String serverNonceSuffix) {
+    ByteBuffer message = ByteBuffer.wrap(("r=" + CLIENT_NONCE + serverNonceSuffix
+        + ",s=QSXCR+Q6sek8bf92,i=4096").getBytes(StandardCharsets.UTF_8));
+    assertThrows(ScramParseException.class,
+        () -> ServerFirstMessage.parseFrom(message, CLIENT_NONCE));
+    assertEquals(0, message.position());
+  }
+
+  @Test
+  void invalidParseFromByteBuffer() {
+    for (String message : new String[] {
+        "r=" + CLIENT_NONCE,
+        "r=" + CLIENT_NONCE + "srv,s=QSXCR+Q6sek8bf92",
+        "r=" + CLIENT_NONCE + "srv,s=QSXCR+Q6sek8bf92,i=40x6",
+        "r=" + CLIENT_NONCE + "srv,s=QSXCR+Q6sek8bf92,i=99999999999",
+        "r=otherNonce,s=QSXCR+Q6sek8bf92,i=4096",
+        "s=QSXCR+Q6sek8bf92,r=" + CLIENT_NONCE + "srv,i=4096"}) {
+      ByteBuffer buffer = ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8));
+      assertThrows(ScramParseException.class,
+          () -> ServerFirstMessage.parseFrom(buffer, CLIENT_NONCE), message);
+      assertEquals(0, buffer.position());
+    }
+  }
+
+  @Test
+  void encodeTo() {
+    ServerFirstMessage serverFirstMessage = new ServerFirstMessage(
+        CLIENT_NONCE, "3rfcNHYJY1ZVvWVs7j", "QSXCR+Q6sek8bf92", 4096);
+    byte[] expected = SERVER_FIRST_MESSAGE.getBytes(StandardCharsets.UTF_8);
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(expected.length + 1);
+    assertEquals(expected.length, serverFirstMessage.encodeTo(buffer));
+    assertEquals(expected.length, buffer.position());
+    byte[] written = new byte[expected.length];
+    buffer.flip();
+    buffer.get(written);
+    assertArrayEquals(expected, written);
+
+    ByteBuffer small = ByteBuffer.allocate(expected.length - 1);
+    assertThrows(BufferOverflowException.class, () -> serverFirstMessage.encodeTo(small));
+    assertEquals(0, small.position());
+  }
+
   static Stream<String> invalidServerNonceSuffixes() {
     return Stream.of(
       "server,nonce", // printable ASCII except ","
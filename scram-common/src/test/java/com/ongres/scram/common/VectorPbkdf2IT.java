@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.common;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks the SIMD lanes of the multi-release JAR file against the scalar PBKDF2. Only runs when
+ * the JVM is started with {@code --add-modules jdk.incubator.vector}, as the {@code vector-api}
+ * execution of failsafe does.
+ */
+class VectorPbkdf2IT {
+
+  private static final ScramMechanism MECHANISM = ScramMechanism.SCRAM_SHA_256;
+  private static final StringPreparation PREPARATION = StringPreparation.POSTGRESQL_PREPARATION;
+
+  @BeforeAll
+  static void beforeAll() {
+    Assumptions.assumeTrue(
+        ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+        "The jdk.incubator.vector module is not in the boot layer");
+    // The module is present, so only a missing Java 17 overlay leaves a single lane
+    assertTrue(VectorPbkdf2.lanes("HmacSHA256") > 1,
+        "The Java 17 variant of VectorPbkdf2 is not loaded");
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 4, 8, 16, 17})
+  void sameAsScalar(int count) {
+    SecureRandom random = new SecureRandom();
+    char[][] passwords = new char[count][];
+    byte[][] salts = new byte[count][];
+    for (int i = 0; i < count; i++) {
+      passwords[i] = ("pencil" + i).toCharArray();
+      salts[i] = ScramFunctions.salt(8 + i, random);
+    }
+    byte[][] saltedPasswords = ScramFunctions.saltedPasswords(MECHANISM, PREPARATION, passwords,
+        salts, 4096);
+    assertEquals(count, saltedPasswords.length);
+    for (int i = 0; i < count; i++) {
+      assertArrayEquals(ScramFunctions.saltedPassword(MECHANISM, PREPARATION, passwords[i],
+          salts[i], 4096), saltedPasswords[i], "password " + i + " of " + count);
+    }
+  }
+
+  @Test
+  void rfc7677Example() {
+    // The example alternates with other passwords, in several lanes of more than one group
+    int count = 2 * VectorPbkdf2.lanes("HmacSHA256") + 1;
+    byte[] salt = Base64.getDecoder().decode(RfcExampleSha256.SERVER_SALT);
+    char[][] passwords = new char[count][];
+    byte[][] salts = new byte[count][];
+    for (int i = 0; i < count; i++) {
+      passwords[i] = (i % 2 == 0 ? RfcExampleSha256.PASSWORD : "pen" + i).toCharArray();
+      salts[i] = salt;
+    }
+    byte[][] saltedPasswords = ScramFunctions.saltedPasswords(MECHANISM, PREPARATION, passwords,
+        salts, RfcExampleSha256.SERVER_ITERATIONS);
+
+    for (int i = 0; i < count; i += 2) {
+      byte[] clientKey = ScramFunctions.clientKey(MECHANISM, saltedPasswords[i]);
+      byte[] clientSignature = ScramFunctions.clientSignature(MECHANISM,
+          ScramFunctions.storedKey(MECHANISM, clientKey), RfcExampleSha256.AUTH_MESSAGE);
+      assertEquals(RfcExampleSha256.CLIENT_FINAL_MESSAGE_PROOF, Base64.getEncoder()
+          .encodeToString(ScramFunctions.clientProof(clientKey, clientSignature)), "lane " + i);
+      byte[] serverSignature = ScramFunctions.serverSignature(MECHANISM,
+          ScramFunctions.serverKey(MECHANISM, saltedPasswords[i]), RfcExampleSha256.AUTH_MESSAGE);
+      assertEquals(RfcExampleSha256.SERVER_FINAL_MESSAGE, "v="
+          + Base64.getEncoder().encodeToString(serverSignature), "lane " + i);
+    }
+  }
+
+}
@@ -6,7 +6,9 @@
 package com.ongres.scram.common.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.security.SecureRandom;
@@ -44,4 +46,49 @@ class NonceTest {
       assertEquals(size, nonce.length());
     }
   }
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, -1, Integer.MIN_VALUE})
+  void sharedNonceInvalidSize(int size) {
+    assertThrows(IllegalArgumentException.class, () -> ScramFunctions.nonce(size));
+  }
+
+  @Test
+  void sharedNonceValid() {
+    for (int size : new int[] {1, 24, 511, 512, 513, 2000}) {
+      String nonce = ScramFunctions.nonce(size);
+      assertValidChars(nonce);
+      assertEquals(size, nonce.length());
+    }
+    assertNotEquals(ScramFunctions.nonce(24), ScramFunctions.nonce(24));
+  }
+
+  @Test
+  void nonceUniform() {
+    // 93 characters: the printable ASCII characters except comma
+    int[] counts = new int[128];
+    int perChar = 2000;
+    String nonce = ScramFunctions.nonce(93 * perChar) + ScramFunctions.nonce(93 * perChar,
+        SECURE_RANDOM);
+    assertValidChars(nonce);
+    for (int i = 0; i < nonce.length(); i++) {
+      counts[nonce.charAt(i)]++;
+    }
+    for (char c = 33; c <= 126; c++) {
+      if (c != ',') {
+        // Expected 4000, a deviation of 15 standard deviations is practically impossible
+        assertTrue(Math.abs(counts[c] - 2 * perChar) < 15 * 63,
+            "Character '" + c + "' appears " + counts[c] + " times");
+      }
+    }
+  }
+
+  private static void assertValidChars(String nonce) {
+    for (int j = 0; j < nonce.length(); j++) {
+      char c = nonce.charAt(j);
+      if (c == ',' || c < (char) 33 || c > (char) 126) {
+        fail("Character c='" + c + "' is not allowed on a nonce");
+      }
+    }
+  }
 }
@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+import static com.ongres.scram.common.util.Preconditions.gt0;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import com.ongres.scram.common.ScramVerifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link CredentialStore} that caches the verifiers of a slower store, like a database or a
+ * remote directory, so the lookups of the users that authenticate often don't wait on it.
+ *
+ * <ul>
+ * <li>Each verifier is cached for a time to live since it was loaded.</li>
+ * <li>The unknown users are cached too, for a shorter time to live, so repeated attempts with a
+ * wrong username don't reach the backend. A zero negative time to live disables it.</li>
+ * <li>With refresh-ahead, a lookup of an entry older than the refresh time returns the cached
+ * verifier, and reloads it in the background, so a user that keeps authenticating never waits on
+ * the backend. If the reload fails, the entry is served until it expires.</li>
+ * <li>The concurrent lookups of a user that is not cached are coalesced into a single lookup of the
+ * backend. A failed lookup is not cached.</li>
+ * </ul>
+ *
+ * <p>The cache holds up to a maximum number of entries; when full, a few entries are sampled and
+ * the expired ones, or the least recently used one, are evicted. Each eviction samples the entries
+ * that follow the ones sampled by the previous eviction, so all the entries are sampled in turn.
+ *
+ * <p>Example of usage:
+ *
+ * <pre>{@code
+ * CredentialStore store = CachingCredentialStore.builder(databaseStore)
+ *     .maximumSize(100_000)
+ *     .timeToLive(Duration.ofMinutes(10))
+ *     .negativeTimeToLive(Duration.ofSeconds(30))
+ *     .refreshAfter(Duration.ofMinutes(5))
+ *     .build();
+ * }</pre>
+ *
+ * @apiNote This class is thread-safe, and the lookups of cached entries don't lock. A changed
+ *          verifier is seen once its entry is refreshed or expires, unless it's invalidated.
+ * @since 3.5
+ */
+public final class CachingCredentialStore implements CredentialStore {
+
+  private static final int EVICTION_SAMPLES = 8;
+
+  private final CredentialStore delegate;
+  private final int maximumSize;
+  private final long timeToLiveNanos;
+  private final long negativeTimeToLiveNanos;
+  private final long refreshAfterNanos;
+  private final Executor executor;
+  private final LongSupplier ticker;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  // Where the next eviction starts sampling, guarded by this
+  private Iterator<Map.Entry<String, Entry>> evictionCursor = Collections.emptyIterator();
+
+  private CachingCredentialStore(@NotNull Builder builder) {
+    this.delegate = builder.delegate;
+    this.maximumSize = builder.maximumSize;
+    this.timeToLiveNanos = toNanos(builder.timeToLive);
+    this.negativeTimeToLiveNanos = toNanos(builder.negativeTimeToLive);
+    this.refreshAfterNanos = builder.refreshAfter != null
+        ? toNanos(builder.refreshAfter)
+        : timeToLiveNanos;
+    this.executor = builder.executor;
+    this.ticker = builder.ticker;
+  }
+
+  /**
+   * Creates a builder of a cache of the given store.
+   *
+   * @param delegate the store whose verifiers are cached
+   * @return a builder, with a maximum size of 10000 entries, a time to live of 5 minutes, a
+   *         negative time to live of 30 seconds, and no refresh-ahead
+   * @throws IllegalArgumentException if the store is null
+   */
+  public static @NotNull Builder builder(@NotNull CredentialStore delegate) {
+    return new Builder(checkNotNull(delegate, "delegate"));
+  }
+
+  @Override
+  public @Nullable ScramVerifier lookup(@NotNull String username) {
+    checkNotNull(username, "username");
+    final Entry entry = entries.get(username);
+    final long now = ticker.getAsLong();
+    if (entry != null && entry.isFresh(now)) {
+      entry.accessedAt = now;
+      refreshIfNeeded(username, entry, now);
+      return entry.verifier;
+    }
+    try {
+      return load(username).join();
+    } catch (CompletionException ex) {
+      final Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw ex;
+    }
+  }
+
+  @Override
+  public @NotNull CompletionStage<@Nullable ScramVerifier> lookupAsync(@NotNull String username) {
+    checkNotNull(username, "username");
+    final Entry entry = entries.get(username);
+    final long now = ticker.getAsLong();
+    if (entry != null && entry.isFresh(now)) {
+      entry.accessedAt = now;
+      refreshIfNeeded(username, entry, now);
+      return CompletableFuture.completedFuture(entry.verifier);
+    }
+    // A dependent stage, so a caller can't complete the shared one
+    return load(username).thenApply(verifier -> verifier);
+  }
+
+  /**
+   * Evicts the entry of a user, so the next lookup reaches the backend. A lookup of the user in
+   * progress is not cached.
+   *
+   * @param username the username, unescaped
+   */
+  public void invalidate(@NotNull String username) {
+    entries.remove(checkNotNull(username, "username"));
+  }
+
+  /**
+   * Evicts all the entries.
+   */
+  public void invalidateAll() {
+    entries.clear();
+  }
+
+  /**
+   * Returns the number of entries, including the expired ones not evicted yet and the lookups in
+   * progress.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the lookup of a user that is not cached or has expired, joining the one in progress if
+   * any.
+   */
+  private CompletableFuture<ScramVerifier> load(String username) {
+    final Entry pending = new Entry(new CompletableFuture<>());
+    while (true) {
+      final Entry current = entries.get(username);
+      if (current == null) {
+        if (entries.putIfAbsent(username, pending) == null) {
+          break;
+        }
+      } else if (current.loading != null) {
+        return current.loading;
+      } else if (current.isFresh(ticker.getAsLong())) {
+        return CompletableFuture.completedFuture(current.verifier);
+      } else if (entries.replace(username, current, pending)) {
+        break;
+      }
+    }
+    final CompletableFuture<ScramVerifier> loading = pending.loading;
+    fetch(username).whenComplete((verifier, ex) -> {
+      if (ex != null) {
+        entries.remove(username, pending);
+        loading.completeExceptionally(ex);
+        return;
+      }
+      loaded(username, pending, verifier);
+      loading.complete(verifier);
+    });
+    return loading;
+  }
+
+  /**
+   * Reloads a cached entry in the background, once it's older than the refresh time.
+   */
+  private void refreshIfNeeded(String username, Entry entry, long now) {
+    if (now - entry.refreshAt < 0 || !entry.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(() -> fetch(username).whenComplete((verifier, ex) -> {
+        if (ex != null) {
+          // Served until it expires, the next lookup retries the refresh
+          entry.refreshing.set(false);
+        } else {
+          loaded(username, entry, verifier);
+        }
+      }));
+    } catch (RejectedExecutionException ex) {
+      entry.refreshing.set(false);
+    }
+  }
+
+  /**
+   * Replaces the entry of a lookup with its result, unless it was invalidated meanwhile.
+   */
+  private void loaded(String username, Entry previous, @Nullable ScramVerifier verifier) {
+    final long now = ticker.getAsLong();
+    if (verifier == null && negativeTimeToLiveNanos == 0) {
+      entries.remove(username, previous);
+      return;
+    }
+    final Entry entry = verifier != null
+        ? new Entry(verifier, now, now + timeToLiveNanos, now + refreshAfterNanos)
+        : new Entry(null, now, now + negativeTimeToLiveNanos, now + negativeTimeToLiveNanos);
+    if (entries.replace(username, previous, entry) && entries.size() > maximumSize) {
+      evict(now);
+    }
+  }
+
+  /**
+   * Evicts the expired entries of a sample, or the least recently used one. The sample continues
+   * from the previous one, wrapping around, as a new iterator would always start with the same
+   * entries.
+   */
+  private synchronized void evict(long now) {
+    Map.Entry<String, Entry> candidate = null;
+    int samples = 0;
+    // Bounded, in case all the entries are lookups in progress, which are not sampled
+    int remaining = entries.size();
+    while (remaining-- > 0 && samples < EVICTION_SAMPLES && entries.size() > maximumSize) {
+      if (!evictionCursor.hasNext()) {
+        evictionCursor = entries.entrySet().iterator();
+        if (!evictionCursor.hasNext()) {
+          break;
+        }
+      }
+      final Map.Entry<String, Entry> current = evictionCursor.next();
+      final Entry entry = current.getValue();
+      if (entry.loading != null) {
+        continue;
+      }
+      samples++;
+      if (!entry.isFresh(now)) {
+        evictionCursor.remove();
+      } else if (candidate == null || entry.accessedAt - candidate.getValue().accessedAt < 0) {
+        candidate = current;
+      }
+    }
+    if (candidate != null && entries.size() > maximumSize) {
+      entries.remove(candidate.getKey(), candidate.getValue());
+    }
+  }
+
+  /**
+   * Looks up the backend, turning an exception thrown by the call into a failed stage.
+   */
+  private CompletionStage<ScramVerifier> fetch(String username) {
+    try {
+      return delegate.lookupAsync(username);
+    } catch (RuntimeException ex) {
+      final CompletableFuture<ScramVerifier> failed = new CompletableFuture<>();
+      failed.completeExceptionally(ex);
+      return failed;
+    }
+  }
+
+  private static long toNanos(Duration duration) {
+    try {
+      return duration.toNanos();
+    } catch (ArithmeticException ex) {
+      return Long.MAX_VALUE / 2;
+    }
+  }
+
+  /**
+   * A cached verifier, or null for an unknown user, or a lookup in progress.
+   */
+  private static final class Entry {
+    final @Nullable ScramVerifier verifier;
+    final @Nullable CompletableFuture<ScramVerifier> loading;
+    final long expiresAt;
+    final long refreshAt;
+    final AtomicBoolean refreshing = new AtomicBoolean();
+    volatile long accessedAt;
+
+    Entry(@Nullable ScramVerifier verifier, long loadedAt, long expiresAt, long refreshAt) {
+      this.verifier = verifier;
+      this.loading = null;
+      this.accessedAt = loadedAt;
+      this.expiresAt = expiresAt;
+      this.refreshAt = refreshAt;
+    }
+
+    Entry(@NotNull CompletableFuture<ScramVerifier> loading) {
+      this.verifier = null;
+      this.loading = loading;
+      this.expiresAt = 0;
+      this.refreshAt = 0;
+    }
+
+    boolean isFresh(long now) {
+      return loading == null && now - expiresAt < 0;
+    }
+  }
+
+  /**
+   * Builds instances of type {@link CachingCredentialStore}.
+   *
+   * @apiNote {@code Builder} is not thread-safe and generally should not be stored in a field or
+   *          collection, but instead used immediately to create instances.
+   */
+  public static final class Builder {
+
+    private final CredentialStore delegate;
+    private int maximumSize = 10_000;
+    private Duration timeToLive = Duration.ofMinutes(5);
+    private Duration negativeTimeToLive = Duration.ofSeconds(30);
+    private Duration refreshAfter;
+    private Executor executor = ForkJoinPool.commonPool();
+    private LongSupplier ticker = System::nanoTime;
+
+    private Builder(CredentialStore delegate) {
+      this.delegate = delegate;
+    }
+
+    /**
+     * Sets the maximum number of entries.
+     *
+     * @param maximumSize the maximum number of entries
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException if the maximum size is not positive
+     */
+    public @NotNull Builder maximumSize(int maximumSize) {
+      this.maximumSize = gt0(maximumSize, "maximumSize");
+      return this;
+    }
+
+    /**
+     * Sets the time a verifier is cached since it was loaded.
+     *
+     * @param timeToLive the time to live of the verifiers
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException if the time to live is not positive
+     */
+    public @NotNull Builder timeToLive(@NotNull Duration timeToLive) {
+      checkNotNull(timeToLive, "timeToLive");
+      checkArgument(!timeToLive.isNegative() && !timeToLive.isZero(), "timeToLive",
+          "must be positive");
+      this.timeToLive = timeToLive;
+      return this;
+    }
+
+    /**
+     * Sets the time an unknown user is cached since it was looked up.
+     *
+     * @param negativeTimeToLive the time to live of the unknown users, zero to not cache them
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException if the time to live is negative
+     */
+    public @NotNull Builder negativeTimeToLive(@NotNull Duration negativeTimeToLive) {
+      checkNotNull(negativeTimeToLive, "negativeTimeToLive");
+      checkArgument(!negativeTimeToLive.isNegative(), "negativeTimeToLive",
+          "must not be negative");
+      this.negativeTimeToLive = negativeTimeToLive;
+      return this;
+    }
+
+    /**
+     * Enables the refresh-ahead of the verifiers that are looked up once they are older than the
+     * given time, which must be shorter than the time to live.
+     *
+     * @param refreshAfter the time since a verifier was loaded after which it's refreshed
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException if the time is not positive
+     */
+    public @NotNull Builder refreshAfter(@NotNull Duration refreshAfter) {
+      checkNotNull(refreshAfter, "refreshAfter");
+      checkArgument(!refreshAfter.isNegative() && !refreshAfter.isZero(), "refreshAfter",
+          "must be positive");
+      this.refreshAfter = refreshAfter;
+      return this;
+    }
+
+    /**
+     * Sets the executor of the refreshes, which defaults to the common {@link ForkJoinPool}. The
+     * refreshes call the backend from it, so a blocking store should use a dedicated executor.
+     *
+     * @param executor the executor of the refreshes
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException if the executor is null
+     */
+    public @NotNull Builder executor(@NotNull Executor executor) {
+      this.executor = checkNotNull(executor, "executor");
+      return this;
+    }
+
+    /**
+     * Sets the source of the time, in nanoseconds, for testing.
+     */
+    @NotNull
+    Builder ticker(@NotNull LongSupplier ticker) {
+      this.ticker = checkNotNull(ticker, "ticker");
+      return this;
+    }
+
+    /**
+     * Returns the cache configured with the specified parameters.
+     *
+     * @return a new empty cache
+     * @throws IllegalArgumentException if the refresh time is not shorter than the time to live
+     */
+    public @NotNull CachingCredentialStore build() {
+      if (refreshAfter != null && refreshAfter.compareTo(timeToLive) >= 0) {
+        throw new IllegalArgumentException("refreshAfter must be shorter than timeToLive");
+      }
+      return new CachingCredentialStore(this);
+    }
+  }
+
+}
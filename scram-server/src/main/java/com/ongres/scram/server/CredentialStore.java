@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import com.ongres.scram.common.ScramVerifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The store of the verifiers of the users, looked up by a {@link ScramServer} for the username of
+ * the {@code client-first-message}.
+ *
+ * <p>A store backed by a database or a remote directory should implement
+ * {@link #lookupAsync(String)} with the non-blocking API of its backend, so the handshake is
+ * suspended without tying up a thread, see {@link ScramServer#clientFirstMessageAsync(String)}.
+ * The default implementation runs the synchronous {@link #lookup(String)} in the calling thread.
+ *
+ * <p>The stores included are the {@link InMemoryCredentialStore}, and the
+ * {@link CachingCredentialStore} that decorates a slower store.
+ *
+ * @apiNote The implementations must be thread-safe, a store is shared by the servers of a
+ *          {@link ScramServerFactory}.
+ * @since 3.5
+ */
+public interface CredentialStore {
+
+  /**
+   * Looks up the verifier of a user, blocking until it's available.
+   *
+   * @param username the username, unescaped
+   * @return the verifier, or null if the user is unknown
+   * @throws RuntimeException if the lookup fails, which is not the same as an unknown user
+   */
+  @Nullable
+  ScramVerifier lookup(@NotNull String username);
+
+  /**
+   * Looks up the verifier of a user, without blocking the calling thread.
+   *
+   * @param username the username, unescaped
+   * @return a stage that completes with the verifier, or with null if the user is unknown, and
+   *         completes exceptionally if the lookup fails
+   */
+  default @NotNull CompletionStage<@Nullable ScramVerifier> lookupAsync(
+      @NotNull String username) {
+    final CompletableFuture<ScramVerifier> future = new CompletableFuture<>();
+    try {
+      future.complete(lookup(username));
+    } catch (RuntimeException ex) {
+      future.completeExceptionally(ex);
+    }
+    return future;
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import static com.ongres.scram.common.util.Preconditions.checkNotEmpty;
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ongres.scram.common.ScramVerifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link CredentialStore} that holds the verifiers in memory, by username.
+ *
+ * <p>Example of usage:
+ *
+ * <pre>{@code
+ * InMemoryCredentialStore store = new InMemoryCredentialStore();
+ * store.put("user", ScramVerifier.fromPassword(ScramMechanism.SCRAM_SHA_256,
+ *     StringPreparation.SASL_PREPARATION, password, salt, 4096));
+ *
+ * ScramServerFactory factory = ScramServer.builder()
+ *     .scramMechanism(ScramMechanism.SCRAM_SHA_256)
+ *     .credentialStore(store)
+ *     .buildFactory();
+ * }</pre>
+ *
+ * @apiNote This class is thread-safe, the lookups don't block the updates.
+ * @since 3.5
+ */
+public final class InMemoryCredentialStore implements CredentialStore {
+
+  private final ConcurrentHashMap<String, ScramVerifier> verifiers = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an empty store.
+   */
+  public InMemoryCredentialStore() {
+    // empty
+  }
+
+  /**
+   * Adds the verifier of a user, replacing the previous one.
+   *
+   * @param username the username, unescaped
+   * @param verifier the verifier
+   * @return the previous verifier of the user, or null
+   * @throws IllegalArgumentException if the username is null or empty, or the verifier is null
+   */
+  public @Nullable ScramVerifier put(@NotNull String username, @NotNull ScramVerifier verifier) {
+    return verifiers.put(checkNotEmpty(username, "username"), checkNotNull(verifier, "verifier"));
+  }
+
+  /**
+   * Removes the verifier of a user.
+   *
+   * @param username the username, unescaped
+   * @return the removed verifier, or null if the user was unknown
+   * @throws IllegalArgumentException if the username is null
+   */
+  public @Nullable ScramVerifier remove(@NotNull String username) {
+    return verifiers.remove(checkNotNull(username, "username"));
+  }
+
+  /**
+   * Returns the number of users of the store.
+   *
+   * @return the number of verifiers
+   */
+  public int size() {
+    return verifiers.size();
+  }
+
+  @Override
+  public @Nullable ScramVerifier lookup(@NotNull String username) {
+    return verifiers.get(checkNotNull(username, "username"));
+  }
+
+}
@@ -0,0 +1,513 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+import com.ongres.scram.common.ScramVerifier;
+import com.ongres.scram.common.exception.ScramParseException;
+import com.ongres.scram.common.exception.ScramRuntimeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A read-only {@link CredentialStore} of a file of verifiers in the format of PostgreSQL, which is
+ * memory-mapped instead of loaded into the heap.
+ *
+ * <p>Each line of the file holds a username and its verifier separated by a tab, as written by
+ * {@code COPY (SELECT rolname, rolpassword FROM pg_authid) TO ...} in text format, including its
+ * backslash escapes of the username. The verifiers are parsed by
+ * {@link ScramVerifier#parseFrom(String)}; the lines without a SCRAM verifier, such as the
+ * {@code \N} of a role without password or an MD5 password, are skipped. If a username is repeated,
+ * its last line wins, so a user whose last line is skipped is unknown. Only the lines terminated by a newline are read, so a file being appended is
+ * read up to its last complete line.
+ *
+ * <p>The store keeps in the heap only an open-addressing index with a {@code long} of the offset of
+ * each line, and a tag of the hash of its username, in 16 to 32 bytes per user. A lookup reads the
+ * line of the user from the mapping, and parses it. The usernames are matched as they are, without
+ * normalization, as PostgreSQL matches the role names.
+ *
+ * <p>The file is not watched, {@link #reload()} checks whether it changed. If the file was
+ * appended, only the new lines are indexed, otherwise it is indexed again. The lookups use the
+ * previous index until the reload completes. Replace the file by renaming a new one over it, as
+ * truncating or rewriting a mapped file makes the lookups in progress fail.
+ *
+ * <p>Example of usage:
+ *
+ * <pre>{@code
+ * MappedCredentialStore store = MappedCredentialStore.open(Paths.get("pg_authid.tsv"));
+ * ...
+ * // Periodically
+ * store.reload();
+ * }</pre>
+ *
+ * @apiNote This class is thread-safe.
+ * @since 3.5
+ */
+public final class MappedCredentialStore implements CredentialStore {
+
+  /**
+   * The maximum length of a line, longer lines are skipped.
+   */
+  static final int MAX_LINE_LENGTH = 64 * 1024;
+
+  private static final int SEGMENT_SHIFT = 30;
+  private static final int OFFSET_BITS = 40;
+  private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+  // The bytes before the end of the indexed lines that identify an appended file
+  private static final int TAIL_LENGTH = 4096;
+
+  private final Path file;
+  private final int segmentShift;
+  private volatile Snapshot snapshot;
+
+  private MappedCredentialStore(Path file, int segmentShift) throws IOException {
+    this.file = file;
+    this.segmentShift = segmentShift;
+    this.snapshot = load(null);
+  }
+
+  /**
+   * Maps and indexes a file of verifiers.
+   *
+   * @param file the file of verifiers
+   * @return the store of the verifiers of the file
+   * @throws IOException if the file can't be read
+   * @throws IllegalArgumentException if the file is null
+   */
+  public static @NotNull MappedCredentialStore open(@NotNull Path file) throws IOException {
+    return open(file, SEGMENT_SHIFT);
+  }
+
+  /**
+   * Maps a file with a segment size, which is {@code 1 << segmentShift} bytes.
+   */
+  static @NotNull MappedCredentialStore open(@NotNull Path file, int segmentShift)
+      throws IOException {
+    checkNotNull(file, "file");
+    return new MappedCredentialStore(file, segmentShift);
+  }
+
+  /**
+   * Indexes the file again if it changed since it was indexed. The new lines of an appended file
+   * are indexed incrementally.
+   *
+   * @return true if the file changed
+   * @throws IOException if the file can't be read, the store keeps the previous index
+   */
+  public synchronized boolean reload() throws IOException {
+    final Snapshot current = snapshot;
+    final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    if (attributes.size() == current.size
+        && attributes.lastModifiedTime().equals(current.lastModified)
+        && Objects.equals(attributes.fileKey(), current.fileKey)) {
+      return false;
+    }
+    this.snapshot = load(current);
+    return true;
+  }
+
+  /**
+   * Returns the number of users of the indexed lines.
+   *
+   * @return the number of users
+   */
+  public int size() {
+    return snapshot.count;
+  }
+
+  /**
+   * Returns the number of lines skipped because they don't have a valid SCRAM verifier.
+   *
+   * @return the number of skipped lines
+   */
+  public int skippedLines() {
+    return snapshot.skipped;
+  }
+
+  @Override
+  public @Nullable ScramVerifier lookup(@NotNull String username) {
+    checkNotNull(username, "username");
+    final Snapshot current = snapshot;
+    final byte[] name = username.getBytes(UTF_8);
+    final long offset = current.find(name, PackedCredentialStore.hash(name));
+    if (offset < 0) {
+      return null;
+    }
+    try {
+      return ScramVerifier.parseFrom(current.line(offset).verifier());
+    } catch (ScramParseException ex) {
+      throw new ScramRuntimeException("The verifier file changed without a reload", ex);
+    }
+  }
+
+  /**
+   * Maps the file and indexes it, or only its new lines if it's the file of the previous snapshot
+   * with lines appended.
+   */
+  private Snapshot load(@Nullable Snapshot previous) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      final long size = channel.size();
+      final ByteBuffer[] segments = map(channel, size);
+      final Snapshot snapshot;
+      if (previous != null && isAppended(previous, attributes, segments, size)) {
+        snapshot = new Snapshot(attributes, size, segments, previous.index.clone());
+        snapshot.count = previous.count;
+        snapshot.skipped = previous.skipped;
+        snapshot.indexed = previous.indexed;
+      } else {
+        snapshot = new Snapshot(attributes, size, segments, new long[capacityFor(size / 128)]);
+      }
+      snapshot.index();
+      return snapshot;
+    }
+  }
+
+  /**
+   * Maps the file in segments, each one overlapping the next one by the maximum line length, so
+   * every line is read from the segment where it starts.
+   */
+  private ByteBuffer[] map(FileChannel channel, long size) throws IOException {
+    final long segmentSize = 1L << segmentShift;
+    final ByteBuffer[] segments = new ByteBuffer[(int) ((size + segmentSize - 1) >>> segmentShift)];
+    for (int i = 0; i < segments.length; i++) {
+      final long position = (long) i << segmentShift;
+      segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+          Math.min(size - position, segmentSize + MAX_LINE_LENGTH));
+    }
+    return segments;
+  }
+
+  private boolean isAppended(Snapshot previous, BasicFileAttributes attributes,
+      ByteBuffer[] segments, long size) {
+    return size >= previous.indexed
+        && Objects.equals(attributes.fileKey(), previous.fileKey)
+        && tailChecksum(segments, previous.indexed) == previous.tailChecksum;
+  }
+
+  private long tailChecksum(ByteBuffer[] segments, long end) {
+    final CRC32 crc = new CRC32();
+    final long mask = (1L << segmentShift) - 1;
+    for (long position = Math.max(0, end - TAIL_LENGTH); position < end; position++) {
+      crc.update(segments[(int) (position >>> segmentShift)].get((int) (position & mask)));
+    }
+    return crc.getValue();
+  }
+
+  /**
+   * A mapping of the file and its index, which is not modified once published.
+   */
+  private final class Snapshot {
+    final @Nullable Object fileKey;
+    final FileTime lastModified;
+    final long size;
+    final ByteBuffer[] segments;
+    final long segmentMask;
+    // The offset + 1 of the line of each slot, with the tag of its hash in the high bits
+    long[] index;
+    int count;
+    int skipped;
+    // The end of the last line indexed
+    long indexed;
+    long tailChecksum;
+
+    Snapshot(BasicFileAttributes attributes, long size, ByteBuffer[] segments, long[] index) {
+      this.fileKey = attributes.fileKey();
+      this.lastModified = attributes.lastModifiedTime();
+      this.size = size;
+      this.segments = segments;
+      this.segmentMask = (1L << segmentShift) - 1;
+      this.index = index;
+    }
+
+    /**
+     * Indexes the lines after the indexed ones.
+     */
+    void index() {
+      long position = indexed;
+      while (position < size) {
+        final Line line = line(position);
+        if (line.end < 0) {
+          // A line without newline is read once complete, a too long one is skipped
+          final long next = nextLine(position);
+          if (next < 0) {
+            break;
+          }
+          skipped++;
+          position = next;
+          continue;
+        }
+        if (line.isValid()) {
+          final byte[] name = line.username();
+          insert(name, PackedCredentialStore.hash(name), position);
+        } else {
+          // The last line wins, a line without a SCRAM verifier removes the previous ones
+          if (line.tab > 0) {
+            final byte[] name = line.username();
+            remove(name, PackedCredentialStore.hash(name));
+          }
+          skipped++;
+        }
+        position += line.end + 1;
+      }
+      this.indexed = position;
+      this.tailChecksum = MappedCredentialStore.this.tailChecksum(segments, position);
+    }
+
+    private void insert(byte[] name, int hash, long offset) {
+      if ((count + 1) * 2L > index.length) {
+        rehash();
+      }
+      final int mask = index.length - 1;
+      final long tag = (long) (hash >>> 8) << OFFSET_BITS;
+      int slot = hash & mask;
+      while (index[slot] != 0) {
+        if ((index[slot] & ~OFFSET_MASK) == tag
+            && line((index[slot] & OFFSET_MASK) - 1).isUser(name)) {
+          index[slot] = tag | offset + 1;
+          return;
+        }
+        slot = slot + 1 & mask;
+      }
+      index[slot] = tag | offset + 1;
+      count++;
+    }
+
+    /**
+     * Removes the entry of a user, shifting back the entries after it that were probed past its
+     * slot, so the table needs no tombstones.
+     */
+    private void remove(byte[] name, int hash) {
+      final int mask = index.length - 1;
+      final long tag = (long) (hash >>> 8) << OFFSET_BITS;
+      int slot = hash & mask;
+      while (index[slot] != 0) {
+        if ((index[slot] & ~OFFSET_MASK) == tag
+            && line((index[slot] & OFFSET_MASK) - 1).isUser(name)) {
+          break;
+        }
+        slot = slot + 1 & mask;
+      }
+      if (index[slot] == 0) {
+        return;
+      }
+      int next = slot + 1 & mask;
+      while (index[next] != 0) {
+        final int home = PackedCredentialStore.hash(
+            line((index[next] & OFFSET_MASK) - 1).username()) & mask;
+        // The entry can fill the empty slot unless its home is cyclically in (slot, next]
+        if ((next - home & mask) >= (next - slot & mask)) {
+          index[slot] = index[next];
+          slot = next;
+        }
+        next = next + 1 & mask;
+      }
+      index[slot] = 0;
+      count--;
+    }
+
+    private void rehash() {
+      final long[] rehashed = new long[index.length * 2];
+      final int mask = rehashed.length - 1;
+      for (long entry : index) {
+        if (entry != 0) {
+          final Line line = line((entry & OFFSET_MASK) - 1);
+          int slot = PackedCredentialStore.hash(line.username()) & mask;
+          while (rehashed[slot] != 0) {
+            slot = slot + 1 & mask;
+          }
+          rehashed[slot] = entry;
+        }
+      }
+      this.index = rehashed;
+    }
+
+    /**
+     * Finds the offset of the line of a user.
+     *
+     * @return the offset, or -1 if the user is unknown
+     */
+    long find(byte[] name, int hash) {
+      final long[] table = index;
+      final int mask = table.length - 1;
+      final long tag = (long) (hash >>> 8) << OFFSET_BITS;
+      int slot = hash & mask;
+      for (int probes = 0; probes <= mask; probes++) {
+        final long entry = table[slot];
+        if (entry == 0) {
+          return -1;
+        }
+        if ((entry & ~OFFSET_MASK) == tag) {
+          final long offset = (entry & OFFSET_MASK) - 1;
+          if (line(offset).isUser(name)) {
+            return offset;
+          }
+        }
+        slot = slot + 1 & mask;
+      }
+      return -1;
+    }
+
+    Line line(long offset) {
+      return new Line(segments[(int) (offset >>> segmentShift)], (int) (offset & segmentMask),
+          size - offset);
+    }
+
+    private long nextLine(long position) {
+      for (long p = position; p < size; p++) {
+        if (segments[(int) (p >>> segmentShift)].get((int) (p & segmentMask)) == '\n') {
+          return p + 1;
+        }
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * A line of the file, read from the mapped segment where it starts.
+   */
+  private static final class Line {
+    final ByteBuffer segment;
+    final int start;
+    // The length of the line without its newline, or -1 if it has no newline
+    final int end;
+    final int tab;
+
+    Line(ByteBuffer segment, int start, long remaining) {
+      this.segment = segment;
+      this.start = start;
+      final int limit = (int) Math.min(remaining, MAX_LINE_LENGTH);
+      int end = -1;
+      int tab = -1;
+      for (int i = 0; i < limit; i++) {
+        final byte b = segment.get(start + i);
+        if (b == '\n') {
+          end = i;
+          break;
+        }
+        if (b == '\t' && tab < 0) {
+          tab = i;
+        }
+      }
+      this.end = end;
+      this.tab = tab;
+    }
+
+    boolean isValid() {
+      if (tab <= 0) {
+        return false;
+      }
+      try {
+        ScramVerifier.parseFrom(verifier());
+        return true;
+      } catch (ScramParseException | IllegalArgumentException ex) {
+        return false;
+      }
+    }
+
+    boolean isUser(byte[] name) {
+      return tab > 0 && Arrays.equals(username(), name);
+    }
+
+    /**
+     * Returns the username, without the backslash escapes of the text format of {@code COPY}.
+     */
+    byte[] username() {
+      final ByteArrayOutputStream username = new ByteArrayOutputStream(tab);
+      for (int i = 0; i < tab; i++) {
+        final byte b = segment.get(start + i);
+        if (b != '\\' || i + 1 == tab) {
+          username.write(b);
+          continue;
+        }
+        final byte escaped = segment.get(start + ++i);
+        switch (escaped) {
+          case 'b':
+            username.write('\b');
+            break;
+          case 'f':
+            username.write('\f');
+            break;
+          case 'n':
+            username.write('\n');
+            break;
+          case 'r':
+            username.write('\r');
+            break;
+          case 't':
+            username.write('\t');
+            break;
+          case 'v':
+            username.write(0x0B);
+            break;
+          case 'x':
+            int hex = 0;
+            int digits = 0;
+            while (digits < 2 && i + 1 < tab
+                && Character.digit(segment.get(start + i + 1), 16) >= 0) {
+              hex = hex * 16 + Character.digit(segment.get(start + ++i), 16);
+              digits++;
+            }
+            username.write(digits > 0 ? hex : 'x');
+            break;
+          default:
+            if (escaped >= '0' && escaped <= '7') {
+              int octal = escaped - '0';
+              for (int digit = 1; digit < 3 && i + 1 < tab; digit++) {
+                final byte next = segment.get(start + i + 1);
+                if (next < '0' || next > '7') {
+                  break;
+                }
+                octal = octal * 8 + next - '0';
+                i++;
+              }
+              username.write(octal);
+            } else {
+              username.write(escaped);
+            }
+        }
+      }
+      return username.toByteArray();
+    }
+
+    String verifier() {
+      int length = end - tab - 1;
+      if (length > 0 && segment.get(start + tab + length) == '\r') {
+        length--;
+      }
+      final byte[] verifier = new byte[Math.max(length, 0)];
+      for (int i = 0; i < verifier.length; i++) {
+        verifier[i] = segment.get(start + tab + 1 + i);
+      }
+      return new String(verifier, US_ASCII);
+    }
+  }
+
+  private static int capacityFor(long expectedUsers) {
+    int capacity = 16;
+    while (capacity < expectedUsers * 2 && capacity < 1 << 30) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+}
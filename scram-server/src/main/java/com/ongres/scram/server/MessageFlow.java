@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import com.ongres.scram.common.ServerFinalMessage;
+import com.ongres.scram.common.ServerFirstMessage;
+import com.ongres.scram.common.exception.ScramParseException;
+import org.jetbrains.annotations.NotNull;
+
+interface MessageFlow {
+  @NotNull
+  ServerFirstMessage clientFirstMessage(@NotNull String clientFirstMessage)
+      throws ScramParseException;
+
+  @NotNull
+  ServerFinalMessage clientFinalMessage(@NotNull String clientFinalMessage);
+
+  enum Stage {
+    NONE,
+    // The verifier is looked up asynchronously. The server stays in this stage if the lookup
+    // fails.
+    SERVER_FIRST_PENDING,
+    SERVER_FIRST,
+    SERVER_FINAL;
+  }
+}
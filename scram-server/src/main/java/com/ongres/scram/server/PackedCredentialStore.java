@@ -0,0 +1,501 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+import static com.ongres.scram.common.util.Preconditions.gt0;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.StampedLock;
+
+import com.ongres.scram.common.ScramFunctions;
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.ScramVerifier;
+import com.ongres.scram.common.StringPreparation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link CredentialStore} of a single mechanism that packs the verifiers in fixed-size records
+ * off-heap, for millions of users without millions of objects in the heap.
+ *
+ * <p>Each record holds the iteration count, the salt, the StoredKey, the ServerKey and the
+ * normalized username, in {@code 10 + maxSaltLength + maxUsernameLength + 2 * keyLength} bytes
+ * (170 bytes for {@code SCRAM-SHA-256} with the default limits). The records are stored in pages of
+ * direct buffers, allocated as the store grows, and the only per-user data in the heap is a slot of
+ * an open-addressing hash index of {@code int}, keyed on the username normalized with SASLprep.
+ *
+ * <p>The lookups don't lock: the index is probed with volatile reads, and a record is copied with
+ * an optimistic read of one of the {@link StampedLock}s that stripe the records, which is retried
+ * with a read lock only if a password change of the same stripe overlapped it. The updates are
+ * serialized, and a password change rewrites the record in place under the write lock of its
+ * stripe. The records of removed users are reused, the memory of the pages is not released until
+ * the store is garbage collected.
+ *
+ * <p>Example of usage:
+ *
+ * <pre>{@code
+ * PackedCredentialStore store = PackedCredentialStore.create(ScramMechanism.SCRAM_SHA_256,
+ *     1_000_000);
+ * store.put("user", verifier);
+ * }</pre>
+ *
+ * @apiNote This class is thread-safe. Each lookup returns a new {@link ScramVerifier} copied from
+ *          the record, which is short lived.
+ * @since 3.5
+ */
+public final class PackedCredentialStore implements CredentialStore {
+
+  /**
+   * The default maximum length of a normalized username, in UTF-8 bytes.
+   */
+  public static final int DEFAULT_MAX_USERNAME_LENGTH = 64;
+
+  /**
+   * The default maximum length of a salt, in bytes.
+   */
+  public static final int DEFAULT_MAX_SALT_LENGTH = 32;
+
+  private static final int PAGE_SHIFT = 12;
+  private static final int RECORDS_PER_PAGE = 1 << PAGE_SHIFT;
+  private static final int STRIPES = 64;
+  private static final int EMPTY = 0;
+  private static final int TOMBSTONE = -1;
+
+  // Record layout
+  private static final int HASH = 0;
+  private static final int ITERATION_COUNT = 4;
+  private static final int SALT_LENGTH = 8;
+  private static final int USERNAME_LENGTH = 9;
+  private static final int SALT = 10;
+
+  private final ScramMechanism scramMechanism;
+  private final int keyLength;
+  private final int maxSaltLength;
+  private final int maxUsernameLength;
+  private final int usernameOffset;
+  private final int storedKeyOffset;
+  private final int serverKeyOffset;
+  private final int recordSize;
+  private final StampedLock[] stripes = new StampedLock[STRIPES];
+
+  private volatile ByteBuffer[] pages = new ByteBuffer[0];
+  // The record id + 1 of each slot, or EMPTY or TOMBSTONE
+  private volatile AtomicIntegerArray index;
+
+  // Guarded by this
+  private int recordCount;
+  private int[] freeIds = new int[16];
+  private int freeCount;
+  private int size;
+  private int tombstones;
+
+  private PackedCredentialStore(ScramMechanism scramMechanism, int expectedUsers,
+      int maxUsernameLength, int maxSaltLength) {
+    this.scramMechanism = scramMechanism;
+    this.keyLength = ScramFunctions.hash(scramMechanism, new byte[0]).length;
+    this.maxSaltLength = maxSaltLength;
+    this.maxUsernameLength = maxUsernameLength;
+    this.usernameOffset = SALT + maxSaltLength;
+    this.storedKeyOffset = usernameOffset + maxUsernameLength;
+    this.serverKeyOffset = storedKeyOffset + keyLength;
+    this.recordSize = serverKeyOffset + keyLength;
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new StampedLock();
+    }
+    this.index = new AtomicIntegerArray(capacityFor(expectedUsers));
+  }
+
+  /**
+   * Creates an empty store, with the default limits of the username and salt lengths.
+   *
+   * @param scramMechanism the mechanism of the verifiers
+   * @param expectedUsers the expected number of users, to size the index
+   * @return a new empty store
+   * @throws IllegalArgumentException if the mechanism is null or the expected number of users is
+   *           not positive
+   */
+  public static @NotNull PackedCredentialStore create(@NotNull ScramMechanism scramMechanism,
+      int expectedUsers) {
+    return create(scramMechanism, expectedUsers, DEFAULT_MAX_USERNAME_LENGTH,
+        DEFAULT_MAX_SALT_LENGTH);
+  }
+
+  /**
+   * Creates an empty store.
+   *
+   * @param scramMechanism the mechanism of the verifiers
+   * @param expectedUsers the expected number of users, to size the index
+   * @param maxUsernameLength the maximum length of a normalized username, in UTF-8 bytes, up to
+   *        255
+   * @param maxSaltLength the maximum length of a salt, in bytes, up to 255
+   * @return a new empty store
+   * @throws IllegalArgumentException if the mechanism is null or any length is out of range
+   */
+  public static @NotNull PackedCredentialStore create(@NotNull ScramMechanism scramMechanism,
+      int expectedUsers, int maxUsernameLength, int maxSaltLength) {
+    checkNotNull(scramMechanism, "scramMechanism");
+    gt0(expectedUsers, "expectedUsers");
+    checkArgument(maxUsernameLength > 0 && maxUsernameLength <= 255, "maxUsernameLength");
+    checkArgument(maxSaltLength > 0 && maxSaltLength <= 255, "maxSaltLength");
+    return new PackedCredentialStore(scramMechanism, expectedUsers, maxUsernameLength,
+        maxSaltLength);
+  }
+
+  /**
+   * Adds the verifier of a user, or replaces it on a password change.
+   *
+   * @param username the username, which is normalized
+   * @param verifier the verifier, of the algorithms of the mechanism of the store
+   * @return true if the user was replaced, false if it was added
+   * @throws IllegalArgumentException if any argument is null, the verifier is of other algorithms,
+   *           or the username or the salt exceed the maximum lengths
+   */
+  public boolean put(@NotNull String username, @NotNull ScramVerifier verifier) {
+    checkNotNull(username, "username");
+    checkNotNull(verifier, "verifier");
+    checkArgument(verifier.isValidFor(scramMechanism), "verifier",
+        "must be of the " + scramMechanism.getName() + " mechanism");
+    final byte[] name = normalize(username);
+    checkArgument(name.length > 0 && name.length <= maxUsernameLength, "username",
+        "must be up to " + maxUsernameLength + " UTF-8 bytes");
+    final byte[] salt = verifier.getSalt();
+    checkArgument(salt.length <= maxSaltLength, "salt",
+        "must be up to " + maxSaltLength + " bytes");
+    final byte[] storedKey = verifier.getStoredKey();
+    final byte[] serverKey = verifier.getServerKey();
+    checkArgument(storedKey.length == keyLength && serverKey.length == keyLength, "verifier",
+        "keys must be of " + keyLength + " bytes");
+    final int hash = hash(name);
+
+    synchronized (this) {
+      final int slot = find(hash, name);
+      if (slot >= 0) {
+        write(index.get(slot) - 1, hash, name, verifier.getIterationCount(), salt, storedKey,
+            serverKey);
+        return true;
+      }
+      if ((size + tombstones + 1) * 2L > index.length()) {
+        rehash();
+      }
+      final int id = allocate();
+      write(id, hash, name, verifier.getIterationCount(), salt, storedKey, serverKey);
+      final AtomicIntegerArray table = index;
+      final int mask = table.length() - 1;
+      int free = hash & mask;
+      while (table.get(free) > EMPTY) {
+        free = free + 1 & mask;
+      }
+      if (table.get(free) == TOMBSTONE) {
+        tombstones--;
+      }
+      // Published once the record is written
+      table.set(free, id + 1);
+      size++;
+      return false;
+    }
+  }
+
+  /**
+   * Removes the verifier of a user.
+   *
+   * @param username the username, which is normalized
+   * @return true if the user was removed, false if it was unknown
+   * @throws IllegalArgumentException if the username is null
+   */
+  public boolean remove(@NotNull String username) {
+    checkNotNull(username, "username");
+    final byte[] name = normalize(username);
+    final int hash = hash(name);
+    synchronized (this) {
+      final int slot = find(hash, name);
+      if (slot < 0) {
+        return false;
+      }
+      final int id = index.get(slot) - 1;
+      index.set(slot, TOMBSTONE);
+      tombstones++;
+      size--;
+      clear(id);
+      if (freeCount == freeIds.length) {
+        freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+      }
+      freeIds[freeCount++] = id;
+      return true;
+    }
+  }
+
+  /**
+   * Returns the number of users of the store.
+   *
+   * @return the number of verifiers
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns the memory used by the store, the off-heap pages of records and the index.
+   *
+   * @return the number of bytes
+   */
+  public long memoryUsage() {
+    return (long) pages.length * RECORDS_PER_PAGE * recordSize + index.length() * 4L;
+  }
+
+  @Override
+  public @Nullable ScramVerifier lookup(@NotNull String username) {
+    checkNotNull(username, "username");
+    final byte[] name = normalize(username);
+    if (name.length == 0 || name.length > maxUsernameLength) {
+      return null;
+    }
+    final int hash = hash(name);
+    final AtomicIntegerArray table = index;
+    final int mask = table.length() - 1;
+    int slot = hash & mask;
+    for (int probes = 0; probes <= mask; probes++) {
+      final int entry = table.get(slot);
+      if (entry == EMPTY) {
+        return null;
+      }
+      if (entry != TOMBSTONE) {
+        final ScramVerifier verifier = read(entry - 1, hash, name);
+        if (verifier != null) {
+          return verifier;
+        }
+      }
+      slot = slot + 1 & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Copies a record if it's of the user, with an optimistic read of its stripe.
+   */
+  private @Nullable ScramVerifier read(int id, int hash, byte[] name) {
+    final ByteBuffer page = pages[id >>> PAGE_SHIFT];
+    final int base = (id & RECORDS_PER_PAGE - 1) * recordSize;
+    final StampedLock lock = stripes[id & STRIPES - 1];
+    long stamp = lock.tryOptimisticRead();
+    Copy copy = copy(page, base, hash, name);
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        copy = copy(page, base, hash, name);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    if (copy == null) {
+      return null;
+    }
+    return ScramVerifier.of(scramMechanism, copy.salt, copy.iterationCount, copy.storedKey,
+        copy.serverKey);
+  }
+
+  /**
+   * Copies a record if it's of the user. The lengths are bounded, so a record being written
+   * concurrently is copied without failing, and discarded by the validation of the stamp.
+   */
+  private @Nullable Copy copy(ByteBuffer page, int base, int hash, byte[] name) {
+    if (page.getInt(base + HASH) != hash
+        || (page.get(base + USERNAME_LENGTH) & 0xFF) != name.length) {
+      return null;
+    }
+    for (int i = 0; i < name.length; i++) {
+      if (page.get(base + usernameOffset + i) != name[i]) {
+        return null;
+      }
+    }
+    final int saltLength = Math.min(page.get(base + SALT_LENGTH) & 0xFF, maxSaltLength);
+    final int iterationCount = page.getInt(base + ITERATION_COUNT);
+    if (saltLength == 0 || iterationCount <= 0) {
+      return null;
+    }
+    return new Copy(getBytes(page, base + SALT, saltLength), iterationCount,
+        getBytes(page, base + storedKeyOffset, keyLength),
+        getBytes(page, base + serverKeyOffset, keyLength));
+  }
+
+  /**
+   * Finds the slot of a user, called with the monitor held.
+   *
+   * @return the slot, or -1 if the user is unknown
+   */
+  private int find(int hash, byte[] name) {
+    final AtomicIntegerArray table = index;
+    final int mask = table.length() - 1;
+    int slot = hash & mask;
+    for (int probes = 0; probes <= mask; probes++) {
+      final int entry = table.get(slot);
+      if (entry == EMPTY) {
+        return -1;
+      }
+      if (entry != TOMBSTONE) {
+        final int id = entry - 1;
+        if (copy(pages[id >>> PAGE_SHIFT], (id & RECORDS_PER_PAGE - 1) * recordSize, hash,
+            name) != null) {
+          return slot;
+        }
+      }
+      slot = slot + 1 & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Rebuilds the index without tombstones, doubling it if it's half full, called with the monitor
+   * held. The lookups in progress keep probing the previous index.
+   */
+  private void rehash() {
+    final AtomicIntegerArray table = index;
+    int capacity = table.length();
+    while ((size + 1) * 2L > capacity) {
+      capacity <<= 1;
+    }
+    final AtomicIntegerArray rehashed = new AtomicIntegerArray(capacity);
+    final int mask = capacity - 1;
+    for (int i = 0; i < table.length(); i++) {
+      final int entry = table.get(i);
+      if (entry > EMPTY) {
+        final int id = entry - 1;
+        final int hash = pages[id >>> PAGE_SHIFT]
+            .getInt((id & RECORDS_PER_PAGE - 1) * recordSize + HASH);
+        int slot = hash & mask;
+        while (rehashed.get(slot) != EMPTY) {
+          slot = slot + 1 & mask;
+        }
+        rehashed.set(slot, entry);
+      }
+    }
+    this.tombstones = 0;
+    this.index = rehashed;
+  }
+
+  /**
+   * Returns a free record, adding a page if needed, called with the monitor held.
+   */
+  private int allocate() {
+    if (freeCount > 0) {
+      return freeIds[--freeCount];
+    }
+    final int id = recordCount++;
+    final int page = id >>> PAGE_SHIFT;
+    if (page == pages.length) {
+      final ByteBuffer[] grown = Arrays.copyOf(pages, page + 1);
+      grown[page] = ByteBuffer.allocateDirect(RECORDS_PER_PAGE * recordSize);
+      this.pages = grown;
+    }
+    return id;
+  }
+
+  private void write(int id, int hash, byte[] name, int iterationCount, byte[] salt,
+      byte[] storedKey, byte[] serverKey) {
+    final ByteBuffer page = pages[id >>> PAGE_SHIFT];
+    final int base = (id & RECORDS_PER_PAGE - 1) * recordSize;
+    final StampedLock lock = stripes[id & STRIPES - 1];
+    final long stamp = lock.writeLock();
+    try {
+      page.putInt(base + HASH, hash);
+      page.putInt(base + ITERATION_COUNT, iterationCount);
+      page.put(base + SALT_LENGTH, (byte) salt.length);
+      page.put(base + USERNAME_LENGTH, (byte) name.length);
+      putBytes(page, base + SALT, salt);
+      putBytes(page, base + usernameOffset, name);
+      putBytes(page, base + storedKeyOffset, storedKey);
+      putBytes(page, base + serverKeyOffset, serverKey);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+    Arrays.fill(storedKey, (byte) 0);
+    Arrays.fill(serverKey, (byte) 0);
+  }
+
+  private void clear(int id) {
+    final ByteBuffer page = pages[id >>> PAGE_SHIFT];
+    final int base = (id & RECORDS_PER_PAGE - 1) * recordSize;
+    final StampedLock lock = stripes[id & STRIPES - 1];
+    final long stamp = lock.writeLock();
+    try {
+      for (int i = 0; i < recordSize; i++) {
+        page.put(base + i, (byte) 0);
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private static void putBytes(ByteBuffer page, int offset, byte[] bytes) {
+    for (int i = 0; i < bytes.length; i++) {
+      page.put(offset + i, bytes[i]);
+    }
+  }
+
+  private static byte[] getBytes(ByteBuffer page, int offset, int length) {
+    final byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = page.get(offset + i);
+    }
+    return bytes;
+  }
+
+  /**
+   * Normalizes the username with SASLprep, as the client does, keeping it as is if it's not a
+   * valid string for SASLprep.
+   */
+  private static byte[] normalize(String username) {
+    try {
+      return new String(StringPreparation.SASL_PREPARATION.normalize(username.toCharArray()))
+          .getBytes(UTF_8);
+    } catch (IllegalArgumentException ex) {
+      return username.getBytes(UTF_8);
+    }
+  }
+
+  /**
+   * FNV-1a hash of the normalized username, with the high bits mixed into the low ones used by
+   * the index.
+   */
+  static int hash(byte[] name) {
+    int hash = 0x811C9DC5;
+    for (byte b : name) {
+      hash ^= b & 0xFF;
+      hash *= 0x01000193;
+    }
+    return hash ^ hash >>> 16;
+  }
+
+  private static int capacityFor(int expectedUsers) {
+    int capacity = 16;
+    while (capacity < expectedUsers * 2L && capacity < 1 << 30) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  /**
+   * The fields of a record, copied before the stamp is validated.
+   */
+  private static final class Copy {
+    final byte[] salt;
+    final int iterationCount;
+    final byte[] storedKey;
+    final byte[] serverKey;
+
+    Copy(byte[] salt, int iterationCount, byte[] storedKey, byte[] serverKey) {
+      this.salt = salt;
+      this.iterationCount = iterationCount;
+      this.storedKey = storedKey;
+      this.serverKey = serverKey;
+    }
+  }
+
+}
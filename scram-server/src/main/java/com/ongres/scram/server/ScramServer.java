@@ -0,0 +1,483 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import static com.ongres.scram.common.util.Preconditions.checkArgument;
+import static com.ongres.scram.common.util.Preconditions.checkNotEmpty;
+import static com.ongres.scram.common.util.Preconditions.checkNotNull;
+import static com.ongres.scram.common.util.Preconditions.gt0;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.ongres.scram.common.AuthMessage;
+import com.ongres.scram.common.ClientFinalMessage;
+import com.ongres.scram.common.ClientFirstMessage;
+import com.ongres.scram.common.Gs2CbindFlag;
+import com.ongres.scram.common.Gs2Header;
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.ScramVerifier;
+import com.ongres.scram.common.ServerFinalMessage;
+import com.ongres.scram.common.ServerFirstMessage;
+import com.ongres.scram.common.exception.ScramParseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A class that represents a SCRAM server. Use this class to authenticate a SCRAM client with the
+ * stored verifier of its credentials. This class performs an authentication execution for a
+ * connection, and has state related to it. Thus, it cannot be shared across connections or
+ * authentication executions.
+ *
+ * <p>Example of usage:
+ *
+ * <pre>{@code
+ * ScramServer scramServer = ScramServer.builder()
+ *     .scramMechanism(ScramMechanism.SCRAM_SHA_256_PLUS) // as selected by the client
+ *     .credentialStore(credentialStore)
+ *     .channelBinding("tls-server-end-point", channelBindingData)
+ *     .build();
+ *
+ * // Receive the client-first-message, send the server-first-message ("r=...,s=...,i=...")
+ * ServerFirstMessage serverFirstMsg = scramServer.clientFirstMessage("p=...,,n=...,r=...");
+ * ...
+ * // Receive the client-final-message, send the server-final-message ("v=..." or "e=...")
+ * ServerFinalMessage serverFinalMsg = scramServer.clientFinalMessage("c=...,r=...,p=...");
+ * if (scramServer.isAuthenticated()) {
+ *   ...
+ * }
+ * }</pre>
+ *
+ * <p>The server never derives the salted password: the proof of the client is verified with the
+ * StoredKey, and the ServerSignature is computed with the ServerKey, in a single pass over the
+ * AuthMessage. An unknown user gets a mock salt and iteration count, and its proof is verified
+ * against a mock verifier, so the authentication fails as with a wrong password, in the same time,
+ * and the exchange doesn't reveal which users exist. Errors on the
+ * {@code client-first-message}, like a channel binding mismatch, are reported on the
+ * {@code server-final-message} too.
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc5802.html">RFC-5802: Salted Challenge Response
+ *      Authentication Mechanism (SCRAM) SASL and GSS-API Mechanisms</a>
+ * @since 3.5
+ */
+public final class ScramServer implements MessageFlow {
+
+  private final ScramServerFactory factory;
+  private final String nonce;
+
+  private Stage currentState = Stage.NONE;
+  private ClientFirstMessage clientFirstMessage;
+  private ServerFirstMessage serverFirstMessage;
+  private ScramVerifier verifier;
+  private String username;
+  private String error;
+  private boolean knownUser;
+  private boolean authenticated;
+
+  /**
+   * Constructs a SCRAM server, to perform an authentication for a connection. This class can not
+   * be instantiated directly, use a {@link #builder()} or a {@link ScramServerFactory} instead.
+   *
+   * @param factory The factory with the configuration of this server
+   * @param nonce The server nonce
+   */
+  ScramServer(@NotNull ScramServerFactory factory, @NotNull String nonce) {
+    this.factory = factory;
+    this.nonce = nonce;
+  }
+
+  /**
+   * Returns the scram mechanism of this SASL server.
+   *
+   * @return the SCRAM mechanism
+   */
+  public @NotNull ScramMechanism getScramMechanism() {
+    return factory.scramMechanism;
+  }
+
+  /**
+   * Processes the {@code client-first-message}, looking up the verifier of the user.
+   *
+   * @apiNote should be the initial call and can be called only once
+   * @param clientFirstMessage The {@code client-first-message}
+   * @return The {@code server-first-message}
+   * @throws ScramParseException If the message is not a valid {@code client-first-message}
+   * @throws IllegalArgumentException If the message is null or empty
+   */
+  @Override
+  public @NotNull ServerFirstMessage clientFirstMessage(@NotNull String clientFirstMessage)
+      throws ScramParseException {
+    receiveClientFirstMessage(clientFirstMessage);
+    return serverFirstMessage(factory.lookup(username));
+  }
+
+  /**
+   * Processes the {@code client-first-message}, looking up the verifier of the user without
+   * blocking the calling thread, see {@link CredentialStore#lookupAsync(String)}.
+   *
+   * <p>The message is parsed before returning. The server moves to a pending stage until the
+   * returned stage completes, in which no other message can be processed; then
+   * {@link #clientFinalMessage(String)} can be called. If the lookup fails, the stage completes
+   * exceptionally and the server can't be used anymore.
+   *
+   * @apiNote should be the initial call, instead of {@link #clientFirstMessage(String)}, and can
+   *          be called only once
+   * @param clientFirstMessage The {@code client-first-message}
+   * @return a stage that completes with the {@code server-first-message}
+   * @throws ScramParseException If the message is not a valid {@code client-first-message}
+   * @throws IllegalArgumentException If the message is null or empty
+   */
+  public @NotNull CompletionStage<ServerFirstMessage> clientFirstMessageAsync(
+      @NotNull String clientFirstMessage) throws ScramParseException {
+    receiveClientFirstMessage(clientFirstMessage);
+    return factory.lookupAsync(username).thenApply(this::serverFirstMessage);
+  }
+
+  private void receiveClientFirstMessage(String clientFirstMessage) throws ScramParseException {
+    if (currentState != Stage.NONE) {
+      throw new IllegalStateException("Invalid state for processing client first message");
+    }
+    checkNotEmpty(clientFirstMessage, "clientFirstMessage");
+    final ClientFirstMessage message;
+    try {
+      message = ClientFirstMessage.parseFrom(clientFirstMessage);
+    } catch (IllegalArgumentException ex) {
+      throw new ScramParseException("Invalid client-first-message", ex);
+    }
+    this.clientFirstMessage = message;
+    this.username = message.getUnescapedUsername();
+    this.error = channelBindingError(message.getGs2Header());
+    this.currentState = Stage.SERVER_FIRST_PENDING;
+  }
+
+  /**
+   * Creates the {@code server-first-message} with the verifier of the user, or a mock one if the
+   * user is unknown.
+   */
+  private ServerFirstMessage serverFirstMessage(@Nullable ScramVerifier found) {
+    this.knownUser = found != null;
+    this.verifier = found != null ? found : factory.mockVerifier(username);
+    this.serverFirstMessage = new ServerFirstMessage(clientFirstMessage.getClientNonce(), nonce,
+        verifier.getSaltBase64(), verifier.getIterationCount());
+    this.currentState = Stage.SERVER_FIRST;
+    return serverFirstMessage;
+  }
+
+  /**
+   * Checks the {@code gs2-cbind-flag} of the client against the mechanism and the channel binding
+   * of this server.
+   *
+   * @return the {@code server-error-value}, or null if the channel binding is valid
+   */
+  private @Nullable String channelBindingError(@NotNull Gs2Header gs2Header) {
+    final Gs2CbindFlag flag = gs2Header.getChannelBindingFlag();
+    final boolean plus = factory.scramMechanism.isPlus();
+    if (plus != (flag == Gs2CbindFlag.CHANNEL_BINDING_REQUIRED)) {
+      return "channel-bindings-dont-match";
+    }
+    if (flag == Gs2CbindFlag.CLIENT_YES_SERVER_NOT && factory.cbindData != null) {
+      return "server-does-support-channel-binding";
+    }
+    if (flag == Gs2CbindFlag.CHANNEL_BINDING_REQUIRED) {
+      if (factory.cbindData == null) {
+        return "channel-binding-not-supported";
+      }
+      if (!factory.cbindType.equals(gs2Header.getChannelBindingName())) {
+        return "unsupported-channel-binding-type";
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Processes the {@code client-final-message}, verifying the proof of the client.
+   *
+   * <p>Any failure is reported in the returned message with a {@code server-error-value}, and the
+   * server is not authenticated.
+   *
+   * @apiNote should be called after {@link #clientFirstMessage(String)} and only once
+   * @param clientFinalMessage The {@code client-final-message}
+   * @return The {@code server-final-message}, with the ServerSignature or an error
+   * @throws IllegalArgumentException If the message is null or empty
+   */
+  @Override
+  public @NotNull ServerFinalMessage clientFinalMessage(@NotNull String clientFinalMessage) {
+    if (currentState != Stage.SERVER_FIRST) {
+      throw new IllegalStateException("Invalid state for processing client final message");
+    }
+    checkNotEmpty(clientFinalMessage, "clientFinalMessage");
+    this.currentState = Stage.SERVER_FINAL;
+
+    final ClientFinalMessage message;
+    try {
+      message = ClientFinalMessage.parseFrom(clientFinalMessage);
+    } catch (ScramParseException | IllegalArgumentException ex) {
+      return new ServerFinalMessage("invalid-encoding");
+    }
+    if (error != null) {
+      return new ServerFinalMessage(error);
+    }
+    if (!serverFirstMessage.getNonce().equals(message.getNonce())) {
+      return new ServerFinalMessage("other-error");
+    }
+
+    final Gs2Header gs2Header = clientFirstMessage.getGs2Header();
+    final byte[] cbindData = clientFirstMessage.isChannelBindingRequired()
+        ? factory.cbindData
+        : null;
+    if (!message.isChannelBindingValid(gs2Header, cbindData)) {
+      return new ServerFinalMessage("channel-bindings-dont-match");
+    }
+
+    final AuthMessage authMessage = AuthMessage.of(clientFirstMessage, serverFirstMessage,
+        cbindData);
+    // The proof of an unknown user is verified too, against its mock verifier, so the time of the
+    // response doesn't reveal whether the user exists
+    final byte[] serverSignature = verifier.verifyClientProof(authMessage, message.getProof());
+    if (serverSignature == null || !knownUser) {
+      return new ServerFinalMessage("invalid-proof");
+    }
+    this.authenticated = true;
+    return new ServerFinalMessage(serverSignature);
+  }
+
+  /**
+   * Returns whether the client has been authenticated, once the {@code server-final-message} has
+   * been generated without an error.
+   *
+   * @return true if the client is authenticated
+   */
+  public boolean isAuthenticated() {
+    return authenticated;
+  }
+
+  /**
+   * Returns the username sent by the client, unescaped.
+   *
+   * @return the username, or null if the {@code client-first-message} was not processed yet
+   */
+  public @Nullable String getUsername() {
+    return username;
+  }
+
+  /**
+   * Returns the authorization identity sent by the client, if any.
+   *
+   * @return the authzid, or null if not sent
+   */
+  public @Nullable String getAuthzid() {
+    return clientFirstMessage != null ? clientFirstMessage.getGs2Header().getAuthzid() : null;
+  }
+
+  /**
+   * Creates a builder for {@link ScramServer ScramServer} instances.
+   *
+   * @return Builder instance to contruct a {@link ScramServer ScramServer}
+   */
+  public static MechanismBuildStage builder() {
+    return new Builder();
+  }
+
+  /**
+   * Builder stage for the mechanism.
+   */
+  public interface MechanismBuildStage {
+
+    /**
+     * Sets the mechanism selected by the client, among the ones advertised by the server.
+     *
+     * @param scramMechanism the SCRAM mechanism
+     * @return {@code this} builder for use in a chained invocation
+     */
+    VerifierBuildStage scramMechanism(@NotNull ScramMechanism scramMechanism);
+  }
+
+  /**
+   * Builder stage for the lookup of the verifiers.
+   */
+  public interface VerifierBuildStage {
+
+    /**
+     * Sets the store of the verifiers. A verifier of other algorithms than the mechanism is handled
+     * as an unknown user.
+     *
+     * @param credentialStore the store of the verifiers
+     * @return {@code this} builder for use in a chained invocation
+     * @since 3.5
+     */
+    FinalBuildStage credentialStore(@NotNull CredentialStore credentialStore);
+
+    /**
+     * Sets the lookup of the verifiers, by the unescaped username. The lookup returns null for an
+     * unknown user; a verifier of other algorithms than the mechanism is handled as unknown.
+     *
+     * @param verifierLookup the lookup of the verifiers, which must be thread-safe to build a
+     *        factory
+     * @return {@code this} builder for use in a chained invocation
+     * @see #credentialStore(CredentialStore)
+     */
+    FinalBuildStage verifierLookup(
+        @NotNull Function<@NotNull String, @Nullable ScramVerifier> verifierLookup);
+  }
+
+  /**
+   * Builder stage for the optional atributes and the final build() call.
+   */
+  public interface FinalBuildStage {
+
+    /**
+     * Sets the channel binding type and data of the connection, which are required for a
+     * {@code -PLUS} mechanism. A server with channel binding rejects the clients that claim it's
+     * not supported by the server.
+     *
+     * @param cbindType the channel binding type name (e.g. {@code "tls-server-end-point"})
+     * @param cbindData the channel binding data
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException If the type or data are null or empty
+     */
+    FinalBuildStage channelBinding(@NotNull String cbindType, byte @NotNull [] cbindData);
+
+    /**
+     * Sets a non-default length for the nonce generation.
+     *
+     * <p>The default value is 24. This call overwrites the length used for the server nonce.
+     *
+     * @param length The length of the nonce. Must be positive and greater than 0
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException If length is less than 1
+     */
+    FinalBuildStage nonceLength(int length);
+
+    /**
+     * The server will use a default nonce generator, unless an external one is provided by this
+     * method.
+     *
+     * @apiNote you should rely on the default randomly generated nonce instead of this, this call
+     *          exists mostly for testing with a predefined nonce
+     * @param nonceSupplier A supplier of valid nonce Strings
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException If nonceSupplier is null
+     */
+    FinalBuildStage nonceSupplier(@NotNull Supplier<@NotNull String> nonceSupplier);
+
+    /**
+     * Sets the iteration count sent to the unknown users, with their mock salt.
+     *
+     * <p>The default value is 4096. Set it to the iteration count of the verifiers of the store, as
+     * an iteration count that differs from the one of the known users reveals that a user doesn't
+     * exist.
+     *
+     * @param iterationCount the iteration count of the mock verifiers
+     * @return {@code this} builder for use in a chained invocation
+     * @throws IllegalArgumentException If the iteration count is less than 1
+     * @since 3.5
+     */
+    FinalBuildStage mockIterationCount(int iterationCount);
+
+    /**
+     * Returns the fully constructed {@link ScramServer} ready to receive the
+     * {@code client-first-message}.
+     *
+     * @return a ScramServer instance configured with the specified parameters
+     * @throws IllegalArgumentException if a {@code -PLUS} mechanism has no channel binding
+     */
+    ScramServer build();
+
+    /**
+     * Returns a thread-safe factory of {@link ScramServer} instances configured with the specified
+     * parameters.
+     *
+     * @return a ScramServerFactory configured with the specified parameters
+     * @throws IllegalArgumentException if a {@code -PLUS} mechanism has no channel binding
+     */
+    ScramServerFactory buildFactory();
+  }
+
+  /**
+   * Builds instances of type {@link ScramServer}. Initialize attributes and then invoke
+   * the {@link #build()} method to create an instance.
+   *
+   * @apiNote {@code Builder} is not thread-safe and generally should not be stored in a field or
+   *          collection, but instead used immediately to create instances.
+   */
+  static final class Builder
+      implements MechanismBuildStage, VerifierBuildStage, FinalBuildStage {
+
+    ScramMechanism scramMechanism;
+    CredentialStore credentialStore;
+    String cbindType;
+    byte[] cbindData;
+    int nonceLength = 24;
+    Supplier<String> nonceSupplier;
+    int mockIterationCount = 4096;
+
+    private Builder() {
+      // called from ScramServer.builder()
+    }
+
+    @Override
+    public VerifierBuildStage scramMechanism(@NotNull ScramMechanism scramMechanism) {
+      this.scramMechanism = checkNotNull(scramMechanism, "scramMechanism");
+      return this;
+    }
+
+    @Override
+    public FinalBuildStage credentialStore(@NotNull CredentialStore credentialStore) {
+      this.credentialStore = checkNotNull(credentialStore, "credentialStore");
+      return this;
+    }
+
+    @Override
+    public FinalBuildStage verifierLookup(
+        @NotNull Function<@NotNull String, @Nullable ScramVerifier> verifierLookup) {
+      checkNotNull(verifierLookup, "verifierLookup");
+      this.credentialStore = verifierLookup::apply;
+      return this;
+    }
+
+    @Override
+    public FinalBuildStage channelBinding(@NotNull String cbindType, byte @NotNull [] cbindData) {
+      this.cbindType = checkNotEmpty(cbindType, "cbindType");
+      checkArgument(checkNotNull(cbindData, "cbindData").length > 0, "cbindData");
+      this.cbindData = cbindData.clone();
+      return this;
+    }
+
+    @Override
+    public FinalBuildStage nonceLength(int length) {
+      this.nonceLength = gt0(length, "length");
+      return this;
+    }
+
+    @Override
+    public FinalBuildStage nonceSupplier(@NotNull Supplier<@NotNull String> nonceSupplier) {
+      this.nonceSupplier = checkNotNull(nonceSupplier, "nonceSupplier");
+      return this;
+    }
+
+    @Override
+    public FinalBuildStage mockIterationCount(int iterationCount) {
+      this.mockIterationCount = gt0(iterationCount, "iterationCount");
+      return this;
+    }
+
+    @Override
+    public ScramServer build() {
+      return buildFactory().newServer();
+    }
+
+    @Override
+    public ScramServerFactory buildFactory() {
+      if (scramMechanism.isPlus() && cbindData == null) {
+        throw new IllegalArgumentException(
+            "Channel binding is required for the " + scramMechanism.getName() + " mechanism");
+      }
+      return new ScramServerFactory(this);
+    }
+  }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import com.ongres.scram.common.ScramFunctions;
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.ScramVerifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable factory of {@link ScramServer} instances that authenticate with the same mechanism,
+ * verifiers and channel binding, like the connections accepted by a listener.
+ *
+ * <p>The factory validates the configuration once, and each {@link #newServer()} call only
+ * generates a nonce. The nonces are generated by {@link ScramFunctions#nonce(int)}, which draws
+ * from a shared source of random bytes, so a factory can be used from many threads at a high
+ * connection rate.
+ *
+ * <p>Example of usage:
+ *
+ * <pre>{@code
+ * ScramServerFactory factory = ScramServer.builder()
+ *     .scramMechanism(ScramMechanism.SCRAM_SHA_256)
+ *     .credentialStore(credentialStore)
+ *     .buildFactory();
+ *
+ * // For each connection
+ * ScramServer scramServer = factory.newServer();
+ * ServerFirstMessage serverFirstMsg = scramServer.clientFirstMessage("n,,n=user,r=...");
+ * ...
+ * }</pre>
+ *
+ * @apiNote This class is thread-safe, the {@link ScramServer} instances it creates are not.
+ * @since 3.5
+ */
+public final class ScramServerFactory {
+
+  private static final int MOCK_SALT_LENGTH = 16;
+
+  final ScramMechanism scramMechanism;
+  final CredentialStore credentialStore;
+  final String cbindType;
+  final byte[] cbindData;
+  private final int nonceLength;
+  private final Supplier<String> nonceSupplier;
+  private final int mockIterationCount;
+
+  /**
+   * Constructs a factory from a builder.
+   *
+   * @param builder the builder, which is not retained
+   */
+  ScramServerFactory(@NotNull ScramServer.Builder builder) {
+    this.scramMechanism = builder.scramMechanism;
+    this.credentialStore = builder.credentialStore;
+    this.cbindType = builder.cbindType;
+    this.cbindData = builder.cbindData != null ? builder.cbindData.clone() : null;
+    this.nonceLength = builder.nonceLength;
+    this.nonceSupplier = builder.nonceSupplier;
+    this.mockIterationCount = builder.mockIterationCount;
+  }
+
+  /**
+   * Returns the SCRAM mechanism of the servers of this factory.
+   *
+   * @return the SCRAM mechanism
+   */
+  public @NotNull ScramMechanism getScramMechanism() {
+    return scramMechanism;
+  }
+
+  /**
+   * Creates a server, with a new nonce, ready to receive the {@code client-first-message}.
+   *
+   * @return a new ScramServer
+   */
+  public @NotNull ScramServer newServer() {
+    final String nonce = nonceSupplier != null
+        ? nonceSupplier.get()
+        : ScramFunctions.nonce(nonceLength);
+    return new ScramServer(this, nonce);
+  }
+
+  /**
+   * Looks up the verifier of a user, which must be of the algorithms of the mechanism.
+   *
+   * @param username the username, unescaped
+   * @return the verifier, or null if the user is unknown
+   */
+  @Nullable
+  ScramVerifier lookup(@NotNull String username) {
+    return validVerifier(credentialStore.lookup(username));
+  }
+
+  /**
+   * Looks up the verifier of a user without blocking, which must be of the algorithms of the
+   * mechanism.
+   *
+   * @param username the username, unescaped
+   * @return a stage that completes with the verifier, or with null if the user is unknown
+   */
+  @NotNull
+  CompletionStage<@Nullable ScramVerifier> lookupAsync(@NotNull String username) {
+    return credentialStore.lookupAsync(username).thenApply(this::validVerifier);
+  }
+
+  private @Nullable ScramVerifier validVerifier(@Nullable ScramVerifier verifier) {
+    return verifier != null && verifier.isValidFor(scramMechanism) ? verifier : null;
+  }
+
+  /**
+   * Returns a mock verifier for an unknown user, that never verifies a proof. Its salt is derived
+   * from the username with a secret of the JVM, so the same user gets the same salt on every
+   * attempt, as a known user would, and with the configured iteration count the
+   * {@code server-first-message} doesn't reveal whether the user exists.
+   *
+   * @param username the username, unescaped
+   * @return the mock verifier
+   */
+  @NotNull
+  ScramVerifier mockVerifier(@NotNull String username) {
+    final byte[] salt = Arrays.copyOf(
+        ScramFunctions.hmac(scramMechanism, MockSecret.KEY, username.getBytes(UTF_8)),
+        MOCK_SALT_LENGTH);
+    return ScramVerifier.of(scramMechanism, salt, mockIterationCount, MockSecret.KEY,
+        MockSecret.KEY);
+  }
+
+  /**
+   * Lazy holder of the random secret of the mock verifiers.
+   */
+  private static final class MockSecret {
+    static final byte[] KEY = ScramFunctions.salt(32, new SecureRandom());
+  }
+
+}
@@ -0,0 +1,12 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+/**
+ * This module expose the server implementation of Salted Challenge Response Authentication
+ * Mechanism (SCRAM). It authenticates the clients with the stored verifiers of their credentials,
+ * without deriving the salted password in each authentication.
+ */
+
+package com.ongres.scram.server;
@@ -0,0 +1,9 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+module com.ongres.scram.server {
+  requires transitive com.ongres.scram.common;
+  exports com.ongres.scram.server;
+}
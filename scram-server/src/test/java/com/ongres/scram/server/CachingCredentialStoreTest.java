@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.ScramVerifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+class CachingCredentialStoreTest {
+
+  private static final ScramVerifier VERIFIER = verifier(1);
+  private static final ScramVerifier UPDATED = verifier(2);
+
+  private final AtomicLong now = new AtomicLong();
+
+  private static ScramVerifier verifier(int salt) {
+    byte[] key = new byte[32];
+    return ScramVerifier.of(ScramMechanism.SCRAM_SHA_256, new byte[] {(byte) salt}, 4096, key,
+        key);
+  }
+
+  /**
+   * A synchronous backend that counts its lookups.
+   */
+  private static final class CountingStore implements CredentialStore {
+    final InMemoryCredentialStore store = new InMemoryCredentialStore();
+    final AtomicInteger lookups = new AtomicInteger();
+    volatile RuntimeException failure;
+
+    @Override
+    public @Nullable ScramVerifier lookup(@NotNull String username) {
+      lookups.incrementAndGet();
+      if (failure != null) {
+        throw failure;
+      }
+      return store.lookup(username);
+    }
+  }
+
+  private CachingCredentialStore.Builder builder(CredentialStore backend) {
+    return CachingCredentialStore.builder(backend)
+        .timeToLive(Duration.ofSeconds(60))
+        .negativeTimeToLive(Duration.ofSeconds(10))
+        .executor(Runnable::run)
+        .ticker(now::get);
+  }
+
+  private void advance(Duration duration) {
+    now.addAndGet(duration.toNanos());
+  }
+
+  @Test
+  void cachesUntilExpired() {
+    CountingStore backend = new CountingStore();
+    backend.store.put("user", VERIFIER);
+    CachingCredentialStore cache = builder(backend).build();
+
+    assertSame(VERIFIER, cache.lookup("user"));
+    assertSame(VERIFIER, cache.lookup("user"));
+    assertSame(VERIFIER, cache.lookupAsync("user").toCompletableFuture().join());
+    assertEquals(1, backend.lookups.get());
+
+    backend.store.put("user", UPDATED);
+    advance(Duration.ofSeconds(59));
+    assertSame(VERIFIER, cache.lookup("user"));
+    advance(Duration.ofSeconds(1));
+    assertSame(UPDATED, cache.lookup("user"));
+    assertEquals(2, backend.lookups.get());
+  }
+
+  @Test
+  void negativeCaching() {
+    CountingStore backend = new CountingStore();
+    CachingCredentialStore cache = builder(backend).build();
+
+    assertNull(cache.lookup("nobody"));
+    assertNull(cache.lookup("nobody"));
+    assertEquals(1, backend.lookups.get());
+
+    backend.store.put("nobody", VERIFIER);
+    advance(Duration.ofSeconds(10));
+    assertSame(VERIFIER, cache.lookup("nobody"));
+    assertEquals(2, backend.lookups.get());
+
+    CachingCredentialStore disabled = builder(backend).negativeTimeToLive(Duration.ZERO).build();
+    assertNull(disabled.lookup("other"));
+    assertNull(disabled.lookup("other"));
+    assertEquals(4, backend.lookups.get());
+    assertEquals(0, disabled.size());
+  }
+
+  @Test
+  void refreshAhead() {
+    CountingStore backend = new CountingStore();
+    backend.store.put("user", VERIFIER);
+    List<Runnable> refreshes = new ArrayList<>();
+    CachingCredentialStore cache = builder(backend)
+        .refreshAfter(Duration.ofSeconds(30))
+        .executor(refreshes::add)
+        .build();
+
+    assertSame(VERIFIER, cache.lookup("user"));
+    backend.store.put("user", UPDATED);
+    advance(Duration.ofSeconds(30));
+
+    // Served from the cache while the refresh is pending, which is scheduled once
+    assertSame(VERIFIER, cache.lookup("user"));
+    assertSame(VERIFIER, cache.lookupAsync("user").toCompletableFuture().join());
+    assertEquals(1, refreshes.size());
+    assertEquals(1, backend.lookups.get());
+
+    refreshes.get(0).run();
+    assertSame(UPDATED, cache.lookup("user"));
+    assertEquals(2, backend.lookups.get());
+
+    // The refreshed entry lives for a full time to live
+    advance(Duration.ofSeconds(59));
+    assertSame(UPDATED, cache.lookup("user"));
+    assertEquals(2, backend.lookups.get());
+  }
+
+  @Test
+  void failedRefreshKeepsEntry() {
+    CountingStore backend = new CountingStore();
+    backend.store.put("user", VERIFIER);
+    CachingCredentialStore cache = builder(backend).refreshAfter(Duration.ofSeconds(30)).build();
+
+    assertSame(VERIFIER, cache.lookup("user"));
+    backend.failure = new IllegalStateException("backend down");
+    advance(Duration.ofSeconds(30));
+    assertSame(VERIFIER, cache.lookup("user"));
+    assertSame(VERIFIER, cache.lookup("user"));
+    // Each lookup retries the refresh
+    assertEquals(3, backend.lookups.get());
+
+    advance(Duration.ofSeconds(30));
+    assertThrows(IllegalStateException.class, () -> cache.lookup("user"));
+  }
+
+  @Test
+  void failuresAreNotCached() {
+    CountingStore backend = new CountingStore();
+    backend.store.put("user", VERIFIER);
+    backend.failure = new IllegalStateException("backend down");
+    CachingCredentialStore cache = builder(backend).build();
+
+    assertThrows(IllegalStateException.class, () -> cache.lookup("user"));
+    CompletableFuture<ScramVerifier> failed = cache.lookupAsync("user").toCompletableFuture();
+    assertTrue(failed.isCompletedExceptionally());
+    assertEquals(0, cache.size());
+
+    backend.failure = null;
+    assertSame(VERIFIER, cache.lookup("user"));
+    assertEquals(3, backend.lookups.get());
+  }
+
+  @Test
+  void coalescesConcurrentLookups() {
+    List<CompletableFuture<ScramVerifier>> pending = new ArrayList<>();
+    CredentialStore backend = new CredentialStore() {
+      @Override
+      public @Nullable ScramVerifier lookup(@NotNull String username) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public @NotNull CompletionStage<@Nullable ScramVerifier> lookupAsync(
+          @NotNull String username) {
+        CompletableFuture<ScramVerifier> future = new CompletableFuture<>();
+        pending.add(future);
+        return future;
+      }
+    };
+    CachingCredentialStore cache = builder(backend).build();
+
+    CompletableFuture<ScramVerifier> first = cache.lookupAsync("user").toCompletableFuture();
+    CompletableFuture<ScramVerifier> second = cache.lookupAsync("user").toCompletableFuture();
+    assertEquals(1, pending.size());
+    assertFalse(first.isDone());
+
+    // A caller can't complete the lookup of the others
+    first.complete(UPDATED);
+    pending.get(0).complete(VERIFIER);
+    assertSame(VERIFIER, second.join());
+    assertSame(VERIFIER, cache.lookupAsync("user").toCompletableFuture().join());
+    assertEquals(1, pending.size());
+  }
+
+  @Test
+  void invalidate() {
+    CountingStore backend = new CountingStore();
+    backend.store.put("user", VERIFIER);
+    CachingCredentialStore cache = builder(backend).build();
+
+    assertSame(VERIFIER, cache.lookup("user"));
+    backend.store.put("user", UPDATED);
+    cache.invalidate("user");
+    assertSame(UPDATED, cache.lookup("user"));
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+    assertEquals(2, backend.lookups.get());
+  }
+
+  @Test
+  void boundedSize() {
+    CountingStore backend = new CountingStore();
+    CachingCredentialStore cache = builder(backend).maximumSize(16).build();
+    for (int i = 0; i < 100; i++) {
+      backend.store.put("user" + i, VERIFIER);
+      assertSame(VERIFIER, cache.lookup("user" + i));
+      assertTrue(cache.size() <= 16, "size " + cache.size());
+      advance(Duration.ofMillis(1));
+    }
+  }
+
+  @Test
+  void hotUserSurvivesEviction() {
+    CountingStore backend = new CountingStore();
+    backend.store.put("hot", VERIFIER);
+    CachingCredentialStore cache = builder(backend).maximumSize(16).build();
+    // The first loaded, so the closest to expire
+    assertSame(VERIFIER, cache.lookup("hot"));
+    for (int i = 0; i < 1000; i++) {
+      assertSame(VERIFIER, cache.lookup("hot"));
+      backend.store.put("user" + i, VERIFIER);
+      assertSame(VERIFIER, cache.lookup("user" + i));
+      assertTrue(cache.size() <= 16, "size " + cache.size());
+      advance(Duration.ofMillis(1));
+    }
+    // Only the first lookup of the hot user reached the backend
+    assertEquals(1001, backend.lookups.get());
+  }
+
+  @Test
+  void invalidBuilder() {
+    CountingStore backend = new CountingStore();
+    assertThrows(IllegalArgumentException.class, () -> CachingCredentialStore.builder(null));
+    assertThrows(IllegalArgumentException.class,
+        () -> builder(backend).timeToLive(Duration.ZERO));
+    assertThrows(IllegalArgumentException.class,
+        () -> builder(backend).negativeTimeToLive(Duration.ofSeconds(-1)));
+    assertThrows(IllegalArgumentException.class, () -> builder(backend).maximumSize(0));
+    assertThrows(IllegalArgumentException.class,
+        () -> builder(backend).refreshAfter(Duration.ofSeconds(60)).build());
+  }
+
+}
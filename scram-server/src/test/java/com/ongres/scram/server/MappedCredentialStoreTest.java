@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.ScramVerifier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedCredentialStoreTest {
+
+  private static ScramVerifier verifier(int value) {
+    byte[] salt = new byte[16];
+    salt[0] = (byte) value;
+    byte[] key = new byte[32];
+    key[1] = (byte) value;
+    return ScramVerifier.of(ScramMechanism.SCRAM_SHA_256, salt, 4096 + value, key, key);
+  }
+
+  private static String line(String username, int value) {
+    return username + "\t" + verifier(value).toVerifierString() + "\n";
+  }
+
+  private static void assertVerifier(int value, ScramVerifier actual) {
+    assertNotNull(actual);
+    assertEquals(verifier(value).toVerifierString(), actual.toVerifierString());
+  }
+
+  private static void append(Path file, String lines) throws IOException {
+    Files.write(file, lines.getBytes(UTF_8), StandardOpenOption.APPEND);
+    // The modification time may not change within its resolution
+    Files.setLastModifiedTime(file,
+        FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+  }
+
+  @Test
+  void lookup(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("pg_authid.tsv");
+    Files.write(file, (line("user", 1)
+        + "nopassword\t\\N\n"
+        + "md5user\tmd5a3556571e93b0d20722ba62be61e8c2d\n"
+        + "no tab\n"
+        + "crlf\t" + verifier(2).toVerifierString() + "\r\n"
+        + line("tab\\tand\\\\backslash\\101", 3)
+        + line("user", 4)
+        + line("partial", 5).trim()).getBytes(UTF_8));
+    MappedCredentialStore store = MappedCredentialStore.open(file);
+
+    assertEquals(3, store.size());
+    assertEquals(3, store.skippedLines());
+    // The last line of a user wins
+    assertVerifier(4, store.lookup("user"));
+    assertVerifier(2, store.lookup("crlf"));
+    assertVerifier(3, store.lookup("tab\tand\\backslashA"));
+    assertVerifier(4, store.lookupAsync("user").toCompletableFuture().join());
+    assertNull(store.lookup("nopassword"));
+    assertNull(store.lookup("md5user"));
+    assertNull(store.lookup("partial"));
+    assertNull(store.lookup("User"));
+    assertFalse(store.reload());
+  }
+
+  @Test
+  void segments(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("pg_authid.tsv");
+    StringBuilder lines = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      lines.append(line("user" + i, i % 100));
+    }
+    Files.write(file, lines.toString().getBytes(UTF_8));
+    MappedCredentialStore store = MappedCredentialStore.open(file, 8);
+    assertEquals(1000, store.size());
+    for (int i = 0; i < 1000; i++) {
+      assertVerifier(i % 100, store.lookup("user" + i));
+    }
+  }
+
+  @Test
+  void reloadAppended(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("pg_authid.tsv");
+    Files.write(file, (line("user", 1) + line("partial", 2).trim()).getBytes(UTF_8));
+    MappedCredentialStore store = MappedCredentialStore.open(file, 8);
+    assertNull(store.lookup("partial"));
+
+    append(file, "\n" + line("other", 3) + line("user", 4));
+    assertTrue(store.reload());
+    assertEquals(3, store.size());
+    assertVerifier(2, store.lookup("partial"));
+    assertVerifier(3, store.lookup("other"));
+    assertVerifier(4, store.lookup("user"));
+    assertFalse(store.reload());
+  }
+
+  @Test
+  void invalidLastLine(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("pg_authid.tsv");
+    Files.write(file, (line("alice", 1) + line("bob", 2)).getBytes(UTF_8));
+    MappedCredentialStore store = MappedCredentialStore.open(file);
+    assertVerifier(1, store.lookup("alice"));
+
+    // The password of alice was removed after the file was written
+    append(file, "alice\t\\N\n");
+    assertTrue(store.reload());
+    assertNull(store.lookup("alice"));
+    assertVerifier(2, store.lookup("bob"));
+    assertEquals(1, store.size());
+    assertEquals(1, store.skippedLines());
+
+    // The same file indexed from the start
+    store = MappedCredentialStore.open(file);
+    assertNull(store.lookup("alice"));
+    assertEquals(1, store.size());
+
+    append(file, line("alice", 3));
+    assertTrue(store.reload());
+    assertVerifier(3, store.lookup("alice"));
+  }
+
+  @Test
+  void invalidLastLineOfManyUsers(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("pg_authid.tsv");
+    StringBuilder lines = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      lines.append(line("user" + i, i % 100));
+    }
+    Files.write(file, lines.toString().getBytes(UTF_8));
+    MappedCredentialStore store = MappedCredentialStore.open(file);
+
+    // The removed entries are filled by the colliding ones after them
+    lines.setLength(0);
+    for (int i = 0; i < 1000; i += 3) {
+      lines.append("user").append(i).append("\tmd5a3556571e93b0d20722ba62be61e8c2d\n");
+    }
+    append(file, lines.toString());
+    assertTrue(store.reload());
+    assertEquals(666, store.size());
+    for (int i = 0; i < 1000; i++) {
+      if (i % 3 == 0) {
+        assertNull(store.lookup("user" + i));
+      } else {
+        assertVerifier(i % 100, store.lookup("user" + i));
+      }
+    }
+  }
+
+  @Test
+  void reloadReplaced(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("pg_authid.tsv");
+    Files.write(file, (line("user", 1) + line("removed", 2)).getBytes(UTF_8));
+    MappedCredentialStore store = MappedCredentialStore.open(file);
+    assertVerifier(2, store.lookup("removed"));
+
+    // A longer file with other content is indexed again
+    Path replacement = dir.resolve("pg_authid.tsv.new");
+    Files.write(replacement, (line("user", 3) + line("other", 4) + line("more", 5))
+        .getBytes(UTF_8));
+    Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    assertTrue(store.reload());
+    assertEquals(3, store.size());
+    assertNull(store.lookup("removed"));
+    assertVerifier(3, store.lookup("user"));
+    assertVerifier(5, store.lookup("more"));
+  }
+
+  @Test
+  void invalidArguments(@TempDir Path dir) throws IOException {
+    assertThrows(IllegalArgumentException.class, () -> MappedCredentialStore.open(null));
+    assertThrows(IOException.class, () -> MappedCredentialStore.open(dir.resolve("missing")));
+    Path file = dir.resolve("empty");
+    Files.createFile(file);
+    MappedCredentialStore store = MappedCredentialStore.open(file);
+    assertEquals(0, store.size());
+    assertNull(store.lookup("user"));
+    assertThrows(IllegalArgumentException.class, () -> store.lookup(null));
+  }
+
+}
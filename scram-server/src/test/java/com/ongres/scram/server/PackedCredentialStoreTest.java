@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.ScramVerifier;
+import org.junit.jupiter.api.Test;
+
+class PackedCredentialStoreTest {
+
+  private static ScramVerifier verifier(int value) {
+    return verifier(ScramMechanism.SCRAM_SHA_256, value, 16);
+  }
+
+  private static ScramVerifier verifier(ScramMechanism mechanism, int value, int saltLength) {
+    byte[] salt = new byte[saltLength];
+    Arrays.fill(salt, (byte) value);
+    byte[] storedKey = new byte[mechanism == ScramMechanism.SCRAM_SHA_1 ? 20 : 32];
+    Arrays.fill(storedKey, (byte) (value + 1));
+    byte[] serverKey = new byte[storedKey.length];
+    Arrays.fill(serverKey, (byte) (value + 2));
+    return ScramVerifier.of(mechanism, salt, 4096 + value, storedKey, serverKey);
+  }
+
+  private static void assertVerifier(ScramVerifier expected, ScramVerifier actual) {
+    assertNotNull(actual);
+    assertEquals(expected.getScramMechanism(), actual.getScramMechanism());
+    assertArrayEquals(expected.getSalt(), actual.getSalt());
+    assertEquals(expected.getIterationCount(), actual.getIterationCount());
+    assertArrayEquals(expected.getStoredKey(), actual.getStoredKey());
+    assertArrayEquals(expected.getServerKey(), actual.getServerKey());
+  }
+
+  @Test
+  void putLookupAndRemove() {
+    PackedCredentialStore store = PackedCredentialStore.create(ScramMechanism.SCRAM_SHA_256, 10);
+    assertNull(store.lookup("user"));
+
+    assertFalse(store.put("user", verifier(1)));
+    assertVerifier(verifier(1), store.lookup("user"));
+    assertVerifier(verifier(1), store.lookupAsync("user").toCompletableFuture().join());
+    assertEquals(1, store.size());
+
+    // A password change replaces the record
+    assertTrue(store.put("user", verifier(2)));
+    assertVerifier(verifier(2), store.lookup("user"));
+    assertEquals(1, store.size());
+
+    assertTrue(store.remove("user"));
+    assertFalse(store.remove("user"));
+    assertNull(store.lookup("user"));
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  void normalizedUsername() {
+    PackedCredentialStore store = PackedCredentialStore.create(ScramMechanism.SCRAM_SHA_256, 10);
+    // U+00AD SOFT HYPHEN is mapped to nothing by SASLprep
+    store.put("us\u00ADer", verifier(1));
+    assertVerifier(verifier(1), store.lookup("user"));
+    // Prohibited characters are kept as is
+    store.put("us\u0007er", verifier(2));
+    assertVerifier(verifier(2), store.lookup("us\u0007er"));
+    assertVerifier(verifier(1), store.lookup("user"));
+  }
+
+  @Test
+  void growsAndReusesRecords() {
+    PackedCredentialStore store = PackedCredentialStore.create(ScramMechanism.SCRAM_SHA_256, 1);
+    int users = 10_000;
+    for (int i = 0; i < users; i++) {
+      assertFalse(store.put("user" + i, verifier(i % 100)));
+    }
+    assertEquals(users, store.size());
+    for (int i = 0; i < users; i++) {
+      assertVerifier(verifier(i % 100), store.lookup("user" + i));
+    }
+    long memoryUsage = store.memoryUsage();
+
+    for (int i = 0; i < users; i += 2) {
+      assertTrue(store.remove("user" + i));
+    }
+    for (int i = 0; i < users; i += 2) {
+      assertNull(store.lookup("user" + i));
+      assertVerifier(verifier((i + 1) % 100), store.lookup("user" + (i + 1)));
+    }
+    for (int i = 0; i < users; i += 2) {
+      assertFalse(store.put("other" + i, verifier(i % 100)));
+    }
+    assertEquals(users, store.size());
+    assertEquals(memoryUsage, store.memoryUsage());
+    for (int i = 0; i < users; i += 2) {
+      assertVerifier(verifier(i % 100), store.lookup("other" + i));
+    }
+  }
+
+  @Test
+  void limits() {
+    PackedCredentialStore store =
+        PackedCredentialStore.create(ScramMechanism.SCRAM_SHA_256, 10, 8, 16);
+    assertFalse(store.put("12345678", verifier(ScramMechanism.SCRAM_SHA_256, 1, 16)));
+    assertThrows(IllegalArgumentException.class, () -> store.put("123456789", verifier(1)));
+    assertThrows(IllegalArgumentException.class, () -> store.put("", verifier(1)));
+    assertThrows(IllegalArgumentException.class,
+        () -> store.put("user", verifier(ScramMechanism.SCRAM_SHA_256, 1, 17)));
+    assertNull(store.lookup("123456789"));
+    assertNull(store.lookup(""));
+  }
+
+  @Test
+  void invalidArguments() {
+    assertThrows(IllegalArgumentException.class,
+        () -> PackedCredentialStore.create(null, 10));
+    assertThrows(IllegalArgumentException.class,
+        () -> PackedCredentialStore.create(ScramMechanism.SCRAM_SHA_256, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> PackedCredentialStore.create(ScramMechanism.SCRAM_SHA_256, 10, 256, 16));
+    PackedCredentialStore store = PackedCredentialStore.create(ScramMechanism.SCRAM_SHA_256, 10);
+    assertThrows(IllegalArgumentException.class,
+        () -> store.put("user", verifier(ScramMechanism.SCRAM_SHA_1, 1, 16)));
+    assertThrows(IllegalArgumentException.class, () -> store.put(null, verifier(1)));
+    assertThrows(IllegalArgumentException.class, () -> store.put("user", null));
+    assertThrows(IllegalArgumentException.class, () -> store.lookup(null));
+  }
+
+  @Test
+  void concurrentPasswordChanges() throws Exception {
+    PackedCredentialStore store = PackedCredentialStore.create(ScramMechanism.SCRAM_SHA_256, 64);
+    for (int i = 0; i < 64; i++) {
+      store.put("user" + i, verifier(0));
+    }
+    AtomicBoolean done = new AtomicBoolean();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<?> writer = executor.submit(() -> {
+        for (int round = 1; round < 200; round++) {
+          for (int i = 0; i < 64; i++) {
+            store.put("user" + i, verifier(round % 100));
+          }
+        }
+        done.set(true);
+      });
+      Future<?>[] readers = new Future<?>[3];
+      for (int r = 0; r < readers.length; r++) {
+        readers[r] = executor.submit(() -> {
+          int i = 0;
+          while (!done.get()) {
+            ScramVerifier verifier = store.lookup("user" + (i++ & 63));
+            assertNotNull(verifier);
+            // Never a mix of two records
+            assertVerifier(verifier(verifier.getIterationCount() - 4096), verifier);
+          }
+        });
+      }
+      writer.get(30, TimeUnit.SECONDS);
+      for (Future<?> reader : readers) {
+        reader.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2026 OnGres, Inc.
+ * SPDX-License-Identifier: BSD-2-Clause
+ */
+
+package com.ongres.scram.server;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import com.ongres.scram.client.ScramClient;
+import com.ongres.scram.common.ScramMechanism;
+import com.ongres.scram.common.ScramVerifier;
+import com.ongres.scram.common.ServerFinalMessage;
+import com.ongres.scram.common.ServerFirstMessage;
+import com.ongres.scram.common.StringPreparation;
+import com.ongres.scram.common.exception.ScramException;
+import com.ongres.scram.common.exception.ScramParseException;
+import com.ongres.scram.common.exception.ScramServerErrorException;
+import org.junit.jupiter.api.Test;
+
+class ScramServerTest {
+
+  private static final byte[] CBIND_DATA = "certificate hash".getBytes(StandardCharsets.UTF_8);
+
+  private static final Map<String, ScramVerifier> VERIFIERS = new HashMap<>();
+
+  static {
+    byte[] salt = Base64.getDecoder().decode("W22ZaJ0SNY7soEsUEjb6gQ==");
+    VERIFIERS.put("user", ScramVerifier.fromPassword(ScramMechanism.SCRAM_SHA_256,
+        StringPreparation.SASL_PREPARATION, "pencil".toCharArray(), salt, 4096));
+    VERIFIERS.put("us,er=", ScramVerifier.fromPassword(ScramMechanism.SCRAM_SHA_256,
+        StringPreparation.SASL_PREPARATION, "pencil".toCharArray(), salt, 4096));
+    VERIFIERS.put("sha1", ScramVerifier.fromPassword(ScramMechanism.SCRAM_SHA_1,
+        StringPreparation.SASL_PREPARATION, "pencil".toCharArray(), salt, 4096));
+  }
+
+  private static ScramServer.FinalBuildStage server(ScramMechanism mechanism) {
+    return ScramServer.builder()
+        .scramMechanism(mechanism)
+        .verifierLookup(VERIFIERS::get);
+  }
+
+  private static ScramClient client(String username, String password) {
+    return ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256"))
+        .username(username)
+        .password(password.toCharArray())
+        .build();
+  }
+
+  /**
+   * Runs the message flow, returning the server-final-message.
+   */
+  private static ServerFinalMessage exchange(ScramClient client, ScramServer server)
+      throws ScramException {
+    ServerFirstMessage serverFirst =
+        server.clientFirstMessage(client.clientFirstMessage().toString());
+    client.serverFirstMessage(serverFirst.toString());
+    return server.clientFinalMessage(client.clientFinalMessage().toString());
+  }
+
+  @Test
+  void rfcExample() throws ScramParseException {
+    ScramVerifier verifier = ScramVerifier.fromPassword(ScramMechanism.SCRAM_SHA_1,
+        StringPreparation.SASL_PREPARATION, "pencil".toCharArray(),
+        Base64.getDecoder().decode("QSXCR+Q6sek8bf92"), 4096);
+    ScramServer server = ScramServer.builder()
+        .scramMechanism(ScramMechanism.SCRAM_SHA_1)
+        .verifierLookup(username -> "user".equals(username) ? verifier : null)
+        .nonceSupplier(() -> "3rfcNHYJY1ZVvWVs7j")
+        .build();
+
+    ServerFirstMessage serverFirst =
+        server.clientFirstMessage("n,,n=user,r=fyko+d2lbbFgONRv9qkxdawL");
+    assertEquals("r=fyko+d2lbbFgONRv9qkxdawL3rfcNHYJY1ZVvWVs7j,s=QSXCR+Q6sek8bf92,i=4096",
+        serverFirst.toString());
+    ServerFinalMessage serverFinal = server.clientFinalMessage(
+        "c=biws,r=fyko+d2lbbFgONRv9qkxdawL3rfcNHYJY1ZVvWVs7j,p=v0X8v3Bz2T0CJGbJQyF0X+HI4Ts=");
+    assertEquals("v=rmF9pqV8S7suAoZWja4dJRkFsKQ=", serverFinal.toString());
+    assertTrue(server.isAuthenticated());
+    assertEquals("user", server.getUsername());
+  }
+
+  @Test
+  void authenticateClient() throws ScramException {
+    ScramClient client = client("user", "pencil");
+    ScramServer server = server(ScramMechanism.SCRAM_SHA_256).build();
+    ServerFinalMessage serverFinal = exchange(client, server);
+
+    assertFalse(serverFinal.isError());
+    assertTrue(server.isAuthenticated());
+    assertEquals("user", server.getUsername());
+    client.serverFinalMessage(serverFinal.toString());
+  }
+
+  @Test
+  void authenticateEscapedUsername() throws ScramException {
+    ScramClient client = client("us,er=", "pencil");
+    ScramServer server = server(ScramMechanism.SCRAM_SHA_256).build();
+    ServerFinalMessage serverFinal = exchange(client, server);
+
+    assertFalse(serverFinal.isError());
+    assertEquals("us,er=", server.getUsername());
+    client.serverFinalMessage(serverFinal.toString());
+  }
+
+  @Test
+  void authenticateWithChannelBinding() throws ScramException {
+    ScramClient client = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256", "SCRAM-SHA-256-PLUS"))
+        .username("user")
+        .password("pencil".toCharArray())
+        .channelBinding("tls-server-end-point", CBIND_DATA)
+        .authzid("admin")
+        .build();
+    ScramServer server = server(ScramMechanism.SCRAM_SHA_256_PLUS)
+        .channelBinding("tls-server-end-point", CBIND_DATA)
+        .build();
+    ServerFinalMessage serverFinal = exchange(client, server);
+
+    assertFalse(serverFinal.isError());
+    assertTrue(server.isAuthenticated());
+    assertEquals("admin", server.getAuthzid());
+    client.serverFinalMessage(serverFinal.toString());
+  }
+
+  @Test
+  void channelBindingMismatch() throws ScramException {
+    ScramClient client = ScramClient.builder()
+        .advertisedMechanisms(Arrays.asList("SCRAM-SHA-256-PLUS"))
+        .username("user")
+        .password("pencil".toCharArray())
+        .channelBinding("tls-server-end-point", "other hash".getBytes(StandardCharsets.UTF_8))
+        .build();
+    ScramServer server = server(ScramMechanism.SCRAM_SHA_256_PLUS)
+        .channelBinding("tls-server-end-point", CBIND_DATA)
+        .build();
+    ServerFinalMessage serverFinal = exchange(client, server);
+
+    assertEquals("channel-bindings-dont-match", serverFinal.getServerError());
+    assertFalse(server.isAuthenticated());
+  }
+
+  @Test
+  void channelBindingErrors() throws ScramParseException {
+    ScramServer plain = server(ScramMechanism.SCRAM_SHA_256).build();
+    plain.clientFirstMessage("p=tls-server-end-point,,n=user,r=abc");
+    assertEquals("channel-bindings-dont-match",
+        plain.clientFinalMessage("c=biws,r=abcdef,p=AAAA").getServerError());
+
+    ScramServer plus = server(ScramMechanism.SCRAM_SHA_256_PLUS)
+        .channelBinding("tls-exporter", CBIND_DATA)
+        .build();
+    plus.clientFirstMessage("p=tls-server-end-point,,n=user,r=abc");
+    assertEquals("unsupported-channel-binding-type",
+        plus.clientFinalMessage("c=biws,r=abcdef,p=AAAA").getServerError());
+
+    ScramServer supported = server(ScramMechanism.SCRAM_SHA_256)
+        .channelBinding("tls-server-end-point", CBIND_DATA)
+        .build();
+    supported.clientFirstMessage("y,,n=user,r=abc");
+    assertEquals("server-does-support-channel-binding",
+        supported.clientFinalMessage("c=eSws,r=abcdef,p=AAAA").getServerError());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> server(ScramMechanism.SCRAM_SHA_256_PLUS).build());
+  }
+
+  @Test
+  void wrongPassword() throws ScramException {
+    ScramClient client = client("user", "wrong");
+    ScramServer server = server(ScramMechanism.SCRAM_SHA_256).build();
+    ServerFinalMessage serverFinal = exchange(client, server);
+
+    assertEquals("invalid-proof", serverFinal.getServerError());
+    assertFalse(server.isAuthenticated());
+    assertThrows(ScramServerErrorException.class,
+        () -> client.serverFinalMessage(serverFinal.toString()));
+  }
+
+  @Test
+  void unknownUser() throws ScramException {
+    ScramServerFactory factory = server(ScramMechanism.SCRAM_SHA_256).buildFactory();
+    ServerFirstMessage first = factory.newServer().clientFirstMessage("n,,n=nobody,r=abc");
+    ServerFirstMessage second = factory.newServer().clientFirstMessage("n,,n=nobody,r=abc");
+    ServerFirstMessage other = factory.newServer().clientFirstMessage("n,,n=someone,r=abc");
+    assertEquals(first.getSalt(), second.getSalt());
+    assertNotEquals(first.getSalt(), other.getSalt());
+    assertNotEquals(first.getNonce(), second.getNonce());
+    assertEquals(4096, first.getIterationCount());
+
+    ScramServer server = factory.newServer();
+    ServerFinalMessage serverFinal = exchange(client("nobody", "pencil"), server);
+    assertEquals("invalid-proof", serverFinal.getServerError());
+    assertFalse(server.isAuthenticated());
+
+    // The message of an unknown user is checked as the one of a known user, up to the proof
+    ScramServer known = factory.newServer();
+    known.clientFirstMessage("n,,n=user,r=abc");
+    ScramServer unknown = factory.newServer();
+    unknown.clientFirstMessage("n,,n=nobody,r=abc");
+    assertEquals("other-error",
+        known.clientFinalMessage("c=biws,r=abcdef,p=AAAA").getServerError());
+    assertEquals("other-error",
+        unknown.clientFinalMessage("c=biws,r=abcdef,p=AAAA").getServerError());
+  }
+
+  @Test
+  void mockIterationCount() throws ScramException {
+    ScramServerFactory factory = server(ScramMechanism.SCRAM_SHA_256)
+        .mockIterationCount(8192)
+        .buildFactory();
+    assertEquals(8192,
+        factory.newServer().clientFirstMessage("n,,n=nobody,r=abc").getIterationCount());
+    ScramServer server = factory.newServer();
+    assertEquals("invalid-proof",
+        exchange(client("nobody", "pencil"), server).getServerError());
+    assertFalse(server.isAuthenticated());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> server(ScramMechanism.SCRAM_SHA_256).mockIterationCount(0));
+  }
+
+  @Test
+  void verifierOfOtherMechanism() throws ScramException {
+    ScramServer server = server(ScramMechanism.SCRAM_SHA_256).build();
+    ServerFinalMessage serverFinal = exchange(client("sha1", "pencil"), server);
+    assertEquals("invalid-proof", serverFinal.getServerError());
+  }
+
+  @Test
+  void invalidClientFinalMessage() throws ScramParseException {
+    ScramServer server = server(ScramMechanism.SCRAM_SHA_256).build();
+    server.clientFirstMessage("n,,n=user,r=abc");
+    assertEquals("invalid-encoding", server.clientFinalMessage("c=biws,p=AAAA").getServerError());
+
+    ScramServer nonce = server(ScramMechanism.SCRAM_SHA_256).build();
+    nonce.clientFirstMessage("n,,n=user,r=abc");
+    assertEquals("other-error",
+        nonce.clientFinalMessage("c=biws,r=abcdef,p=AAAA").getServerError());
+  }
+
+  @Test
+  void invalidState() throws ScramParseException {
+    ScramServer server = server(ScramMechanism.SCRAM_SHA_256).build();
+    assertThrows(IllegalStateException.class, () -> server.clientFinalMessage("c=biws"));
+    assertThrows(ScramParseException.class, () -> server.clientFirstMessage("n,,r=abc"));
+    assertThrows(ScramParseException.class, () -> server.clientFirstMessage("x,,n=user,r=abc"));
+
+    server.clientFirstMessage("n,,n=user,r=abc");
+    assertThrows(IllegalStateException.class,
+        () -> server.clientFirstMessage("n,,n=user,r=abc"));
+    server.clientFinalMessage("c=biws,r=abc,p=AAAA");
+    assertThrows(IllegalStateException.class,
+        () -> server.clientFinalMessage("c=biws,r=abc,p=AAAA"));
+  }
+
+  @Test
+  void factoryCreatesIndependentServers() throws ScramException {
+    ScramServerFactory factory = server(ScramMechanism.SCRAM_SHA_256).buildFactory();
+    assertEquals(ScramMechanism.SCRAM_SHA_256, factory.getScramMechanism());
+    for (int i = 0; i < 4; i++) {
+      ScramClient client = client("user", "pencil");
+      ScramServer server = factory.newServer();
+      ServerFinalMessage serverFinal = exchange(client, server);
+      assertTrue(server.isAuthenticated());
+      assertArrayEquals(serverFinal.getVerifier(),
+          ServerFinalMessage.parseFrom(serverFinal.toString()).getVerifier());
+    }
+  }
+
+  @Test
+  void credentialStore() throws ScramException {
+    InMemoryCredentialStore store = new InMemoryCredentialStore();
+    store.put("user", VERIFIERS.get("user"));
+    assertEquals(1, store.size());
+    ScramServerFactory factory = ScramServer.builder()
+        .scramMechanism(ScramMechanism.SCRAM_SHA_256)
+        .credentialStore(store)
+        .buildFactory();
+
+    ScramServer server = factory.newServer();
+    assertFalse(exchange(client("user", "pencil"), server).isError());
+    assertTrue(server.isAuthenticated());
+
+    store.remove("user");
+    ScramServer removed = factory.newServer();
+    assertEquals("invalid-proof",
+        exchange(client("user", "pencil"), removed).getServerError());
+  }
+
+  @Test
+  void clientFirstMessageAsync() throws ScramException {
+    CompletableFuture<ScramVerifier> lookup = new CompletableFuture<>();
+    CredentialStore store = new CredentialStore() {
+      @Override
+      public ScramVerifier lookup(String username) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public CompletionStage<ScramVerifier> lookupAsync(String username) {
+        return lookup;
+      }
+    };
+    ScramServer server = ScramServer.builder()
+        .scramMechanism(ScramMechanism.SCRAM_SHA_256)
+        .credentialStore(store)
+        .build();
+    ScramClient client = client("user", "pencil");
+
+    CompletableFuture<ServerFirstMessage> serverFirst = server
+        .clientFirstMessageAsync(client.clientFirstMessage().toString()).toCompletableFuture();
+    assertFalse(serverFirst.isDone());
+    assertThrows(IllegalStateException.class, () -> server.clientFinalMessage("c=biws"));
+
+    lookup.complete(VERIFIERS.get("user"));
+    client.serverFirstMessage(serverFirst.join().toString());
+    ServerFinalMessage serverFinal =
+        server.clientFinalMessage(client.clientFinalMessage().toString());
+    assertTrue(server.isAuthenticated());
+    client.serverFinalMessage(serverFinal.toString());
+  }
+
+  @Test
+  void clientFirstMessageAsyncFailure() throws ScramParseException {
+    ScramServer server = ScramServer.builder()
+        .scramMechanism(ScramMechanism.SCRAM_SHA_256)
+        .credentialStore(username -> {
+          throw new IllegalStateException("backend down");
+        })
+        .build();
+    CompletableFuture<ServerFirstMessage> serverFirst =
+        server.clientFirstMessageAsync("n,,n=user,r=abc").toCompletableFuture();
+    assertTrue(serverFirst.isCompletedExceptionally());
+    assertThrows(IllegalStateException.class,
+        () -> server.clientFinalMessage("c=biws,r=abc,p=AAAA"));
+  }
+
+}